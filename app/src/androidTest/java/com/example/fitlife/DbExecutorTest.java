@@ -0,0 +1,124 @@
+package com.example.fitlife;
+
+import android.app.Instrumentation;
+import android.content.Context;
+import android.os.Build;
+import android.os.StrictMode;
+import android.os.strictmode.Violation;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.lifecycle.LifecycleRegistry;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * DbExecutor keeps database work off the main thread, checked with a StrictMode thread policy that
+ * records every disk read or write made on the main thread, and reports failed work to the caller.
+ * Reads only, so the app's own database is not changed.
+ */
+@RunWith(AndroidJUnit4.class)
+public class DbExecutorTest {
+    private static final long TIMEOUT_SECONDS = 5;
+
+    private final List<Violation> violations = new CopyOnWriteArrayList<>();
+    private Instrumentation instrumentation;
+    private Context context;
+    private DbExecutor dbExecutor;
+    private TestOwner owner;
+    private StrictMode.ThreadPolicy previousPolicy;
+
+    /** A LifecycleOwner that stays resumed for the whole test. */
+    private static class TestOwner implements LifecycleOwner {
+        private final LifecycleRegistry registry = new LifecycleRegistry(this);
+
+        @NonNull
+        @Override
+        public Lifecycle getLifecycle() {
+            return registry;
+        }
+    }
+
+    @Before
+    public void setUp() {
+        assumeTrue("StrictMode penalty listeners need API 28", Build.VERSION.SDK_INT >= Build.VERSION_CODES.P);
+        instrumentation = InstrumentationRegistry.getInstrumentation();
+        context = instrumentation.getTargetContext();
+        dbExecutor = DbExecutor.getInstance(context);
+        // Open the shared connection up front, so only the work under test can touch the disk
+        DatabaseHelper.getInstance(context).getReadableDatabase();
+        instrumentation.runOnMainSync(() -> {
+            owner = new TestOwner();
+            owner.registry.setCurrentState(Lifecycle.State.RESUMED);
+            previousPolicy = StrictMode.getThreadPolicy();
+            StrictMode.setThreadPolicy(new StrictMode.ThreadPolicy.Builder()
+                    .detectDiskReads()
+                    .detectDiskWrites()
+                    .penaltyListener(Runnable::run, violations::add)
+                    .build());
+        });
+    }
+
+    @After
+    public void tearDown() {
+        if (instrumentation == null) return;
+        instrumentation.runOnMainSync(() -> {
+            StrictMode.setThreadPolicy(previousPolicy);
+            owner.registry.setCurrentState(Lifecycle.State.DESTROYED);
+        });
+    }
+
+    @Test
+    public void readsAndWritesStayOffTheMainThread() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(2);
+        instrumentation.runOnMainSync(() -> {
+            dbExecutor.read(owner, db -> db.userExists("nobody@example.com"), exists -> done.countDown());
+            dbExecutor.write(owner, db -> db.usernameTaken("nobody"), taken -> done.countDown());
+        });
+        assertTrue(done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        instrumentation.waitForIdleSync();
+
+        assertTrue(violations.toString(), violations.isEmpty());
+    }
+
+    @Test
+    public void policyCatchesDirectQueries() {
+        // The control case: the same query run on the main thread is reported
+        instrumentation.runOnMainSync(() -> DatabaseHelper.getInstance(context).userExists("nobody@example.com"));
+
+        assertFalse(violations.isEmpty());
+    }
+
+    @Test
+    public void failedWorkCallsOnError() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicReference<Exception> error = new AtomicReference<>();
+        AtomicReference<Object> result = new AtomicReference<>();
+        instrumentation.runOnMainSync(() -> dbExecutor.write(owner, db -> {
+            throw new IllegalStateException("boom");
+        }, result::set, e -> {
+            error.set(e);
+            done.countDown();
+        }));
+        assertTrue(done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        instrumentation.waitForIdleSync();
+
+        assertTrue(error.get() instanceof IllegalStateException);
+        assertNull(result.get());
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.fitlife;
+
+import android.content.Context;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.fitlife.models.Exercise;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+/**
+ * saveExerciseGraph writes an exercise with its equipment and instructions in one transaction,
+ * on a private in-memory database.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ExerciseGraphTest {
+    private DatabaseHelper db;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        db = new DatabaseHelper(context, null);
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    private static Exercise exercise(long id, String name, String imagePath) {
+        Exercise exercise = new Exercise(id, name, 3, "8-12", "90s", imagePath);
+        exercise.setEquipment(Arrays.asList("Barbell", "Bench"));
+        exercise.setInstructions(Arrays.asList("Lie on the bench", "Lower the bar", "Press up"));
+        return exercise;
+    }
+
+    @Test
+    public void insertStoresChildrenInOrder() {
+        long id = db.saveExerciseGraph(exercise(0, "Bench Press", "/img/bench.webp"));
+        assertTrue(id > 0);
+
+        Exercise saved = db.getExerciseWithDetails(id);
+        assertEquals("Bench Press", saved.getName());
+        assertEquals(3, saved.getSets());
+        assertEquals(8, saved.getRepsMin());
+        assertEquals(12, saved.getRepsMax());
+        assertEquals(90, saved.getRestSeconds());
+        assertEquals("/img/bench.webp", saved.getImagePath());
+        assertEquals(Arrays.asList("Barbell", "Bench"), saved.getEquipment());
+        assertEquals(Arrays.asList("Lie on the bench", "Lower the bar", "Press up"), saved.getInstructions());
+    }
+
+    @Test
+    public void updateReplacesChildrenAndKeepsImage() {
+        long id = db.saveExerciseGraph(exercise(0, "Bench Press", "/img/bench.webp"));
+
+        Exercise edited = new Exercise(id, "Incline Press", 4, "6", "2m", null);
+        edited.setEquipment(Collections.singletonList("Dumbbell"));
+        edited.setInstructions(Arrays.asList("Set the incline", "Press"));
+        assertEquals(id, db.saveExerciseGraph(edited));
+
+        Exercise saved = db.getExerciseWithDetails(id);
+        assertEquals("Incline Press", saved.getName());
+        assertEquals(4, saved.getSets());
+        assertEquals(120, saved.getRestSeconds());
+        // A null image path on update keeps the stored image
+        assertEquals("/img/bench.webp", saved.getImagePath());
+        assertEquals(Collections.singletonList("Dumbbell"), saved.getEquipment());
+        assertEquals(Arrays.asList("Set the incline", "Press"), saved.getInstructions());
+    }
+
+    @Test
+    public void equipmentNamesAreSharedIgnoringCase() {
+        long bench = db.saveExerciseGraph(exercise(0, "Bench Press", null));
+        Exercise row = exercise(0, "Barbell Row", null);
+        row.setEquipment(Arrays.asList("barbell", " ", "Barbell"));
+        long rowId = db.saveExerciseGraph(row);
+
+        // Blank names are dropped, a repeated name links once, and the stored spelling is reused
+        assertEquals(Collections.singletonList("Barbell"), db.getExerciseEquipment(rowId));
+        assertEquals(Arrays.asList("Barbell", "Bench"), db.getExerciseEquipment(bench));
+        assertEquals(2, db.getEquipmentNames().size());
+    }
+
+    @Test
+    public void updatingMissingExerciseFails() {
+        assertEquals(-1, db.saveExerciseGraph(exercise(42, "Ghost", null)));
+        assertNull(db.getExerciseWithDetails(42));
+        assertTrue(db.getEquipmentNames().isEmpty());
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.fitlife;
+
+import android.content.Context;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.fitlife.models.Exercise;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Keyset pages of the exercise library in (name, exercise_id) order, on a private in-memory database.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ExercisePagingTest {
+    private DatabaseHelper db;
+    private long curl;
+    private long row;
+    private long curl2;
+    private long press;
+    private long deadlift;
+    private long squat;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        db = new DatabaseHelper(context, null);
+        // Two exercises share a name, so the id has to break the tie
+        curl = db.insertExercise("Curl", 3, "12", "60s", null);
+        row = db.insertExercise("Row", 3, "10", "90s", null);
+        curl2 = db.insertExercise("Curl", 4, "8", "60s", null);
+        press = db.insertExercise("Press", 5, "5", "2m", null);
+        deadlift = db.insertExercise("Deadlift", 1, "5", "3m", null);
+        squat = db.insertExercise("Squat", 5, "5", "3m", null);
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    private static List<Long> ids(List<Exercise> page) {
+        List<Long> ids = new ArrayList<>();
+        for (Exercise exercise : page) {
+            ids.add(exercise.getExerciseId());
+        }
+        return ids;
+    }
+
+    @Test
+    public void walkingForwardVisitsEveryRowOnce() {
+        List<Long> seen = new ArrayList<>();
+        List<Exercise> page = db.getExercisesAfter(null, 0, false, null, null, 2);
+        while (!page.isEmpty()) {
+            assertTrue(page.size() <= 2);
+            seen.addAll(ids(page));
+            Exercise last = page.get(page.size() - 1);
+            page = db.getExercisesAfter(last.getName(), last.getExerciseId(), false, null, null, 2);
+        }
+        assertEquals(Arrays.asList(curl, curl2, deadlift, press, row, squat), seen);
+    }
+
+    @Test
+    public void pageBoundaryInsideATie() {
+        assertEquals(Arrays.asList(curl2, deadlift), ids(db.getExercisesAfter("Curl", curl, false, null, null, 2)));
+        // Inclusive reloads the window starting at the given row
+        assertEquals(Arrays.asList(curl, curl2), ids(db.getExercisesAfter("Curl", curl, true, null, null, 2)));
+    }
+
+    @Test
+    public void pageBeforeIsInAscendingOrder() {
+        assertEquals(Arrays.asList(curl2, deadlift), ids(db.getExercisesBefore("Press", press, null, null, 2)));
+        assertEquals(Arrays.asList(curl), ids(db.getExercisesBefore("Curl", curl2, null, null, 2)));
+        assertTrue(db.getExercisesBefore("Curl", curl, null, null, 2).isEmpty());
+    }
+
+    @Test
+    public void includedAndExcludedIds() {
+        long[] included = {row, curl2, squat};
+        assertEquals(Arrays.asList(curl2, row), ids(db.getExercisesAfter(null, 0, false, included, null, 2)));
+        assertEquals(Arrays.asList(squat), ids(db.getExercisesAfter("Row", row, false, included, null, 2)));
+        assertEquals(Arrays.asList(curl2, row), ids(db.getExercisesBefore("Squat", squat, included, null, 5)));
+        assertTrue(db.getExercisesAfter(null, 0, false, new long[0], null, 5).isEmpty());
+
+        long[] excluded = {curl, deadlift};
+        assertEquals(Arrays.asList(curl2, press, row, squat), ids(db.getExercisesAfter(null, 0, false, null, excluded, 10)));
+    }
+
+    /** The given ids padded past the inline limit with ids no exercise has. */
+    private static long[] longList(long... ids) {
+        long[] list = Arrays.copyOf(ids, DatabaseHelper.MAX_INLINED_IDS + 50);
+        for (int i = ids.length; i < list.length; i++) {
+            list[i] = 1_000_000 + i;
+        }
+        return list;
+    }
+
+    @Test
+    public void longIdListsFilterTheSame() {
+        long[] included = longList(row, curl2, squat);
+        assertEquals(Arrays.asList(curl2, row), ids(db.getExercisesAfter(null, 0, false, included, null, 2)));
+        assertEquals(Arrays.asList(squat), ids(db.getExercisesAfter("Row", row, false, included, null, 2)));
+        assertEquals(Arrays.asList(curl2, row), ids(db.getExercisesBefore("Squat", squat, included, null, 5)));
+
+        // Each call restages its lists, so nothing carries over from the previous one
+        long[] excluded = longList(curl, deadlift);
+        assertEquals(Arrays.asList(curl2, press, row, squat), ids(db.getExercisesAfter(null, 0, false, null, excluded, 10)));
+        assertEquals(Arrays.asList(row, squat),
+                ids(db.getExercisesAfter(null, 0, false, included, new long[]{curl2}, 10)));
+        assertEquals(Arrays.asList(curl2, press),
+                ids(db.getExercisesAfter(null, 0, false, new long[]{curl2, press, deadlift}, excluded, 10)));
+    }
+
+    @Test
+    public void pageRowsCarryListColumns() {
+        Exercise first = db.getExercisesAfter(null, 0, false, null, null, 1).get(0);
+        assertEquals("Curl", first.getName());
+        assertEquals(3, first.getSets());
+        assertEquals("12", first.getReps());
+    }
+}
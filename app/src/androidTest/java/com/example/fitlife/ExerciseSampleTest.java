@@ -0,0 +1,112 @@
+package com.example.fitlife;
+
+import android.content.Context;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.fitlife.models.Exercise;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * sampleExercises draws distinct random exercises by rowid seeks, on a private in-memory database.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ExerciseSampleTest {
+    private DatabaseHelper db;
+    private final long[] ids = new long[10];
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        db = new DatabaseHelper(context, null);
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = db.insertExercise("Exercise " + i, 3, "10", "60s", null);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    private static Set<Long> distinctIds(List<Exercise> sample) {
+        Set<Long> sampled = new HashSet<>();
+        for (Exercise exercise : sample) {
+            assertTrue("duplicate " + exercise.getExerciseId(), sampled.add(exercise.getExerciseId()));
+        }
+        return sampled;
+    }
+
+    @Test
+    public void drawsDistinctExercisesUpToCount() {
+        Random random = new Random(42);
+        for (int round = 0; round < 20; round++) {
+            List<Exercise> sample = db.sampleExercises(4, Collections.emptySet(), random);
+            assertTrue(sample.size() <= 4);
+            assertFalse(sample.isEmpty());
+            distinctIds(sample);
+        }
+    }
+
+    @Test
+    public void skipsAvoidedIds() {
+        Set<Long> avoid = new HashSet<>(Arrays.asList(ids[0], ids[1], ids[2], ids[3], ids[4]));
+        Random random = new Random(7);
+        for (int round = 0; round < 20; round++) {
+            for (long sampled : distinctIds(db.sampleExercises(3, avoid, random))) {
+                assertFalse(avoid.contains(sampled));
+            }
+        }
+    }
+
+    @Test
+    public void landsOnRowsAcrossIdGaps() {
+        // Leave ids[0], ids[1], ids[8] and ids[9]; draws into the gap seek forward to ids[8]
+        for (int i = 2; i < 8; i++) {
+            assertTrue(db.deleteExercise(ids[i]));
+        }
+        Set<Long> remaining = new HashSet<>(Arrays.asList(ids[0], ids[1], ids[8], ids[9]));
+        Set<Long> seen = new HashSet<>();
+        Random random = new Random(3);
+        for (int round = 0; round < 50; round++) {
+            for (long sampled : distinctIds(db.sampleExercises(2, Collections.emptySet(), random))) {
+                assertTrue(remaining.contains(sampled));
+                seen.add(sampled);
+            }
+        }
+        assertEquals(remaining, seen);
+    }
+
+    @Test
+    public void smallOrEmptyPool() {
+        Set<Long> allButOne = new HashSet<>();
+        for (int i = 1; i < ids.length; i++) {
+            allButOne.add(ids[i]);
+        }
+        // The retry cap stops the draws when fewer rows are available than asked for
+        List<Exercise> sample = db.sampleExercises(5, allButOne, new Random(1));
+        assertTrue(sample.size() <= 1);
+        for (Exercise exercise : sample) {
+            assertEquals(ids[0], exercise.getExerciseId());
+        }
+
+        for (long id : ids) {
+            db.deleteExercise(id);
+        }
+        assertTrue(db.sampleExercises(5, Collections.emptySet(), new Random(1)).isEmpty());
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.fitlife;
+
+import android.content.Context;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.fitlife.models.Exercise;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Prefix search through exercises_fts, and the triggers that keep it in step with its source tables,
+ * on a private in-memory database.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ExerciseSearchTest {
+    private DatabaseHelper db;
+    private long benchPress;
+    private long gobletSquat;
+    private long dumbbellRow;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        db = new DatabaseHelper(context, null);
+        benchPress = db.saveExerciseGraph(exercise(0, "Bench Press", Arrays.asList("Barbell", "Bench"),
+                Arrays.asList("Grip the bar", "Press it up")));
+        gobletSquat = db.saveExerciseGraph(exercise(0, "Goblet Squat", Collections.singletonList("Dumbbell"),
+                Collections.singletonList("Hold the bell at your chest")));
+        dumbbellRow = db.saveExerciseGraph(exercise(0, "Dumbbell Row", Arrays.asList("Dumbbell", "Bench"),
+                Arrays.asList("Brace on the bench", "Pull to the hip")));
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    private static Exercise exercise(long id, String name, List<String> equipment, List<String> instructions) {
+        Exercise exercise = new Exercise(id, name, 3, "10", "60s", null);
+        exercise.setEquipment(equipment);
+        exercise.setInstructions(instructions);
+        return exercise;
+    }
+
+    private static List<Long> ids(List<Exercise> exercises) {
+        List<Long> ids = new ArrayList<>();
+        for (Exercise exercise : exercises) {
+            ids.add(exercise.getExerciseId());
+        }
+        return ids;
+    }
+
+    private List<Long> search(String query) {
+        return ids(db.searchExercises(query, null, null, 20));
+    }
+
+    @Test
+    public void nameMatchesRankFirst() {
+        // Dumbbell Row matches by name, Goblet Squat only by its equipment
+        assertEquals(Arrays.asList(dumbbellRow, gobletSquat), search("dumb"));
+        assertEquals(Arrays.asList(benchPress, dumbbellRow), search("bench"));
+    }
+
+    @Test
+    public void everyWordMustPrefixMatch() {
+        assertEquals(Collections.singletonList(benchPress), search("ben pre"));
+        assertEquals(Collections.singletonList(gobletSquat), search("CHEST"));
+        assertEquals(Collections.singletonList(dumbbellRow), search("bench hip"));
+        assertTrue(search("bench squat").isEmpty());
+    }
+
+    @Test
+    public void punctuationIsNotSyntax() {
+        assertEquals(search("bench"), search("-bench*"));
+        assertEquals(Collections.singletonList(benchPress), search("\"press\" ("));
+        assertTrue(search("!!").isEmpty());
+        assertTrue(db.searchExercises("", null, null, 20).isEmpty());
+    }
+
+    @Test
+    public void idFiltersAndLimit() {
+        assertEquals(Collections.singletonList(gobletSquat),
+                ids(db.searchExercises("dumb", new long[]{gobletSquat, benchPress}, null, 20)));
+        assertEquals(Collections.singletonList(gobletSquat),
+                ids(db.searchExercises("dumb", null, new long[]{dumbbellRow}, 20)));
+        assertEquals(Collections.singletonList(dumbbellRow), ids(db.searchExercises("dumb", null, null, 1)));
+
+        // Past the inline limit the ids are staged in a temp table instead
+        long[] included = new long[DatabaseHelper.MAX_INLINED_IDS + 50];
+        for (int i = 0; i < included.length; i++) {
+            included[i] = 1_000_000 + i;
+        }
+        included[0] = gobletSquat;
+        included[1] = benchPress;
+        assertEquals(Collections.singletonList(gobletSquat), ids(db.searchExercises("dumb", included, null, 20)));
+        assertEquals(Collections.singletonList(benchPress), ids(db.searchExercises("bench", included, null, 20)));
+    }
+
+    @Test
+    public void editsAndDeletesReachTheIndex() {
+        db.saveExerciseGraph(exercise(gobletSquat, "Front Squat", Collections.singletonList("Kettlebell"),
+                Collections.singletonList("Rack the bell")));
+        assertTrue(search("goblet").isEmpty());
+        assertTrue(search("chest").isEmpty());
+        assertEquals(Collections.singletonList(gobletSquat), search("front kettle"));
+        assertEquals(Collections.singletonList(dumbbellRow), search("dumb"));
+
+        assertTrue(db.deleteExercise(benchPress));
+        assertEquals(Collections.singletonList(dumbbellRow), search("bench"));
+        assertTrue(search("grip").isEmpty());
+
+        long inserted = db.insertExercise("Bent Over Row", 3, "10", "60s", null);
+        assertEquals(Arrays.asList(inserted, dumbbellRow), search("row"));
+    }
+}
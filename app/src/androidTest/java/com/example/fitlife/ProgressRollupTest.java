@@ -0,0 +1,139 @@
+package com.example.fitlife;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.fitlife.models.ExerciseRecord;
+import com.example.fitlife.models.PeriodTotals;
+import com.example.fitlife.models.SessionEvent;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Rolling a completed session into user_rollups, exercise_rollups and exercise_records,
+ * on a private in-memory database.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ProgressRollupTest {
+    private DatabaseHelper db;
+    private int userId;
+    private long exerciseId;
+    private long workoutId;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        db = new DatabaseHelper(context, null);
+        userId = (int) db.insertUser("rollup@example.com", "rollup", "hash");
+        exerciseId = db.insertExercise("Bench Press", 3, "8-10", "90s", null);
+        workoutId = db.createWorkoutRoutine("Push", userId, new long[]{exerciseId});
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    /** Starts the workout, logs 10 x 50 and 8 x 60, and completes it. Returns the session id. */
+    private long completeSession() {
+        assertTrue(db.insertCurrentWorkout(workoutId, userId) > 0);
+        long sessionId = db.getActiveSessionId(userId, workoutId);
+        assertTrue(sessionId > 0);
+        long now = System.currentTimeMillis();
+        db.appendSessionEvents(Arrays.asList(
+                new SessionEvent(sessionId, exerciseId, 0, 10, 50, now, SessionEvent.TYPE_SET_COMPLETED),
+                new SessionEvent(sessionId, exerciseId, 1, 8, 60, now + 1, SessionEvent.TYPE_SET_COMPLETED)));
+        assertTrue(db.updateCurrentWorkoutStatus(workoutId, userId, "completed"));
+        return sessionId;
+    }
+
+    private PeriodTotals onlyDay() {
+        List<PeriodTotals> days = db.getPeriodTotals(userId, PeriodTotals.PERIOD_DAY, 0, Integer.MAX_VALUE);
+        assertEquals(1, days.size());
+        return days.get(0);
+    }
+
+    @Test
+    public void completingRollsUpTheSession() {
+        completeSession();
+
+        PeriodTotals day = onlyDay();
+        assertEquals(1, day.getSessions());
+        assertEquals(2, day.getSets());
+        assertEquals(18, day.getReps());
+        assertEquals(980.0, day.getVolume(), 1e-9);
+        assertEquals(1, db.getPeriodTotals(userId, PeriodTotals.PERIOD_WEEK, 0, Integer.MAX_VALUE).size());
+        assertEquals(1, db.getPeriodTotals(userId, PeriodTotals.PERIOD_MONTH, 0, Integer.MAX_VALUE).size());
+
+        List<ExerciseRecord> records = db.getExerciseRecords(userId, 10);
+        assertEquals(1, records.size());
+        ExerciseRecord record = records.get(0);
+        assertEquals(exerciseId, record.getExerciseId());
+        assertEquals(1, record.getSessions());
+        assertEquals(2, record.getTotalSets());
+        assertEquals(10, record.getMaxReps());
+        assertEquals(60.0, record.getMaxLoad(), 1e-9);
+        // Epley: 60 * (1 + 8 / 30) beats 50 * (1 + 10 / 30)
+        assertEquals(76.0, record.getBestOneRepMax(), 1e-9);
+    }
+
+    @Test
+    public void rollingUpTwiceCountsOnce() {
+        long sessionId = completeSession();
+
+        DatabaseHelper.rollUpSession(db.getWritableDatabase(), sessionId);
+        // Completing again must not add the session a second time either
+        db.updateCurrentWorkoutStatus(workoutId, userId, "completed");
+
+        PeriodTotals day = onlyDay();
+        assertEquals(1, day.getSessions());
+        assertEquals(2, day.getSets());
+        assertEquals(18, day.getReps());
+        assertEquals(980.0, day.getVolume(), 1e-9);
+        ExerciseRecord record = db.getExerciseRecords(userId, 10).get(0);
+        assertEquals(1, record.getSessions());
+        assertEquals(2, record.getTotalSets());
+    }
+
+    @Test
+    public void activeSessionIsNotRolledUp() {
+        assertTrue(db.insertCurrentWorkout(workoutId, userId) > 0);
+        long sessionId = db.getActiveSessionId(userId, workoutId);
+
+        DatabaseHelper.rollUpSession(db.getWritableDatabase(), sessionId);
+
+        assertTrue(db.getPeriodTotals(userId, PeriodTotals.PERIOD_DAY, 0, Integer.MAX_VALUE).isEmpty());
+        assertTrue(db.getExerciseRecords(userId, 10).isEmpty());
+    }
+
+    @Test
+    public void skippedRollUpKeepsTheEnclosingTransaction() {
+        assertTrue(db.insertCurrentWorkout(workoutId, userId) > 0);
+        long sessionId = db.getActiveSessionId(userId, workoutId);
+
+        // updateCurrentWorkoutStatus rolls up inside its own transaction, so a no-op must not fail it
+        SQLiteDatabase writable = db.getWritableDatabase();
+        writable.beginTransaction();
+        long squat;
+        try {
+            squat = db.insertExercise("Squat", 5, "5", "3m", null);
+            DatabaseHelper.rollUpSession(writable, sessionId);
+            writable.setTransactionSuccessful();
+        } finally {
+            writable.endTransaction();
+        }
+
+        assertNotNull(db.getExerciseWithDetails(squat));
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.fitlife;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ * The SQL the DAO runs for its hot lookups searches an index instead of scanning a table, and the
+ * ordered ones read rows in index order instead of sorting in a temp b-tree. Checked with
+ * EXPLAIN QUERY PLAN on a private in-memory database.
+ */
+@RunWith(AndroidJUnit4.class)
+public class QueryPlanTest {
+    private DatabaseHelper helper;
+    private SQLiteDatabase db;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        helper = new DatabaseHelper(context, null);
+        db = helper.getWritableDatabase();
+    }
+
+    @After
+    public void tearDown() {
+        helper.close();
+    }
+
+    /** The plan's detail lines joined with newlines. */
+    private String plan(String sql, String... args) {
+        StringBuilder plan = new StringBuilder();
+        Cursor cursor = db.rawQuery("EXPLAIN QUERY PLAN " + sql, args);
+        int detail = cursor.getColumnIndexOrThrow("detail");
+        while (cursor.moveToNext()) {
+            plan.append(cursor.getString(detail)).append('\n');
+        }
+        cursor.close();
+        return plan.toString();
+    }
+
+    /** Every table is reached through an index or its primary key; a SCAN without USING reads the whole table. */
+    private static void assertNoTableScan(String plan) {
+        for (String line : plan.split("\n")) {
+            assertFalse(plan, line.contains("SCAN") && !line.contains("USING"));
+        }
+    }
+
+    private static void assertNoTempSort(String plan) {
+        assertFalse(plan, plan.contains("TEMP B-TREE"));
+    }
+
+    private void assertIndexOrdered(String index, String sql, String... args) {
+        String plan = plan(sql, args);
+        assertTrue(plan, plan.contains(index));
+        assertNoTableScan(plan);
+        assertNoTempSort(plan);
+    }
+
+    @Test
+    public void userWorkoutsWithCounts() {
+        String plan = plan(DatabaseHelper.USER_WORKOUTS_WITH_COUNTS_SQL, "1");
+        assertTrue(plan, plan.contains("idx_workout_routines_user"));
+        assertTrue(plan, plan.contains("idx_workout_exercises_workout"));
+        assertNoTableScan(plan);
+        // Neither the GROUP BY nor the ORDER BY sorts
+        assertNoTempSort(plan);
+    }
+
+    @Test
+    public void currentWorkoutsWithCounts() {
+        String plan = plan(DatabaseHelper.CURRENT_WORKOUTS_WITH_COUNTS_SQL, "1");
+        assertTrue(plan, plan.contains("idx_current_workouts_user"));
+        assertTrue(plan, plan.contains("idx_workout_exercises_workout"));
+        assertNoTableScan(plan);
+        assertNoTempSort(plan);
+    }
+
+    @Test
+    public void workoutExercises() {
+        assertIndexOrdered("idx_workout_exercises_workout", DatabaseHelper.WORKOUT_EXERCISES_SQL, "1");
+    }
+
+    @Test
+    public void exerciseInstructions() {
+        assertIndexOrdered("idx_exercise_instructions_exercise", DatabaseHelper.EXERCISE_INSTRUCTIONS_SQL, "1");
+    }
+
+    @Test
+    public void exerciseEquipment() {
+        String plan = plan(DatabaseHelper.EXERCISE_EQUIPMENT_SQL, "1");
+        // The UNIQUE(exercise_id, equipment_id) index finds the rows; sorting one exercise's few links is fine
+        assertTrue(plan, plan.contains("sqlite_autoindex_exercise_equipment"));
+        assertNoTableScan(plan);
+    }
+
+    @Test
+    public void firstExercisePage() {
+        assertIndexOrdered("idx_exercises_name", DatabaseHelper.exercisePageSql("", " ASC", 20));
+    }
+
+    @Test
+    public void exercisePageAfter() {
+        assertIndexOrdered("idx_exercises_name",
+                DatabaseHelper.exercisePageSql(DatabaseHelper.keysetAfter(5, false), " ASC", 20), "Curl", "Curl");
+        assertIndexOrdered("idx_exercises_name",
+                DatabaseHelper.exercisePageSql(DatabaseHelper.keysetAfter(5, true), " ASC", 20), "Curl", "Curl");
+    }
+
+    @Test
+    public void exercisePageBefore() {
+        assertIndexOrdered("idx_exercises_name",
+                DatabaseHelper.exercisePageSql(DatabaseHelper.keysetBefore(5), " DESC", 20), "Curl", "Curl");
+    }
+
+    @Test
+    public void exercisePageExcludingIds() {
+        String where = DatabaseHelper.keysetAfter(5, false) + " AND exercise_id NOT IN (1,2,3)";
+        assertIndexOrdered("idx_exercises_name", DatabaseHelper.exercisePageSql(where, " ASC", 20), "Curl", "Curl");
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.fitlife;
+
+import android.content.Context;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.fitlife.models.SessionEvent;
+import com.example.fitlife.models.WorkoutSession;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * The workout_sessions summaries and the session_events log, driven by the current_workouts triggers,
+ * on a private in-memory database.
+ */
+@RunWith(AndroidJUnit4.class)
+public class SessionHistoryTest {
+    private DatabaseHelper db;
+    private int userId;
+    private long bench;
+    private long dips;
+    private long rows;
+    private long pushId;
+    private long pullId;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        db = new DatabaseHelper(context, null);
+        userId = (int) db.insertUser("history@example.com", "history", "hash");
+        bench = db.insertExercise("Bench Press", 3, "8-10", "90s", null);
+        dips = db.insertExercise("Dips", 3, "12", "60s", null);
+        rows = db.insertExercise("Row", 3, "10", "60s", null);
+        pushId = db.createWorkoutRoutine("Push", userId, new long[]{bench, dips});
+        pullId = db.createWorkoutRoutine("Pull", userId, new long[]{rows});
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    private long start(long workoutId) {
+        assertTrue(db.insertCurrentWorkout(workoutId, userId) > 0);
+        long sessionId = db.getActiveSessionId(userId, workoutId);
+        assertTrue(sessionId > 0);
+        return sessionId;
+    }
+
+    private WorkoutSession session(long sessionId) {
+        for (WorkoutSession session : db.getRecentSessions(userId, 10)) {
+            if (session.getSessionId() == sessionId) return session;
+        }
+        fail("session " + sessionId + " missing");
+        return null;
+    }
+
+    @Test
+    public void startingOpensAnActiveSession() {
+        long sessionId = start(pushId);
+
+        WorkoutSession session = session(sessionId);
+        assertEquals(pushId, session.getWorkoutId());
+        assertEquals("Push", session.getWorkoutName());
+        assertEquals(WorkoutSession.STATUS_ACTIVE, session.getStatus());
+        assertTrue(session.getStartedAt() > 0);
+        assertEquals(0, session.getEndedAt());
+        assertEquals(0, session.getSetsCompleted());
+    }
+
+    @Test
+    public void eventsKeepTheSummaryUpToDate() {
+        long sessionId = start(pushId);
+        long now = System.currentTimeMillis();
+        db.appendSessionEvents(Arrays.asList(
+                new SessionEvent(sessionId, bench, 0, 10, 50, now, SessionEvent.TYPE_SET_COMPLETED),
+                new SessionEvent(sessionId, bench, 1, 8, 60, now + 1, SessionEvent.TYPE_SET_COMPLETED),
+                new SessionEvent(sessionId, dips, 0, 0, 0, now + 2, SessionEvent.TYPE_EXERCISE_SKIPPED)));
+
+        WorkoutSession session = session(sessionId);
+        // The skip is logged but is not a completed set
+        assertEquals(1, session.getExercisesCompleted());
+        assertEquals(2, session.getSetsCompleted());
+        assertEquals(18, session.getTotalReps());
+        assertEquals(980.0, session.getTotalVolume(), 1e-9);
+
+        db.appendSessionEvents(Collections.singletonList(
+                new SessionEvent(sessionId, dips, 0, 12, 0, now + 3, SessionEvent.TYPE_SET_COMPLETED)));
+        session = session(sessionId);
+        assertEquals(2, session.getExercisesCompleted());
+        assertEquals(3, session.getSetsCompleted());
+        assertEquals(30, session.getTotalReps());
+        assertEquals(980.0, session.getTotalVolume(), 1e-9);
+
+        db.appendSessionEvents(Collections.emptyList());
+        assertEquals(3, session(sessionId).getSetsCompleted());
+    }
+
+    @Test
+    public void oneBatchUpdatesEverySessionInIt() {
+        long push = start(pushId);
+        long pull = start(pullId);
+        long now = System.currentTimeMillis();
+        db.appendSessionEvents(Arrays.asList(
+                new SessionEvent(push, bench, 0, 5, 100, now, SessionEvent.TYPE_SET_COMPLETED),
+                new SessionEvent(pull, rows, 0, 10, 40, now, SessionEvent.TYPE_SET_COMPLETED),
+                new SessionEvent(pull, rows, 1, 10, 40, now + 1, SessionEvent.TYPE_SET_COMPLETED)));
+
+        assertEquals(500.0, session(push).getTotalVolume(), 1e-9);
+        assertEquals(2, session(pull).getSetsCompleted());
+        assertEquals(800.0, session(pull).getTotalVolume(), 1e-9);
+    }
+
+    @Test
+    public void completingClosesTheSession() {
+        long sessionId = start(pushId);
+
+        assertTrue(db.updateCurrentWorkoutStatus(pushId, userId, "Completed"));
+
+        WorkoutSession session = session(sessionId);
+        assertEquals(WorkoutSession.STATUS_COMPLETED, session.getStatus());
+        assertTrue(session.getEndedAt() > 0);
+        assertEquals(-1, db.getActiveSessionId(userId, pushId));
+    }
+
+    @Test
+    public void deletingAbandonsButKeepsHistory() {
+        long first = start(pushId);
+        long now = System.currentTimeMillis();
+        db.appendSessionEvents(Collections.singletonList(
+                new SessionEvent(first, bench, 0, 10, 50, now, SessionEvent.TYPE_SET_COMPLETED)));
+
+        assertTrue(db.deleteCurrentWorkout(pushId, userId));
+        WorkoutSession abandoned = session(first);
+        assertEquals(WorkoutSession.STATUS_ABANDONED, abandoned.getStatus());
+        assertTrue(abandoned.getEndedAt() > 0);
+        assertEquals(1, abandoned.getSetsCompleted());
+        assertEquals(-1, db.getActiveSessionId(userId, pushId));
+
+        // Starting again opens a new session next to the old one
+        long second = start(pushId);
+        assertNotEquals(first, second);
+        List<WorkoutSession> sessions = db.getRecentSessions(userId, 10);
+        assertEquals(2, sessions.size());
+        assertEquals(WorkoutSession.STATUS_ACTIVE, session(second).getStatus());
+        assertEquals(1, db.getRecentSessions(userId, 1).size());
+    }
+
+    @Test
+    public void sessionsBelongToTheirUser() {
+        start(pushId);
+        int otherUserId = (int) db.insertUser("other@example.com", "other", "hash");
+        assertTrue(db.getRecentSessions(otherUserId, 10).isEmpty());
+        assertEquals(-1, db.getActiveSessionId(otherUserId, pushId));
+    }
+}
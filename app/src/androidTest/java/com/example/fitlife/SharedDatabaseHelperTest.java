@@ -0,0 +1,110 @@
+package com.example.fitlife;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * The app shares one DatabaseHelper whose connection stays open between calls, and a lookup on
+ * that connection is cheaper than opening and closing the database around it, as every call used to.
+ * Only reads the app's own database; the latency comparison uses a private database file.
+ */
+@RunWith(AndroidJUnit4.class)
+public class SharedDatabaseHelperTest {
+    private static final String TAG = "SharedDatabaseHelperTest";
+    private static final String BENCHMARK_NAME = "shared-helper-benchmark.db";
+    private static final int SEEDED_EXERCISES = 10_000;
+    private static final int CALLS = 200;
+
+    @Test
+    public void getInstanceReturnsOneHelper() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        DatabaseHelper helper = DatabaseHelper.getInstance(context);
+        assertSame(helper, DatabaseHelper.getInstance(context));
+        assertSame(helper, DatabaseHelper.getInstance(context.getApplicationContext()));
+    }
+
+    @Test
+    public void connectionStaysOpenAcrossCalls() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        DatabaseHelper helper = DatabaseHelper.getInstance(context);
+        SQLiteDatabase db = helper.getReadableDatabase();
+
+        Cursor cursor = helper.getAllExercises();
+        cursor.close();
+        helper.userExists("nobody@example.com");
+
+        // Helper methods never close the database, so callers keep using the same open connection
+        assertTrue(db.isOpen());
+        assertSame(db, helper.getWritableDatabase());
+        assertSame(db, helper.getReadableDatabase());
+    }
+
+    @Test
+    public void sharedConnectionIsFasterThanOpenPerCall() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(BENCHMARK_NAME);
+        DatabaseHelper shared = new DatabaseHelper(context, BENCHMARK_NAME);
+        try {
+            long[] ids = new long[SEEDED_EXERCISES];
+            SQLiteDatabase db = shared.getWritableDatabase();
+            db.beginTransaction();
+            try {
+                for (int i = 0; i < ids.length; i++) {
+                    ids[i] = shared.insertExercise("Exercise " + i, 3, "10", "60s", null);
+                }
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+
+            // Before: every call reopened the database and closed it again when done
+            DatabaseHelper perCall = new DatabaseHelper(context, BENCHMARK_NAME);
+            Random random = new Random(1);
+            long[] openPerCall = new long[CALLS];
+            for (int i = 0; i < CALLS; i++) {
+                long start = SystemClock.elapsedRealtimeNanos();
+                assertTrue(perCall.getExerciseEquipment(ids[random.nextInt(ids.length)]).isEmpty());
+                perCall.close();
+                openPerCall[i] = SystemClock.elapsedRealtimeNanos() - start;
+            }
+
+            // After: one long-lived connection
+            random = new Random(1);
+            long[] sharedCalls = new long[CALLS];
+            for (int i = 0; i < CALLS; i++) {
+                long start = SystemClock.elapsedRealtimeNanos();
+                assertTrue(shared.getExerciseEquipment(ids[random.nextInt(ids.length)]).isEmpty());
+                sharedCalls[i] = SystemClock.elapsedRealtimeNanos() - start;
+            }
+
+            long before = median(openPerCall);
+            long after = median(sharedCalls);
+            Log.i(TAG, "Median lookup over " + SEEDED_EXERCISES + " exercises: open/close " + before / 1000 +
+                    " us, shared " + after / 1000 + " us");
+            assertTrue("open/close " + before + " ns, shared " + after + " ns", after < before);
+        } finally {
+            shared.close();
+            context.deleteDatabase(BENCHMARK_NAME);
+        }
+    }
+
+    private static long median(long[] samples) {
+        long[] sorted = samples.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
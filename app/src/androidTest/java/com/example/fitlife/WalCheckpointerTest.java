@@ -0,0 +1,131 @@
+package com.example.fitlife;
+
+import android.app.Instrumentation;
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.os.SystemClock;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+
+import static org.junit.Assert.*;
+
+/**
+ * WalCheckpointer checkpoints when the policy says so and records what it did, on a private
+ * database file, since an in-memory database has no write-ahead log.
+ */
+@RunWith(AndroidJUnit4.class)
+public class WalCheckpointerTest {
+    private static final String NAME = "wal-checkpointer-test.db";
+    private static final long TIMEOUT_MS = 5000;
+
+    private Instrumentation instrumentation;
+    private Context context;
+    private DatabaseHelper db;
+    private File databaseFile;
+    private WalCheckpointer checkpointer;
+
+    @Before
+    public void setUp() {
+        instrumentation = InstrumentationRegistry.getInstrumentation();
+        context = instrumentation.getTargetContext();
+        context.deleteDatabase(NAME);
+        db = new DatabaseHelper(context, NAME);
+        databaseFile = context.getDatabasePath(NAME);
+        for (int i = 0; i < 20; i++) {
+            db.insertExercise("Exercise " + i, 3, "10", "60s", null);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+        context.deleteDatabase(NAME);
+    }
+
+    /** Builds the checkpointer on the main thread with its idle threshold set before its first idle check. */
+    private void createCheckpointer(long idleThresholdBytes) {
+        instrumentation.runOnMainSync(() -> {
+            checkpointer = new WalCheckpointer(db, databaseFile);
+            checkpointer.setIdleWalThresholdBytes(idleThresholdBytes);
+        });
+    }
+
+    private void awaitCheckpoints(long count) throws InterruptedException {
+        long deadline = SystemClock.elapsedRealtime() + TIMEOUT_MS;
+        while (checkpointer.getCheckpointCount() < count && SystemClock.elapsedRealtime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(count, checkpointer.getCheckpointCount());
+    }
+
+    @Test
+    public void checkpointRecordsMetrics() {
+        createCheckpointer(Long.MAX_VALUE);
+        long walSize = checkpointer.getWalSizeBytes();
+        assertTrue(walSize > 0);
+
+        checkpointer.checkpoint(WalCheckpointer.MODE_TRUNCATE);
+
+        assertEquals(1, checkpointer.getCheckpointCount());
+        assertEquals(walSize, checkpointer.getLastWalSizeBytes());
+        assertTrue(checkpointer.getLastCheckpointDurationMs() >= 0);
+        assertEquals(0, checkpointer.getWalSizeBytes());
+    }
+
+    @Test
+    public void backgroundingTruncates() throws InterruptedException {
+        createCheckpointer(Long.MAX_VALUE);
+
+        checkpointer.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN);
+
+        awaitCheckpoints(1);
+        assertEquals(0, checkpointer.getWalSizeBytes());
+    }
+
+    @Test
+    public void backgroundTruncateCanBeTurnedOff() throws InterruptedException {
+        createCheckpointer(Long.MAX_VALUE);
+        checkpointer.setTruncateOnBackground(false);
+
+        checkpointer.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN);
+        // Queued behind anything the trim posted, so the count is exact once it has run
+        checkpointer.requestCheckpoint(WalCheckpointer.MODE_PASSIVE);
+
+        awaitCheckpoints(1);
+        assertTrue(checkpointer.getWalSizeBytes() > 0);
+    }
+
+    @Test
+    public void idleCheckpointsAGrownWal() throws InterruptedException {
+        createCheckpointer(1);
+
+        instrumentation.waitForIdleSync();
+
+        awaitCheckpoints(1);
+        assertTrue(checkpointer.getLastWalSizeBytes() > 0);
+    }
+
+    @Test
+    public void idleSkipsASmallWal() throws InterruptedException {
+        createCheckpointer(Long.MAX_VALUE);
+
+        instrumentation.waitForIdleSync();
+        // Queued behind the idle check; once the WAL is truncated the idle check has run too
+        checkpointer.requestCheckpoint(WalCheckpointer.MODE_TRUNCATE);
+        long deadline = SystemClock.elapsedRealtime() + TIMEOUT_MS;
+        while (checkpointer.getWalSizeBytes() > 0 && SystemClock.elapsedRealtime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(0, checkpointer.getWalSizeBytes());
+        awaitCheckpoints(1);
+    }
+}
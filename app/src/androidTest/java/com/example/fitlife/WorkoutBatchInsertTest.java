@@ -0,0 +1,95 @@
+package com.example.fitlife;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * createWorkoutRoutine and addExercisesToWorkout attach exercises in one batch,
+ * on a private in-memory database.
+ */
+@RunWith(AndroidJUnit4.class)
+public class WorkoutBatchInsertTest {
+    private DatabaseHelper db;
+    private int userId;
+    private long squat;
+    private long lunge;
+    private long deadlift;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        db = new DatabaseHelper(context, null);
+        userId = (int) db.insertUser("batch@example.com", "batch", "hash");
+        squat = db.insertExercise("Squat", 5, "5", "3m", null);
+        lunge = db.insertExercise("Lunge", 3, "10-12", "60s", null);
+        deadlift = db.insertExercise("Deadlift", 1, "AMRAP", "2m", null);
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    /** The routine's exercise ids in row order. */
+    private List<Long> exerciseIds(long workoutId) {
+        List<Long> ids = new ArrayList<>();
+        Cursor cursor = db.getWorkoutExercises(workoutId);
+        while (cursor.moveToNext()) {
+            ids.add(cursor.getLong(0));
+        }
+        cursor.close();
+        return ids;
+    }
+
+    @Test
+    public void createKeepsTheGivenOrderAndDefaults() {
+        long workoutId = db.createWorkoutRoutine("Legs", userId, new long[]{lunge, squat});
+        assertTrue(workoutId > 0);
+        assertEquals(Arrays.asList(lunge, squat), exerciseIds(workoutId));
+
+        Cursor cursor = db.getWorkoutExercises(workoutId);
+        assertTrue(cursor.moveToFirst());
+        assertEquals("Lunge", cursor.getString(1));
+        assertEquals(3, cursor.getInt(2));
+        assertEquals("10-12", cursor.getString(3));
+        cursor.close();
+    }
+
+    @Test
+    public void createWithoutExercises() {
+        long workoutId = db.createWorkoutRoutine("Rest day", userId, new long[0]);
+        assertTrue(workoutId > 0);
+        assertTrue(exerciseIds(workoutId).isEmpty());
+    }
+
+    @Test
+    public void addAppendsAndSkipsUnknownIds() {
+        long workoutId = db.createWorkoutRoutine("Legs", userId, new long[]{squat});
+
+        assertEquals(2, db.addExercisesToWorkout(workoutId, new long[]{deadlift, 9999, lunge}));
+        assertEquals(Arrays.asList(squat, deadlift, lunge), exerciseIds(workoutId));
+    }
+
+    @Test
+    public void addNothing() {
+        long workoutId = db.createWorkoutRoutine("Legs", userId, new long[]{squat});
+
+        assertEquals(0, db.addExercisesToWorkout(workoutId, new long[0]));
+        assertEquals(0, db.addExercisesToWorkout(workoutId, new long[]{9999}));
+        assertEquals(Arrays.asList(squat), exerciseIds(workoutId));
+    }
+}
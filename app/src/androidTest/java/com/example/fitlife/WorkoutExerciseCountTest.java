@@ -0,0 +1,140 @@
+package com.example.fitlife;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteCursor;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.fitlife.models.CurrentWorkout;
+import com.example.fitlife.models.Workout;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Workout cards read their exercise counts and totals from one grouped query, however many routines
+ * there are, on a private in-memory database.
+ */
+@RunWith(AndroidJUnit4.class)
+public class WorkoutExerciseCountTest {
+    private DatabaseHelper db;
+    private int userId;
+    private long pushId;
+    private long emptyId;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        db = new DatabaseHelper(context, null);
+        userId = (int) db.insertUser("counts@example.com", "counts", "hash");
+        long bench = db.insertExercise("Bench Press", 3, "8-10", "90s", null);
+        long dips = db.insertExercise("Dips", 4, "12", "60", null);
+        pushId = db.createWorkoutRoutine("Push", userId, new long[]{bench, dips});
+        emptyId = db.createWorkoutRoutine("Empty", userId, new long[0]);
+
+        int otherUserId = (int) db.insertUser("other@example.com", "other", "hash");
+        db.createWorkoutRoutine("Other", otherUserId, new long[]{bench});
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    private static Workout find(List<Workout> workouts, long workoutId) {
+        for (Workout workout : workouts) {
+            if (workout.getWorkoutId() == workoutId) return workout;
+        }
+        fail("workout " + workoutId + " missing");
+        return null;
+    }
+
+    @Test
+    public void userWorkoutsCarryCountsAndTotals() {
+        List<Workout> workouts = db.getUserWorkoutsWithExerciseCount(userId);
+        assertEquals(2, workouts.size());
+
+        Workout push = find(workouts, pushId);
+        assertEquals("Push", push.getName());
+        assertEquals(2, push.getExerciseCount());
+        assertEquals(7, push.getTotalSets());
+        assertEquals(3 * 90 + 4 * 60, push.getTotalRestSeconds());
+    }
+
+    @Test
+    public void routineWithoutExercisesCountsZero() {
+        Workout empty = find(db.getUserWorkoutsWithExerciseCount(userId), emptyId);
+        assertEquals("Empty", empty.getName());
+        assertEquals(0, empty.getExerciseCount());
+        assertEquals(0, empty.getTotalSets());
+        assertEquals(0, empty.getTotalRestSeconds());
+    }
+
+    @Test
+    public void currentWorkoutsCarryCountsAndTotals() {
+        assertTrue(db.insertCurrentWorkout(pushId, userId) > 0);
+        assertTrue(db.insertCurrentWorkout(emptyId, userId) > 0);
+
+        List<CurrentWorkout> current = db.getCurrentWorkoutsWithExerciseCount(userId);
+        assertEquals(2, current.size());
+        for (CurrentWorkout workout : current) {
+            if (workout.getWorkoutId() == pushId) {
+                assertEquals("Push", workout.getWorkoutName());
+                assertEquals(2, workout.getExerciseCount());
+                assertEquals(7, workout.getTotalSets());
+                assertEquals(3 * 90 + 4 * 60, workout.getTotalRestSeconds());
+            } else {
+                assertEquals(emptyId, workout.getWorkoutId());
+                assertEquals(0, workout.getExerciseCount());
+                assertEquals(0, workout.getTotalSets());
+            }
+        }
+    }
+
+    @Test
+    public void queryCountStaysFlatAsRoutinesGrow() {
+        AtomicInteger queries = new AtomicInteger();
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        DatabaseHelper counted = new DatabaseHelper(context, null, (database, driver, editTable, query) -> {
+            queries.incrementAndGet();
+            return new SQLiteCursor(driver, editTable, query);
+        });
+        try {
+            int countedUserId = (int) counted.insertUser("grow@example.com", "grow", "hash");
+            long squat = counted.insertExercise("Squat", 5, "5", "180s", null);
+            long lunge = counted.insertExercise("Lunge", 3, "10", "60s", null);
+            int routines = 0;
+            for (int target : new int[]{1, 10, 50}) {
+                for (; routines < target; routines++) {
+                    long workoutId = counted.createWorkoutRoutine("Legs " + routines, countedUserId,
+                            new long[]{squat, lunge});
+                    counted.insertCurrentWorkout(workoutId, countedUserId);
+                }
+
+                queries.set(0);
+                assertEquals(target, counted.getUserWorkoutsWithExerciseCount(countedUserId).size());
+                assertEquals(1, queries.get());
+
+                queries.set(0);
+                assertEquals(target, counted.getCurrentWorkoutsWithExerciseCount(countedUserId).size());
+                assertEquals(1, queries.get());
+            }
+        } finally {
+            counted.close();
+        }
+    }
+
+    @Test
+    public void otherUsersSeeNone() {
+        assertTrue(db.getUserWorkoutsWithExerciseCount(userId + 100).isEmpty());
+        assertTrue(db.getCurrentWorkoutsWithExerciseCount(userId).isEmpty());
+    }
+}
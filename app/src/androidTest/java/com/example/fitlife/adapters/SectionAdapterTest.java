@@ -0,0 +1,100 @@
+package com.example.fitlife.adapters;
+
+import android.content.Context;
+import android.view.View;
+import android.widget.FrameLayout;
+import android.widget.TextView;
+
+import androidx.recyclerview.widget.ConcatAdapter;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.fitlife.R;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ * SectionAdapter as one section of a ConcatAdapter, the way the single-RecyclerView screens use it.
+ */
+@RunWith(AndroidJUnit4.class)
+public class SectionAdapterTest {
+    private Context context;
+    private int binds;
+    private SectionAdapter header;
+    private SectionAdapter empty;
+    private ConcatAdapter content;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        binds = 0;
+        header = new SectionAdapter(R.layout.item_section_header, view -> {
+            binds++;
+            ((TextView) view.findViewById(R.id.textSectionTitle)).setText(R.string.exercises);
+        });
+        empty = new SectionAdapter(R.layout.section_home_empty, view -> { });
+        ConcatAdapter.Config config = new ConcatAdapter.Config.Builder()
+                .setStableIdMode(ConcatAdapter.Config.StableIdMode.ISOLATED_STABLE_IDS)
+                .build();
+        content = new ConcatAdapter(config, header, empty);
+    }
+
+    @Test
+    public void eachSectionIsOneRow() {
+        assertEquals(2, content.getItemCount());
+        assertSame(header, content.getWrappedAdapterAndPosition(0).first);
+        assertSame(empty, content.getWrappedAdapterAndPosition(1).first);
+        // Isolated stable ids keep the two sections' single rows apart
+        assertNotEquals(content.getItemId(0), content.getItemId(1));
+        assertNotEquals(content.getItemViewType(0), content.getItemViewType(1));
+    }
+
+    @Test
+    public void hidingASectionLeavesTheOthers() {
+        empty.setVisible(false);
+        assertEquals(1, content.getItemCount());
+        assertSame(header, content.getWrappedAdapterAndPosition(0).first);
+
+        header.setVisible(false);
+        assertEquals(0, content.getItemCount());
+
+        empty.setVisible(true);
+        empty.setVisible(true);
+        assertEquals(1, content.getItemCount());
+        assertSame(empty, content.getWrappedAdapterAndPosition(0).first);
+    }
+
+    @Test
+    public void refreshOnlyWhileVisible() {
+        int[] changes = new int[1];
+        header.registerAdapterDataObserver(new RecyclerView.AdapterDataObserver() {
+            @Override
+            public void onItemRangeChanged(int positionStart, int itemCount) {
+                changes[0]++;
+            }
+        });
+
+        header.refresh();
+        assertEquals(1, changes[0]);
+        header.setVisible(false);
+        header.refresh();
+        assertEquals(1, changes[0]);
+    }
+
+    @Test
+    public void bindingRunsTheBinder() {
+        FrameLayout parent = new FrameLayout(context);
+        RecyclerView.ViewHolder holder = content.onCreateViewHolder(parent, content.getItemViewType(0));
+        content.onBindViewHolder(holder, 0);
+
+        assertEquals(1, binds);
+        TextView title = holder.itemView.findViewById(R.id.textSectionTitle);
+        assertEquals(context.getString(R.string.exercises), title.getText().toString());
+        assertEquals(View.VISIBLE, holder.itemView.findViewById(R.id.textSeeAll).getVisibility());
+    }
+}
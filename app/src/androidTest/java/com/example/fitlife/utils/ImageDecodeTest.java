@@ -0,0 +1,133 @@
+package com.example.fitlife.utils;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Color;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+/**
+ * ImageHelper decodes stored images downsampled, in RGB_565 when they have no alpha.
+ * Works on files in the test's cache directory.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ImageDecodeTest {
+    private File dir;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        dir = new File(context.getCacheDir(), "image_decode_test");
+        assertTrue(dir.isDirectory() || dir.mkdirs());
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        dir.delete();
+    }
+
+    @SuppressWarnings("deprecation")
+    private String write(String name, Bitmap.CompressFormat format, int quality, boolean transparent) throws IOException {
+        Bitmap bitmap = Bitmap.createBitmap(800, 600, Bitmap.Config.ARGB_8888);
+        bitmap.eraseColor(transparent ? Color.argb(128, 200, 40, 40) : Color.rgb(200, 40, 40));
+        File file = new File(dir, name);
+        try (OutputStream out = new FileOutputStream(file)) {
+            assertTrue(bitmap.compress(format, quality, out));
+        }
+        bitmap.recycle();
+        return file.getAbsolutePath();
+    }
+
+    @Test
+    public void jpegIsDownsampledToRgb565() throws IOException {
+        Bitmap bitmap = ImageHelper.loadImage(write("photo.jpg", Bitmap.CompressFormat.JPEG, 90, false), 100, 100);
+        assertNotNull(bitmap);
+        // 800x600 halves twice and still covers 100x100; a third halving would not
+        assertEquals(200, bitmap.getWidth());
+        assertEquals(150, bitmap.getHeight());
+        assertEquals(Bitmap.Config.RGB_565, bitmap.getConfig());
+    }
+
+    @Test
+    public void pngKeepsAlpha() throws IOException {
+        Bitmap bitmap = ImageHelper.loadImage(write("icon.png", Bitmap.CompressFormat.PNG, 100, true), 400, 300);
+        assertNotNull(bitmap);
+        assertEquals(400, bitmap.getWidth());
+        assertEquals(Bitmap.Config.ARGB_8888, bitmap.getConfig());
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void webpConfigFollowsItsAlpha() throws IOException {
+        Bitmap opaque = ImageHelper.loadImage(write("opaque.webp", Bitmap.CompressFormat.WEBP, 80, false), 800, 600);
+        assertNotNull(opaque);
+        assertEquals(Bitmap.Config.RGB_565, opaque.getConfig());
+
+        Bitmap translucent = ImageHelper.loadImage(write("alpha.webp", Bitmap.CompressFormat.WEBP, 80, true), 800, 600);
+        assertNotNull(translucent);
+        assertEquals(Bitmap.Config.ARGB_8888, translucent.getConfig());
+    }
+
+    @Test
+    public void missingOrUnreadableFile() throws IOException {
+        assertNull(ImageHelper.loadImage(null, 100, 100));
+        assertNull(ImageHelper.loadImage(new File(dir, "missing.jpg").getAbsolutePath(), 100, 100));
+        File garbage = new File(dir, "garbage.jpg");
+        try (OutputStream out = new FileOutputStream(garbage)) {
+            out.write("not an image".getBytes(StandardCharsets.US_ASCII));
+        }
+        assertNull(ImageHelper.loadImage(garbage.getAbsolutePath(), 100, 100));
+    }
+
+    @Test
+    public void calculateInSampleSize() {
+        assertEquals(4, ImageHelper.calculateInSampleSize(800, 600, 100, 100));
+        assertEquals(1, ImageHelper.calculateInSampleSize(800, 600, 800, 600));
+        assertEquals(1, ImageHelper.calculateInSampleSize(800, 600, 500, 100));
+        assertEquals(1, ImageHelper.calculateInSampleSize(800, 600, 0, 0));
+        // The short side decides: 4000x1000 at 200x200 can only halve twice
+        assertEquals(4, ImageHelper.calculateInSampleSize(4000, 1000, 200, 200));
+    }
+
+    /** A 25-byte WebP header with the given first chunk and one payload byte set. */
+    private static byte[] webpHeader(String chunk, int payloadOffset, int payloadByte) {
+        byte[] header = new byte[25];
+        System.arraycopy("RIFF".getBytes(StandardCharsets.US_ASCII), 0, header, 0, 4);
+        System.arraycopy("WEBP".getBytes(StandardCharsets.US_ASCII), 0, header, 8, 4);
+        System.arraycopy(chunk.getBytes(StandardCharsets.US_ASCII), 0, header, 12, 4);
+        header[payloadOffset] = (byte) payloadByte;
+        return header;
+    }
+
+    @Test
+    public void isOpaqueWebp() {
+        assertTrue(ImageHelper.isOpaqueWebp(webpHeader("VP8 ", 20, 0)));
+        assertTrue(ImageHelper.isOpaqueWebp(webpHeader("VP8L", 24, 0x0f)));
+        assertFalse(ImageHelper.isOpaqueWebp(webpHeader("VP8L", 24, 0x10)));
+        assertTrue(ImageHelper.isOpaqueWebp(webpHeader("VP8X", 20, 0x20)));
+        assertFalse(ImageHelper.isOpaqueWebp(webpHeader("VP8X", 20, 0x10)));
+        // Not a WebP, or too short to tell
+        assertFalse(ImageHelper.isOpaqueWebp(webpHeader("ABCD", 20, 0)));
+        assertFalse(ImageHelper.isOpaqueWebp(new byte[12]));
+    }
+}
@@ -24,7 +24,7 @@ public class AddDetailsActivity extends AppCompatActivity {
     private TextInputEditText editTextHeight;
     private TextInputEditText editTextWeight;
     private MaterialButton buttonSave;
-    private DatabaseHelper dbHelper;
+    private DbExecutor dbExecutor;
     private SessionManager sessionManager;
 
     @Override
@@ -32,7 +32,7 @@ public class AddDetailsActivity extends AppCompatActivity {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_add_details);
 
-        dbHelper = new DatabaseHelper(this);
+        dbExecutor = DbExecutor.getInstance(this);
         sessionManager = new SessionManager(this);
 
         // Check if user is logged in
@@ -45,13 +45,14 @@ public class AddDetailsActivity extends AppCompatActivity {
 
         // Check if details already exist
         int userId = sessionManager.getUserId();
-        if (dbHelper.userDetailsExist(userId)) {
-            // Details already exist, go to home
-            startActivity(new Intent(this, HomeActivity.class));
-            overridePendingTransition(0, 0);
-            finish();
-            return;
-        }
+        dbExecutor.read(this, db -> db.userDetailsExist(userId), detailsExist -> {
+            if (detailsExist) {
+                // Details already exist, go to home
+                startActivity(new Intent(this, HomeActivity.class));
+                overridePendingTransition(0, 0);
+                finish();
+            }
+        });
 
         inputLayoutAge = findViewById(R.id.inputLayoutAge);
         inputLayoutGender = findViewById(R.id.inputLayoutGender);
@@ -117,16 +118,21 @@ public class AddDetailsActivity extends AppCompatActivity {
             double weight = Double.parseDouble(weightStr);
 
             int userId = sessionManager.getUserId();
-            long result = dbHelper.insertUserDetails(userId, age, gender, height, weight);
-
-            if (result > 0) {
-                Toast.makeText(this, R.string.profile_updated, Toast.LENGTH_SHORT).show();
-                startActivity(new Intent(this, HomeActivity.class));
-                overridePendingTransition(0, 0);
-                finish();
-            } else {
+            buttonSave.setEnabled(false);
+            dbExecutor.write(this, db -> db.insertUserDetails(userId, age, gender, height, weight), result -> {
+                if (result > 0) {
+                    Toast.makeText(this, R.string.profile_updated, Toast.LENGTH_SHORT).show();
+                    startActivity(new Intent(this, HomeActivity.class));
+                    overridePendingTransition(0, 0);
+                    finish();
+                } else {
+                    buttonSave.setEnabled(true);
+                    Toast.makeText(this, R.string.error, Toast.LENGTH_SHORT).show();
+                }
+            }, error -> {
+                buttonSave.setEnabled(true);
                 Toast.makeText(this, R.string.error, Toast.LENGTH_SHORT).show();
-            }
+            });
         } catch (NumberFormatException e) {
             Toast.makeText(this, "Please enter valid numbers", Toast.LENGTH_SHORT).show();
         }
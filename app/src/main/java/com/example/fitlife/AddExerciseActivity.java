@@ -3,6 +3,7 @@ package com.example.fitlife;
 import android.content.Intent;
 import android.database.Cursor;
 import android.os.Bundle;
+import android.widget.EditText;
 import android.widget.Toast;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.recyclerview.widget.LinearLayoutManager;
@@ -20,6 +21,7 @@ import java.util.Set;
 /**
  * Add exercise activity - allows user to select existing exercises to add to workout.
  * Already-added exercises (in current workout or already selected) are hidden.
+ * The search box narrows the list by name, equipment or instructions.
  */
 public class AddExerciseActivity extends AppCompatActivity {
     public static final String EXTRA_WORKOUT_ID = "workout_id";
@@ -29,9 +31,13 @@ public class AddExerciseActivity extends AppCompatActivity {
     private RecyclerView recyclerViewExercises;
     private MaterialButton buttonAddToWorkout;
     private MaterialButton buttonCreateNewExercise;
-    private DatabaseHelper dbHelper;
+    private DbExecutor dbExecutor;
     private SessionManager sessionManager;
     private ExerciseSelectAdapter adapter;
+    private ExercisePager pager;
+    private ExerciseSearch search;
+    /** Latest pager window, shown again when the search is cleared. */
+    private List<Exercise> libraryWindow = new ArrayList<>();
     private List<Long> selectedExerciseIds = new ArrayList<>();
     private Set<Long> excludedExerciseIds = new HashSet<>();
 
@@ -40,7 +46,7 @@ public class AddExerciseActivity extends AppCompatActivity {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_add_exercise);
 
-        dbHelper = new DatabaseHelper(this);
+        dbExecutor = DbExecutor.getInstance(this);
         sessionManager = new SessionManager(this);
 
         if (!sessionManager.isLoggedIn()) {
@@ -50,29 +56,42 @@ public class AddExerciseActivity extends AppCompatActivity {
             return;
         }
 
-        buildExcludedExerciseIds();
         initializeViews();
-        loadExercises();
+        buildExcludedExerciseIds(() -> {
+            setupRecyclerView();
+            pager.refresh();
+        });
     }
 
-    private void buildExcludedExerciseIds() {
-        long workoutId = getIntent().getLongExtra(EXTRA_WORKOUT_ID, -1);
-        if (workoutId >= 0) {
-            Cursor cursor = dbHelper.getWorkoutExercises(workoutId);
-            if (cursor.moveToFirst()) {
-                do {
-                    long exerciseId = cursor.getLong(cursor.getColumnIndexOrThrow("exercise_id"));
-                    excludedExerciseIds.add(exerciseId);
-                } while (cursor.moveToNext());
-            }
-            cursor.close();
-        }
+    /** Collects the ids to hide, reading the workout's exercises off the main thread, then runs next. */
+    private void buildExcludedExerciseIds(Runnable next) {
         long[] alreadyAdded = getIntent().getLongArrayExtra(EXTRA_ALREADY_ADDED_EXERCISE_IDS);
         if (alreadyAdded != null) {
             for (long id : alreadyAdded) {
                 excludedExerciseIds.add(id);
             }
         }
+        long workoutId = getIntent().getLongExtra(EXTRA_WORKOUT_ID, -1);
+        if (workoutId < 0) {
+            next.run();
+            return;
+        }
+        dbExecutor.read(this, db -> readWorkoutExerciseIds(db, workoutId), exerciseIds -> {
+            excludedExerciseIds.addAll(exerciseIds);
+            next.run();
+        });
+    }
+
+    private static List<Long> readWorkoutExerciseIds(DatabaseHelper db, long workoutId) {
+        List<Long> exerciseIds = new ArrayList<>();
+        Cursor cursor = db.getWorkoutExercises(workoutId);
+        if (cursor.moveToFirst()) {
+            do {
+                exerciseIds.add(cursor.getLong(cursor.getColumnIndexOrThrow("exercise_id")));
+            } while (cursor.moveToNext());
+        }
+        cursor.close();
+        return exerciseIds;
     }
 
     private void initializeViews() {
@@ -114,34 +133,14 @@ public class AddExerciseActivity extends AppCompatActivity {
     @Override
     protected void onActivityResult(int requestCode, int resultCode, Intent data) {
         super.onActivityResult(requestCode, resultCode, data);
-        if (requestCode == REQUEST_CREATE_EXERCISE && resultCode == RESULT_OK) {
-            loadExercises();
+        if (requestCode == REQUEST_CREATE_EXERCISE && resultCode == RESULT_OK && pager != null) {
+            pager.refresh();
+            search.refresh();
         }
     }
 
-    private void loadExercises() {
-        Cursor cursor = dbHelper.getAllExercises();
-        List<Exercise> exercises = new ArrayList<>();
-
-        if (cursor.moveToFirst()) {
-            do {
-                long exerciseId = cursor.getLong(cursor.getColumnIndexOrThrow("exercise_id"));
-                if (excludedExerciseIds.contains(exerciseId)) {
-                    continue;
-                }
-                String name = cursor.getString(cursor.getColumnIndexOrThrow("name"));
-                int sets = cursor.getInt(cursor.getColumnIndexOrThrow("sets"));
-                String reps = cursor.getString(cursor.getColumnIndexOrThrow("reps"));
-                String restTime = cursor.getString(cursor.getColumnIndexOrThrow("rest_time"));
-                String imagePath = cursor.getString(cursor.getColumnIndexOrThrow("image_path"));
-
-                Exercise exercise = new Exercise(exerciseId, name, sets, reps, restTime, imagePath);
-                exercises.add(exercise);
-            } while (cursor.moveToNext());
-        }
-        cursor.close();
-
-        adapter = new ExerciseSelectAdapter(exercises, exerciseId -> {
+    private void setupRecyclerView() {
+        adapter = new ExerciseSelectAdapter(exerciseId -> {
             if (selectedExerciseIds.contains(exerciseId)) {
                 selectedExerciseIds.remove(exerciseId);
             } else {
@@ -150,5 +149,28 @@ public class AddExerciseActivity extends AppCompatActivity {
         });
         recyclerViewExercises.setLayoutManager(new LinearLayoutManager(this));
         recyclerViewExercises.setAdapter(adapter);
+
+        long[] excluded = new long[excludedExerciseIds.size()];
+        int i = 0;
+        for (long exerciseId : excludedExerciseIds) {
+            excluded[i++] = exerciseId;
+        }
+        pager = new ExercisePager(this, dbExecutor, window -> {
+            libraryWindow = window;
+            if (!search.isActive()) {
+                adapter.submitList(window);
+            }
+        });
+        pager.setExcludedIds(excluded);
+        adapter.setPager(pager);
+
+        search = new ExerciseSearch(this, dbExecutor, results -> {
+            // Results are not paged, so rows bound from them must not move the library window
+            adapter.setPager(results == null ? pager : null);
+            adapter.submitList(results == null ? libraryWindow : results);
+        });
+        search.setExcludedIds(excluded);
+        EditText editTextSearch = findViewById(R.id.editTextSearch);
+        search.attach(editTextSearch);
     }
 }
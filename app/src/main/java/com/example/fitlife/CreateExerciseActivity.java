@@ -1,8 +1,6 @@
 package com.example.fitlife;
 
 import android.content.Intent;
-import android.database.Cursor;
-import android.graphics.Bitmap;
 import android.net.Uri;
 import android.os.Bundle;
 import android.provider.MediaStore;
@@ -16,9 +14,9 @@ import com.google.android.material.appbar.MaterialToolbar;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.textfield.TextInputEditText;
 import com.google.android.material.textfield.TextInputLayout;
+import com.example.fitlife.models.Exercise;
 import com.example.fitlife.utils.ImageHelper;
 import com.example.fitlife.utils.SessionManager;
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -46,11 +44,11 @@ public class CreateExerciseActivity extends AppCompatActivity {
     private MaterialButton buttonAddInstruction;
     private MaterialButton buttonCreateExercise;
     private MaterialButton buttonDeleteExercise;
-    private DatabaseHelper dbHelper;
+    private DbExecutor dbExecutor;
     private SessionManager sessionManager;
     private List<TextInputEditText> equipmentFields = new ArrayList<>();
     private List<TextInputEditText> instructionFields = new ArrayList<>();
-    private Bitmap selectedImage;
+    private Uri selectedImageUri;
     private String imagePath;
     private long editExerciseId = -1;
     private boolean isEditMode;
@@ -60,7 +58,7 @@ public class CreateExerciseActivity extends AppCompatActivity {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_create_exercise);
 
-        dbHelper = new DatabaseHelper(this);
+        dbExecutor = DbExecutor.getInstance(this);
         sessionManager = new SessionManager(this);
 
         if (!sessionManager.isLoggedIn()) {
@@ -125,34 +123,30 @@ public class CreateExerciseActivity extends AppCompatActivity {
     }
 
     private void loadExerciseData(long exerciseId) {
-        Cursor cursor = dbHelper.getExercise(exerciseId);
-        if (!cursor.moveToFirst()) {
-            cursor.close();
+        dbExecutor.read(this, db -> db.getExerciseWithDetails(exerciseId), this::showExercise);
+    }
+
+    private void showExercise(Exercise exercise) {
+        if (exercise == null) {
             return;
         }
-        String name = cursor.getString(cursor.getColumnIndexOrThrow("name"));
-        int sets = cursor.getInt(cursor.getColumnIndexOrThrow("sets"));
-        String reps = cursor.getString(cursor.getColumnIndexOrThrow("reps"));
-        String restTime = cursor.getString(cursor.getColumnIndexOrThrow("rest_time"));
-        String path = cursor.getString(cursor.getColumnIndexOrThrow("image_path"));
-        cursor.close();
-
-        editTextExerciseName.setText(name);
-        editTextSets.setText(String.valueOf(sets));
+        String reps = exercise.getReps();
+        String restTime = exercise.getRestTime();
+        String path = exercise.getImagePath();
+
+        editTextExerciseName.setText(exercise.getName());
+        editTextSets.setText(String.valueOf(exercise.getSets()));
         editTextReps.setText(reps != null ? reps : "");
         editTextRestTime.setText(restTime != null ? restTime : "");
         imagePath = path;
 
+        // Preview only: the stored file is kept as-is unless a new image is picked
         if (path != null && !path.isEmpty()) {
-            Bitmap bitmap = ImageHelper.loadImage(path);
-            if (bitmap != null) {
-                selectedImage = bitmap;
-                imageExercise.setImageBitmap(bitmap);
-                imageExercise.setVisibility(View.VISIBLE);
-            }
+            imageExercise.setVisibility(View.VISIBLE);
+            ImageHelper.loadImageAsync(imageExercise, path);
         }
 
-        List<String> equipment = dbHelper.getExerciseEquipment(exerciseId);
+        List<String> equipment = exercise.getEquipment();
         layoutEquipments.removeAllViews();
         equipmentFields.clear();
         for (String eq : equipment) {
@@ -162,7 +156,7 @@ public class CreateExerciseActivity extends AppCompatActivity {
             addEquipmentField(null);
         }
 
-        List<String> instructions = dbHelper.getExerciseInstructions(exerciseId);
+        List<String> instructions = exercise.getInstructions();
         layoutInstructions.removeAllViews();
         instructionFields.clear();
         for (String inst : instructions) {
@@ -178,12 +172,10 @@ public class CreateExerciseActivity extends AppCompatActivity {
         super.onActivityResult(requestCode, resultCode, data);
         if (requestCode == PICK_IMAGE && resultCode == RESULT_OK && data != null) {
             Uri imageUri = data.getData();
-            try {
-                selectedImage = MediaStore.Images.Media.getBitmap(getContentResolver(), imageUri);
-                imageExercise.setImageBitmap(selectedImage);
+            if (imageUri != null) {
+                selectedImageUri = imageUri;
                 imageExercise.setVisibility(View.VISIBLE);
-            } catch (IOException e) {
-                e.printStackTrace();
+                ImageHelper.loadImageAsync(imageExercise, imageUri);
             }
         }
     }
@@ -228,30 +220,23 @@ public class CreateExerciseActivity extends AppCompatActivity {
         }
         int sets = Integer.parseInt(setsStr);
 
-        if (selectedImage != null) {
-            imagePath = ImageHelper.saveImage(this, selectedImage, name);
-        }
+        storeSelectedImage(() -> saveNewExercise(name, sets, reps, restTime));
+    }
 
-        long exerciseId = dbHelper.insertExercise(name, sets, reps, restTime, imagePath);
-        if (exerciseId > 0) {
-            for (TextInputEditText field : equipmentFields) {
-                String equipment = field.getText().toString().trim();
-                if (!equipment.isEmpty()) {
-                    dbHelper.insertExerciseEquipment(exerciseId, equipment);
-                }
-            }
-            for (int i = 0; i < instructionFields.size(); i++) {
-                String instruction = instructionFields.get(i).getText().toString().trim();
-                if (!instruction.isEmpty()) {
-                    dbHelper.insertExerciseInstruction(exerciseId, instruction, i + 1);
-                }
+    private void saveNewExercise(String name, int sets, String reps, String restTime) {
+        Exercise exercise = new Exercise(0, name, sets, reps, restTime, imagePath);
+        exercise.setEquipment(collectFieldValues(equipmentFields));
+        exercise.setInstructions(collectFieldValues(instructionFields));
+        buttonCreateExercise.setEnabled(false);
+        dbExecutor.write(this, db -> db.saveExerciseGraph(exercise), exerciseId -> {
+            if (exerciseId > 0) {
+                Toast.makeText(this, R.string.exercise_created, Toast.LENGTH_SHORT).show();
+                overridePendingTransition(0, 0);
+                finish();
+            } else {
+                onSaveFailed(null);
             }
-            Toast.makeText(this, R.string.exercise_created, Toast.LENGTH_SHORT).show();
-            overridePendingTransition(0, 0);
-            finish();
-        } else {
-            Toast.makeText(this, R.string.error, Toast.LENGTH_SHORT).show();
-        }
+        }, this::onSaveFailed);
     }
 
     private void handleUpdateExercise() {
@@ -270,35 +255,83 @@ public class CreateExerciseActivity extends AppCompatActivity {
         }
         int sets = Integer.parseInt(setsStr);
 
-        if (selectedImage != null) {
-            imagePath = ImageHelper.saveImage(this, selectedImage, name);
-        }
+        storeSelectedImage(() -> saveExerciseChanges(name, sets, reps, restTime));
+    }
 
-        boolean updated = dbHelper.updateExercise(editExerciseId, name, sets, reps, restTime, imagePath);
-        if (updated) {
-            dbHelper.deleteExerciseEquipment(editExerciseId);
-            dbHelper.deleteExerciseInstructions(editExerciseId);
-            for (TextInputEditText field : equipmentFields) {
-                String equipment = field.getText().toString().trim();
-                if (!equipment.isEmpty()) {
-                    dbHelper.insertExerciseEquipment(editExerciseId, equipment);
-                }
+    private void saveExerciseChanges(String name, int sets, String reps, String restTime) {
+        Exercise exercise = new Exercise(editExerciseId, name, sets, reps, restTime, imagePath);
+        exercise.setEquipment(collectFieldValues(equipmentFields));
+        exercise.setInstructions(collectFieldValues(instructionFields));
+        buttonCreateExercise.setEnabled(false);
+        dbExecutor.write(this, db -> db.saveExerciseGraph(exercise), exerciseId -> {
+            if (exerciseId > 0) {
+                // A replaced image may now be unreferenced
+                ImageGarbageCollector.runAsync(this);
+                Toast.makeText(this, R.string.exercise_updated, Toast.LENGTH_SHORT).show();
+                setResult(RESULT_OK);
+                overridePendingTransition(0, 0);
+                finish();
+            } else {
+                onSaveFailed(null);
             }
-            for (int i = 0; i < instructionFields.size(); i++) {
-                String instruction = instructionFields.get(i).getText().toString().trim();
-                if (!instruction.isEmpty()) {
-                    dbHelper.insertExerciseInstruction(editExerciseId, instruction, i + 1);
-                }
+        }, this::onSaveFailed);
+    }
+
+    /** A save or delete did not go through: let the user try again. */
+    private void onSaveFailed(Exception error) {
+        buttonCreateExercise.setEnabled(true);
+        Toast.makeText(this, R.string.error, Toast.LENGTH_SHORT).show();
+    }
+
+    /**
+     * Copies the picked image into app storage off the main thread, then runs the save.
+     * The save button stays disabled meanwhile so a second tap cannot store the image twice.
+     * If the copy fails the pick is dropped and nothing is saved: the previous image stays in place
+     * and the user can save again without it.
+     */
+    private void storeSelectedImage(Runnable save) {
+        if (selectedImageUri == null) {
+            save.run();
+            return;
+        }
+        buttonCreateExercise.setEnabled(false);
+        ImageHelper.saveImageAsync(this, selectedImageUri, savedPath -> {
+            // The copy can finish after the user has left the screen
+            if (isFinishing() || isDestroyed()) return;
+            buttonCreateExercise.setEnabled(true);
+            selectedImageUri = null;
+            if (savedPath == null) {
+                showStoredImage();
+                Toast.makeText(this, R.string.image_save_failed, Toast.LENGTH_SHORT).show();
+                return;
             }
-            Toast.makeText(this, R.string.exercise_updated, Toast.LENGTH_SHORT).show();
-            setResult(RESULT_OK);
-            overridePendingTransition(0, 0);
-            finish();
+            imagePath = savedPath;
+            save.run();
+        });
+    }
+
+    /** Previews the stored image again after a failed pick, or hides the preview if there is none. */
+    private void showStoredImage() {
+        if (imagePath != null && !imagePath.isEmpty()) {
+            ImageHelper.loadImageAsync(imageExercise, imagePath);
         } else {
-            Toast.makeText(this, R.string.error, Toast.LENGTH_SHORT).show();
+            imageExercise.setImageDrawable(null);
+            imageExercise.setVisibility(View.GONE);
         }
     }
 
+    /** Trimmed, non-empty values of the dynamic equipment/instruction fields, in order. */
+    private List<String> collectFieldValues(List<TextInputEditText> fields) {
+        List<String> values = new ArrayList<>();
+        for (TextInputEditText field : fields) {
+            String value = field.getText().toString().trim();
+            if (!value.isEmpty()) {
+                values.add(value);
+            }
+        }
+        return values;
+    }
+
     private void showDeleteExerciseConfirm() {
         new AlertDialog.Builder(this)
                 .setMessage(R.string.delete_exercise_confirm)
@@ -308,12 +341,16 @@ public class CreateExerciseActivity extends AppCompatActivity {
     }
 
     private void deleteExercise() {
-        if (dbHelper.deleteExercise(editExerciseId)) {
-            Toast.makeText(this, R.string.exercise_deleted, Toast.LENGTH_SHORT).show();
-            setResult(RESULT_OK);
-            finish();
-        } else {
-            Toast.makeText(this, R.string.error, Toast.LENGTH_SHORT).show();
-        }
+        long exerciseId = editExerciseId;
+        dbExecutor.write(this, db -> db.deleteExercise(exerciseId), deleted -> {
+            if (deleted) {
+                ImageGarbageCollector.runAsync(this);
+                Toast.makeText(this, R.string.exercise_deleted, Toast.LENGTH_SHORT).show();
+                setResult(RESULT_OK);
+                finish();
+            } else {
+                onSaveFailed(null);
+            }
+        }, this::onSaveFailed);
     }
 }
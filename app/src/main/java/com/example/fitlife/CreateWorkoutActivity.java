@@ -1,7 +1,6 @@
 package com.example.fitlife;
 
 import android.content.Intent;
-import android.database.Cursor;
 import android.os.Bundle;
 import android.view.View;
 import android.widget.Toast;
@@ -13,9 +12,11 @@ import com.google.android.material.button.MaterialButton;
 import com.google.android.material.textfield.TextInputEditText;
 import com.google.android.material.textfield.TextInputLayout;
 import com.example.fitlife.adapters.WorkoutExerciseAdapter;
+import com.example.fitlife.models.Exercise;
 import com.example.fitlife.utils.SessionManager;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Create workout activity - allows user to create a new workout routine
@@ -26,7 +27,7 @@ public class CreateWorkoutActivity extends AppCompatActivity {
     private RecyclerView recyclerViewExercises;
     private MaterialButton buttonAddExistingExercises;
     private MaterialButton buttonCreateNewWorkout;
-    private DatabaseHelper dbHelper;
+    private DbExecutor dbExecutor;
     private SessionManager sessionManager;
     private List<WorkoutExerciseItem> selectedExercises = new ArrayList<>();
     private WorkoutExerciseAdapter adapter;
@@ -37,7 +38,7 @@ public class CreateWorkoutActivity extends AppCompatActivity {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_create_workout);
 
-        dbHelper = new DatabaseHelper(this);
+        dbExecutor = DbExecutor.getInstance(this);
         sessionManager = new SessionManager(this);
 
         if (!sessionManager.isLoggedIn()) {
@@ -82,7 +83,7 @@ public class CreateWorkoutActivity extends AppCompatActivity {
     }
 
     private void setupRecyclerView() {
-        adapter = new WorkoutExerciseAdapter(selectedExercises,
+        adapter = new WorkoutExerciseAdapter(
                 exercise -> {
                     // Edit: open Exercise Details
                     editingExerciseId = exercise.exerciseId;
@@ -93,7 +94,7 @@ public class CreateWorkoutActivity extends AppCompatActivity {
                 exerciseId -> {
                     // Remove exercise from list
                     selectedExercises.removeIf(item -> item.exerciseId == exerciseId);
-                    adapter.notifyDataSetChanged();
+                    submitSelectedExercises();
                 });
         recyclerViewExercises.setLayoutManager(new LinearLayoutManager(this));
         recyclerViewExercises.setAdapter(adapter);
@@ -105,23 +106,7 @@ public class CreateWorkoutActivity extends AppCompatActivity {
         if (requestCode == 1 && resultCode == RESULT_OK && data != null) {
             long[] exerciseIds = data.getLongArrayExtra("selected_exercises");
             if (exerciseIds != null) {
-                for (long exerciseId : exerciseIds) {
-                    Cursor cursor = dbHelper.getExercise(exerciseId);
-                    if (cursor.moveToFirst()) {
-                        String name = cursor.getString(cursor.getColumnIndexOrThrow("name"));
-                        int sets = cursor.getInt(cursor.getColumnIndexOrThrow("sets"));
-                        String reps = cursor.getString(cursor.getColumnIndexOrThrow("reps"));
-                        
-                        WorkoutExerciseItem item = new WorkoutExerciseItem();
-                        item.exerciseId = exerciseId;
-                        item.exerciseName = name;
-                        item.sets = sets;
-                        item.reps = reps;
-                        selectedExercises.add(item);
-                    }
-                    cursor.close();
-                }
-                adapter.notifyDataSetChanged();
+                dbExecutor.read(this, db -> db.getExercisesByIds(exerciseIds), found -> addSelectedExercises(exerciseIds, found));
             }
         }
         if (requestCode == 2 && resultCode == RESULT_OK && editingExerciseId > 0) {
@@ -130,27 +115,47 @@ public class CreateWorkoutActivity extends AppCompatActivity {
         }
     }
 
+    /** Appends the picked exercises in the order they were picked, skipping any deleted meanwhile. */
+    private void addSelectedExercises(long[] exerciseIds, Map<Long, Exercise> found) {
+        for (long exerciseId : exerciseIds) {
+            Exercise exercise = found.get(exerciseId);
+            if (exercise == null) continue;
+            WorkoutExerciseItem item = new WorkoutExerciseItem();
+            item.exerciseId = exerciseId;
+            item.exerciseName = exercise.getName();
+            item.sets = exercise.getSets();
+            item.reps = exercise.getReps();
+            selectedExercises.add(item);
+        }
+        submitSelectedExercises();
+    }
+
     private void refreshExerciseInList(long exerciseId) {
-        Cursor cursor = dbHelper.getExercise(exerciseId);
-        if (cursor.moveToFirst()) {
-            String name = cursor.getString(cursor.getColumnIndexOrThrow("name"));
-            int sets = cursor.getInt(cursor.getColumnIndexOrThrow("sets"));
-            String reps = cursor.getString(cursor.getColumnIndexOrThrow("reps"));
-            cursor.close();
-            for (WorkoutExerciseItem item : selectedExercises) {
-                if (item.exerciseId == exerciseId) {
-                    item.exerciseName = name;
-                    item.sets = sets;
-                    item.reps = reps;
-                    break;
+        dbExecutor.read(this, db -> db.getExercisesByIds(new long[]{exerciseId}), found -> {
+            Exercise exercise = found.get(exerciseId);
+            if (exercise != null) {
+                for (int i = 0; i < selectedExercises.size(); i++) {
+                    if (selectedExercises.get(i).exerciseId == exerciseId) {
+                        // Replace rather than mutate: the adapter still holds the old item to diff against
+                        WorkoutExerciseItem item = new WorkoutExerciseItem();
+                        item.exerciseId = exerciseId;
+                        item.exerciseName = exercise.getName();
+                        item.sets = exercise.getSets();
+                        item.reps = exercise.getReps();
+                        selectedExercises.set(i, item);
+                        break;
+                    }
                 }
+            } else {
+                selectedExercises.removeIf(item -> item.exerciseId == exerciseId);
             }
-            adapter.notifyDataSetChanged();
-        } else {
-            cursor.close();
-            selectedExercises.removeIf(item -> item.exerciseId == exerciseId);
-            adapter.notifyDataSetChanged();
-        }
+            submitSelectedExercises();
+        });
+    }
+
+    /** Hands the adapter a snapshot; it diffs against the previous one and only rebinds changed rows. */
+    private void submitSelectedExercises() {
+        adapter.submitList(new ArrayList<>(selectedExercises));
     }
 
     private void handleCreateWorkout() {
@@ -167,20 +172,24 @@ public class CreateWorkoutActivity extends AppCompatActivity {
         }
 
         int userId = sessionManager.getUserId();
-        long workoutId = dbHelper.insertWorkoutRoutine(workoutName, userId);
-
-        if (workoutId > 0) {
-            // Add exercises to workout
-            for (WorkoutExerciseItem item : selectedExercises) {
-                dbHelper.insertWorkoutExercise(workoutId, item.exerciseId, item.sets, item.reps);
+        long[] exerciseIds = new long[selectedExercises.size()];
+        for (int i = 0; i < selectedExercises.size(); i++) {
+            exerciseIds[i] = selectedExercises.get(i).exerciseId;
+        }
+        buttonCreateNewWorkout.setEnabled(false);
+        dbExecutor.write(this, db -> db.createWorkoutRoutine(workoutName, userId, exerciseIds), workoutId -> {
+            if (workoutId > 0) {
+                Toast.makeText(this, R.string.workout_created, Toast.LENGTH_SHORT).show();
+                overridePendingTransition(0, 0);
+                finish();
+            } else {
+                buttonCreateNewWorkout.setEnabled(true);
+                Toast.makeText(this, R.string.error, Toast.LENGTH_SHORT).show();
             }
-
-            Toast.makeText(this, R.string.workout_created, Toast.LENGTH_SHORT).show();
-            overridePendingTransition(0, 0);
-            finish();
-        } else {
+        }, error -> {
+            buttonCreateNewWorkout.setEnabled(true);
             Toast.makeText(this, R.string.error, Toast.LENGTH_SHORT).show();
-        }
+        });
     }
 
     public static class WorkoutExerciseItem {
@@ -5,21 +5,49 @@ import android.content.Context;
 import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
+import android.os.Build;
+import android.util.Log;
+import com.example.fitlife.models.CurrentWorkout;
+import com.example.fitlife.models.Exercise;
+import com.example.fitlife.models.ExerciseRecord;
+import com.example.fitlife.models.PeriodTotals;
+import com.example.fitlife.models.SessionEvent;
+import com.example.fitlife.models.Workout;
+import com.example.fitlife.models.WorkoutSession;
+import com.example.fitlife.utils.ActivityBitmap;
+import com.example.fitlife.utils.DoseParser;
+import com.example.fitlife.utils.ProgressMath;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
 
 /**
  * SQLite database helper for FitLife app
  * Manages all database operations for users, exercises, workouts, and related data
  */
 public class DatabaseHelper extends SQLiteOpenHelper {
+    private static final String TAG = "DatabaseHelper";
     private static final String DATABASE_NAME = "FitLife.db";
-    private static final int DATABASE_VERSION = 4;
+    private static final int DATABASE_VERSION = 15;
+    private static final int SAMPLE_ATTEMPTS_PER_PICK = 8;
+    // Id filters longer than this go through a temp table instead of an inlined IN list
+    static final int MAX_INLINED_IDS = 100;
+    private static final String TEMP_INCLUDED_IDS = "included_ids";
+    private static final String TEMP_EXCLUDED_IDS = "excluded_ids";
 
     // Table names
     private static final String TABLE_USERS = "users";
     private static final String TABLE_USER_DETAILS = "user_details";
     private static final String TABLE_EXERCISES = "exercises";
+    private static final String TABLE_EQUIPMENT = "equipment";
     private static final String TABLE_EXERCISE_EQUIPMENT = "exercise_equipment";
     private static final String TABLE_EXERCISE_INSTRUCTIONS = "exercise_instructions";
     private static final String TABLE_WORKOUT_ROUTINES = "workout_routines";
@@ -28,6 +56,16 @@ public class DatabaseHelper extends SQLiteOpenHelper {
     private static final String TABLE_CURRENT_WORKOUT_EXERCISE_STATUS = "current_workout_exercise_status";
     private static final String TABLE_CURRENT_WORKOUT_REMOVED_EXERCISES = "current_workout_removed_exercises";
     private static final String TABLE_USER_STATS = "user_stats";
+    private static final String TABLE_USER_EXERCISE_REFS = "user_exercise_refs";
+    private static final String TABLE_USER_ACTIVITY = "user_activity";
+    private static final String TABLE_WORKOUT_SESSIONS = "workout_sessions";
+    private static final String TABLE_SESSION_EVENTS = "session_events";
+    private static final String TABLE_USER_ROLLUPS = "user_rollups";
+    private static final String TABLE_EXERCISE_ROLLUPS = "exercise_rollups";
+    private static final String TABLE_EXERCISE_RECORDS = "exercise_records";
+    private static final String TABLE_IMAGE_REFS = "image_refs";
+    private static final String TABLE_EXERCISES_FTS = "exercises_fts";
+    private static final int FTS_COLUMNS = 3;
 
     // Users table columns
     private static final String COL_USER_ID = "user_id";
@@ -47,9 +85,13 @@ public class DatabaseHelper extends SQLiteOpenHelper {
     private static final String COL_SETS = "sets";
     private static final String COL_REPS = "reps";
     private static final String COL_REST_TIME = "rest_time";
+    private static final String COL_REPS_MIN = "reps_min";
+    private static final String COL_REPS_MAX = "reps_max";
+    private static final String COL_REST_SECONDS = "rest_seconds";
     private static final String COL_IMAGE_PATH = "image_path";
 
-    // Exercise equipment table columns
+    // Equipment dictionary and exercise_equipment junction columns
+    private static final String COL_EQUIPMENT_ID = "equipment_id";
     private static final String COL_EQUIPMENT_NAME = "equipment_name";
 
     // Exercise instructions table columns
@@ -71,8 +113,89 @@ public class DatabaseHelper extends SQLiteOpenHelper {
     private static final String COL_TOTAL_EXERCISES = "total_exercises";
     private static final String COL_ACTIVE_DAYS = "active_days";
 
-    public DatabaseHelper(Context context) {
-        super(context, DATABASE_NAME, null, DATABASE_VERSION);
+    // User activity table columns
+    private static final String COL_ACTIVE_DAY_BITS = "active_day_bits";
+
+    // Workout sessions and session events table columns
+    private static final String COL_SESSION_ID = "session_id";
+    private static final String COL_STARTED_AT = "started_at";
+    private static final String COL_ENDED_AT = "ended_at";
+    private static final String COL_EXERCISES_COMPLETED = "exercises_completed";
+    private static final String COL_SETS_COMPLETED = "sets_completed";
+    private static final String COL_TOTAL_REPS = "total_reps";
+    private static final String COL_TOTAL_VOLUME = "total_volume";
+    private static final String COL_SET_INDEX = "set_index";
+    private static final String COL_LOAD = "load";
+    private static final String COL_CREATED_AT = "created_at";
+    private static final String COL_EVENT_TYPE = "event_type";
+    private static final String COL_ROLLED_UP = "rolled_up";
+
+    // Progress rollup and exercise record table columns
+    private static final String COL_PERIOD_TYPE = "period_type";
+    private static final String COL_PERIOD_START = "period_start";
+    private static final String COL_SESSIONS = "sessions";
+    private static final String COL_VOLUME = "volume";
+    private static final String COL_BEST_ONE_REP_MAX = "best_one_rep_max";
+    private static final String COL_BEST_ONE_REP_MAX_AT = "best_one_rep_max_at";
+    private static final String COL_MAX_REPS = "max_reps";
+    private static final String COL_MAX_REPS_AT = "max_reps_at";
+    private static final String COL_MAX_LOAD = "max_load";
+    private static final String COL_TOTAL_SETS = "total_sets";
+    private static final String COL_LAST_PERFORMED_AT = "last_performed_at";
+
+    // Image refs table columns
+    private static final String COL_REF_COUNT = "ref_count";
+
+    // Idle pooled reader connections are released after this long (API 27+)
+    private static final long IDLE_CONNECTION_TIMEOUT_MS = 30_000;
+
+    private static DatabaseHelper instance;
+    private WalCheckpointer checkpointer;
+
+    /**
+     * Returns the process-wide helper. Its database connection is opened once and kept
+     * open for the lifetime of the app, so callers must never close it; they only close
+     * the cursors they receive.
+     */
+    public static synchronized DatabaseHelper getInstance(Context context) {
+        if (instance == null) {
+            Context appContext = context.getApplicationContext();
+            instance = new DatabaseHelper(appContext);
+            instance.checkpointer = new WalCheckpointer(instance, appContext.getDatabasePath(DATABASE_NAME));
+            appContext.registerComponentCallbacks(instance.checkpointer);
+        }
+        return instance;
+    }
+
+    private DatabaseHelper(Context context) {
+        this(context, DATABASE_NAME);
+    }
+
+    /** A helper over the named database; a null name opens a private in-memory database, as the tests do. */
+    DatabaseHelper(Context context, String name) {
+        this(context, name, null);
+    }
+
+    /** As above, with a factory that builds every query's cursor; tests use it to count statements. */
+    DatabaseHelper(Context context, String name, SQLiteDatabase.CursorFactory factory) {
+        super(context, name, factory, DATABASE_VERSION);
+        // Closing an idle in-memory connection would drop the database with it
+        if (name != null && Build.VERSION.SDK_INT >= Build.VERSION_CODES.O_MR1) {
+            setIdleConnectionTimeout(IDLE_CONNECTION_TIMEOUT_MS);
+        }
+    }
+
+    /** Checkpoint policy and WAL metrics for this database. */
+    public WalCheckpointer getCheckpointer() {
+        return checkpointer;
+    }
+
+    @Override
+    public void onConfigure(SQLiteDatabase db) {
+        super.onConfigure(db);
+        // Write-ahead logging: writes go to the primary connection while reads are served
+        // concurrently from the framework's pool of read-only secondary connections
+        db.enableWriteAheadLogging();
     }
 
     @Override
@@ -102,16 +225,14 @@ public class DatabaseHelper extends SQLiteOpenHelper {
                 COL_SETS + " INTEGER, " +
                 COL_REPS + " TEXT, " +
                 COL_REST_TIME + " TEXT, " +
-                COL_IMAGE_PATH + " TEXT)";
+                COL_IMAGE_PATH + " TEXT, " +
+                COL_REPS_MIN + " INTEGER, " +
+                COL_REPS_MAX + " INTEGER, " +
+                COL_REST_SECONDS + " INTEGER)";
         db.execSQL(createExercisesTable);
 
-        // Create exercise_equipment table
-        String createExerciseEquipmentTable = "CREATE TABLE " + TABLE_EXERCISE_EQUIPMENT + " (" +
-                "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
-                COL_EXERCISE_ID + " INTEGER NOT NULL, " +
-                COL_EQUIPMENT_NAME + " TEXT NOT NULL, " +
-                "FOREIGN KEY(" + COL_EXERCISE_ID + ") REFERENCES " + TABLE_EXERCISES + "(" + COL_EXERCISE_ID + "))";
-        db.execSQL(createExerciseEquipmentTable);
+        // Create equipment dictionary and exercise_equipment junction tables
+        createEquipmentTables(db);
 
         // Create exercise_instructions table
         String createExerciseInstructionsTable = "CREATE TABLE " + TABLE_EXERCISE_INSTRUCTIONS + " (" +
@@ -138,6 +259,8 @@ public class DatabaseHelper extends SQLiteOpenHelper {
                 COL_EXERCISE_ID + " INTEGER NOT NULL, " +
                 COL_SETS + " INTEGER, " +
                 COL_REPS + " TEXT, " +
+                COL_REPS_MIN + " INTEGER, " +
+                COL_REPS_MAX + " INTEGER, " +
                 "FOREIGN KEY(" + COL_WORKOUT_ID + ") REFERENCES " + TABLE_WORKOUT_ROUTINES + "(" + COL_WORKOUT_ID + "), " +
                 "FOREIGN KEY(" + COL_EXERCISE_ID + ") REFERENCES " + TABLE_EXERCISES + "(" + COL_EXERCISE_ID + "))";
         db.execSQL(createWorkoutExercisesTable);
@@ -182,6 +305,503 @@ public class DatabaseHelper extends SQLiteOpenHelper {
                 COL_ACTIVE_DAYS + " INTEGER DEFAULT 0, " +
                 "FOREIGN KEY(" + COL_USER_ID + ") REFERENCES " + TABLE_USERS + "(" + COL_USER_ID + "))";
         db.execSQL(createUserStatsTable);
+
+        createIndexes(db);
+        createImageRefs(db);
+        createExerciseSearch(db);
+        createUserStatsTriggers(db);
+        createUserActivity(db);
+        createSessionHistory(db);
+        createProgressRollups(db);
+        createDoseIndexes(db);
+    }
+
+    /**
+     * Secondary indexes for every foreign-key / hot lookup column.
+     * Composite indexes also cover the ORDER BY of the queries that use them.
+     */
+    private void createIndexes(SQLiteDatabase db) {
+        // getWorkoutExercises / getCurrentWorkoutExercises: WHERE workout_id ORDER BY id
+        db.execSQL("CREATE INDEX IF NOT EXISTS idx_workout_exercises_workout ON " + TABLE_WORKOUT_EXERCISES +
+                " (" + COL_WORKOUT_ID + ", id)");
+        // deleteExercise and per-exercise lookups
+        db.execSQL("CREATE INDEX IF NOT EXISTS idx_workout_exercises_exercise ON " + TABLE_WORKOUT_EXERCISES +
+                " (" + COL_EXERCISE_ID + ")");
+        // getExerciseInstructions: WHERE exercise_id ORDER BY instruction_order
+        db.execSQL("CREATE INDEX IF NOT EXISTS idx_exercise_instructions_exercise ON " + TABLE_EXERCISE_INSTRUCTIONS +
+                " (" + COL_EXERCISE_ID + ", " + COL_INSTRUCTION_ORDER + ")");
+        // getUserWorkouts: WHERE user_id ORDER BY created_date
+        db.execSQL("CREATE INDEX IF NOT EXISTS idx_workout_routines_user ON " + TABLE_WORKOUT_ROUTINES +
+                " (" + COL_USER_ID + ", " + COL_CREATED_DATE + ")");
+        // getCurrentWorkouts: WHERE user_id ORDER BY started_date
+        db.execSQL("CREATE INDEX IF NOT EXISTS idx_current_workouts_user ON " + TABLE_CURRENT_WORKOUTS +
+                " (" + COL_USER_ID + ", " + COL_STARTED_DATE + ")");
+        // insertCurrentWorkout / updateCurrentWorkoutStatus / deleteCurrentWorkout: WHERE workout_id AND user_id
+        db.execSQL("CREATE INDEX IF NOT EXISTS idx_current_workouts_workout ON " + TABLE_CURRENT_WORKOUTS +
+                " (" + COL_WORKOUT_ID + ", " + COL_USER_ID + ")");
+        // usernameTaken
+        db.execSQL("CREATE INDEX IF NOT EXISTS idx_users_username ON " + TABLE_USERS + " (" + COL_USERNAME + ")");
+        // getAllExercises, getExercisesAfter/Before: ORDER BY name, exercise_id (the rowid, implicitly in the index)
+        db.execSQL("CREATE INDEX IF NOT EXISTS idx_exercises_name ON " + TABLE_EXERCISES + " (" + COL_EXERCISE_NAME + ")");
+    }
+
+    /**
+     * Reference count per stored exercise image, kept in step with exercises.image_path by triggers
+     * and backfilled from the current rows. The triggers are the only writers, so ImageGarbageCollector
+     * reads the counts alone to find orphaned files.
+     */
+    private void createImageRefs(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE IF NOT EXISTS " + TABLE_IMAGE_REFS + " (" +
+                COL_IMAGE_PATH + " TEXT PRIMARY KEY, " +
+                COL_REF_COUNT + " INTEGER NOT NULL DEFAULT 0)");
+
+        String acquireNew = "INSERT OR IGNORE INTO " + TABLE_IMAGE_REFS + " (" + COL_IMAGE_PATH + ") VALUES (NEW." + COL_IMAGE_PATH + "); " +
+                "UPDATE " + TABLE_IMAGE_REFS + " SET " + COL_REF_COUNT + " = " + COL_REF_COUNT + " + 1" +
+                " WHERE " + COL_IMAGE_PATH + " = NEW." + COL_IMAGE_PATH + "; ";
+        String releaseOld = "UPDATE " + TABLE_IMAGE_REFS + " SET " + COL_REF_COUNT + " = " + COL_REF_COUNT + " - 1" +
+                " WHERE " + COL_IMAGE_PATH + " = OLD." + COL_IMAGE_PATH + "; ";
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS trg_exercises_image_insert AFTER INSERT ON " + TABLE_EXERCISES +
+                " WHEN NEW." + COL_IMAGE_PATH + " IS NOT NULL BEGIN " + acquireNew + "END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS trg_exercises_image_release AFTER UPDATE OF " + COL_IMAGE_PATH + " ON " + TABLE_EXERCISES +
+                " WHEN OLD." + COL_IMAGE_PATH + " IS NOT NEW." + COL_IMAGE_PATH + " AND OLD." + COL_IMAGE_PATH + " IS NOT NULL" +
+                " BEGIN " + releaseOld + "END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS trg_exercises_image_acquire AFTER UPDATE OF " + COL_IMAGE_PATH + " ON " + TABLE_EXERCISES +
+                " WHEN OLD." + COL_IMAGE_PATH + " IS NOT NEW." + COL_IMAGE_PATH + " AND NEW." + COL_IMAGE_PATH + " IS NOT NULL" +
+                " BEGIN " + acquireNew + "END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS trg_exercises_image_delete AFTER DELETE ON " + TABLE_EXERCISES +
+                " WHEN OLD." + COL_IMAGE_PATH + " IS NOT NULL BEGIN " + releaseOld + "END");
+
+        rebuildImageRefs(db);
+    }
+
+    /** Recounts image_refs from the exercises, dropping any count that has drifted from the rows. */
+    private void rebuildImageRefs(SQLiteDatabase db) {
+        db.execSQL("DELETE FROM " + TABLE_IMAGE_REFS);
+        db.execSQL("INSERT INTO " + TABLE_IMAGE_REFS + " (" + COL_IMAGE_PATH + ", " + COL_REF_COUNT + ")" +
+                " SELECT " + COL_IMAGE_PATH + ", COUNT(*) FROM " + TABLE_EXERCISES +
+                " WHERE " + COL_IMAGE_PATH + " IS NOT NULL GROUP BY " + COL_IMAGE_PATH);
+    }
+
+    /**
+     * Keeps user_stats exact with triggers, so reading it is a single primary-key lookup:
+     * total_sessions counts every current workout ever started (clearing the list does not undo it),
+     * total_routines the user's routines, and total_exercises the distinct exercises across them.
+     * The distinct count is backed by user_exercise_refs, which counts how many of the user's
+     * workout_exercises rows use each exercise. Backfilled from the current rows.
+     * Relies on a routine's exercises being deleted before the routine itself (see deleteWorkoutRoutine).
+     */
+    private void createUserStatsTriggers(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE IF NOT EXISTS " + TABLE_USER_EXERCISE_REFS + " (" +
+                COL_USER_ID + " INTEGER NOT NULL, " +
+                COL_EXERCISE_ID + " INTEGER NOT NULL, " +
+                COL_REF_COUNT + " INTEGER NOT NULL DEFAULT 0, " +
+                "PRIMARY KEY (" + COL_USER_ID + ", " + COL_EXERCISE_ID + ")) WITHOUT ROWID");
+
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS trg_stats_session_insert AFTER INSERT ON " + TABLE_CURRENT_WORKOUTS +
+                " BEGIN " + ensureUserStats("NEW." + COL_USER_ID) +
+                "UPDATE " + TABLE_USER_STATS + " SET " + COL_TOTAL_SESSIONS + " = " + COL_TOTAL_SESSIONS + " + 1" +
+                " WHERE " + COL_USER_ID + " = NEW." + COL_USER_ID + "; END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS trg_stats_routine_insert AFTER INSERT ON " + TABLE_WORKOUT_ROUTINES +
+                " BEGIN " + ensureUserStats("NEW." + COL_USER_ID) +
+                "UPDATE " + TABLE_USER_STATS + " SET " + COL_TOTAL_ROUTINES + " = " + COL_TOTAL_ROUTINES + " + 1" +
+                " WHERE " + COL_USER_ID + " = NEW." + COL_USER_ID + "; END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS trg_stats_routine_delete AFTER DELETE ON " + TABLE_WORKOUT_ROUTINES +
+                " BEGIN UPDATE " + TABLE_USER_STATS + " SET " + COL_TOTAL_ROUTINES + " = " + COL_TOTAL_ROUTINES + " - 1" +
+                " WHERE " + COL_USER_ID + " = OLD." + COL_USER_ID + "; END");
+
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS trg_stats_exercise_insert AFTER INSERT ON " + TABLE_WORKOUT_EXERCISES +
+                " BEGIN " + acquireExerciseRef("NEW") + "END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS trg_stats_exercise_delete AFTER DELETE ON " + TABLE_WORKOUT_EXERCISES +
+                " BEGIN " + releaseExerciseRef("OLD") + "END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS trg_stats_exercise_update AFTER UPDATE OF " +
+                COL_WORKOUT_ID + ", " + COL_EXERCISE_ID + " ON " + TABLE_WORKOUT_EXERCISES +
+                " BEGIN " + releaseExerciseRef("OLD") + acquireExerciseRef("NEW") + "END");
+
+        db.execSQL("DELETE FROM " + TABLE_USER_EXERCISE_REFS);
+        db.execSQL("INSERT INTO " + TABLE_USER_EXERCISE_REFS + " (" + COL_USER_ID + ", " + COL_EXERCISE_ID + ", " + COL_REF_COUNT + ")" +
+                " SELECT wr." + COL_USER_ID + ", we." + COL_EXERCISE_ID + ", COUNT(*) FROM " + TABLE_WORKOUT_EXERCISES + " we" +
+                " INNER JOIN " + TABLE_WORKOUT_ROUTINES + " wr ON wr." + COL_WORKOUT_ID + " = we." + COL_WORKOUT_ID +
+                " GROUP BY wr." + COL_USER_ID + ", we." + COL_EXERCISE_ID);
+        db.execSQL("INSERT OR IGNORE INTO " + TABLE_USER_STATS + " (" + COL_USER_ID + ") SELECT " + COL_USER_ID + " FROM " + TABLE_USERS);
+        // Sessions were only ever counted up, so the stored count is kept unless the table shows more
+        db.execSQL("UPDATE " + TABLE_USER_STATS + " SET " +
+                COL_TOTAL_SESSIONS + " = MAX(IFNULL(" + COL_TOTAL_SESSIONS + ", 0), (SELECT COUNT(*) FROM " + TABLE_CURRENT_WORKOUTS +
+                " cw WHERE cw." + COL_USER_ID + " = " + TABLE_USER_STATS + "." + COL_USER_ID + ")), " +
+                COL_TOTAL_ROUTINES + " = (SELECT COUNT(*) FROM " + TABLE_WORKOUT_ROUTINES +
+                " wr WHERE wr." + COL_USER_ID + " = " + TABLE_USER_STATS + "." + COL_USER_ID + "), " +
+                COL_TOTAL_EXERCISES + " = (SELECT COUNT(*) FROM " + TABLE_USER_EXERCISE_REFS +
+                " r WHERE r." + COL_USER_ID + " = " + TABLE_USER_STATS + "." + COL_USER_ID + ")");
+    }
+
+    /**
+     * One ActivityBitmap BLOB per user: the days they completed an exercise or a workout.
+     * Backfilled from the start dates of completed current workouts, the only activity dates stored so far.
+     */
+    private void createUserActivity(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE IF NOT EXISTS " + TABLE_USER_ACTIVITY + " (" +
+                COL_USER_ID + " INTEGER PRIMARY KEY, " +
+                COL_ACTIVE_DAY_BITS + " BLOB NOT NULL)");
+
+        Map<Integer, ActivityBitmap> activity = new HashMap<>();
+        int skipped = 0;
+        Cursor cursor = db.rawQuery("SELECT " + COL_USER_ID + ", " + COL_STARTED_DATE + " FROM " + TABLE_CURRENT_WORKOUTS +
+                " WHERE " + COL_STATUS + " = 'completed' COLLATE NOCASE", null);
+        if (cursor.moveToFirst()) {
+            do {
+                try {
+                    long started = Long.parseLong(cursor.getString(1));
+                    ActivityBitmap days = activity.get(cursor.getInt(0));
+                    if (days == null) {
+                        days = new ActivityBitmap();
+                        activity.put(cursor.getInt(0), days);
+                    }
+                    days.mark(ActivityBitmap.epochDay(started));
+                } catch (NumberFormatException e) {
+                    skipped++;
+                }
+            } while (cursor.moveToNext());
+        }
+        cursor.close();
+        if (skipped > 0) {
+            Log.w(TAG, "Activity backfill skipped " + skipped + " workouts without a numeric start date");
+        }
+        for (Map.Entry<Integer, ActivityBitmap> entry : activity.entrySet()) {
+            saveActivity(db, entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Durable workout history. workout_sessions has one summary row per performed session and session_events
+     * is an append-only log of what happened in it; neither is cleared with the current-workout tables.
+     * Triggers on current_workouts open a session when a workout is started, complete it when the workout
+     * is completed and mark it abandoned when the workout is deleted or reset.
+     * Existing current workouts are backfilled as sessions.
+     */
+    private void createSessionHistory(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE IF NOT EXISTS " + TABLE_WORKOUT_SESSIONS + " (" +
+                COL_SESSION_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                COL_USER_ID + " INTEGER NOT NULL, " +
+                COL_WORKOUT_ID + " INTEGER NOT NULL, " +
+                COL_WORKOUT_NAME + " TEXT, " +
+                COL_STATUS + " TEXT NOT NULL, " +
+                COL_STARTED_AT + " INTEGER NOT NULL, " +
+                COL_ENDED_AT + " INTEGER, " +
+                COL_EXERCISES_COMPLETED + " INTEGER NOT NULL DEFAULT 0, " +
+                COL_SETS_COMPLETED + " INTEGER NOT NULL DEFAULT 0, " +
+                COL_TOTAL_REPS + " INTEGER NOT NULL DEFAULT 0, " +
+                COL_TOTAL_VOLUME + " REAL NOT NULL DEFAULT 0)");
+        db.execSQL("CREATE TABLE IF NOT EXISTS " + TABLE_SESSION_EVENTS + " (" +
+                "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                COL_SESSION_ID + " INTEGER NOT NULL, " +
+                COL_EXERCISE_ID + " INTEGER NOT NULL, " +
+                COL_SET_INDEX + " INTEGER NOT NULL, " +
+                COL_REPS + " INTEGER NOT NULL DEFAULT 0, " +
+                COL_LOAD + " REAL NOT NULL DEFAULT 0, " +
+                COL_CREATED_AT + " INTEGER NOT NULL, " +
+                COL_EVENT_TYPE + " TEXT NOT NULL)");
+        // getRecentSessions: WHERE user_id ORDER BY started_at DESC
+        db.execSQL("CREATE INDEX IF NOT EXISTS idx_workout_sessions_user ON " + TABLE_WORKOUT_SESSIONS +
+                " (" + COL_USER_ID + ", " + COL_STARTED_AT + ")");
+        // getActiveSessionId and the current_workouts triggers: WHERE user_id AND workout_id AND status
+        db.execSQL("CREATE INDEX IF NOT EXISTS idx_workout_sessions_workout ON " + TABLE_WORKOUT_SESSIONS +
+                " (" + COL_USER_ID + ", " + COL_WORKOUT_ID + ", " + COL_STATUS + ")");
+        // Per-session summaries and per-exercise progress over time
+        db.execSQL("CREATE INDEX IF NOT EXISTS idx_session_events_session ON " + TABLE_SESSION_EVENTS +
+                " (" + COL_SESSION_ID + ")");
+        db.execSQL("CREATE INDEX IF NOT EXISTS idx_session_events_exercise ON " + TABLE_SESSION_EVENTS +
+                " (" + COL_EXERCISE_ID + ", " + COL_CREATED_AT + ")");
+
+        String nowMs = "CAST((julianday('now') - 2440587.5) * 86400000 AS INTEGER)";
+        String activeSessionOf = " WHERE " + COL_USER_ID + " = %1$s." + COL_USER_ID +
+                " AND " + COL_WORKOUT_ID + " = %1$s." + COL_WORKOUT_ID +
+                " AND " + COL_STATUS + " = '" + WorkoutSession.STATUS_ACTIVE + "'";
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS trg_sessions_start AFTER INSERT ON " + TABLE_CURRENT_WORKOUTS +
+                " BEGIN INSERT INTO " + TABLE_WORKOUT_SESSIONS + " (" + COL_USER_ID + ", " + COL_WORKOUT_ID + ", " +
+                COL_WORKOUT_NAME + ", " + COL_STATUS + ", " + COL_STARTED_AT + ")" +
+                " VALUES (NEW." + COL_USER_ID + ", NEW." + COL_WORKOUT_ID + ", (SELECT " + COL_WORKOUT_NAME +
+                " FROM " + TABLE_WORKOUT_ROUTINES + " WHERE " + COL_WORKOUT_ID + " = NEW." + COL_WORKOUT_ID + "), '" +
+                WorkoutSession.STATUS_ACTIVE + "', IFNULL(CAST(NEW." + COL_STARTED_DATE + " AS INTEGER), " + nowMs + ")); END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS trg_sessions_complete AFTER UPDATE OF " + COL_STATUS + " ON " + TABLE_CURRENT_WORKOUTS +
+                " WHEN NEW." + COL_STATUS + " = 'completed' COLLATE NOCASE" +
+                " BEGIN UPDATE " + TABLE_WORKOUT_SESSIONS + " SET " + COL_STATUS + " = '" + WorkoutSession.STATUS_COMPLETED + "', " +
+                COL_ENDED_AT + " = " + nowMs + String.format(activeSessionOf, "NEW") + "; END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS trg_sessions_abandon AFTER DELETE ON " + TABLE_CURRENT_WORKOUTS +
+                " BEGIN UPDATE " + TABLE_WORKOUT_SESSIONS + " SET " + COL_STATUS + " = '" + WorkoutSession.STATUS_ABANDONED + "', " +
+                COL_ENDED_AT + " = " + nowMs + String.format(activeSessionOf, "OLD") + "; END");
+
+        db.execSQL("INSERT INTO " + TABLE_WORKOUT_SESSIONS + " (" + COL_USER_ID + ", " + COL_WORKOUT_ID + ", " +
+                COL_WORKOUT_NAME + ", " + COL_STATUS + ", " + COL_STARTED_AT + ")" +
+                " SELECT cw." + COL_USER_ID + ", cw." + COL_WORKOUT_ID + ", wr." + COL_WORKOUT_NAME + "," +
+                " CASE WHEN cw." + COL_STATUS + " = 'completed' COLLATE NOCASE THEN '" + WorkoutSession.STATUS_COMPLETED +
+                "' ELSE '" + WorkoutSession.STATUS_ACTIVE + "' END," +
+                " IFNULL(CAST(cw." + COL_STARTED_DATE + " AS INTEGER), " + nowMs + ")" +
+                " FROM " + TABLE_CURRENT_WORKOUTS + " cw" +
+                " LEFT JOIN " + TABLE_WORKOUT_ROUTINES + " wr ON wr." + COL_WORKOUT_ID + " = cw." + COL_WORKOUT_ID +
+                " WHERE NOT EXISTS (SELECT 1 FROM " + TABLE_WORKOUT_SESSIONS + ")");
+    }
+
+    /**
+     * Progress analytics, kept as rollups so dashboards never read the event log:
+     * user_rollups and exercise_rollups hold day, week and month totals keyed by the period's first day,
+     * exercise_records holds lifetime totals and personal records per exercise.
+     * A session is added to all of them once, when it completes (see rollUpSession); rolled_up marks it done.
+     * Sessions completed before this table existed are rolled up here.
+     */
+    private void createProgressRollups(SQLiteDatabase db) {
+        if (!hasColumn(db, TABLE_WORKOUT_SESSIONS, COL_ROLLED_UP)) {
+            db.execSQL("ALTER TABLE " + TABLE_WORKOUT_SESSIONS + " ADD COLUMN " + COL_ROLLED_UP + " INTEGER NOT NULL DEFAULT 0");
+        }
+        db.execSQL("CREATE TABLE IF NOT EXISTS " + TABLE_USER_ROLLUPS + " (" +
+                COL_USER_ID + " INTEGER NOT NULL, " +
+                COL_PERIOD_TYPE + " TEXT NOT NULL, " +
+                COL_PERIOD_START + " INTEGER NOT NULL, " +
+                COL_SESSIONS + " INTEGER NOT NULL DEFAULT 0, " +
+                COL_SETS + " INTEGER NOT NULL DEFAULT 0, " +
+                COL_REPS + " INTEGER NOT NULL DEFAULT 0, " +
+                COL_VOLUME + " REAL NOT NULL DEFAULT 0, " +
+                "PRIMARY KEY (" + COL_USER_ID + ", " + COL_PERIOD_TYPE + ", " + COL_PERIOD_START + ")) WITHOUT ROWID");
+        db.execSQL("CREATE TABLE IF NOT EXISTS " + TABLE_EXERCISE_ROLLUPS + " (" +
+                COL_USER_ID + " INTEGER NOT NULL, " +
+                COL_EXERCISE_ID + " INTEGER NOT NULL, " +
+                COL_PERIOD_TYPE + " TEXT NOT NULL, " +
+                COL_PERIOD_START + " INTEGER NOT NULL, " +
+                COL_SESSIONS + " INTEGER NOT NULL DEFAULT 0, " +
+                COL_SETS + " INTEGER NOT NULL DEFAULT 0, " +
+                COL_REPS + " INTEGER NOT NULL DEFAULT 0, " +
+                COL_VOLUME + " REAL NOT NULL DEFAULT 0, " +
+                COL_BEST_ONE_REP_MAX + " REAL NOT NULL DEFAULT 0, " +
+                "PRIMARY KEY (" + COL_USER_ID + ", " + COL_EXERCISE_ID + ", " + COL_PERIOD_TYPE + ", " + COL_PERIOD_START + ")) WITHOUT ROWID");
+        db.execSQL("CREATE TABLE IF NOT EXISTS " + TABLE_EXERCISE_RECORDS + " (" +
+                COL_USER_ID + " INTEGER NOT NULL, " +
+                COL_EXERCISE_ID + " INTEGER NOT NULL, " +
+                COL_SESSIONS + " INTEGER NOT NULL DEFAULT 0, " +
+                COL_TOTAL_SETS + " INTEGER NOT NULL DEFAULT 0, " +
+                COL_TOTAL_REPS + " INTEGER NOT NULL DEFAULT 0, " +
+                COL_TOTAL_VOLUME + " REAL NOT NULL DEFAULT 0, " +
+                COL_MAX_REPS + " INTEGER NOT NULL DEFAULT 0, " +
+                COL_MAX_REPS_AT + " INTEGER NOT NULL DEFAULT 0, " +
+                COL_MAX_LOAD + " REAL NOT NULL DEFAULT 0, " +
+                COL_BEST_ONE_REP_MAX + " REAL NOT NULL DEFAULT 0, " +
+                COL_BEST_ONE_REP_MAX_AT + " INTEGER NOT NULL DEFAULT 0, " +
+                COL_LAST_PERFORMED_AT + " INTEGER NOT NULL DEFAULT 0, " +
+                "PRIMARY KEY (" + COL_USER_ID + ", " + COL_EXERCISE_ID + ")) WITHOUT ROWID");
+
+        Cursor cursor = db.query(TABLE_WORKOUT_SESSIONS, new String[]{COL_SESSION_ID},
+                COL_STATUS + "=?", new String[]{WorkoutSession.STATUS_COMPLETED},
+                null, null, COL_SESSION_ID);
+        List<Long> sessionIds = new ArrayList<>();
+        while (cursor.moveToNext()) {
+            sessionIds.add(cursor.getLong(0));
+        }
+        cursor.close();
+        for (long sessionId : sessionIds) {
+            rollUpSession(db, sessionId);
+        }
+    }
+
+    /** Whether the table already has the column, so a migration can add it without catching the failure. */
+    private static boolean hasColumn(SQLiteDatabase db, String table, String column) {
+        Cursor cursor = db.rawQuery("PRAGMA table_info(" + table + ")", null);
+        try {
+            int name = cursor.getColumnIndexOrThrow("name");
+            while (cursor.moveToNext()) {
+                if (column.equalsIgnoreCase(cursor.getString(name))) {
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            cursor.close();
+        }
+    }
+
+    /**
+     * Adds the numeric forms of the free-text reps and rest time (see DoseParser) and fills them from the
+     * existing text, which stays as it is for display. Unparseable text leaves them NULL.
+     */
+    private void migrateNumericDoses(SQLiteDatabase db) {
+        String[] columns = {
+                TABLE_EXERCISES + " ADD COLUMN " + COL_REPS_MIN + " INTEGER",
+                TABLE_EXERCISES + " ADD COLUMN " + COL_REPS_MAX + " INTEGER",
+                TABLE_EXERCISES + " ADD COLUMN " + COL_REST_SECONDS + " INTEGER",
+                TABLE_WORKOUT_EXERCISES + " ADD COLUMN " + COL_REPS_MIN + " INTEGER",
+                TABLE_WORKOUT_EXERCISES + " ADD COLUMN " + COL_REPS_MAX + " INTEGER"};
+        for (String column : columns) {
+            try {
+                db.execSQL("ALTER TABLE " + column);
+            } catch (Exception e) {
+                // Column may already exist
+            }
+        }
+
+        Cursor cursor = db.query(TABLE_EXERCISES, new String[]{COL_EXERCISE_ID, COL_REPS, COL_REST_TIME},
+                null, null, null, null, null);
+        while (cursor.moveToNext()) {
+            ContentValues values = new ContentValues();
+            putRepRange(values, cursor.getString(1));
+            putRestSeconds(values, cursor.getString(2));
+            db.update(TABLE_EXERCISES, values, COL_EXERCISE_ID + "=?", new String[]{cursor.getString(0)});
+        }
+        cursor.close();
+        cursor = db.query(TABLE_WORKOUT_EXERCISES, new String[]{"id", COL_REPS}, null, null, null, null, null);
+        while (cursor.moveToNext()) {
+            ContentValues values = new ContentValues();
+            putRepRange(values, cursor.getString(1));
+            db.update(TABLE_WORKOUT_EXERCISES, values, "id=?", new String[]{cursor.getString(0)});
+        }
+        cursor.close();
+    }
+
+    private void createDoseIndexes(SQLiteDatabase db) {
+        // getExerciseIdsByMaxRest: WHERE rest_seconds <= ?, covered since exercise_id is the rowid
+        db.execSQL("CREATE INDEX IF NOT EXISTS idx_exercises_rest ON " + TABLE_EXERCISES +
+                " (" + COL_REST_SECONDS + ")");
+        // getExerciseIdsInRepRange: WHERE reps_min <= ? AND reps_max >= ?
+        db.execSQL("CREATE INDEX IF NOT EXISTS idx_exercises_reps ON " + TABLE_EXERCISES +
+                " (" + COL_REPS_MIN + ", " + COL_REPS_MAX + ")");
+    }
+
+    /** Puts reps_min and reps_max parsed from the reps text, NULL when it has no number. */
+    private static void putRepRange(ContentValues values, String reps) {
+        int[] range = DoseParser.repRange(reps);
+        if (range != null) {
+            values.put(COL_REPS_MIN, range[0]);
+            values.put(COL_REPS_MAX, range[1]);
+        } else {
+            values.putNull(COL_REPS_MIN);
+            values.putNull(COL_REPS_MAX);
+        }
+    }
+
+    private static void putRestSeconds(ContentValues values, String restTime) {
+        int seconds = DoseParser.restSeconds(restTime);
+        if (seconds >= 0) {
+            values.put(COL_REST_SECONDS, seconds);
+        } else {
+            values.putNull(COL_REST_SECONDS);
+        }
+    }
+
+    private static String ensureUserStats(String userIdExpr) {
+        return "INSERT OR IGNORE INTO " + TABLE_USER_STATS + " (" + COL_USER_ID + ") VALUES (" + userIdExpr + "); ";
+    }
+
+    /** Trigger statements counting one more use of row.exercise_id by the owner of row.workout_id. */
+    private static String acquireExerciseRef(String row) {
+        String owner = "(SELECT " + COL_USER_ID + " FROM " + TABLE_WORKOUT_ROUTINES +
+                " WHERE " + COL_WORKOUT_ID + " = " + row + "." + COL_WORKOUT_ID + ")";
+        String ref = " WHERE " + COL_USER_ID + " = " + owner + " AND " + COL_EXERCISE_ID + " = " + row + "." + COL_EXERCISE_ID;
+        return "INSERT OR IGNORE INTO " + TABLE_USER_STATS + " (" + COL_USER_ID + ") SELECT " + owner + " WHERE " + owner + " IS NOT NULL; " +
+                "INSERT OR IGNORE INTO " + TABLE_USER_EXERCISE_REFS + " (" + COL_USER_ID + ", " + COL_EXERCISE_ID + ")" +
+                " SELECT " + owner + ", " + row + "." + COL_EXERCISE_ID + " WHERE " + owner + " IS NOT NULL; " +
+                "UPDATE " + TABLE_USER_EXERCISE_REFS + " SET " + COL_REF_COUNT + " = " + COL_REF_COUNT + " + 1" + ref + "; " +
+                // The first use of an exercise adds it to the user's distinct count
+                "UPDATE " + TABLE_USER_STATS + " SET " + COL_TOTAL_EXERCISES + " = " + COL_TOTAL_EXERCISES + " + 1" +
+                " WHERE " + COL_USER_ID + " = " + owner +
+                " AND (SELECT " + COL_REF_COUNT + " FROM " + TABLE_USER_EXERCISE_REFS + ref + ") = 1; ";
+    }
+
+    /** Trigger statements counting one less use of row.exercise_id by the owner of row.workout_id. */
+    private static String releaseExerciseRef(String row) {
+        String owner = "(SELECT " + COL_USER_ID + " FROM " + TABLE_WORKOUT_ROUTINES +
+                " WHERE " + COL_WORKOUT_ID + " = " + row + "." + COL_WORKOUT_ID + ")";
+        String ref = " WHERE " + COL_USER_ID + " = " + owner + " AND " + COL_EXERCISE_ID + " = " + row + "." + COL_EXERCISE_ID;
+        return "UPDATE " + TABLE_USER_EXERCISE_REFS + " SET " + COL_REF_COUNT + " = " + COL_REF_COUNT + " - 1" + ref + "; " +
+                // The last use going away removes it from the user's distinct count
+                "UPDATE " + TABLE_USER_STATS + " SET " + COL_TOTAL_EXERCISES + " = " + COL_TOTAL_EXERCISES + " - 1" +
+                " WHERE " + COL_USER_ID + " = " + owner +
+                " AND (SELECT " + COL_REF_COUNT + " FROM " + TABLE_USER_EXERCISE_REFS + ref + ") = 0; " +
+                "DELETE FROM " + TABLE_USER_EXERCISE_REFS + ref + " AND " + COL_REF_COUNT + " <= 0; ";
+    }
+
+    /**
+     * Equipment names are interned in the equipment table (case-insensitively unique) and exercises
+     * link to them by id; the junction's id keeps the order equipment was entered in.
+     * The UNIQUE(exercise_id, equipment_id) index also serves lookups by exercise_id.
+     */
+    private void createEquipmentTables(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE IF NOT EXISTS " + TABLE_EQUIPMENT + " (" +
+                COL_EQUIPMENT_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                COL_EQUIPMENT_NAME + " TEXT NOT NULL UNIQUE COLLATE NOCASE)");
+        db.execSQL("CREATE TABLE " + TABLE_EXERCISE_EQUIPMENT + " (" +
+                "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                COL_EXERCISE_ID + " INTEGER NOT NULL, " +
+                COL_EQUIPMENT_ID + " INTEGER NOT NULL, " +
+                "UNIQUE(" + COL_EXERCISE_ID + ", " + COL_EQUIPMENT_ID + "), " +
+                "FOREIGN KEY(" + COL_EXERCISE_ID + ") REFERENCES " + TABLE_EXERCISES + "(" + COL_EXERCISE_ID + "), " +
+                "FOREIGN KEY(" + COL_EQUIPMENT_ID + ") REFERENCES " + TABLE_EQUIPMENT + "(" + COL_EQUIPMENT_ID + "))");
+    }
+
+    /**
+     * v8: moves the free-text exercise_equipment rows onto the equipment dictionary.
+     * Names are trimmed and interned case-insensitively; duplicates within one exercise collapse to one link.
+     * The old table's search triggers go with it and are recreated by createExerciseSearch.
+     */
+    private void migrateEquipmentToDictionary(SQLiteDatabase db) {
+        String legacy = TABLE_EXERCISE_EQUIPMENT + "_legacy";
+        db.execSQL("ALTER TABLE " + TABLE_EXERCISE_EQUIPMENT + " RENAME TO " + legacy);
+        createEquipmentTables(db);
+        db.execSQL("INSERT OR IGNORE INTO " + TABLE_EQUIPMENT + " (" + COL_EQUIPMENT_NAME + ")" +
+                " SELECT TRIM(" + COL_EQUIPMENT_NAME + ") FROM " + legacy +
+                " WHERE TRIM(" + COL_EQUIPMENT_NAME + ") <> '' ORDER BY id");
+        db.execSQL("INSERT OR IGNORE INTO " + TABLE_EXERCISE_EQUIPMENT +
+                " (id, " + COL_EXERCISE_ID + ", " + COL_EQUIPMENT_ID + ")" +
+                " SELECT l.id, l." + COL_EXERCISE_ID + ", eq." + COL_EQUIPMENT_ID + " FROM " + legacy + " l" +
+                " INNER JOIN " + TABLE_EQUIPMENT + " eq ON eq." + COL_EQUIPMENT_NAME + " = TRIM(l." + COL_EQUIPMENT_NAME + ")" +
+                " ORDER BY l.id");
+        db.execSQL("DROP TABLE " + legacy);
+    }
+
+    /**
+     * FTS4 index over exercise names, equipment and instructions, one document per exercise (docid = exercise_id).
+     * Triggers keep it in step with the three source tables; equipment and instructions are stored
+     * concatenated per exercise. Backfilled from the current rows.
+     */
+    private void createExerciseSearch(SQLiteDatabase db) {
+        // searchExercises reads matchinfo by column position, so keep the name first and FTS_COLUMNS in step
+        db.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS " + TABLE_EXERCISES_FTS + " USING fts4(" +
+                COL_EXERCISE_NAME + ", " + COL_EQUIPMENT_NAME + ", " + COL_INSTRUCTION_TEXT + ")");
+
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS trg_exercises_fts_insert AFTER INSERT ON " + TABLE_EXERCISES +
+                " BEGIN INSERT INTO " + TABLE_EXERCISES_FTS + " (docid, " + COL_EXERCISE_NAME + ")" +
+                " VALUES (NEW." + COL_EXERCISE_ID + ", NEW." + COL_EXERCISE_NAME + "); END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS trg_exercises_fts_update AFTER UPDATE OF " + COL_EXERCISE_NAME + " ON " + TABLE_EXERCISES +
+                " BEGIN UPDATE " + TABLE_EXERCISES_FTS + " SET " + COL_EXERCISE_NAME + " = NEW." + COL_EXERCISE_NAME +
+                " WHERE docid = NEW." + COL_EXERCISE_ID + "; END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS trg_exercises_fts_delete AFTER DELETE ON " + TABLE_EXERCISES +
+                " BEGIN DELETE FROM " + TABLE_EXERCISES_FTS + " WHERE docid = OLD." + COL_EXERCISE_ID + "; END");
+
+        for (String event : new String[]{"INSERT", "DELETE", "UPDATE"}) {
+            String exerciseId = ("DELETE".equals(event) ? "OLD." : "NEW.") + COL_EXERCISE_ID;
+            db.execSQL("CREATE TRIGGER IF NOT EXISTS trg_equipment_fts_" + event.toLowerCase() +
+                    " AFTER " + event + " ON " + TABLE_EXERCISE_EQUIPMENT +
+                    " BEGIN UPDATE " + TABLE_EXERCISES_FTS + " SET " + COL_EQUIPMENT_NAME + " = " +
+                    equipmentText(exerciseId) + " WHERE docid = " + exerciseId + "; END");
+            db.execSQL("CREATE TRIGGER IF NOT EXISTS trg_instructions_fts_" + event.toLowerCase() +
+                    " AFTER " + event + " ON " + TABLE_EXERCISE_INSTRUCTIONS +
+                    " BEGIN UPDATE " + TABLE_EXERCISES_FTS + " SET " + COL_INSTRUCTION_TEXT + " = " +
+                    instructionText(exerciseId) + " WHERE docid = " + exerciseId + "; END");
+        }
+
+        db.execSQL("DELETE FROM " + TABLE_EXERCISES_FTS);
+        db.execSQL("INSERT INTO " + TABLE_EXERCISES_FTS + " (docid, " + COL_EXERCISE_NAME + ", " +
+                COL_EQUIPMENT_NAME + ", " + COL_INSTRUCTION_TEXT + ")" +
+                " SELECT e." + COL_EXERCISE_ID + ", e." + COL_EXERCISE_NAME + ", " +
+                equipmentText("e." + COL_EXERCISE_ID) + ", " + instructionText("e." + COL_EXERCISE_ID) +
+                " FROM " + TABLE_EXERCISES + " e");
+    }
+
+    /** An exercise's equipment names joined by spaces, as indexed in exercises_fts. */
+    private static String equipmentText(String exerciseIdExpr) {
+        return "(SELECT group_concat(eq." + COL_EQUIPMENT_NAME + ", ' ') FROM " + TABLE_EXERCISE_EQUIPMENT + " ee" +
+                " INNER JOIN " + TABLE_EQUIPMENT + " eq ON eq." + COL_EQUIPMENT_ID + " = ee." + COL_EQUIPMENT_ID +
+                " WHERE ee." + COL_EXERCISE_ID + " = " + exerciseIdExpr + ")";
+    }
+
+    /** An exercise's instructions joined by spaces, as indexed in exercises_fts. */
+    private static String instructionText(String exerciseIdExpr) {
+        return "(SELECT group_concat(" + COL_INSTRUCTION_TEXT + ", ' ') FROM " + TABLE_EXERCISE_INSTRUCTIONS +
+                " WHERE " + COL_EXERCISE_ID + " = " + exerciseIdExpr + ")";
     }
 
     @Override
@@ -226,6 +846,42 @@ public class DatabaseHelper extends SQLiteOpenHelper {
             db.execSQL("DROP TABLE IF EXISTS " + TABLE_USERS);
             onCreate(db);
         }
+        // Runs after the blocks above so every indexed column (e.g. users.username) exists
+        if (oldVersion < 5) {
+            createIndexes(db);
+        }
+        if (oldVersion < 6) {
+            createImageRefs(db);
+        }
+        // v7's search index is built by the v8 block: its equipment triggers need the v8 junction table
+        if (oldVersion < 8) {
+            migrateEquipmentToDictionary(db);
+            createExerciseSearch(db);
+        }
+        if (oldVersion < 9) {
+            createUserStatsTriggers(db);
+        }
+        if (oldVersion < 10) {
+            createUserActivity(db);
+        }
+        if (oldVersion < 11) {
+            createSessionHistory(db);
+        }
+        if (oldVersion < 12) {
+            createProgressRollups(db);
+        }
+        if (oldVersion < 13) {
+            migrateNumericDoses(db);
+            createDoseIndexes(db);
+        }
+        // One-time repair: until now image_refs was backed up by a scan of exercises, so drift went unnoticed
+        if (oldVersion < 14) {
+            rebuildImageRefs(db);
+        }
+        // exercise_id lookups use the junction's UNIQUE(exercise_id, equipment_id) index
+        if (oldVersion < 15) {
+            db.execSQL("DROP INDEX IF EXISTS idx_exercise_equipment_exercise");
+        }
     }
 
     // User operations
@@ -236,7 +892,6 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         values.put(COL_USERNAME, username != null ? username : "");
         values.put(COL_PASSWORD, password);
         long userId = db.insert(TABLE_USERS, null, values);
-        db.close();
         return userId;
     }
 
@@ -249,7 +904,6 @@ public class DatabaseHelper extends SQLiteOpenHelper {
                 null, null, null);
         boolean exists = cursor.getCount() > 0;
         cursor.close();
-        db.close();
         return exists;
     }
 
@@ -265,7 +919,6 @@ public class DatabaseHelper extends SQLiteOpenHelper {
             userId = cursor.getInt(0);
         }
         cursor.close();
-        db.close();
         return userId;
     }
 
@@ -279,7 +932,6 @@ public class DatabaseHelper extends SQLiteOpenHelper {
                 null, null, null);
         boolean exists = cursor.getCount() > 0;
         cursor.close();
-        db.close();
         return exists;
     }
 
@@ -294,7 +946,6 @@ public class DatabaseHelper extends SQLiteOpenHelper {
                 null, null, null);
         boolean taken = cursor.getCount() > 0;
         cursor.close();
-        db.close();
         return taken;
     }
 
@@ -308,7 +959,6 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         values.put(COL_HEIGHT, height);
         values.put(COL_WEIGHT, weight);
         long result = db.insert(TABLE_USER_DETAILS, null, values);
-        db.close();
         return result;
     }
 
@@ -320,7 +970,6 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         values.put(COL_HEIGHT, height);
         values.put(COL_WEIGHT, weight);
         int rowsAffected = db.update(TABLE_USER_DETAILS, values, COL_USER_ID + "=?", new String[]{String.valueOf(userId)});
-        db.close();
         return rowsAffected > 0;
     }
 
@@ -359,7 +1008,6 @@ public class DatabaseHelper extends SQLiteOpenHelper {
             values.put(COL_PASSWORD, hashedPassword);
         }
         int rowsAffected = db.update(TABLE_USERS, values, COL_USER_ID + "=?", new String[]{String.valueOf(userId)});
-        db.close();
         return rowsAffected > 0;
     }
 
@@ -372,7 +1020,6 @@ public class DatabaseHelper extends SQLiteOpenHelper {
                 null, null, null);
         boolean exists = cursor.getCount() > 0;
         cursor.close();
-        db.close();
         return exists;
     }
 
@@ -384,29 +1031,91 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         values.put(COL_SETS, sets);
         values.put(COL_REPS, reps);
         values.put(COL_REST_TIME, restTime);
+        putRepRange(values, reps);
+        putRestSeconds(values, restTime);
         values.put(COL_IMAGE_PATH, imagePath);
         long exerciseId = db.insert(TABLE_EXERCISES, null, values);
-        db.close();
         return exerciseId;
     }
 
-    public void insertExerciseEquipment(long exerciseId, String equipmentName) {
+    /**
+     * Saves an exercise with its equipment and instruction lists atomically, in one transaction.
+     * Inserts when the exercise has no id yet; otherwise updates it and replaces its child rows.
+     * On update a null image path keeps the stored image. Returns the exercise id, or -1 on failure.
+     */
+    public long saveExerciseGraph(Exercise exercise) {
         SQLiteDatabase db = this.getWritableDatabase();
-        ContentValues values = new ContentValues();
-        values.put(COL_EXERCISE_ID, exerciseId);
-        values.put(COL_EQUIPMENT_NAME, equipmentName);
-        db.insert(TABLE_EXERCISE_EQUIPMENT, null, values);
-        db.close();
-    }
+        db.beginTransaction();
+        try {
+            long exerciseId = exercise.getExerciseId();
+            ContentValues values = new ContentValues();
+            values.put(COL_EXERCISE_NAME, exercise.getName());
+            values.put(COL_SETS, exercise.getSets());
+            values.put(COL_REPS, exercise.getReps());
+            values.put(COL_REST_TIME, exercise.getRestTime());
+            putRepRange(values, exercise.getReps());
+            putRestSeconds(values, exercise.getRestTime());
+            if (exerciseId > 0) {
+                if (exercise.getImagePath() != null) {
+                    values.put(COL_IMAGE_PATH, exercise.getImagePath());
+                }
+                String[] idArgs = new String[]{String.valueOf(exerciseId)};
+                if (db.update(TABLE_EXERCISES, values, COL_EXERCISE_ID + "=?", idArgs) == 0) {
+                    return -1;
+                }
+                db.delete(TABLE_EXERCISE_EQUIPMENT, COL_EXERCISE_ID + "=?", idArgs);
+                db.delete(TABLE_EXERCISE_INSTRUCTIONS, COL_EXERCISE_ID + "=?", idArgs);
+            } else {
+                values.put(COL_IMAGE_PATH, exercise.getImagePath());
+                exerciseId = db.insert(TABLE_EXERCISES, null, values);
+                if (exerciseId == -1) {
+                    return -1;
+                }
+            }
 
-    public void insertExerciseInstruction(long exerciseId, String instructionText, int order) {
-        SQLiteDatabase db = this.getWritableDatabase();
-        ContentValues values = new ContentValues();
-        values.put(COL_EXERCISE_ID, exerciseId);
-        values.put(COL_INSTRUCTION_TEXT, instructionText);
-        values.put(COL_INSTRUCTION_ORDER, order);
-        db.insert(TABLE_EXERCISE_INSTRUCTIONS, null, values);
-        db.close();
+            if (exercise.getEquipment() != null && !exercise.getEquipment().isEmpty()) {
+                SQLiteStatement internEquipment = db.compileStatement("INSERT OR IGNORE INTO " + TABLE_EQUIPMENT +
+                        " (" + COL_EQUIPMENT_NAME + ") VALUES (?)");
+                SQLiteStatement linkEquipment = db.compileStatement("INSERT OR IGNORE INTO " + TABLE_EXERCISE_EQUIPMENT +
+                        " (" + COL_EXERCISE_ID + ", " + COL_EQUIPMENT_ID + ")" +
+                        " SELECT ?, " + COL_EQUIPMENT_ID + " FROM " + TABLE_EQUIPMENT + " WHERE " + COL_EQUIPMENT_NAME + " = ?");
+                try {
+                    for (String equipmentName : exercise.getEquipment()) {
+                        String name = equipmentName.trim();
+                        if (name.isEmpty()) continue;
+                        internEquipment.bindString(1, name);
+                        internEquipment.executeInsert();
+                        linkEquipment.bindLong(1, exerciseId);
+                        linkEquipment.bindString(2, name);
+                        linkEquipment.executeInsert();
+                    }
+                } finally {
+                    internEquipment.close();
+                    linkEquipment.close();
+                }
+            }
+
+            if (exercise.getInstructions() != null && !exercise.getInstructions().isEmpty()) {
+                SQLiteStatement insertInstruction = db.compileStatement("INSERT INTO " + TABLE_EXERCISE_INSTRUCTIONS +
+                        " (" + COL_EXERCISE_ID + ", " + COL_INSTRUCTION_TEXT + ", " + COL_INSTRUCTION_ORDER + ") VALUES (?, ?, ?)");
+                try {
+                    List<String> instructions = exercise.getInstructions();
+                    for (int i = 0; i < instructions.size(); i++) {
+                        insertInstruction.bindLong(1, exerciseId);
+                        insertInstruction.bindString(2, instructions.get(i));
+                        insertInstruction.bindLong(3, i + 1);
+                        insertInstruction.executeInsert();
+                    }
+                } finally {
+                    insertInstruction.close();
+                }
+            }
+
+            db.setTransactionSuccessful();
+            return exerciseId;
+        } finally {
+            db.endTransaction();
+        }
     }
 
     public Cursor getAllExercises() {
@@ -426,40 +1135,66 @@ public class DatabaseHelper extends SQLiteOpenHelper {
                 null, null, null);
     }
 
+    /** SQL of getExerciseEquipment, taking the exercise id. */
+    static final String EXERCISE_EQUIPMENT_SQL =
+            "SELECT eq." + COL_EQUIPMENT_NAME + " FROM " + TABLE_EXERCISE_EQUIPMENT + " ee" +
+                    " INNER JOIN " + TABLE_EQUIPMENT + " eq ON eq." + COL_EQUIPMENT_ID + " = ee." + COL_EQUIPMENT_ID +
+                    " WHERE ee." + COL_EXERCISE_ID + "=? ORDER BY ee.id";
+
     public List<String> getExerciseEquipment(long exerciseId) {
         SQLiteDatabase db = this.getReadableDatabase();
         List<String> equipment = new ArrayList<>();
-        Cursor cursor = db.query(TABLE_EXERCISE_EQUIPMENT,
-                new String[]{COL_EQUIPMENT_NAME},
-                COL_EXERCISE_ID + "=?",
-                new String[]{String.valueOf(exerciseId)},
-                null, null, null);
+        Cursor cursor = db.rawQuery(EXERCISE_EQUIPMENT_SQL, new String[]{String.valueOf(exerciseId)});
         if (cursor.moveToFirst()) {
             do {
                 equipment.add(cursor.getString(0));
             } while (cursor.moveToNext());
         }
         cursor.close();
-        db.close();
         return equipment;
     }
 
+    /** Equipment used by at least one exercise, as id to name, ordered by name. */
+    public Map<Long, String> getEquipmentNames() {
+        SQLiteDatabase db = this.getReadableDatabase();
+        Map<Long, String> names = new LinkedHashMap<>();
+        Cursor cursor = db.query(TABLE_EQUIPMENT,
+                new String[]{COL_EQUIPMENT_ID, COL_EQUIPMENT_NAME},
+                COL_EQUIPMENT_ID + " IN (SELECT " + COL_EQUIPMENT_ID + " FROM " + TABLE_EXERCISE_EQUIPMENT + ")",
+                null, null, null,
+                COL_EQUIPMENT_NAME + " ASC");
+        if (cursor.moveToFirst()) {
+            do {
+                names.put(cursor.getLong(0), cursor.getString(1));
+            } while (cursor.moveToNext());
+        }
+        cursor.close();
+        return names;
+    }
+
+    /** Every (equipment_id, exercise_id) link, for building an in-memory equipment index. Caller closes the cursor. */
+    public Cursor getEquipmentLinks() {
+        SQLiteDatabase db = this.getReadableDatabase();
+        return db.query(TABLE_EXERCISE_EQUIPMENT,
+                new String[]{COL_EQUIPMENT_ID, COL_EXERCISE_ID},
+                null, null, null, null, null);
+    }
+
+    /** SQL of getExerciseInstructions, taking the exercise id. */
+    static final String EXERCISE_INSTRUCTIONS_SQL =
+            "SELECT " + COL_INSTRUCTION_TEXT + " FROM " + TABLE_EXERCISE_INSTRUCTIONS +
+                    " WHERE " + COL_EXERCISE_ID + "=? ORDER BY " + COL_INSTRUCTION_ORDER + " ASC";
+
     public List<String> getExerciseInstructions(long exerciseId) {
         SQLiteDatabase db = this.getReadableDatabase();
         List<String> instructions = new ArrayList<>();
-        Cursor cursor = db.query(TABLE_EXERCISE_INSTRUCTIONS,
-                new String[]{COL_INSTRUCTION_TEXT},
-                COL_EXERCISE_ID + "=?",
-                new String[]{String.valueOf(exerciseId)},
-                null, null,
-                COL_INSTRUCTION_ORDER + " ASC");
+        Cursor cursor = db.rawQuery(EXERCISE_INSTRUCTIONS_SQL, new String[]{String.valueOf(exerciseId)});
         if (cursor.moveToFirst()) {
             do {
                 instructions.add(cursor.getString(0));
             } while (cursor.moveToNext());
         }
         cursor.close();
-        db.close();
         return instructions;
     }
 
@@ -470,39 +1205,75 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         values.put(COL_SETS, sets);
         values.put(COL_REPS, reps);
         values.put(COL_REST_TIME, restTime);
+        putRepRange(values, reps);
+        putRestSeconds(values, restTime);
         if (imagePath != null) {
             values.put(COL_IMAGE_PATH, imagePath);
         }
         int rowsAffected = db.update(TABLE_EXERCISES, values, COL_EXERCISE_ID + "=?", new String[]{String.valueOf(exerciseId)});
-        db.close();
         return rowsAffected > 0;
     }
 
-    public void deleteExerciseEquipment(long exerciseId) {
+    /** Deletes an exercise with its equipment, instructions and workout links, all in one transaction. */
+    public boolean deleteExercise(long exerciseId) {
         SQLiteDatabase db = this.getWritableDatabase();
-        db.delete(TABLE_EXERCISE_EQUIPMENT, COL_EXERCISE_ID + "=?", new String[]{String.valueOf(exerciseId)});
-        db.close();
+        String[] args = {String.valueOf(exerciseId)};
+        db.beginTransaction();
+        try {
+            db.delete(TABLE_EXERCISE_EQUIPMENT, COL_EXERCISE_ID + "=?", args);
+            db.delete(TABLE_EXERCISE_INSTRUCTIONS, COL_EXERCISE_ID + "=?", args);
+            db.delete(TABLE_WORKOUT_EXERCISES, COL_EXERCISE_ID + "=?", args);
+            int rowsAffected = db.delete(TABLE_EXERCISES, COL_EXERCISE_ID + "=?", args);
+            db.setTransactionSuccessful();
+            return rowsAffected > 0;
+        } finally {
+            db.endTransaction();
+        }
     }
 
-    public void deleteExerciseInstructions(long exerciseId) {
-        SQLiteDatabase db = this.getWritableDatabase();
-        db.delete(TABLE_EXERCISE_INSTRUCTIONS, COL_EXERCISE_ID + "=?", new String[]{String.valueOf(exerciseId)});
-        db.close();
+    /** Image paths still referenced by at least one exercise, read from image_refs without scanning exercises. */
+    public Set<String> getReferencedImagePaths() {
+        SQLiteDatabase db = this.getReadableDatabase();
+        Set<String> paths = new HashSet<>();
+        Cursor cursor = db.rawQuery("SELECT " + COL_IMAGE_PATH + " FROM " + TABLE_IMAGE_REFS +
+                " WHERE " + COL_REF_COUNT + " > 0", null);
+        if (cursor.moveToFirst()) {
+            do {
+                paths.add(cursor.getString(0));
+            } while (cursor.moveToNext());
+        }
+        cursor.close();
+        return paths;
     }
 
-    public boolean deleteExercise(long exerciseId) {
+    /** Points every exercise using an old image path at its replacement, all in one transaction. */
+    public void replaceImagePaths(Map<String, String> replacements) {
         SQLiteDatabase db = this.getWritableDatabase();
+        db.beginTransaction();
         try {
-            db.delete(TABLE_EXERCISE_EQUIPMENT, COL_EXERCISE_ID + "=?", new String[]{String.valueOf(exerciseId)});
-            db.delete(TABLE_EXERCISE_INSTRUCTIONS, COL_EXERCISE_ID + "=?", new String[]{String.valueOf(exerciseId)});
-            db.delete(TABLE_WORKOUT_EXERCISES, COL_EXERCISE_ID + "=?", new String[]{String.valueOf(exerciseId)});
-            int rowsAffected = db.delete(TABLE_EXERCISES, COL_EXERCISE_ID + "=?", new String[]{String.valueOf(exerciseId)});
-            return rowsAffected > 0;
+            SQLiteStatement update = db.compileStatement("UPDATE " + TABLE_EXERCISES + " SET " + COL_IMAGE_PATH + " = ?" +
+                    " WHERE " + COL_IMAGE_PATH + " = ?");
+            try {
+                for (Map.Entry<String, String> entry : replacements.entrySet()) {
+                    update.bindString(1, entry.getValue());
+                    update.bindString(2, entry.getKey());
+                    update.executeUpdateDelete();
+                }
+            } finally {
+                update.close();
+            }
+            db.setTransactionSuccessful();
         } finally {
-            db.close();
+            db.endTransaction();
         }
     }
 
+    /** Drops ref-count rows that no exercise points at any more. */
+    public int pruneImageRefs() {
+        SQLiteDatabase db = this.getWritableDatabase();
+        return db.delete(TABLE_IMAGE_REFS, COL_REF_COUNT + " <= 0", null);
+    }
+
     // Workout routine operations
     public long insertWorkoutRoutine(String name, int userId) {
         SQLiteDatabase db = this.getWritableDatabase();
@@ -510,10 +1281,27 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         values.put(COL_WORKOUT_NAME, name);
         values.put(COL_USER_ID, userId);
         values.put(COL_CREATED_DATE, String.valueOf(System.currentTimeMillis()));
-        long workoutId = db.insert(TABLE_WORKOUT_ROUTINES, null, values);
-        incrementUserStat(userId, COL_TOTAL_ROUTINES);
-        db.close();
-        return workoutId;
+        return db.insert(TABLE_WORKOUT_ROUTINES, null, values);
+    }
+
+    /**
+     * Creates a routine and attaches the given exercises in a single transaction.
+     * Each exercise's default sets/reps are resolved with one IN query. Returns the new workout id, or -1.
+     */
+    public long createWorkoutRoutine(String name, int userId, long[] exerciseIds) {
+        SQLiteDatabase db = this.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            long workoutId = insertWorkoutRoutine(name, userId);
+            if (workoutId == -1) {
+                return -1;
+            }
+            insertWorkoutExercises(db, workoutId, exerciseIds);
+            db.setTransactionSuccessful();
+            return workoutId;
+        } finally {
+            db.endTransaction();
+        }
     }
 
     public Cursor getUserWorkouts(int userId) {
@@ -526,6 +1314,46 @@ public class DatabaseHelper extends SQLiteOpenHelper {
                 COL_CREATED_DATE + " DESC");
     }
 
+    /** Total sets and sets x rest seconds of a routine, for the grouped we/e joins below; unknown rest counts as 0. */
+    private static final String ROUTINE_TOTALS =
+            ", IFNULL(SUM(CASE WHEN e." + COL_EXERCISE_ID + " IS NOT NULL THEN we." + COL_SETS + " END), 0) AS total_sets" +
+            ", IFNULL(SUM(we." + COL_SETS + " * e." + COL_REST_SECONDS + "), 0) AS total_rest_seconds";
+
+    /**
+     * SQL of getUserWorkoutsWithExerciseCount, taking the user id. Grouping and ordering by
+     * (created_date, workout_id) follows idx_workout_routines_user, so neither needs a temp b-tree.
+     */
+    static final String USER_WORKOUTS_WITH_COUNTS_SQL =
+            "SELECT wr." + COL_WORKOUT_ID + ", wr." + COL_WORKOUT_NAME + ", wr." + COL_CREATED_DATE +
+                    ", COUNT(e." + COL_EXERCISE_ID + ") AS exercise_count" + ROUTINE_TOTALS +
+                    " FROM " + TABLE_WORKOUT_ROUTINES + " wr" +
+                    " LEFT JOIN " + TABLE_WORKOUT_EXERCISES + " we ON we." + COL_WORKOUT_ID + " = wr." + COL_WORKOUT_ID +
+                    " LEFT JOIN " + TABLE_EXERCISES + " e ON e." + COL_EXERCISE_ID + " = we." + COL_EXERCISE_ID +
+                    " WHERE wr." + COL_USER_ID + "=?" +
+                    " GROUP BY wr." + COL_CREATED_DATE + ", wr." + COL_WORKOUT_ID +
+                    " ORDER BY wr." + COL_CREATED_DATE + " DESC, wr." + COL_WORKOUT_ID + " DESC";
+
+    /**
+     * User's workout routines, newest first, each carrying its exercise count.
+     * One grouped query instead of a getWorkoutExercises() call per routine.
+     */
+    public List<Workout> getUserWorkoutsWithExerciseCount(int userId) {
+        SQLiteDatabase db = this.getReadableDatabase();
+        List<Workout> workouts = new ArrayList<>();
+        Cursor cursor = db.rawQuery(USER_WORKOUTS_WITH_COUNTS_SQL, new String[]{String.valueOf(userId)});
+        if (cursor.moveToFirst()) {
+            do {
+                Workout workout = new Workout(cursor.getLong(0), cursor.getString(1), userId, cursor.getString(2));
+                workout.setExerciseCount(cursor.getInt(3));
+                workout.setTotalSets(cursor.getInt(4));
+                workout.setTotalRestSeconds(cursor.getInt(5));
+                workouts.add(workout);
+            } while (cursor.moveToNext());
+        }
+        cursor.close();
+        return workouts;
+    }
+
     public Cursor getWorkout(long workoutId) {
         SQLiteDatabase db = this.getReadableDatabase();
         return db.query(TABLE_WORKOUT_ROUTINES,
@@ -540,19 +1368,17 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         ContentValues values = new ContentValues();
         values.put(COL_WORKOUT_NAME, name);
         int rowsAffected = db.update(TABLE_WORKOUT_ROUTINES, values, COL_WORKOUT_ID + "=?", new String[]{String.valueOf(workoutId)});
-        db.close();
         return rowsAffected > 0;
     }
 
     public boolean deleteWorkoutRoutine(long workoutId) {
         SQLiteDatabase db = this.getWritableDatabase();
-        // Delete related workout exercises
+        // Delete related workout exercises (first, so the user_stats triggers can still find the routine's owner)
         db.delete(TABLE_WORKOUT_EXERCISES, COL_WORKOUT_ID + "=?", new String[]{String.valueOf(workoutId)});
         // Delete from current workouts
         db.delete(TABLE_CURRENT_WORKOUTS, COL_WORKOUT_ID + "=?", new String[]{String.valueOf(workoutId)});
         // Delete workout routine
         int rowsAffected = db.delete(TABLE_WORKOUT_ROUTINES, COL_WORKOUT_ID + "=?", new String[]{String.valueOf(workoutId)});
-        db.close();
         return rowsAffected > 0;
     }
 
@@ -564,19 +1390,473 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         values.put(COL_EXERCISE_ID, exerciseId);
         values.put(COL_SETS, sets);
         values.put(COL_REPS, reps);
+        putRepRange(values, reps);
         long id = db.insert(TABLE_WORKOUT_EXERCISES, null, values);
-        db.close();
         return id;
     }
 
+    /**
+     * Adds exercises to an existing routine with their default sets/reps, in one transaction.
+     * Ids that no longer exist are skipped. Returns the number of rows inserted.
+     */
+    public int addExercisesToWorkout(long workoutId, long[] exerciseIds) {
+        SQLiteDatabase db = this.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            int inserted = insertWorkoutExercises(db, workoutId, exerciseIds);
+            db.setTransactionSuccessful();
+            return inserted;
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /** Inserts junction rows in the given id order through one compiled statement. Caller owns the transaction. */
+    private int insertWorkoutExercises(SQLiteDatabase db, long workoutId, long[] exerciseIds) {
+        Map<Long, Exercise> defaults = getExercisesByIds(exerciseIds);
+        if (defaults.isEmpty()) {
+            return 0;
+        }
+        int inserted = 0;
+        SQLiteStatement insert = db.compileStatement("INSERT INTO " + TABLE_WORKOUT_EXERCISES +
+                " (" + COL_WORKOUT_ID + ", " + COL_EXERCISE_ID + ", " + COL_SETS + ", " + COL_REPS + ", " +
+                COL_REPS_MIN + ", " + COL_REPS_MAX + ") VALUES (?, ?, ?, ?, ?, ?)");
+        try {
+            for (long exerciseId : exerciseIds) {
+                Exercise exercise = defaults.get(exerciseId);
+                if (exercise == null) continue;
+                insert.bindLong(1, workoutId);
+                insert.bindLong(2, exerciseId);
+                insert.bindLong(3, exercise.getSets());
+                if (exercise.getReps() != null) {
+                    insert.bindString(4, exercise.getReps());
+                } else {
+                    insert.bindNull(4);
+                }
+                if (exercise.getRepsMax() > 0) {
+                    insert.bindLong(5, exercise.getRepsMin());
+                    insert.bindLong(6, exercise.getRepsMax());
+                } else {
+                    insert.bindNull(5);
+                    insert.bindNull(6);
+                }
+                if (insert.executeInsert() != -1) {
+                    inserted++;
+                }
+            }
+        } finally {
+            insert.close();
+        }
+        return inserted;
+    }
+
+    /**
+     * Loads the exercise rows (without equipment/instructions) for the given ids in one IN query.
+     * Ids are numeric so they are inlined; unknown ids are simply absent from the result.
+     */
+    public Map<Long, Exercise> getExercisesByIds(long[] exerciseIds) {
+        Map<Long, Exercise> exercises = new HashMap<>();
+        if (exerciseIds == null || exerciseIds.length == 0) {
+            return exercises;
+        }
+        StringBuilder idList = new StringBuilder();
+        for (long exerciseId : exerciseIds) {
+            if (idList.length() > 0) idList.append(',');
+            idList.append(exerciseId);
+        }
+        SQLiteDatabase db = this.getReadableDatabase();
+        Cursor cursor = db.rawQuery("SELECT " + COL_EXERCISE_ID + ", " + COL_EXERCISE_NAME + ", " + COL_SETS + ", " +
+                COL_REPS + ", " + COL_REST_TIME + ", " + COL_IMAGE_PATH + ", " +
+                COL_REPS_MIN + ", " + COL_REPS_MAX + ", " + COL_REST_SECONDS +
+                " FROM " + TABLE_EXERCISES + " WHERE " + COL_EXERCISE_ID + " IN (" + idList + ")", null);
+        if (cursor.moveToFirst()) {
+            do {
+                Exercise exercise = new Exercise(cursor.getLong(0), cursor.getString(1), cursor.getInt(2),
+                        cursor.getString(3), cursor.getString(4), cursor.getString(5));
+                readDoses(cursor, 6, exercise);
+                exercises.put(exercise.getExerciseId(), exercise);
+            } while (cursor.moveToNext());
+        }
+        cursor.close();
+        return exercises;
+    }
+
+    /** One exercise with its equipment and instructions, or null if it no longer exists. */
+    public Exercise getExerciseWithDetails(long exerciseId) {
+        Exercise exercise = getExercisesByIds(new long[]{exerciseId}).get(exerciseId);
+        if (exercise != null) {
+            exercise.setEquipment(getExerciseEquipment(exerciseId));
+            exercise.setInstructions(getExerciseInstructions(exerciseId));
+        }
+        return exercise;
+    }
+
+    /** Reads reps_min, reps_max and rest_seconds starting at the given column; NULL becomes 0. */
+    private static void readDoses(Cursor cursor, int firstColumn, Exercise exercise) {
+        exercise.setRepsMin(cursor.isNull(firstColumn) ? 0 : cursor.getInt(firstColumn));
+        exercise.setRepsMax(cursor.isNull(firstColumn + 1) ? 0 : cursor.getInt(firstColumn + 1));
+        exercise.setRestSeconds(cursor.isNull(firstColumn + 2) ? 0 : cursor.getInt(firstColumn + 2));
+    }
+
+    /**
+     * Ids of the exercises resting at most maxRestSeconds between sets, in ascending order, ready to pass
+     * as includedIds to the pager or search. A range scan of idx_exercises_rest; exercises without a parsed
+     * rest time are left out.
+     */
+    public long[] getExerciseIdsByMaxRest(int maxRestSeconds) {
+        SQLiteDatabase db = this.getReadableDatabase();
+        Cursor cursor = db.rawQuery("SELECT " + COL_EXERCISE_ID + " FROM " + TABLE_EXERCISES +
+                " WHERE " + COL_REST_SECONDS + " <= ?" +
+                " ORDER BY " + COL_EXERCISE_ID,
+                new String[]{String.valueOf(maxRestSeconds)});
+        long[] exerciseIds = new long[cursor.getCount()];
+        int i = 0;
+        while (cursor.moveToNext()) {
+            exerciseIds[i++] = cursor.getLong(0);
+        }
+        cursor.close();
+        return exerciseIds;
+    }
+
+    /**
+     * Ids of the exercises whose rep range overlaps minReps..maxReps, in ascending order, ready to pass
+     * as includedIds to the pager or search. Bounded by idx_exercises_reps on reps_min.
+     */
+    public long[] getExerciseIdsInRepRange(int minReps, int maxReps) {
+        SQLiteDatabase db = this.getReadableDatabase();
+        Cursor cursor = db.rawQuery("SELECT " + COL_EXERCISE_ID + " FROM " + TABLE_EXERCISES +
+                " WHERE " + COL_REPS_MIN + " <= ? AND " + COL_REPS_MAX + " >= ?" +
+                " ORDER BY " + COL_EXERCISE_ID,
+                new String[]{String.valueOf(maxReps), String.valueOf(minReps)});
+        long[] exerciseIds = new long[cursor.getCount()];
+        int i = 0;
+        while (cursor.moveToNext()) {
+            exerciseIds[i++] = cursor.getLong(0);
+        }
+        cursor.close();
+        return exerciseIds;
+    }
+
+    /**
+     * One page of the exercise library in (name, exercise_id) order, reading only the columns list rows show.
+     * Keyset pagination: pass the name and id of the last row already shown (afterName null for the first page);
+     * with inclusive the row itself is returned too, which is used to reload a window in place.
+     * exercise_id is the rowid, so idx_exercises_name is already ordered by (name, exercise_id) and the
+     * redundant name >= ? lets SQLite seek into it instead of scanning.
+     * A non-null includedIds restricts the pages to those exercises, e.g. an equipment filter's matches.
+     */
+    public List<Exercise> getExercisesAfter(String afterName, long afterId, boolean inclusive,
+                                            long[] includedIds, long[] excludedIds, int limit) {
+        StringBuilder where = new StringBuilder();
+        List<String> args = new ArrayList<>();
+        if (afterName != null) {
+            where.append(keysetAfter(afterId, inclusive));
+            args.add(afterName);
+            args.add(afterName);
+        }
+        return queryExercisePage(where, args, includedIds, excludedIds, " ASC", limit);
+    }
+
+    /** Keyset condition for rows after (name, afterId); binds the name twice. */
+    static String keysetAfter(long afterId, boolean inclusive) {
+        return COL_EXERCISE_NAME + " >= ? AND (" + COL_EXERCISE_NAME + " > ? OR " +
+                COL_EXERCISE_ID + (inclusive ? " >= " : " > ") + afterId + ")";
+    }
+
+    /** Keyset condition for rows before (name, beforeId); binds the name twice. */
+    static String keysetBefore(long beforeId) {
+        return COL_EXERCISE_NAME + " <= ? AND (" + COL_EXERCISE_NAME + " < ? OR " +
+                COL_EXERCISE_ID + " < " + beforeId + ")";
+    }
+
+    /** The page immediately before (beforeName, beforeId), in ascending order; used when scrolling back up. */
+    public List<Exercise> getExercisesBefore(String beforeName, long beforeId, long[] includedIds,
+                                             long[] excludedIds, int limit) {
+        StringBuilder where = new StringBuilder(keysetBefore(beforeId));
+        List<String> args = new ArrayList<>();
+        args.add(beforeName);
+        args.add(beforeName);
+        List<Exercise> page = queryExercisePage(where, args, includedIds, excludedIds, " DESC", limit);
+        Collections.reverse(page);
+        return page;
+    }
+
+    /**
+     * Picks up to count distinct random exercises without scanning the table. Each draw takes a random
+     * exercise_id between MIN and MAX and seeks to the first row at or after it, so it costs one rowid
+     * lookup however many exercises exist. Rows right after a gap in the ids are drawn slightly more
+     * often, which is fine for recommendations. Ids in avoidIds are skipped.
+     */
+    public List<Exercise> sampleExercises(int count, Set<Long> avoidIds, Random random) {
+        List<Exercise> sample = new ArrayList<>();
+        SQLiteDatabase db = this.getReadableDatabase();
+        Cursor range = db.rawQuery("SELECT MIN(" + COL_EXERCISE_ID + "), MAX(" + COL_EXERCISE_ID + ") FROM " + TABLE_EXERCISES, null);
+        long min = 0;
+        long max = -1;
+        if (range.moveToFirst() && !range.isNull(0)) {
+            min = range.getLong(0);
+            max = range.getLong(1);
+        }
+        range.close();
+        if (max < min) {
+            return sample;
+        }
+
+        Set<Long> picked = new HashSet<>();
+        String query = "SELECT " + COL_EXERCISE_ID + ", " + COL_EXERCISE_NAME + ", " + COL_SETS + ", " +
+                COL_REPS + ", " + COL_IMAGE_PATH + " FROM " + TABLE_EXERCISES +
+                " WHERE " + COL_EXERCISE_ID + " >= ? ORDER BY " + COL_EXERCISE_ID + " LIMIT 1";
+        // Draws can land on an avoided or already picked row; cap the retries so a small table cannot loop
+        for (int attempt = 0; attempt < count * SAMPLE_ATTEMPTS_PER_PICK && sample.size() < count; attempt++) {
+            long target = min + (long) (random.nextDouble() * (max - min + 1));
+            Cursor cursor = db.rawQuery(query, new String[]{String.valueOf(target)});
+            if (cursor.moveToFirst()) {
+                long exerciseId = cursor.getLong(0);
+                if (!avoidIds.contains(exerciseId) && picked.add(exerciseId)) {
+                    sample.add(new Exercise(exerciseId, cursor.getString(1), cursor.getInt(2),
+                            cursor.getString(3), null, cursor.getString(4)));
+                }
+            }
+            cursor.close();
+        }
+        return sample;
+    }
+
+    /** Ids of every exercise in the user's current workouts; bounded by those workouts, not by the library. */
+    public Set<Long> getCurrentWorkoutExerciseIds(int userId) {
+        SQLiteDatabase db = this.getReadableDatabase();
+        Set<Long> exerciseIds = new HashSet<>();
+        Cursor cursor = db.rawQuery("SELECT DISTINCT we." + COL_EXERCISE_ID +
+                " FROM " + TABLE_CURRENT_WORKOUTS + " cw" +
+                " INNER JOIN " + TABLE_WORKOUT_EXERCISES + " we ON we." + COL_WORKOUT_ID + " = cw." + COL_WORKOUT_ID +
+                " WHERE cw." + COL_USER_ID + " = ?", new String[]{String.valueOf(userId)});
+        if (cursor.moveToFirst()) {
+            do {
+                exerciseIds.add(cursor.getLong(0));
+            } while (cursor.moveToNext());
+        }
+        cursor.close();
+        return exerciseIds;
+    }
+
+    /**
+     * Prefix search over exercise names, equipment and instructions through the exercises_fts index.
+     * Every word of the query must match the start of a word somewhere in the exercise; exercises whose
+     * name matches all of them rank first, then the rest, each group by name. Returns an empty list
+     * when the query has no searchable words. A non-null includedIds restricts the results to those exercises.
+     */
+    public List<Exercise> searchExercises(String query, long[] includedIds, long[] excludedIds, int limit) {
+        List<String> terms = new ArrayList<>();
+        // Keep only letters and digits so user input cannot form FTS operators or syntax errors
+        for (String word : query.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) {
+                terms.add(word);
+            }
+        }
+        if (terms.isEmpty()) {
+            return new ArrayList<>();
+        }
+        StringBuilder match = new StringBuilder();
+        StringBuilder nameMatch = new StringBuilder();
+        for (int phrase = 0; phrase < terms.size(); phrase++) {
+            if (phrase > 0) {
+                match.append(' ');
+                nameMatch.append(" AND ");
+            }
+            match.append(terms.get(phrase)).append('*');
+            // matchinfo 'x' holds three 32-bit counts per (phrase, column), the first being this row's hits;
+            // the name is column 0 of FTS_COLUMNS, so the phrase hit the name when that count is not zero
+            nameMatch.append("substr(m.hits, ").append(1 + phrase * FTS_COLUMNS * 3 * 8)
+                    .append(", 8) <> '00000000'");
+        }
+
+        // One MATCH: each hit carries its matchinfo, from which the name-match rank is read
+        StringBuilder where = new StringBuilder();
+        appendIdFilter(where, includedIds, excludedIds);
+        return readExerciseRows("SELECT " + COL_EXERCISE_ID + ", " + COL_EXERCISE_NAME + ", " + COL_SETS + ", " +
+                COL_REPS + ", " + COL_IMAGE_PATH +
+                " FROM (SELECT docid, hex(matchinfo(" + TABLE_EXERCISES_FTS + ", 'x')) AS hits FROM " +
+                TABLE_EXERCISES_FTS + " WHERE " + TABLE_EXERCISES_FTS + " MATCH ?) m" +
+                " INNER JOIN " + TABLE_EXERCISES + " ON " + COL_EXERCISE_ID + " = m.docid" +
+                (where.length() > 0 ? " WHERE " + where : "") +
+                " ORDER BY (" + nameMatch + ") DESC, " +
+                COL_EXERCISE_NAME + ", " + COL_EXERCISE_ID + " LIMIT " + limit,
+                new String[]{match.toString()}, includedIds, excludedIds);
+    }
+
+    private static void appendIdFilter(StringBuilder where, long[] includedIds, long[] excludedIds) {
+        if (includedIds != null) {
+            appendIdList(where, " IN ", TEMP_INCLUDED_IDS, includedIds);
+        }
+        if (excludedIds != null && excludedIds.length > 0) {
+            appendIdList(where, " NOT IN ", TEMP_EXCLUDED_IDS, excludedIds);
+        }
+    }
+
+    private static void appendIdList(StringBuilder where, String operator, String table, long[] ids) {
+        if (where.length() > 0) where.append(" AND ");
+        where.append(COL_EXERCISE_ID).append(operator);
+        if (ids.length > MAX_INLINED_IDS) {
+            // Staged by stageIds, so SQLite does not have to parse and sort thousands of literals
+            where.append("(SELECT id FROM temp.").append(table).append(")");
+            return;
+        }
+        // Ids are numeric so they are inlined
+        where.append('(');
+        for (int i = 0; i < ids.length; i++) {
+            if (i > 0) where.append(',');
+            where.append(ids[i]);
+        }
+        where.append(")");
+    }
+
+    /**
+     * Runs a query over the list-row columns (exercise_id, name, sets, reps, image_path) and reads every row.
+     * When an id filter is too long to inline, its ids are first written to a temp table; temp tables belong
+     * to one connection, so that case runs in a transaction, which holds the primary connection throughout.
+     */
+    private List<Exercise> readExerciseRows(String sql, String[] args, long[] includedIds, long[] excludedIds) {
+        boolean staged = (includedIds != null && includedIds.length > MAX_INLINED_IDS)
+                || (excludedIds != null && excludedIds.length > MAX_INLINED_IDS);
+        SQLiteDatabase db = staged ? this.getWritableDatabase() : this.getReadableDatabase();
+        List<Exercise> exercises = new ArrayList<>();
+        if (staged) {
+            db.beginTransaction();
+        }
+        try {
+            if (staged) {
+                stageIds(db, TEMP_INCLUDED_IDS, includedIds);
+                stageIds(db, TEMP_EXCLUDED_IDS, excludedIds);
+            }
+            Cursor cursor = db.rawQuery(sql, args);
+            if (cursor.moveToFirst()) {
+                do {
+                    exercises.add(new Exercise(cursor.getLong(0), cursor.getString(1), cursor.getInt(2),
+                            cursor.getString(3), null, cursor.getString(4)));
+                } while (cursor.moveToNext());
+            }
+            cursor.close();
+            if (staged) {
+                db.setTransactionSuccessful();
+            }
+        } finally {
+            if (staged) {
+                db.endTransaction();
+            }
+        }
+        return exercises;
+    }
+
+    /** Replaces the contents of a temp id table with ids, when the list is too long to inline. */
+    private static void stageIds(SQLiteDatabase db, String table, long[] ids) {
+        if (ids == null || ids.length <= MAX_INLINED_IDS) {
+            return;
+        }
+        db.execSQL("CREATE TEMP TABLE IF NOT EXISTS " + table + " (id INTEGER PRIMARY KEY)");
+        db.execSQL("DELETE FROM temp." + table);
+        SQLiteStatement insert = db.compileStatement("INSERT OR IGNORE INTO temp." + table + " (id) VALUES (?)");
+        try {
+            for (long id : ids) {
+                insert.bindLong(1, id);
+                insert.executeInsert();
+            }
+        } finally {
+            insert.close();
+        }
+    }
+
+    /** SQL of one exercise page in (name, exercise_id) order; where may be empty. */
+    static String exercisePageSql(CharSequence where, String direction, int limit) {
+        return "SELECT " + COL_EXERCISE_ID + ", " + COL_EXERCISE_NAME + ", " + COL_SETS + ", " +
+                COL_REPS + ", " + COL_IMAGE_PATH + " FROM " + TABLE_EXERCISES +
+                (where.length() > 0 ? " WHERE " + where : "") +
+                " ORDER BY " + COL_EXERCISE_NAME + direction + ", " + COL_EXERCISE_ID + direction +
+                " LIMIT " + limit;
+    }
+
+    private List<Exercise> queryExercisePage(StringBuilder where, List<String> args, long[] includedIds,
+                                             long[] excludedIds, String direction, int limit) {
+        appendIdFilter(where, includedIds, excludedIds);
+        return readExerciseRows(exercisePageSql(where, direction, limit), args.toArray(new String[0]),
+                includedIds, excludedIds);
+    }
+
+    /** SQL of getWorkoutExercises, taking the workout id. */
+    static final String WORKOUT_EXERCISES_SQL =
+            "SELECT we." + COL_EXERCISE_ID + ", e." + COL_EXERCISE_NAME + ", we." + COL_SETS + ", we." + COL_REPS +
+                    ", e." + COL_REST_TIME +
+                    " FROM " + TABLE_WORKOUT_EXERCISES + " we " +
+                    "INNER JOIN " + TABLE_EXERCISES + " e ON we." + COL_EXERCISE_ID + " = e." + COL_EXERCISE_ID +
+                    " WHERE we." + COL_WORKOUT_ID + "=? ORDER BY we.id";
+
     public Cursor getWorkoutExercises(long workoutId) {
         SQLiteDatabase db = this.getReadableDatabase();
-        String query = "SELECT we." + COL_EXERCISE_ID + ", e." + COL_EXERCISE_NAME + ", we." + COL_SETS + ", we." + COL_REPS +
-                ", e." + COL_REST_TIME +
+        return db.rawQuery(WORKOUT_EXERCISES_SQL, new String[]{String.valueOf(workoutId)});
+    }
+
+    /**
+     * Loads a workout's exercises together with their equipment and ordered instructions
+     * in three set-based queries (one per table), assembled in memory.
+     * Sets and reps come from the workout routine; rest time from the exercise.
+     */
+    public List<Exercise> loadWorkoutAggregate(long workoutId) {
+        SQLiteDatabase db = this.getReadableDatabase();
+        String[] args = new String[]{String.valueOf(workoutId)};
+        String workoutExerciseIds = "SELECT " + COL_EXERCISE_ID + " FROM " + TABLE_WORKOUT_EXERCISES +
+                " WHERE " + COL_WORKOUT_ID + "=?";
+
+        List<Exercise> exercises = new ArrayList<>();
+        Map<Long, Exercise> byId = new HashMap<>();
+        Cursor cursor = db.rawQuery("SELECT we." + COL_EXERCISE_ID + ", e." + COL_EXERCISE_NAME + ", we." + COL_SETS +
+                ", we." + COL_REPS + ", e." + COL_REST_TIME + ", e." + COL_IMAGE_PATH +
+                ", we." + COL_REPS_MIN + ", we." + COL_REPS_MAX + ", e." + COL_REST_SECONDS +
                 " FROM " + TABLE_WORKOUT_EXERCISES + " we " +
                 "INNER JOIN " + TABLE_EXERCISES + " e ON we." + COL_EXERCISE_ID + " = e." + COL_EXERCISE_ID +
-                " WHERE we." + COL_WORKOUT_ID + "=?";
-        return db.rawQuery(query, new String[]{String.valueOf(workoutId)});
+                " WHERE we." + COL_WORKOUT_ID + "=? ORDER BY we.id", args);
+        if (cursor.moveToFirst()) {
+            do {
+                Exercise exercise = new Exercise(cursor.getLong(0), cursor.getString(1), cursor.getInt(2),
+                        cursor.getString(3), cursor.getString(4), cursor.getString(5));
+                readDoses(cursor, 6, exercise);
+                exercise.setEquipment(new ArrayList<>());
+                exercise.setInstructions(new ArrayList<>());
+                exercises.add(exercise);
+                byId.put(exercise.getExerciseId(), exercise);
+            } while (cursor.moveToNext());
+        }
+        cursor.close();
+        if (exercises.isEmpty()) {
+            return exercises;
+        }
+
+        cursor = db.rawQuery("SELECT ee." + COL_EXERCISE_ID + ", eq." + COL_EQUIPMENT_NAME +
+                " FROM " + TABLE_EXERCISE_EQUIPMENT + " ee" +
+                " INNER JOIN " + TABLE_EQUIPMENT + " eq ON eq." + COL_EQUIPMENT_ID + " = ee." + COL_EQUIPMENT_ID +
+                " WHERE ee." + COL_EXERCISE_ID + " IN (" + workoutExerciseIds + ") ORDER BY ee.id", args);
+        if (cursor.moveToFirst()) {
+            do {
+                Exercise exercise = byId.get(cursor.getLong(0));
+                if (exercise != null) {
+                    exercise.getEquipment().add(cursor.getString(1));
+                }
+            } while (cursor.moveToNext());
+        }
+        cursor.close();
+
+        cursor = db.rawQuery("SELECT " + COL_EXERCISE_ID + ", " + COL_INSTRUCTION_TEXT +
+                " FROM " + TABLE_EXERCISE_INSTRUCTIONS +
+                " WHERE " + COL_EXERCISE_ID + " IN (" + workoutExerciseIds + ")" +
+                " ORDER BY " + COL_EXERCISE_ID + ", " + COL_INSTRUCTION_ORDER, args);
+        if (cursor.moveToFirst()) {
+            do {
+                Exercise exercise = byId.get(cursor.getLong(0));
+                if (exercise != null) {
+                    exercise.getInstructions().add(cursor.getString(1));
+                }
+            } while (cursor.moveToNext());
+        }
+        cursor.close();
+        return exercises;
     }
 
     public boolean deleteWorkoutExercise(long workoutId, long exerciseId) {
@@ -584,7 +1864,6 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         int rowsAffected = db.delete(TABLE_WORKOUT_EXERCISES,
                 COL_WORKOUT_ID + "=? AND " + COL_EXERCISE_ID + "=?",
                 new String[]{String.valueOf(workoutId), String.valueOf(exerciseId)});
-        db.close();
         return rowsAffected > 0;
     }
 
@@ -599,7 +1878,6 @@ public class DatabaseHelper extends SQLiteOpenHelper {
                 null, null, null);
         if (cursor.getCount() > 0) {
             cursor.close();
-            db.close();
             return -1; // Already exists
         }
         cursor.close();
@@ -609,10 +1887,7 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         values.put(COL_USER_ID, userId);
         values.put(COL_STATUS, "pending");
         values.put(COL_STARTED_DATE, String.valueOf(System.currentTimeMillis()));
-        long id = db.insert(TABLE_CURRENT_WORKOUTS, null, values);
-        incrementUserStat(userId, COL_TOTAL_SESSIONS);
-        db.close();
-        return id;
+        return db.insert(TABLE_CURRENT_WORKOUTS, null, values);
     }
 
     public Cursor getCurrentWorkouts(int userId) {
@@ -625,10 +1900,47 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         return db.rawQuery(query, new String[]{String.valueOf(userId)});
     }
 
+    /**
+     * SQL of getCurrentWorkoutsWithExerciseCount, taking the user id. Grouping and ordering by
+     * (started_date, id) follows idx_current_workouts_user, so neither needs a temp b-tree.
+     */
+    static final String CURRENT_WORKOUTS_WITH_COUNTS_SQL =
+            "SELECT cw.id, cw." + COL_WORKOUT_ID + ", wr." + COL_WORKOUT_NAME + ", cw." + COL_STATUS +
+                    ", cw." + COL_STARTED_DATE + ", COUNT(e." + COL_EXERCISE_ID + ") AS exercise_count" + ROUTINE_TOTALS +
+                    " FROM " + TABLE_CURRENT_WORKOUTS + " cw" +
+                    " INNER JOIN " + TABLE_WORKOUT_ROUTINES + " wr ON cw." + COL_WORKOUT_ID + " = wr." + COL_WORKOUT_ID +
+                    " LEFT JOIN " + TABLE_WORKOUT_EXERCISES + " we ON we." + COL_WORKOUT_ID + " = cw." + COL_WORKOUT_ID +
+                    " LEFT JOIN " + TABLE_EXERCISES + " e ON e." + COL_EXERCISE_ID + " = we." + COL_EXERCISE_ID +
+                    " WHERE cw." + COL_USER_ID + "=?" +
+                    " GROUP BY cw." + COL_STARTED_DATE + ", cw.id" +
+                    " ORDER BY cw." + COL_STARTED_DATE + " DESC, cw.id DESC";
+
+    /**
+     * User's current workouts, most recently started first, each carrying its exercise count.
+     * One grouped query instead of a getWorkoutExercises() call per workout.
+     */
+    public List<CurrentWorkout> getCurrentWorkoutsWithExerciseCount(int userId) {
+        SQLiteDatabase db = this.getReadableDatabase();
+        List<CurrentWorkout> workouts = new ArrayList<>();
+        Cursor cursor = db.rawQuery(CURRENT_WORKOUTS_WITH_COUNTS_SQL, new String[]{String.valueOf(userId)});
+        if (cursor.moveToFirst()) {
+            do {
+                CurrentWorkout workout = new CurrentWorkout(cursor.getLong(0), cursor.getLong(1),
+                        cursor.getString(2), cursor.getString(3), cursor.getString(4));
+                workout.setExerciseCount(cursor.getInt(5));
+                workout.setTotalSets(cursor.getInt(6));
+                workout.setTotalRestSeconds(cursor.getInt(7));
+                workouts.add(workout);
+            } while (cursor.moveToNext());
+        }
+        cursor.close();
+        return workouts;
+    }
+
     public Cursor getCurrentWorkoutExercises(long workoutId, int userId) {
         SQLiteDatabase db = this.getReadableDatabase();
         String query = "SELECT we." + COL_EXERCISE_ID + ", e." + COL_EXERCISE_NAME + ", we." + COL_SETS + ", we." + COL_REPS +
-                ", COALESCE(ces." + COL_STATUS + ", 'Pending') AS exercise_status " +
+                ", we." + COL_REPS_MIN + ", COALESCE(ces." + COL_STATUS + ", 'Pending') AS exercise_status " +
                 " FROM " + TABLE_WORKOUT_EXERCISES + " we " +
                 "INNER JOIN " + TABLE_EXERCISES + " e ON we." + COL_EXERCISE_ID + " = e." + COL_EXERCISE_ID +
                 " LEFT JOIN " + TABLE_CURRENT_WORKOUT_EXERCISE_STATUS + " ces ON we." + COL_WORKOUT_ID + "=ces." + COL_WORKOUT_ID +
@@ -647,7 +1959,6 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         values.put(COL_USER_ID, userId);
         values.put(COL_EXERCISE_ID, exerciseId);
         db.insertWithOnConflict(TABLE_CURRENT_WORKOUT_REMOVED_EXERCISES, null, values, SQLiteDatabase.CONFLICT_IGNORE);
-        db.close();
     }
 
     public void setCurrentWorkoutExerciseStatus(long workoutId, int userId, long exerciseId, String status) {
@@ -658,7 +1969,9 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         values.put(COL_EXERCISE_ID, exerciseId);
         values.put(COL_STATUS, status);
         db.insertWithOnConflict(TABLE_CURRENT_WORKOUT_EXERCISE_STATUS, null, values, SQLiteDatabase.CONFLICT_REPLACE);
-        db.close();
+        if ("completed".equalsIgnoreCase(status)) {
+            markActiveToday(userId);
+        }
     }
 
     public void clearCurrentWorkoutExerciseStatus(long workoutId, int userId) {
@@ -666,18 +1979,31 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         db.delete(TABLE_CURRENT_WORKOUT_EXERCISE_STATUS,
                 COL_WORKOUT_ID + "=? AND " + COL_USER_ID + "=?",
                 new String[]{String.valueOf(workoutId), String.valueOf(userId)});
-        db.close();
     }
 
+    /**
+     * Sets a current workout's status. Completing it also marks today active and rolls the finished
+     * session into the user's totals, all in one transaction so a crash cannot leave a completed
+     * session that was never counted.
+     */
     public boolean updateCurrentWorkoutStatus(long workoutId, int userId, String status) {
         SQLiteDatabase db = this.getWritableDatabase();
-        ContentValues values = new ContentValues();
-        values.put(COL_STATUS, status);
-        int rowsAffected = db.update(TABLE_CURRENT_WORKOUTS, values,
-                COL_WORKOUT_ID + "=? AND " + COL_USER_ID + "=?",
-                new String[]{String.valueOf(workoutId), String.valueOf(userId)});
-        db.close();
-        return rowsAffected > 0;
+        db.beginTransaction();
+        try {
+            ContentValues values = new ContentValues();
+            values.put(COL_STATUS, status);
+            int rowsAffected = db.update(TABLE_CURRENT_WORKOUTS, values,
+                    COL_WORKOUT_ID + "=? AND " + COL_USER_ID + "=?",
+                    new String[]{String.valueOf(workoutId), String.valueOf(userId)});
+            if (rowsAffected > 0 && "completed".equalsIgnoreCase(status)) {
+                markActiveToday(userId);
+                rollUpCompletedSessions(workoutId, userId);
+            }
+            db.setTransactionSuccessful();
+            return rowsAffected > 0;
+        } finally {
+            db.endTransaction();
+        }
     }
 
     public boolean deleteCurrentWorkout(long workoutId, int userId) {
@@ -691,7 +2017,6 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         int rowsAffected = db.delete(TABLE_CURRENT_WORKOUTS,
                 COL_WORKOUT_ID + "=? AND " + COL_USER_ID + "=?",
                 new String[]{String.valueOf(workoutId), String.valueOf(userId)});
-        db.close();
         return rowsAffected > 0;
     }
 
@@ -700,7 +2025,6 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         db.delete(TABLE_CURRENT_WORKOUT_EXERCISE_STATUS, COL_USER_ID + "=?", new String[]{String.valueOf(userId)});
         db.delete(TABLE_CURRENT_WORKOUT_REMOVED_EXERCISES, COL_USER_ID + "=?", new String[]{String.valueOf(userId)});
         db.delete(TABLE_CURRENT_WORKOUTS, COL_USER_ID + "=?", new String[]{String.valueOf(userId)});
-        db.close();
     }
 
     // User stats operations
@@ -712,79 +2036,350 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         values.put(COL_TOTAL_ROUTINES, 0);
         values.put(COL_TOTAL_EXERCISES, 0);
         values.put(COL_ACTIVE_DAYS, 0);
-        db.insert(TABLE_USER_STATS, null, values);
-        db.close();
+        // The stats triggers may already have created the row
+        db.insertWithOnConflict(TABLE_USER_STATS, null, values, SQLiteDatabase.CONFLICT_IGNORE);
     }
 
-    public void incrementUserStat(int userId, String statColumn) {
-        SQLiteDatabase db = this.getWritableDatabase();
-        // Check if stats exist
-        Cursor cursor = db.query(TABLE_USER_STATS,
-                new String[]{COL_USER_ID},
+    /** The user's trigger-maintained stats row; one primary-key lookup however much history exists. */
+    public Cursor getUserStats(int userId) {
+        SQLiteDatabase db = this.getReadableDatabase();
+        return db.query(TABLE_USER_STATS,
+                null,
                 COL_USER_ID + "=?",
                 new String[]{String.valueOf(userId)},
                 null, null, null);
-        if (cursor.getCount() == 0) {
-            cursor.close();
-            initializeUserStats(userId);
-        } else {
-            cursor.close();
-        }
+    }
 
-        db.execSQL("UPDATE " + TABLE_USER_STATS + " SET " + statColumn + " = " + statColumn + " + 1 WHERE " + COL_USER_ID + " = ?",
-                new String[]{String.valueOf(userId)});
-        db.close();
+    // Workout session history operations
+    /** The open session of the user's current workout, or -1 if there is none. */
+    public long getActiveSessionId(int userId, long workoutId) {
+        SQLiteDatabase db = this.getReadableDatabase();
+        Cursor cursor = db.query(TABLE_WORKOUT_SESSIONS,
+                new String[]{COL_SESSION_ID},
+                COL_USER_ID + "=? AND " + COL_WORKOUT_ID + "=? AND " + COL_STATUS + "=?",
+                new String[]{String.valueOf(userId), String.valueOf(workoutId), WorkoutSession.STATUS_ACTIVE},
+                null, null, COL_SESSION_ID + " DESC", "1");
+        long sessionId = cursor.moveToFirst() ? cursor.getLong(0) : -1;
+        cursor.close();
+        return sessionId;
     }
 
-    public Cursor getUserStats(int userId) {
+    /**
+     * Appends a batch of events in one transaction and brings the summary row of every session
+     * in the batch up to date. A summary only reads its own session's events, so the cost
+     * does not grow with the length of the history.
+     */
+    public void appendSessionEvents(List<SessionEvent> events) {
+        if (events.isEmpty()) return;
+        SQLiteDatabase db = this.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            SQLiteStatement insert = db.compileStatement("INSERT INTO " + TABLE_SESSION_EVENTS + " (" +
+                    COL_SESSION_ID + ", " + COL_EXERCISE_ID + ", " + COL_SET_INDEX + ", " + COL_REPS + ", " +
+                    COL_LOAD + ", " + COL_CREATED_AT + ", " + COL_EVENT_TYPE + ") VALUES (?, ?, ?, ?, ?, ?, ?)");
+            Set<Long> sessionIds = new HashSet<>();
+            try {
+                for (SessionEvent event : events) {
+                    insert.bindLong(1, event.getSessionId());
+                    insert.bindLong(2, event.getExerciseId());
+                    insert.bindLong(3, event.getSetIndex());
+                    insert.bindLong(4, event.getReps());
+                    insert.bindDouble(5, event.getLoad());
+                    insert.bindLong(6, event.getCreatedAt());
+                    insert.bindString(7, event.getEventType());
+                    insert.executeInsert();
+                    sessionIds.add(event.getSessionId());
+                }
+            } finally {
+                insert.close();
+            }
+
+            String sets = " FROM " + TABLE_SESSION_EVENTS + " WHERE " + COL_SESSION_ID + " = ?1" +
+                    " AND " + COL_EVENT_TYPE + " = '" + SessionEvent.TYPE_SET_COMPLETED + "'";
+            for (long sessionId : sessionIds) {
+                db.execSQL("UPDATE " + TABLE_WORKOUT_SESSIONS + " SET " +
+                        COL_EXERCISES_COMPLETED + " = (SELECT COUNT(DISTINCT " + COL_EXERCISE_ID + ")" + sets + "), " +
+                        COL_SETS_COMPLETED + " = (SELECT COUNT(*)" + sets + "), " +
+                        COL_TOTAL_REPS + " = (SELECT IFNULL(SUM(" + COL_REPS + "), 0)" + sets + "), " +
+                        COL_TOTAL_VOLUME + " = (SELECT IFNULL(SUM(" + COL_REPS + " * " + COL_LOAD + "), 0)" + sets + ")" +
+                        " WHERE " + COL_SESSION_ID + " = ?1", new Object[]{sessionId});
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /** The user's most recent sessions, newest first, read from the summary rows only. */
+    public List<WorkoutSession> getRecentSessions(int userId, int limit) {
         SQLiteDatabase db = this.getReadableDatabase();
-        return db.query(TABLE_USER_STATS,
-                null,
+        List<WorkoutSession> sessions = new ArrayList<>();
+        Cursor cursor = db.query(TABLE_WORKOUT_SESSIONS,
+                new String[]{COL_SESSION_ID, COL_WORKOUT_ID, COL_WORKOUT_NAME, COL_STATUS, COL_STARTED_AT, COL_ENDED_AT,
+                        COL_EXERCISES_COMPLETED, COL_SETS_COMPLETED, COL_TOTAL_REPS, COL_TOTAL_VOLUME},
                 COL_USER_ID + "=?",
                 new String[]{String.valueOf(userId)},
+                null, null,
+                COL_STARTED_AT + " DESC",
+                String.valueOf(limit));
+        if (cursor.moveToFirst()) {
+            do {
+                WorkoutSession session = new WorkoutSession(cursor.getLong(0), cursor.getLong(1), cursor.getString(2),
+                        cursor.getString(3), cursor.getLong(4), cursor.isNull(5) ? 0 : cursor.getLong(5));
+                session.setExercisesCompleted(cursor.getInt(6));
+                session.setSetsCompleted(cursor.getInt(7));
+                session.setTotalReps(cursor.getInt(8));
+                session.setTotalVolume(cursor.getDouble(9));
+                sessions.add(session);
+            } while (cursor.moveToNext());
+        }
+        cursor.close();
+        return sessions;
+    }
+
+    // Progress rollup operations
+    /** Adds the sessions the completion trigger just closed to the rollups. */
+    private void rollUpCompletedSessions(long workoutId, int userId) {
+        SQLiteDatabase db = this.getWritableDatabase();
+        Cursor cursor = db.query(TABLE_WORKOUT_SESSIONS, new String[]{COL_SESSION_ID},
+                COL_USER_ID + "=? AND " + COL_WORKOUT_ID + "=? AND " + COL_STATUS + "=? AND " + COL_ROLLED_UP + "=0",
+                new String[]{String.valueOf(userId), String.valueOf(workoutId), WorkoutSession.STATUS_COMPLETED},
                 null, null, null);
+        List<Long> sessionIds = new ArrayList<>();
+        while (cursor.moveToNext()) {
+            sessionIds.add(cursor.getLong(0));
+        }
+        cursor.close();
+        for (long sessionId : sessionIds) {
+            rollUpSession(db, sessionId);
+        }
+    }
+
+    /**
+     * Adds one completed session to the day, week and month rollups of its start day and to the exercise records.
+     * Reads only that session's events, so the cost is the size of one workout however long the history is.
+     * Does nothing if the session is not completed or was already rolled up.
+     */
+    static void rollUpSession(SQLiteDatabase db, long sessionId) {
+        db.beginTransaction();
+        try {
+            Cursor cursor = db.query(TABLE_WORKOUT_SESSIONS, new String[]{COL_USER_ID, COL_STARTED_AT},
+                    COL_SESSION_ID + "=? AND " + COL_STATUS + "=? AND " + COL_ROLLED_UP + "=0",
+                    new String[]{String.valueOf(sessionId), WorkoutSession.STATUS_COMPLETED},
+                    null, null, null);
+            if (!cursor.moveToFirst()) {
+                cursor.close();
+                // Nothing changed; still successful, so an enclosing transaction is not rolled back
+                db.setTransactionSuccessful();
+                return;
+            }
+            int userId = cursor.getInt(0);
+            long day = ActivityBitmap.epochDay(cursor.getLong(1));
+            cursor.close();
+
+            Map<Long, ExerciseTotals> byExercise = new LinkedHashMap<>();
+            ExerciseTotals session = new ExerciseTotals();
+            cursor = db.query(TABLE_SESSION_EVENTS, new String[]{COL_EXERCISE_ID, COL_REPS, COL_LOAD, COL_CREATED_AT},
+                    COL_SESSION_ID + "=? AND " + COL_EVENT_TYPE + "=?",
+                    new String[]{String.valueOf(sessionId), SessionEvent.TYPE_SET_COMPLETED},
+                    null, null, null);
+            while (cursor.moveToNext()) {
+                ExerciseTotals totals = byExercise.get(cursor.getLong(0));
+                if (totals == null) {
+                    totals = new ExerciseTotals();
+                    byExercise.put(cursor.getLong(0), totals);
+                }
+                totals.addSet(cursor.getInt(1), cursor.getDouble(2), cursor.getLong(3));
+                session.addSet(cursor.getInt(1), cursor.getDouble(2), cursor.getLong(3));
+            }
+            cursor.close();
+
+            String[] periodTypes = {PeriodTotals.PERIOD_DAY, PeriodTotals.PERIOD_WEEK, PeriodTotals.PERIOD_MONTH};
+            long[] periodStarts = {day, ProgressMath.weekStart(day), ProgressMath.monthStart(day)};
+            for (int i = 0; i < periodTypes.length; i++) {
+                Object[] key = {userId, periodTypes[i], periodStarts[i]};
+                db.execSQL("INSERT OR IGNORE INTO " + TABLE_USER_ROLLUPS + " (" + COL_USER_ID + ", " +
+                        COL_PERIOD_TYPE + ", " + COL_PERIOD_START + ") VALUES (?, ?, ?)", key);
+                db.execSQL("UPDATE " + TABLE_USER_ROLLUPS + " SET " + COL_SESSIONS + " = " + COL_SESSIONS + " + 1, " +
+                        COL_SETS + " = " + COL_SETS + " + ?, " + COL_REPS + " = " + COL_REPS + " + ?, " +
+                        COL_VOLUME + " = " + COL_VOLUME + " + ?" +
+                        " WHERE " + COL_USER_ID + " = ? AND " + COL_PERIOD_TYPE + " = ? AND " + COL_PERIOD_START + " = ?",
+                        new Object[]{session.sets, session.reps, session.volume, userId, periodTypes[i], periodStarts[i]});
+            }
+
+            for (Map.Entry<Long, ExerciseTotals> entry : byExercise.entrySet()) {
+                long exerciseId = entry.getKey();
+                ExerciseTotals totals = entry.getValue();
+                for (int i = 0; i < periodTypes.length; i++) {
+                    Object[] key = {userId, exerciseId, periodTypes[i], periodStarts[i]};
+                    db.execSQL("INSERT OR IGNORE INTO " + TABLE_EXERCISE_ROLLUPS + " (" + COL_USER_ID + ", " +
+                            COL_EXERCISE_ID + ", " + COL_PERIOD_TYPE + ", " + COL_PERIOD_START + ") VALUES (?, ?, ?, ?)", key);
+                    db.execSQL("UPDATE " + TABLE_EXERCISE_ROLLUPS + " SET " + COL_SESSIONS + " = " + COL_SESSIONS + " + 1, " +
+                            COL_SETS + " = " + COL_SETS + " + ?, " + COL_REPS + " = " + COL_REPS + " + ?, " +
+                            COL_VOLUME + " = " + COL_VOLUME + " + ?, " +
+                            COL_BEST_ONE_REP_MAX + " = MAX(" + COL_BEST_ONE_REP_MAX + ", ?)" +
+                            " WHERE " + COL_USER_ID + " = ? AND " + COL_EXERCISE_ID + " = ? AND " +
+                            COL_PERIOD_TYPE + " = ? AND " + COL_PERIOD_START + " = ?",
+                            new Object[]{totals.sets, totals.reps, totals.volume, totals.bestOneRepMax,
+                                    userId, exerciseId, periodTypes[i], periodStarts[i]});
+                }
+
+                // Every right-hand side reads the old row, so each *_at moves only when its record is beaten
+                db.execSQL("INSERT OR IGNORE INTO " + TABLE_EXERCISE_RECORDS + " (" + COL_USER_ID + ", " +
+                        COL_EXERCISE_ID + ") VALUES (?, ?)", new Object[]{userId, exerciseId});
+                db.execSQL("UPDATE " + TABLE_EXERCISE_RECORDS + " SET " + COL_SESSIONS + " = " + COL_SESSIONS + " + 1, " +
+                        COL_TOTAL_SETS + " = " + COL_TOTAL_SETS + " + ?1, " +
+                        COL_TOTAL_REPS + " = " + COL_TOTAL_REPS + " + ?2, " +
+                        COL_TOTAL_VOLUME + " = " + COL_TOTAL_VOLUME + " + ?3, " +
+                        COL_MAX_REPS_AT + " = CASE WHEN ?4 > " + COL_MAX_REPS + " THEN ?5 ELSE " + COL_MAX_REPS_AT + " END, " +
+                        COL_MAX_REPS + " = MAX(" + COL_MAX_REPS + ", ?4), " +
+                        COL_MAX_LOAD + " = MAX(" + COL_MAX_LOAD + ", ?6), " +
+                        COL_BEST_ONE_REP_MAX_AT + " = CASE WHEN ?7 > " + COL_BEST_ONE_REP_MAX + " THEN ?8 ELSE " + COL_BEST_ONE_REP_MAX_AT + " END, " +
+                        COL_BEST_ONE_REP_MAX + " = MAX(" + COL_BEST_ONE_REP_MAX + ", ?7), " +
+                        COL_LAST_PERFORMED_AT + " = MAX(" + COL_LAST_PERFORMED_AT + ", ?9)" +
+                        " WHERE " + COL_USER_ID + " = ?10 AND " + COL_EXERCISE_ID + " = ?11",
+                        new Object[]{totals.sets, totals.reps, totals.volume, totals.maxReps, totals.maxRepsAt,
+                                totals.maxLoad, totals.bestOneRepMax, totals.bestOneRepMaxAt, totals.lastSetAt,
+                                userId, exerciseId});
+            }
+
+            db.execSQL("UPDATE " + TABLE_WORKOUT_SESSIONS + " SET " + COL_ROLLED_UP + " = 1 WHERE " + COL_SESSION_ID + " = ?",
+                    new Object[]{sessionId});
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
     }
 
-    // Hybrid stats calculation - verify with actual database queries
-    public int getActualTotalSessions(int userId) {
+    /** Running totals of the sets of one exercise (or of a whole session) while rolling it up. */
+    private static class ExerciseTotals {
+        int sets;
+        int reps;
+        double volume;
+        int maxReps;
+        long maxRepsAt;
+        double maxLoad;
+        double bestOneRepMax;
+        long bestOneRepMaxAt;
+        long lastSetAt;
+
+        void addSet(int setReps, double load, long createdAt) {
+            sets++;
+            reps += setReps;
+            volume += ProgressMath.volume(setReps, load);
+            if (setReps > maxReps) {
+                maxReps = setReps;
+                maxRepsAt = createdAt;
+            }
+            maxLoad = Math.max(maxLoad, load);
+            double oneRepMax = ProgressMath.estimatedOneRepMax(setReps, load);
+            if (oneRepMax > bestOneRepMax) {
+                bestOneRepMax = oneRepMax;
+                bestOneRepMaxAt = createdAt;
+            }
+            lastSetAt = Math.max(lastSetAt, createdAt);
+        }
+    }
+
+    /**
+     * The user's totals for periods of one type starting between fromStart and toStart (inclusive), oldest first.
+     * Periods without a completed session have no row. A range scan of the rollup primary key.
+     */
+    public List<PeriodTotals> getPeriodTotals(int userId, String periodType, long fromStart, long toStart) {
         SQLiteDatabase db = this.getReadableDatabase();
-        Cursor cursor = db.rawQuery("SELECT COUNT(*) FROM " + TABLE_CURRENT_WORKOUTS + " WHERE " + COL_USER_ID + "=?",
-                new String[]{String.valueOf(userId)});
-        int count = 0;
-        if (cursor.moveToFirst()) {
-            count = cursor.getInt(0);
+        List<PeriodTotals> totals = new ArrayList<>();
+        Cursor cursor = db.query(TABLE_USER_ROLLUPS,
+                new String[]{COL_PERIOD_START, COL_SESSIONS, COL_SETS, COL_REPS, COL_VOLUME},
+                COL_USER_ID + "=? AND " + COL_PERIOD_TYPE + "=? AND " + COL_PERIOD_START + " BETWEEN ? AND ?",
+                new String[]{String.valueOf(userId), periodType, String.valueOf(fromStart), String.valueOf(toStart)},
+                null, null, COL_PERIOD_START);
+        while (cursor.moveToNext()) {
+            totals.add(new PeriodTotals(periodType, cursor.getLong(0), cursor.getInt(1), cursor.getInt(2),
+                    cursor.getInt(3), cursor.getDouble(4)));
         }
         cursor.close();
-        db.close();
-        return count;
+        return totals;
     }
 
-    public int getActualTotalRoutines(int userId) {
+    /**
+     * The user's best exercises: highest estimated one-rep max first, then most reps in a set.
+     * Reads one row per exercise the user has performed, never the session history; deleted exercises are left out.
+     */
+    public List<ExerciseRecord> getExerciseRecords(int userId, int limit) {
         SQLiteDatabase db = this.getReadableDatabase();
-        Cursor cursor = db.rawQuery("SELECT COUNT(*) FROM " + TABLE_WORKOUT_ROUTINES + " WHERE " + COL_USER_ID + "=?",
+        List<ExerciseRecord> records = new ArrayList<>();
+        Cursor cursor = db.rawQuery("SELECT r." + COL_EXERCISE_ID + ", e." + COL_EXERCISE_NAME + ", r." + COL_SESSIONS +
+                ", r." + COL_TOTAL_SETS + ", r." + COL_TOTAL_REPS + ", r." + COL_TOTAL_VOLUME + ", r." + COL_MAX_REPS +
+                ", r." + COL_MAX_REPS_AT + ", r." + COL_MAX_LOAD + ", r." + COL_BEST_ONE_REP_MAX +
+                ", r." + COL_BEST_ONE_REP_MAX_AT + ", r." + COL_LAST_PERFORMED_AT +
+                " FROM " + TABLE_EXERCISE_RECORDS + " r" +
+                " JOIN " + TABLE_EXERCISES + " e ON e." + COL_EXERCISE_ID + " = r." + COL_EXERCISE_ID +
+                " WHERE r." + COL_USER_ID + " = ?" +
+                " ORDER BY r." + COL_BEST_ONE_REP_MAX + " DESC, r." + COL_MAX_REPS + " DESC" +
+                " LIMIT " + limit,
                 new String[]{String.valueOf(userId)});
-        int count = 0;
-        if (cursor.moveToFirst()) {
-            count = cursor.getInt(0);
+        while (cursor.moveToNext()) {
+            ExerciseRecord record = new ExerciseRecord(cursor.getLong(0), cursor.getString(1));
+            record.setSessions(cursor.getInt(2));
+            record.setTotalSets(cursor.getInt(3));
+            record.setTotalReps(cursor.getInt(4));
+            record.setTotalVolume(cursor.getDouble(5));
+            record.setMaxReps(cursor.getInt(6));
+            record.setMaxRepsAt(cursor.getLong(7));
+            record.setMaxLoad(cursor.getDouble(8));
+            record.setBestOneRepMax(cursor.getDouble(9));
+            record.setBestOneRepMaxAt(cursor.getLong(10));
+            record.setLastPerformedAt(cursor.getLong(11));
+            records.add(record);
         }
         cursor.close();
-        db.close();
-        return count;
+        return records;
     }
 
-    public int getActualTotalExercises(int userId) {
-        SQLiteDatabase db = this.getReadableDatabase();
-        String query = "SELECT COUNT(DISTINCT we." + COL_EXERCISE_ID + ") " +
-                "FROM " + TABLE_WORKOUT_EXERCISES + " we " +
-                "INNER JOIN " + TABLE_WORKOUT_ROUTINES + " wr ON we." + COL_WORKOUT_ID + " = wr." + COL_WORKOUT_ID +
-                " WHERE wr." + COL_USER_ID + "=?";
-        Cursor cursor = db.rawQuery(query, new String[]{String.valueOf(userId)});
-        int count = 0;
-        if (cursor.moveToFirst()) {
-            count = cursor.getInt(0);
+    // User activity operations
+    /** The days the user was active; empty if they never were. One primary-key lookup. */
+    public ActivityBitmap getUserActivity(int userId) {
+        return loadActivity(this.getReadableDatabase(), userId);
+    }
+
+    /**
+     * Records today as an active day for the user. The bitmap is only written back when today was not
+     * marked yet, so repeated activity on one day costs a single primary-key read.
+     */
+    public void markActiveToday(int userId) {
+        SQLiteDatabase db = this.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            ActivityBitmap activity = loadActivity(db, userId);
+            if (activity.mark(ActivityBitmap.epochDay(System.currentTimeMillis()))) {
+                saveActivity(db, userId, activity);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
         }
+    }
+
+    private static ActivityBitmap loadActivity(SQLiteDatabase db, int userId) {
+        Cursor cursor = db.query(TABLE_USER_ACTIVITY,
+                new String[]{COL_ACTIVE_DAY_BITS},
+                COL_USER_ID + "=?",
+                new String[]{String.valueOf(userId)},
+                null, null, null);
+        byte[] bytes = cursor.moveToFirst() ? cursor.getBlob(0) : null;
         cursor.close();
-        db.close();
-        return count;
+        return ActivityBitmap.fromBytes(bytes);
+    }
+
+    /** Writes the bitmap and keeps user_stats.active_days equal to its day count. */
+    private static void saveActivity(SQLiteDatabase db, int userId, ActivityBitmap activity) {
+        ContentValues values = new ContentValues();
+        values.put(COL_USER_ID, userId);
+        values.put(COL_ACTIVE_DAY_BITS, activity.toBytes());
+        db.insertWithOnConflict(TABLE_USER_ACTIVITY, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+        db.execSQL("INSERT OR IGNORE INTO " + TABLE_USER_STATS + " (" + COL_USER_ID + ") VALUES (?)",
+                new Object[]{userId});
+        db.execSQL("UPDATE " + TABLE_USER_STATS + " SET " + COL_ACTIVE_DAYS + " = ? WHERE " + COL_USER_ID + " = ?",
+                new Object[]{activity.countDays(), userId});
     }
 }
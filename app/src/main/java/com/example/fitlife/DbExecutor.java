@@ -0,0 +1,180 @@
+package com.example.fitlife;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleEventObserver;
+import androidx.lifecycle.LifecycleOwner;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs DatabaseHelper work off the main thread.
+ * Writes go through a single writer thread (in submission order); reads share a small pool,
+ * which WAL mode lets run alongside the writer. Results are posted back to the main looper
+ * and dropped once the owning activity is destroyed. If the work throws, the error callback runs
+ * instead of the result callback, so screens can re-enable what they disabled for the work.
+ * Must be called from the main thread.
+ */
+public class DbExecutor {
+    private static final String TAG = "DbExecutor";
+    private static final int READER_THREADS = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+    /** Database work run on a background thread. */
+    public interface Work<T> {
+        T run(DatabaseHelper db);
+    }
+
+    /** Receives the result of a {@link Work} on the main thread. */
+    public interface Callback<T> {
+        void onResult(T result);
+    }
+
+    /** Receives the exception a {@link Work} threw, on the main thread. */
+    public interface ErrorCallback {
+        void onError(Exception error);
+    }
+
+    private static DbExecutor instance;
+
+    private final DatabaseHelper dbHelper;
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(threadFactory("FitLifeDb-writer"));
+    private final ExecutorService readers = Executors.newFixedThreadPool(READER_THREADS, threadFactory("FitLifeDb-reader"));
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    public static synchronized DbExecutor getInstance(Context context) {
+        if (instance == null) {
+            instance = new DbExecutor(DatabaseHelper.getInstance(context));
+        }
+        return instance;
+    }
+
+    private DbExecutor(DatabaseHelper dbHelper) {
+        this.dbHelper = dbHelper;
+    }
+
+    /** Runs a query on the reader pool. If the owner is destroyed first, the query is skipped or its result dropped. */
+    public <T> Task read(LifecycleOwner owner, Work<T> work, Callback<T> callback) {
+        return read(owner, work, callback, null);
+    }
+
+    /** Same as {@link #read(LifecycleOwner, Work, Callback)}, with onError called instead if the query throws. */
+    public <T> Task read(LifecycleOwner owner, Work<T> work, Callback<T> callback, @Nullable ErrorCallback onError) {
+        return submit(readers, owner, work, callback, onError, true);
+    }
+
+    /**
+     * Runs a write on the writer thread. A write always runs to completion once submitted;
+     * destroying the owner only drops the callback.
+     */
+    public <T> Task write(LifecycleOwner owner, Work<T> work, @Nullable Callback<T> callback) {
+        return write(owner, work, callback, null);
+    }
+
+    /** Same as {@link #write(LifecycleOwner, Work, Callback)}, with onError called instead if the write throws. */
+    public <T> Task write(LifecycleOwner owner, Work<T> work, @Nullable Callback<T> callback,
+                          @Nullable ErrorCallback onError) {
+        return submit(writer, owner, work, callback, onError, false);
+    }
+
+    private <T> Task submit(ExecutorService executor, LifecycleOwner owner, Work<T> work,
+                            @Nullable Callback<T> callback, @Nullable ErrorCallback onError, boolean cancelWork) {
+        Task task = new Task(owner.getLifecycle(), cancelWork);
+        task.future = executor.submit(() -> {
+            if (task.cancelWork && task.isCancelled()) return;
+            T result;
+            try {
+                result = work.run(dbHelper);
+            } catch (Exception e) {
+                Log.e(TAG, "Database work failed", e);
+                mainHandler.post(() -> {
+                    if (task.isCancelled()) return;
+                    task.detach();
+                    if (onError != null) {
+                        onError.onError(e);
+                    }
+                });
+                return;
+            }
+            mainHandler.post(() -> {
+                if (task.isCancelled()) return;
+                task.detach();
+                if (callback != null) {
+                    callback.onResult(result);
+                }
+            });
+        });
+        return task;
+    }
+
+    private static ThreadFactory threadFactory(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> new Thread(() -> {
+            Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+            runnable.run();
+        }, name + "-" + count.incrementAndGet());
+    }
+
+    /**
+     * Handle for a submitted unit of work. Cancelled automatically when its owner reaches ON_DESTROY.
+     * cancel() may be called from any thread; the lifecycle observer is always removed on the main thread.
+     */
+    public static class Task implements LifecycleEventObserver {
+        private static final Handler MAIN_HANDLER = new Handler(Looper.getMainLooper());
+
+        private final Lifecycle lifecycle;
+        private final boolean cancelWork;
+        private final AtomicBoolean cancelled = new AtomicBoolean();
+        private volatile Future<?> future;
+
+        Task(Lifecycle lifecycle, boolean cancelWork) {
+            this.lifecycle = lifecycle;
+            this.cancelWork = cancelWork;
+            if (lifecycle.getCurrentState() == Lifecycle.State.DESTROYED) {
+                cancelled.set(true);
+            } else {
+                lifecycle.addObserver(this);
+            }
+        }
+
+        /** Drops the callback and, for reads, skips the query if it has not started yet. */
+        public void cancel() {
+            if (cancelled.compareAndSet(false, true)) {
+                Future<?> f = future;
+                if (cancelWork && f != null) {
+                    f.cancel(false);
+                }
+            }
+            detach();
+        }
+
+        public boolean isCancelled() {
+            return cancelled.get();
+        }
+
+        /** Lifecycle observers may only be touched on the main thread, so other threads post the removal. */
+        private void detach() {
+            if (Looper.myLooper() == Looper.getMainLooper()) {
+                lifecycle.removeObserver(this);
+            } else {
+                MAIN_HANDLER.post(() -> lifecycle.removeObserver(this));
+            }
+        }
+
+        @Override
+        public void onStateChanged(@NonNull LifecycleOwner source, @NonNull Lifecycle.Event event) {
+            if (event == Lifecycle.Event.ON_DESTROY) {
+                cancel();
+            }
+        }
+    }
+}
@@ -10,6 +10,8 @@ import com.google.android.material.bottomnavigation.BottomNavigationView;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.textfield.TextInputEditText;
 import com.google.android.material.textfield.TextInputLayout;
+import com.example.fitlife.models.User;
+import com.example.fitlife.models.UserDetails;
 import com.example.fitlife.utils.PasswordHasher;
 import com.example.fitlife.utils.SessionManager;
 
@@ -30,7 +32,7 @@ public class EditProfileActivity extends AppCompatActivity {
     private TextInputEditText editTextWeight;
     private MaterialButton buttonSave;
     private BottomNavigationView bottomNavigation;
-    private DatabaseHelper dbHelper;
+    private DbExecutor dbExecutor;
     private SessionManager sessionManager;
 
     @Override
@@ -38,7 +40,7 @@ public class EditProfileActivity extends AppCompatActivity {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_edit_profile);
 
-        dbHelper = new DatabaseHelper(this);
+        dbExecutor = DbExecutor.getInstance(this);
         sessionManager = new SessionManager(this);
 
         if (!sessionManager.isLoggedIn()) {
@@ -114,36 +116,55 @@ public class EditProfileActivity extends AppCompatActivity {
 
     private void loadUserData() {
         int userId = sessionManager.getUserId();
-        Cursor cursor = dbHelper.getAccountInfo(userId);
-        if (cursor != null && cursor.moveToFirst()) {
-            String email = cursor.getString(cursor.getColumnIndexOrThrow("username_email"));
-            int usernameIdx = cursor.getColumnIndex("username");
-            String username = (usernameIdx >= 0) ? cursor.getString(usernameIdx) : null;
-            editTextEmail.setText(email != null ? email : "");
-            editTextUsername.setText((username != null && !username.isEmpty()) ? username : email);
-        } else {
-            String usernameEmail = sessionManager.getUsernameEmail();
-            editTextUsername.setText(usernameEmail);
-            editTextEmail.setText(usernameEmail);
-        }
-        if (cursor != null) {
-            cursor.close();
-        }
+        dbExecutor.read(this, db -> {
+            Cursor cursor = db.getAccountInfo(userId);
+            User account = null;
+            if (cursor != null && cursor.moveToFirst()) {
+                account = new User();
+                account.setUsernameEmail(cursor.getString(cursor.getColumnIndexOrThrow("username_email")));
+                int usernameIdx = cursor.getColumnIndex("username");
+                account.setUsername((usernameIdx >= 0) ? cursor.getString(usernameIdx) : null);
+            }
+            if (cursor != null) {
+                cursor.close();
+            }
+            return account;
+        }, account -> {
+            if (account != null) {
+                String email = account.getUsernameEmail();
+                String username = account.getUsername();
+                editTextEmail.setText(email != null ? email : "");
+                editTextUsername.setText((username != null && !username.isEmpty()) ? username : email);
+            } else {
+                String usernameEmail = sessionManager.getUsernameEmail();
+                editTextUsername.setText(usernameEmail);
+                editTextEmail.setText(usernameEmail);
+            }
+        });
 
-        Cursor detailsCursor = dbHelper.getUserDetails(userId);
-        if (detailsCursor != null && detailsCursor.moveToFirst()) {
-            int age = detailsCursor.getInt(detailsCursor.getColumnIndexOrThrow("age"));
-            String gender = detailsCursor.getString(detailsCursor.getColumnIndexOrThrow("gender"));
-            double height = detailsCursor.getDouble(detailsCursor.getColumnIndexOrThrow("height"));
-            double weight = detailsCursor.getDouble(detailsCursor.getColumnIndexOrThrow("weight"));
-            editTextAge.setText(String.valueOf(age));
-            editTextGender.setText(gender != null ? gender : "");
-            editTextHeight.setText(String.valueOf((int) height));
-            editTextWeight.setText(String.valueOf((int) weight));
-        }
-        if (detailsCursor != null) {
-            detailsCursor.close();
-        }
+        dbExecutor.read(this, db -> {
+            Cursor detailsCursor = db.getUserDetails(userId);
+            UserDetails details = null;
+            if (detailsCursor != null && detailsCursor.moveToFirst()) {
+                details = new UserDetails(userId,
+                        detailsCursor.getInt(detailsCursor.getColumnIndexOrThrow("age")),
+                        detailsCursor.getString(detailsCursor.getColumnIndexOrThrow("gender")),
+                        detailsCursor.getDouble(detailsCursor.getColumnIndexOrThrow("height")),
+                        detailsCursor.getDouble(detailsCursor.getColumnIndexOrThrow("weight")));
+            }
+            if (detailsCursor != null) {
+                detailsCursor.close();
+            }
+            return details;
+        }, details -> {
+            if (details != null) {
+                String gender = details.getGender();
+                editTextAge.setText(String.valueOf(details.getAge()));
+                editTextGender.setText(gender != null ? gender : "");
+                editTextHeight.setText(String.valueOf((int) details.getHeight()));
+                editTextWeight.setText(String.valueOf((int) details.getWeight()));
+            }
+        });
     }
 
     private void handleSave() {
@@ -159,13 +180,7 @@ public class EditProfileActivity extends AppCompatActivity {
         int userId = sessionManager.getUserId();
         String hashedPasswordOrNull = (password.isEmpty()) ? null : PasswordHasher.hashPassword(password);
 
-        if (!dbHelper.updateUserProfile(userId, username, email, hashedPasswordOrNull)) {
-            Toast.makeText(this, R.string.error, Toast.LENGTH_SHORT).show();
-            return;
-        }
-        sessionManager.createSession(userId, email);
-
-        // Parse and save user details (age, gender, height, weight)
+        // Parse user details (age, gender, height, weight)
         int age = 0;
         double height = 0, weight = 0;
         try {
@@ -181,14 +196,33 @@ public class EditProfileActivity extends AppCompatActivity {
             if (!weightStr.isEmpty()) weight = Double.parseDouble(weightStr);
         } catch (NumberFormatException ignored) { }
         String gender = editTextGender.getText().toString().trim();
-
-        if (dbHelper.userDetailsExist(userId)) {
-            dbHelper.updateUserDetails(userId, age, gender, height, weight);
-        } else {
-            dbHelper.insertUserDetails(userId, age, gender, height, weight);
-        }
-
-        Toast.makeText(this, R.string.profile_updated, Toast.LENGTH_SHORT).show();
-        finish();
+        int detailsAge = age;
+        double detailsHeight = height;
+        double detailsWeight = weight;
+
+        buttonSave.setEnabled(false);
+        dbExecutor.write(this, db -> {
+            if (!db.updateUserProfile(userId, username, email, hashedPasswordOrNull)) {
+                return false;
+            }
+            if (db.userDetailsExist(userId)) {
+                db.updateUserDetails(userId, detailsAge, gender, detailsHeight, detailsWeight);
+            } else {
+                db.insertUserDetails(userId, detailsAge, gender, detailsHeight, detailsWeight);
+            }
+            return true;
+        }, saved -> {
+            if (!saved) {
+                buttonSave.setEnabled(true);
+                Toast.makeText(this, R.string.error, Toast.LENGTH_SHORT).show();
+                return;
+            }
+            sessionManager.createSession(userId, email);
+            Toast.makeText(this, R.string.profile_updated, Toast.LENGTH_SHORT).show();
+            finish();
+        }, error -> {
+            buttonSave.setEnabled(true);
+            Toast.makeText(this, R.string.error, Toast.LENGTH_SHORT).show();
+        });
     }
 }
@@ -0,0 +1,79 @@
+package com.example.fitlife;
+
+import android.database.Cursor;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * In-memory equipment filter: one bitmap of exercise ids per equipment id, built from a single pass
+ * over the exercise_equipment junction. Matching several pieces of equipment is a bitmap AND (all of
+ * them) or OR (any of them), so filters never scan equipment names in SQL.
+ * Exercise ids are rowids and are used directly as bit positions.
+ * Immutable once loaded; load it again after exercises change.
+ */
+public class EquipmentIndex {
+    private final Map<Long, String> names;
+    private final Map<Long, BitSet> exercisesByEquipment;
+
+    private EquipmentIndex(Map<Long, String> names, Map<Long, BitSet> exercisesByEquipment) {
+        this.names = names;
+        this.exercisesByEquipment = exercisesByEquipment;
+    }
+
+    /** Reads the dictionary and every link. Runs queries, so call off the main thread. */
+    public static EquipmentIndex load(DatabaseHelper db) {
+        Map<Long, String> names = db.getEquipmentNames();
+        Map<Long, BitSet> exercisesByEquipment = new HashMap<>();
+        Cursor cursor = db.getEquipmentLinks();
+        if (cursor.moveToFirst()) {
+            do {
+                long equipmentId = cursor.getLong(0);
+                BitSet exercises = exercisesByEquipment.get(equipmentId);
+                if (exercises == null) {
+                    exercises = new BitSet();
+                    exercisesByEquipment.put(equipmentId, exercises);
+                }
+                exercises.set((int) cursor.getLong(1));
+            } while (cursor.moveToNext());
+        }
+        cursor.close();
+        return new EquipmentIndex(names, exercisesByEquipment);
+    }
+
+    /** Equipment id to name, ordered by name. */
+    public Map<Long, String> getEquipment() {
+        return names;
+    }
+
+    /**
+     * Ids of the exercises using all (matchAll) or any of the given equipment, in ascending order.
+     * An empty selection matches nothing.
+     */
+    public long[] match(Collection<Long> equipmentIds, boolean matchAll) {
+        BitSet result = null;
+        for (long equipmentId : equipmentIds) {
+            BitSet exercises = exercisesByEquipment.get(equipmentId);
+            if (exercises == null) {
+                exercises = new BitSet();
+            }
+            if (result == null) {
+                result = (BitSet) exercises.clone();
+            } else if (matchAll) {
+                result.and(exercises);
+            } else {
+                result.or(exercises);
+            }
+        }
+        if (result == null) {
+            return new long[0];
+        }
+        long[] exerciseIds = new long[result.cardinality()];
+        int i = 0;
+        for (int bit = result.nextSetBit(0); bit >= 0; bit = result.nextSetBit(bit + 1)) {
+            exerciseIds[i++] = bit;
+        }
+        return exerciseIds;
+    }
+}
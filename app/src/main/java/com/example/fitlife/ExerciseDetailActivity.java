@@ -1,7 +1,6 @@
 package com.example.fitlife;
 
 import android.content.Intent;
-import android.graphics.Bitmap;
 import android.os.Bundle;
 import android.widget.ImageView;
 import android.widget.TextView;
@@ -10,6 +9,7 @@ import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 import com.google.android.material.appbar.MaterialToolbar;
 import com.google.android.material.button.MaterialButton;
+import com.example.fitlife.models.Exercise;
 import com.example.fitlife.utils.ImageHelper;
 import java.util.List;
 
@@ -24,7 +24,7 @@ public class ExerciseDetailActivity extends AppCompatActivity {
     private TextView textInstructionsList;
     private MaterialButton buttonEditExercise;
     private MaterialButton buttonDeleteExercise;
-    private DatabaseHelper dbHelper;
+    private DbExecutor dbExecutor;
     private long exerciseId = -1;
 
     @Override
@@ -32,7 +32,7 @@ public class ExerciseDetailActivity extends AppCompatActivity {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_exercise_detail);
 
-        dbHelper = new DatabaseHelper(this);
+        dbExecutor = DbExecutor.getInstance(this);
 
         exerciseId = getIntent().getLongExtra("exercise_id", -1);
         if (exerciseId == -1) {
@@ -72,53 +72,50 @@ public class ExerciseDetailActivity extends AppCompatActivity {
             new AlertDialog.Builder(this)
                     .setTitle(R.string.delete)
                     .setMessage(R.string.delete_exercise_confirm)
-                    .setPositiveButton(R.string.yes, (dialog, which) -> {
-                        if (dbHelper.deleteExercise(exerciseId)) {
-                            Toast.makeText(this, R.string.exercise_deleted, Toast.LENGTH_SHORT).show();
-                            finish();
-                        }
-                    })
+                    .setPositiveButton(R.string.yes, (dialog, which) ->
+                            dbExecutor.write(this, db -> db.deleteExercise(exerciseId), deleted -> {
+                                if (deleted) {
+                                    Toast.makeText(this, R.string.exercise_deleted, Toast.LENGTH_SHORT).show();
+                                    finish();
+                                }
+                            }))
                     .setNegativeButton(R.string.no, null)
                     .show();
         });
     }
 
     private void loadExerciseData(long exerciseId) {
-        android.database.Cursor cursor = dbHelper.getExercise(exerciseId);
-        if (cursor.moveToFirst()) {
-            String name = cursor.getString(cursor.getColumnIndexOrThrow("name"));
-            int sets = cursor.getInt(cursor.getColumnIndexOrThrow("sets"));
-            String reps = cursor.getString(cursor.getColumnIndexOrThrow("reps"));
-            String restTime = cursor.getString(cursor.getColumnIndexOrThrow("rest_time"));
-            String imagePath = cursor.getString(cursor.getColumnIndexOrThrow("image_path"));
+        dbExecutor.read(this, db -> db.getExerciseWithDetails(exerciseId), this::showExercise);
+    }
 
-            textExerciseName.setText(name);
-            textSetsRepsDetails.setText("Set: " + sets + "\nReps: " + reps + "\nRest Time: " + restTime);
+    private void showExercise(Exercise exercise) {
+        if (exercise == null) {
+            return;
+        }
+        textExerciseName.setText(exercise.getName());
+        textSetsRepsDetails.setText("Set: " + exercise.getSets() + "\nReps: " + exercise.getReps()
+                + "\nRest Time: " + exercise.getRestTime());
 
-            // Load image
-            if (imagePath != null && !imagePath.isEmpty()) {
-                Bitmap bitmap = ImageHelper.loadImage(imagePath);
-                if (bitmap != null) {
-                    imageExercise.setImageBitmap(bitmap);
-                }
-            }
+        // Load image
+        String imagePath = exercise.getImagePath();
+        if (imagePath != null && !imagePath.isEmpty()) {
+            ImageHelper.loadImageAsync(imageExercise, imagePath);
+        }
 
-            // Load equipment
-            List<String> equipment = dbHelper.getExerciseEquipment(exerciseId);
-            StringBuilder equipmentText = new StringBuilder();
-            for (String eq : equipment) {
-                equipmentText.append("• ").append(eq).append("\n");
-            }
-            textEquipmentList.setText(equipmentText.toString());
+        // Load equipment
+        List<String> equipment = exercise.getEquipment();
+        StringBuilder equipmentText = new StringBuilder();
+        for (String eq : equipment) {
+            equipmentText.append("• ").append(eq).append("\n");
+        }
+        textEquipmentList.setText(equipmentText.toString());
 
-            // Load instructions
-            List<String> instructions = dbHelper.getExerciseInstructions(exerciseId);
-            StringBuilder instructionsText = new StringBuilder();
-            for (int i = 0; i < instructions.size(); i++) {
-                instructionsText.append((i + 1)).append(". ").append(instructions.get(i)).append("\n");
-            }
-            textInstructionsList.setText(instructionsText.toString());
+        // Load instructions
+        List<String> instructions = exercise.getInstructions();
+        StringBuilder instructionsText = new StringBuilder();
+        for (int i = 0; i < instructions.size(); i++) {
+            instructionsText.append((i + 1)).append(". ").append(instructions.get(i)).append("\n");
         }
-        cursor.close();
+        textInstructionsList.setText(instructionsText.toString());
     }
 }
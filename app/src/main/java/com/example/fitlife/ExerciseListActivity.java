@@ -1,36 +1,55 @@
 package com.example.fitlife;
 
 import android.content.Intent;
-import android.database.Cursor;
 import android.os.Bundle;
 import android.view.View;
+import android.widget.EditText;
+import android.widget.HorizontalScrollView;
 import android.widget.TextView;
+import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
 import com.google.android.material.appbar.MaterialToolbar;
+import com.google.android.material.chip.Chip;
+import com.google.android.material.chip.ChipGroup;
 import androidx.recyclerview.widget.GridLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 import com.example.fitlife.adapters.ExerciseAdapter;
 import com.example.fitlife.models.Exercise;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
- * Lists all exercises; tap to open exercise detail.
+ * Lists all exercises, or those matching the search box and the equipment chips; tap to open exercise detail.
+ * Equipment filters are resolved against an in-memory EquipmentIndex and applied to the pager and search as id sets.
+ * The rep range and rest time chips are answered by indexed queries on the numeric dose columns and intersected with them.
  */
 public class ExerciseListActivity extends AppCompatActivity {
     private RecyclerView recyclerViewExercises;
     private TextView textEmpty;
-    private DatabaseHelper dbHelper;
-    private List<Exercise> exercises = new ArrayList<>();
     private ExerciseAdapter adapter;
+    private ExercisePager pager;
+    private ExerciseSearch search;
+    /** Latest pager window, shown again when the search is cleared. */
+    private List<Exercise> libraryWindow = new ArrayList<>();
+    private HorizontalScrollView scrollEquipment;
+    private ChipGroup chipGroupEquipment;
+    private EquipmentIndex equipmentIndex;
+    private final Set<Long> selectedEquipment = new HashSet<>();
+    private boolean matchAllEquipment;
+    private ChipGroup chipGroupDose;
+    /** Matches of the checked dose chip in ascending id order, or null when none is checked. */
+    private long[] doseIds;
+    private DbExecutor.Task doseQuery;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_exercise_list);
 
-        dbHelper = new DatabaseHelper(this);
-
         MaterialToolbar toolbar = findViewById(R.id.toolbar);
         setSupportActionBar(toolbar);
         if (getSupportActionBar() != null) {
@@ -41,53 +60,166 @@ public class ExerciseListActivity extends AppCompatActivity {
 
         recyclerViewExercises = findViewById(R.id.recyclerViewExercises);
         textEmpty = findViewById(R.id.textEmpty);
+        scrollEquipment = findViewById(R.id.scrollEquipment);
+        chipGroupEquipment = findViewById(R.id.chipGroupEquipment);
+        chipGroupDose = findViewById(R.id.chipGroupDose);
+        chipGroupDose.setOnCheckedStateChangeListener((group, checkedIds) -> loadDoseFilter(true));
         recyclerViewExercises.setLayoutManager(new GridLayoutManager(this, 2));
+        adapter = new ExerciseAdapter(exercise -> {
+            Intent intent = new Intent(ExerciseListActivity.this, ExerciseDetailActivity.class);
+            intent.putExtra("exercise_id", exercise.getExerciseId());
+            startActivity(intent);
+        });
+        recyclerViewExercises.setAdapter(adapter);
+
+        // Pages are loaded as the grid scrolls; the first page is requested once onResume has loaded the equipment index
+        pager = new ExercisePager(this, DbExecutor.getInstance(this), window -> {
+            libraryWindow = window;
+            if (!search.isActive()) {
+                showExercises(window);
+            }
+        });
+        adapter.setPager(pager);
 
-        loadExercises();
+        search = new ExerciseSearch(this, DbExecutor.getInstance(this), this::showSearchResults);
+        EditText editTextSearch = findViewById(R.id.editTextSearch);
+        search.attach(editTextSearch);
     }
 
-    private void loadExercises() {
-        Cursor cursor = dbHelper.getAllExercises();
-        exercises.clear();
-
-        if (cursor != null) {
-            try {
-                if (cursor.moveToFirst()) {
-                    do {
-                        long exerciseId = cursor.getLong(cursor.getColumnIndexOrThrow("exercise_id"));
-                        String name = cursor.getString(cursor.getColumnIndexOrThrow("name"));
-                        int sets = cursor.getInt(cursor.getColumnIndexOrThrow("sets"));
-                        String reps = cursor.getString(cursor.getColumnIndexOrThrow("reps"));
-                        String restTime = cursor.getString(cursor.getColumnIndexOrThrow("rest_time"));
-                        String imagePath = cursor.getString(cursor.getColumnIndexOrThrow("image_path"));
-
-                        Exercise exercise = new Exercise(exerciseId, name, sets, reps, restTime, imagePath);
-                        exercises.add(exercise);
-                    } while (cursor.moveToNext());
-                }
-            } finally {
-                cursor.close();
-            }
+    private void showSearchResults(@Nullable List<Exercise> results) {
+        if (results == null) {
+            adapter.setPager(pager);
+            showExercises(libraryWindow);
+        } else {
+            // Results are not paged, so rows bound from them must not move the library window
+            adapter.setPager(null);
+            showExercises(results);
         }
+    }
 
+    private void showExercises(List<Exercise> exercises) {
+        boolean filtered = search.isActive() || !selectedEquipment.isEmpty() || doseIds != null;
+        textEmpty.setText(filtered ? R.string.no_matching_exercises : R.string.no_exercises);
         if (exercises.isEmpty()) {
             textEmpty.setVisibility(View.VISIBLE);
             recyclerViewExercises.setVisibility(View.GONE);
         } else {
             textEmpty.setVisibility(View.GONE);
             recyclerViewExercises.setVisibility(View.VISIBLE);
-            adapter = new ExerciseAdapter(exercises, exercise -> {
-                Intent intent = new Intent(ExerciseListActivity.this, ExerciseDetailActivity.class);
-                intent.putExtra("exercise_id", exercise.getExerciseId());
-                startActivity(intent);
+        }
+        adapter.submitList(exercises);
+    }
+
+    /** One chip per piece of equipment, plus a leading chip that switches between matching any and all of them. */
+    private void bindEquipmentChips() {
+        chipGroupEquipment.removeAllViews();
+        Map<Long, String> equipment = equipmentIndex.getEquipment();
+        scrollEquipment.setVisibility(equipment.isEmpty() ? View.GONE : View.VISIBLE);
+        if (equipment.isEmpty()) return;
+
+        Chip matchAllChip = inflateChip(getString(R.string.equipment_match_all), matchAllEquipment);
+        matchAllChip.setOnCheckedChangeListener((chip, checked) -> {
+            matchAllEquipment = checked;
+            if (selectedEquipment.size() > 1) {
+                applyFilters(true);
+            }
+        });
+        for (Map.Entry<Long, String> entry : equipment.entrySet()) {
+            long equipmentId = entry.getKey();
+            Chip chip = inflateChip(entry.getValue(), selectedEquipment.contains(equipmentId));
+            chip.setOnCheckedChangeListener((c, checked) -> {
+                if (checked) {
+                    selectedEquipment.add(equipmentId);
+                } else {
+                    selectedEquipment.remove(equipmentId);
+                }
+                applyFilters(true);
             });
-            recyclerViewExercises.setAdapter(adapter);
         }
     }
 
+    private Chip inflateChip(String text, boolean checked) {
+        Chip chip = (Chip) getLayoutInflater().inflate(R.layout.item_equipment_chip, chipGroupEquipment, false);
+        chip.setText(text);
+        chip.setChecked(checked);
+        chipGroupEquipment.addView(chip);
+        return chip;
+    }
+
+    /** Queries the ids matching the checked dose chip, then applies all filters. */
+    private void loadDoseFilter(boolean restart) {
+        if (doseQuery != null) {
+            doseQuery.cancel();
+            doseQuery = null;
+        }
+        int checkedId = chipGroupDose.getCheckedChipId();
+        if (checkedId == View.NO_ID) {
+            doseIds = null;
+            applyFilters(restart);
+            return;
+        }
+        doseQuery = DbExecutor.getInstance(this).read(this, db -> queryDose(db, checkedId), ids -> {
+            doseQuery = null;
+            doseIds = ids;
+            applyFilters(restart);
+        });
+    }
+
+    private static long[] queryDose(DatabaseHelper db, int chipId) {
+        if (chipId == R.id.chipLowReps) {
+            return db.getExerciseIdsInRepRange(1, 6);
+        } else if (chipId == R.id.chipMidReps) {
+            return db.getExerciseIdsInRepRange(8, 12);
+        } else if (chipId == R.id.chipHighReps) {
+            return db.getExerciseIdsInRepRange(15, Integer.MAX_VALUE);
+        }
+        return db.getExerciseIdsByMaxRest(60);
+    }
+
+    /** Resolves the selected chips to exercise ids and reloads; restart goes back to the top of the list. */
+    private void applyFilters(boolean restart) {
+        long[] equipmentIds = selectedEquipment.isEmpty() ? null
+                : equipmentIndex.match(selectedEquipment, matchAllEquipment);
+        long[] includedIds = intersect(equipmentIds, doseIds);
+        pager.setIncludedIds(includedIds);
+        search.setIncludedIds(includedIds);
+        if (restart) {
+            pager.restart();
+        }
+        pager.refresh();
+        search.refresh();
+    }
+
+    /** Ids in both ascending arrays; null stands for no restriction. */
+    private static long[] intersect(long[] a, long[] b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        long[] both = new long[Math.min(a.length, b.length)];
+        int count = 0;
+        for (int i = 0, j = 0; i < a.length && j < b.length; ) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                both[count++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(both, count);
+    }
+
     @Override
     protected void onResume() {
         super.onResume();
-        loadExercises();
+        // Exercises may have been added or edited elsewhere, so the index is rebuilt before reloading
+        DbExecutor.getInstance(this).read(this, EquipmentIndex::load, index -> {
+            equipmentIndex = index;
+            selectedEquipment.retainAll(index.getEquipment().keySet());
+            bindEquipmentChips();
+            // Dose columns may have changed too, so the checked dose chip is queried again
+            loadDoseFilter(false);
+        });
     }
 }
@@ -0,0 +1,166 @@
+package com.example.fitlife;
+
+import androidx.lifecycle.LifecycleOwner;
+import com.example.fitlife.models.Exercise;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keyset-paged window over the exercise library for list screens.
+ * Pages are read on the DbExecutor reader pool when a row near either edge of the window is bound,
+ * so the next page is usually ready before the user reaches it. At most MAX_PAGES are kept; the page
+ * at the far end is dropped and queried again if the user scrolls back to it.
+ * Each change is published as one list for a ListAdapter to diff. Must be used from the main thread.
+ */
+public class ExercisePager {
+    public static final int PAGE_SIZE = 30;
+    private static final int MAX_PAGES = 5;
+    /** Start loading the neighbouring page once a row this close to the window edge is bound. */
+    private static final int PREFETCH_DISTANCE = PAGE_SIZE / 2;
+
+    public interface Listener {
+        /** Receives the whole window each time it changes. */
+        void onWindowChanged(List<Exercise> window);
+    }
+
+    private final LifecycleOwner owner;
+    private final DbExecutor dbExecutor;
+    private final Listener listener;
+    private final ArrayDeque<List<Exercise>> pages = new ArrayDeque<>();
+    private long[] includedIds;
+    private long[] excludedIds = new long[0];
+    private boolean reachedStart = true;
+    private boolean reachedEnd;
+    private boolean loading;
+    /** Bumped by refresh() so page loads started before it are ignored. */
+    private int generation;
+
+    public ExercisePager(LifecycleOwner owner, DbExecutor dbExecutor, Listener listener) {
+        this.owner = owner;
+        this.dbExecutor = dbExecutor;
+        this.listener = listener;
+    }
+
+    /** Restricts the pages to these exercises, e.g. an equipment filter's matches, or lifts the restriction when null. */
+    public void setIncludedIds(long[] includedIds) {
+        this.includedIds = includedIds;
+    }
+
+    /** Drops the window so the next refresh() starts from the top, e.g. after the filter changed. */
+    public void restart() {
+        ++generation;
+        loading = false;
+        pages.clear();
+        reachedStart = true;
+    }
+
+    /** Exercises left out of every page, e.g. those already in the workout being edited. */
+    public void setExcludedIds(long[] excludedIds) {
+        this.excludedIds = excludedIds;
+    }
+
+    /**
+     * Reloads the current window in place, or the first page if nothing is loaded yet.
+     * Only the first row is needed to find the window again, so this stays one indexed query.
+     */
+    public void refresh() {
+        int gen = ++generation;
+        loading = true;
+        Exercise anchor = reachedStart || pages.isEmpty() ? null : pages.peekFirst().get(0);
+        int limit = Math.max(1, pages.size()) * PAGE_SIZE;
+        long[] included = includedIds;
+        long[] excluded = excludedIds;
+        dbExecutor.read(owner, db -> anchor == null
+                        ? db.getExercisesAfter(null, 0, false, included, excluded, limit)
+                        : db.getExercisesAfter(anchor.getName(), anchor.getExerciseId(), true, included, excluded, limit),
+                rows -> {
+                    if (gen != generation) return;
+                    pages.clear();
+                    if (rows.isEmpty() && anchor != null) {
+                        // Everything from the anchor on is gone; start over from the top
+                        reachedStart = true;
+                        refresh();
+                        return;
+                    }
+                    loading = false;
+                    for (int i = 0; i < rows.size(); i += PAGE_SIZE) {
+                        pages.addLast(new ArrayList<>(rows.subList(i, Math.min(rows.size(), i + PAGE_SIZE))));
+                    }
+                    reachedStart = anchor == null;
+                    reachedEnd = rows.size() < limit;
+                    publish();
+                });
+    }
+
+    /** Called by the adapter for every bound row; loads the neighbouring page when the row is near an edge. */
+    public void onItemBound(int position) {
+        if (loading || pages.isEmpty()) return;
+        if (!reachedEnd && position >= windowSize() - PREFETCH_DISTANCE) {
+            loadNext();
+        } else if (!reachedStart && position < PREFETCH_DISTANCE) {
+            loadPrevious();
+        }
+    }
+
+    private void loadNext() {
+        int gen = generation;
+        loading = true;
+        List<Exercise> lastPage = pages.peekLast();
+        Exercise last = lastPage.get(lastPage.size() - 1);
+        long[] included = includedIds;
+        long[] excluded = excludedIds;
+        dbExecutor.read(owner, db -> db.getExercisesAfter(last.getName(), last.getExerciseId(), false,
+                        included, excluded, PAGE_SIZE),
+                page -> {
+                    if (gen != generation) return;
+                    loading = false;
+                    reachedEnd = page.size() < PAGE_SIZE;
+                    if (page.isEmpty()) return;
+                    pages.addLast(page);
+                    if (pages.size() > MAX_PAGES) {
+                        pages.removeFirst();
+                        reachedStart = false;
+                    }
+                    publish();
+                });
+    }
+
+    private void loadPrevious() {
+        int gen = generation;
+        loading = true;
+        Exercise first = pages.peekFirst().get(0);
+        long[] included = includedIds;
+        long[] excluded = excludedIds;
+        dbExecutor.read(owner, db -> db.getExercisesBefore(first.getName(), first.getExerciseId(),
+                        included, excluded, PAGE_SIZE),
+                page -> {
+                    if (gen != generation) return;
+                    loading = false;
+                    reachedStart = page.size() < PAGE_SIZE;
+                    if (page.isEmpty()) return;
+                    pages.addFirst(page);
+                    if (pages.size() > MAX_PAGES) {
+                        pages.removeLast();
+                        reachedEnd = false;
+                    }
+                    publish();
+                });
+    }
+
+    private int windowSize() {
+        int size = 0;
+        for (List<Exercise> page : pages) {
+            size += page.size();
+        }
+        return size;
+    }
+
+    private void publish() {
+        List<Exercise> window = new ArrayList<>(windowSize());
+        for (List<Exercise> page : pages) {
+            window.addAll(page);
+        }
+        listener.onWindowChanged(window);
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.fitlife;
+
+import com.example.fitlife.models.Exercise;
+import java.util.List;
+
+/**
+ * Chooses the exercises recommended on the home screen.
+ * Runs on a DbExecutor reader thread; implementations should stay independent of the library size.
+ */
+public interface ExerciseRecommender {
+    List<Exercise> recommend(DatabaseHelper db, int userId, int count);
+}
@@ -0,0 +1,113 @@
+package com.example.fitlife;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.text.Editable;
+import android.text.TextWatcher;
+import android.widget.EditText;
+import androidx.annotation.Nullable;
+import androidx.lifecycle.LifecycleOwner;
+import com.example.fitlife.models.Exercise;
+import java.util.List;
+
+/**
+ * Search box behaviour for exercise lists. Typing is debounced, so a query runs only once the user
+ * pauses; it runs on the DbExecutor reader pool, and starting a new one cancels the previous one so
+ * results never arrive out of order. Must be used from the main thread.
+ */
+public class ExerciseSearch {
+    private static final long DEBOUNCE_MS = 250;
+    private static final int RESULT_LIMIT = 100;
+
+    public interface Listener {
+        /** Receives the results of the latest query, or null once the query is cleared. */
+        void onSearchResults(@Nullable List<Exercise> results);
+    }
+
+    private final LifecycleOwner owner;
+    private final DbExecutor dbExecutor;
+    private final Listener listener;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable runQuery = this::runQuery;
+    private long[] includedIds;
+    private long[] excludedIds = new long[0];
+    private String query = "";
+    private DbExecutor.Task pending;
+
+    public ExerciseSearch(LifecycleOwner owner, DbExecutor dbExecutor, Listener listener) {
+        this.owner = owner;
+        this.dbExecutor = dbExecutor;
+        this.listener = listener;
+    }
+
+    /** Restricts the results to these exercises, or lifts the restriction when null; call refresh() to apply. */
+    public void setIncludedIds(long[] includedIds) {
+        this.includedIds = includedIds;
+    }
+
+    /** Exercises left out of the results, e.g. those already in the workout being edited. */
+    public void setExcludedIds(long[] excludedIds) {
+        this.excludedIds = excludedIds;
+    }
+
+    /** Searches as the user types in the given field. */
+    public void attach(EditText input) {
+        input.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+            }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                setQuery(s.toString());
+            }
+        });
+    }
+
+    public void setQuery(String text) {
+        String trimmed = text.trim();
+        if (trimmed.equals(query)) return;
+        query = trimmed;
+        handler.removeCallbacks(runQuery);
+        cancelPending();
+        if (query.isEmpty()) {
+            listener.onSearchResults(null);
+        } else {
+            handler.postDelayed(runQuery, DEBOUNCE_MS);
+        }
+    }
+
+    /** True while a query is entered, i.e. the list should show search results rather than the library. */
+    public boolean isActive() {
+        return !query.isEmpty();
+    }
+
+    /** Runs the current query again at once, e.g. after the library changed. */
+    public void refresh() {
+        if (!isActive()) return;
+        handler.removeCallbacks(runQuery);
+        runQuery();
+    }
+
+    private void runQuery() {
+        cancelPending();
+        String text = query;
+        long[] included = includedIds;
+        long[] excluded = excludedIds;
+        pending = dbExecutor.read(owner, db -> db.searchExercises(text, included, excluded, RESULT_LIMIT), results -> {
+            pending = null;
+            listener.onSearchResults(results);
+        });
+    }
+
+    private void cancelPending() {
+        if (pending != null) {
+            pending.cancel();
+            pending = null;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.fitlife;
+
+import android.app.Application;
+import android.content.pm.ApplicationInfo;
+import android.os.StrictMode;
+
+/**
+ * Application entry point.
+ * Debuggable builds log any disk read or write on the main thread, so database work that
+ * bypasses DbExecutor shows up in logcat during development.
+ */
+public class FitLifeApplication extends Application {
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        if ((getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0) {
+            StrictMode.setThreadPolicy(new StrictMode.ThreadPolicy.Builder()
+                    .detectDiskReads()
+                    .detectDiskWrites()
+                    .penaltyLog()
+                    .build());
+        }
+    }
+}
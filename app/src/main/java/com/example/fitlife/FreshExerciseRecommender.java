@@ -0,0 +1,29 @@
+package com.example.fitlife;
+
+import com.example.fitlife.models.Exercise;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Default recommender: random exercises, preferring ones that are not already in the user's
+ * current workouts. Falls back to those only when the rest of the library cannot fill the count.
+ */
+public class FreshExerciseRecommender implements ExerciseRecommender {
+    private final Random random = new Random();
+
+    @Override
+    public List<Exercise> recommend(DatabaseHelper db, int userId, int count) {
+        Set<Long> inCurrentWorkouts = db.getCurrentWorkoutExerciseIds(userId);
+        List<Exercise> picks = db.sampleExercises(count, inCurrentWorkouts, random);
+        if (picks.size() < count) {
+            Set<Long> alreadyPicked = new HashSet<>();
+            for (Exercise exercise : picks) {
+                alreadyPicked.add(exercise.getExerciseId());
+            }
+            picks.addAll(db.sampleExercises(count - picks.size(), alreadyPicked, random));
+        }
+        return picks;
+    }
+}
@@ -8,17 +8,16 @@ import android.view.View;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.recyclerview.widget.ConcatAdapter;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 import com.google.android.material.bottomnavigation.BottomNavigationView;
-import com.google.android.material.button.MaterialButton;
 import com.example.fitlife.adapters.ExerciseAdapter;
 import com.example.fitlife.adapters.CurrentWorkoutAdapter;
+import com.example.fitlife.adapters.SectionAdapter;
 import com.example.fitlife.models.Exercise;
 import com.example.fitlife.models.CurrentWorkout;
 import com.example.fitlife.utils.SessionManager;
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 
 /**
@@ -26,18 +25,18 @@ import java.util.List;
  * Displays greeting, recommendations, current workouts, and navigation
  */
 public class HomeActivity extends AppCompatActivity {
-    private TextView textGreeting;
-    private MaterialButton buttonCreateNewWorkout;
-    private MaterialButton buttonCheckWorkoutList;
-    private MaterialButton buttonCreateExercise;
-    private MaterialButton buttonCheckExercisesList;
-    private TextView textSeeAllRecommendations;
-    private TextView textViewMore;
-    private RecyclerView recyclerViewRecommendations;
-    private RecyclerView recyclerViewCurrentWorkouts;
-    private TextView textEmpty;
+    private static final int RECOMMENDATION_COUNT = 2;
+
+    private RecyclerView recyclerViewContent;
+    private SectionAdapter headerSection;
+    private SectionAdapter emptySection;
+    private ExerciseAdapter recommendationAdapter;
+    private CurrentWorkoutAdapter currentWorkoutAdapter;
+    private String displayName;
+    /** Swap in another ExerciseRecommender to change what Home suggests. */
+    private final ExerciseRecommender recommender = new FreshExerciseRecommender();
     private BottomNavigationView bottomNavigation;
-    private DatabaseHelper dbHelper;
+    private DbExecutor dbExecutor;
     private SessionManager sessionManager;
 
     @Override
@@ -45,7 +44,7 @@ public class HomeActivity extends AppCompatActivity {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_home);
 
-        dbHelper = new DatabaseHelper(this);
+        dbExecutor = DbExecutor.getInstance(this);
         sessionManager = new SessionManager(this);
 
         if (!sessionManager.isLoggedIn()) {
@@ -61,52 +60,83 @@ public class HomeActivity extends AppCompatActivity {
     }
 
     private void initializeViews() {
-        textGreeting = findViewById(R.id.textGreeting);
-        buttonCreateNewWorkout = findViewById(R.id.buttonCreateNewWorkout);
-        buttonCheckWorkoutList = findViewById(R.id.buttonCheckWorkoutList);
-        buttonCreateExercise = findViewById(R.id.buttonCreateExercise);
-        buttonCheckExercisesList = findViewById(R.id.buttonCheckExercisesList);
-        textSeeAllRecommendations = findViewById(R.id.textSeeAllRecommendations);
-        textViewMore = findViewById(R.id.textViewMore);
-        recyclerViewRecommendations = findViewById(R.id.recyclerViewRecommendations);
-        recyclerViewCurrentWorkouts = findViewById(R.id.recyclerViewCurrentWorkouts);
-        textEmpty = findViewById(R.id.textEmpty);
+        recyclerViewContent = findViewById(R.id.recyclerViewContent);
         bottomNavigation = findViewById(R.id.bottomNavigation);
 
-        // Set greeting from actual username in DB
-        String displayName = getDisplayNameFromDb();
-        textGreeting.setText(getString(R.string.hi_user, displayName));
+        headerSection = new SectionAdapter(R.layout.section_home_header, this::bindHeader);
+        SectionAdapter recommendationsSection = new SectionAdapter(R.layout.section_home_recommendations,
+                this::bindRecommendations);
+        SectionAdapter currentWorkoutsHeader = new SectionAdapter(R.layout.section_home_current_workouts_header, view ->
+                view.findViewById(R.id.textViewMore).setOnClickListener(v -> {
+                    startActivity(new Intent(HomeActivity.this, WorkoutsActivity.class));
+                    overridePendingTransition(0, 0);
+                }));
+        emptySection = new SectionAdapter(R.layout.section_home_empty, view -> { });
+        emptySection.setVisible(false);
+
+        recommendationAdapter = new ExerciseAdapter(
+                exercise -> {
+                    Intent intent = new Intent(HomeActivity.this, ExerciseDetailActivity.class);
+                    intent.putExtra("exercise_id", exercise.getExerciseId());
+                    startActivity(intent);
+                    overridePendingTransition(0, 0);
+                },
+                R.layout.item_exercise_recommendation);
+        currentWorkoutAdapter = new CurrentWorkoutAdapter(workout -> {
+            Intent intent = new Intent(HomeActivity.this, MyWorkoutsActivity.class);
+            startActivity(intent);
+            overridePendingTransition(0, 0);
+        });
 
-        buttonCreateNewWorkout.setOnClickListener(v -> {
+        // Adapters are created once; each refresh submits a new list and only changed rows are rebound
+        ConcatAdapter.Config config = new ConcatAdapter.Config.Builder()
+                .setStableIdMode(ConcatAdapter.Config.StableIdMode.ISOLATED_STABLE_IDS)
+                .build();
+        recyclerViewContent.setLayoutManager(new LinearLayoutManager(this));
+        recyclerViewContent.setAdapter(new ConcatAdapter(config, headerSection, recommendationsSection,
+                currentWorkoutsHeader, emptySection, currentWorkoutAdapter));
+    }
+
+    private void bindHeader(View view) {
+        TextView textGreeting = view.findViewById(R.id.textGreeting);
+        if (displayName != null) {
+            textGreeting.setText(getString(R.string.hi_user, displayName));
+        }
+
+        view.findViewById(R.id.buttonCreateNewWorkout).setOnClickListener(v -> {
             startActivity(new Intent(HomeActivity.this, CreateWorkoutActivity.class));
             overridePendingTransition(0, 0);
         });
 
-        buttonCheckWorkoutList.setOnClickListener(v -> {
+        view.findViewById(R.id.buttonCheckWorkoutList).setOnClickListener(v -> {
             startActivity(new Intent(HomeActivity.this, WorkoutsActivity.class));
             overridePendingTransition(0, 0);
         });
 
-        buttonCreateExercise.setOnClickListener(v -> {
+        view.findViewById(R.id.buttonCreateExercise).setOnClickListener(v -> {
             startActivity(new Intent(HomeActivity.this, CreateExerciseActivity.class));
             overridePendingTransition(0, 0);
         });
 
-        buttonCheckExercisesList.setOnClickListener(v -> {
+        view.findViewById(R.id.buttonCheckExercisesList).setOnClickListener(v -> {
             startActivity(new Intent(HomeActivity.this, ExerciseListActivity.class));
             overridePendingTransition(0, 0);
         });
+    }
 
-        textSeeAllRecommendations.setOnClickListener(v -> {
+    /** The recommendations stay a horizontal carousel: a nested RecyclerView inside their section. */
+    private void bindRecommendations(View view) {
+        view.findViewById(R.id.textSeeAllRecommendations).setOnClickListener(v -> {
             // Navigate to workouts tab
             startActivity(new Intent(HomeActivity.this, WorkoutsActivity.class));
             overridePendingTransition(0, 0);
         });
 
-        textViewMore.setOnClickListener(v -> {
-            startActivity(new Intent(HomeActivity.this, WorkoutsActivity.class));
-            overridePendingTransition(0, 0);
-        });
+        RecyclerView recyclerViewRecommendations = view.findViewById(R.id.recyclerViewRecommendations);
+        if (recyclerViewRecommendations.getAdapter() != recommendationAdapter) {
+            recyclerViewRecommendations.setLayoutManager(new LinearLayoutManager(this, LinearLayoutManager.HORIZONTAL, false));
+            recyclerViewRecommendations.setAdapter(recommendationAdapter);
+        }
     }
 
     @Override
@@ -116,9 +146,8 @@ public class HomeActivity extends AppCompatActivity {
         loadData();
     }
 
-    private String getDisplayNameFromDb() {
-        int userId = sessionManager.getUserId();
-        Cursor cursor = dbHelper.getAccountInfo(userId);
+    private static String getDisplayName(DatabaseHelper db, int userId) {
+        Cursor cursor = db.getAccountInfo(userId);
         if (cursor != null && cursor.moveToFirst()) {
             int usernameIdx = cursor.getColumnIndex("username");
             String username = (usernameIdx >= 0) ? cursor.getString(usernameIdx) : null;
@@ -162,116 +191,32 @@ public class HomeActivity extends AppCompatActivity {
 
     private void loadData() {
         // Refresh welcome with current username (from registration or profile)
-        if (textGreeting != null) {
-            textGreeting.setText(getString(R.string.hi_user, getDisplayNameFromDb()));
-        }
+        int userId = sessionManager.getUserId();
+        dbExecutor.read(this, db -> getDisplayName(db, userId), name -> {
+            displayName = name;
+            headerSection.refresh();
+        });
         loadRecommendations();
         loadCurrentWorkouts();
     }
 
     private void loadRecommendations() {
-        // Load exercises from database for recommendations
-        Cursor cursor = dbHelper.getAllExercises();
-        List<Exercise> exercises = new ArrayList<>();
-        
-        if (cursor != null) {
-            try {
-                if (cursor.moveToFirst()) {
-                    do {
-                        long exerciseId = cursor.getLong(cursor.getColumnIndexOrThrow("exercise_id"));
-                        String name = cursor.getString(cursor.getColumnIndexOrThrow("name"));
-                        int sets = cursor.getInt(cursor.getColumnIndexOrThrow("sets"));
-                        String reps = cursor.getString(cursor.getColumnIndexOrThrow("reps"));
-                        String restTime = cursor.getString(cursor.getColumnIndexOrThrow("rest_time"));
-                        String imagePath = cursor.getString(cursor.getColumnIndexOrThrow("image_path"));
-                        
-                        Exercise exercise = new Exercise(exerciseId, name, sets, reps, restTime, imagePath);
-                        exercises.add(exercise);
-                    } while (cursor.moveToNext());
-                }
-            } finally {
-                cursor.close();
-            }
-        }
-
-        // Show only 2 exercises on Home recommendations
-        if (exercises.size() > 2) {
-            Collections.shuffle(exercises);
-            exercises = new ArrayList<>(exercises.subList(0, 2));
-        }
+        int userId = sessionManager.getUserId();
+        dbExecutor.read(this, db -> recommender.recommend(db, userId, RECOMMENDATION_COUNT), this::showRecommendations);
+    }
 
-        if (recyclerViewRecommendations != null) {
-            ExerciseAdapter adapter = new ExerciseAdapter(
-                    exercises,
-                    exercise -> {
-                        Intent intent = new Intent(HomeActivity.this, ExerciseDetailActivity.class);
-                        intent.putExtra("exercise_id", exercise.getExerciseId());
-                        startActivity(intent);
-                        overridePendingTransition(0, 0);
-                    },
-                    R.layout.item_exercise_recommendation);
-            recyclerViewRecommendations.setLayoutManager(new LinearLayoutManager(this, LinearLayoutManager.HORIZONTAL, false));
-            recyclerViewRecommendations.setAdapter(adapter);
-        }
+    private void showRecommendations(List<Exercise> exercises) {
+        recommendationAdapter.submitList(exercises);
     }
 
     private void loadCurrentWorkouts() {
         int userId = sessionManager.getUserId();
-        Cursor cursor = dbHelper.getCurrentWorkouts(userId);
-        List<CurrentWorkout> workouts = new ArrayList<>();
-
-        if (cursor != null) {
-            try {
-                if (cursor.moveToFirst()) {
-                    do {
-                        long workoutId = cursor.getLong(cursor.getColumnIndexOrThrow("workout_id"));
-                        String workoutName = cursor.getString(cursor.getColumnIndexOrThrow("name"));
-                        String status = cursor.getString(cursor.getColumnIndexOrThrow("status"));
-                        
-                        // Count exercises
-                        Cursor exCursor = dbHelper.getWorkoutExercises(workoutId);
-                        int exerciseCount = 0;
-                        if (exCursor != null) {
-                            exerciseCount = exCursor.getCount();
-                            exCursor.close();
-                        }
-                        
-                        CurrentWorkout workout = new CurrentWorkout();
-                        workout.setWorkoutId(workoutId);
-                        workout.setWorkoutName(workoutName);
-                        workout.setStatus(status);
-                        workout.setExerciseCount(exerciseCount);
-                        workouts.add(workout);
-                    } while (cursor.moveToNext());
-                }
-            } finally {
-                cursor.close();
-            }
-        }
+        dbExecutor.read(this, db -> db.getCurrentWorkoutsWithExerciseCount(userId), this::showCurrentWorkouts);
+    }
 
-        if (workouts.isEmpty()) {
-            if (textEmpty != null) {
-                textEmpty.setVisibility(View.VISIBLE);
-            }
-            if (recyclerViewCurrentWorkouts != null) {
-                recyclerViewCurrentWorkouts.setVisibility(View.GONE);
-            }
-        } else {
-            if (textEmpty != null) {
-                textEmpty.setVisibility(View.GONE);
-            }
-            if (recyclerViewCurrentWorkouts != null) {
-                recyclerViewCurrentWorkouts.setVisibility(View.VISIBLE);
-                
-                CurrentWorkoutAdapter adapter = new CurrentWorkoutAdapter(workouts, workout -> {
-                    Intent intent = new Intent(HomeActivity.this, MyWorkoutsActivity.class);
-                    startActivity(intent);
-                    overridePendingTransition(0, 0);
-                });
-                recyclerViewCurrentWorkouts.setLayoutManager(new LinearLayoutManager(this));
-                recyclerViewCurrentWorkouts.setAdapter(adapter);
-            }
-        }
+    private void showCurrentWorkouts(List<CurrentWorkout> workouts) {
+        emptySection.setVisible(workouts.isEmpty());
+        currentWorkoutAdapter.submitList(workouts);
     }
 
     @Override
@@ -0,0 +1,97 @@
+package com.example.fitlife;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.graphics.Bitmap;
+import android.os.SystemClock;
+import android.util.Log;
+import com.example.fitlife.utils.ImageHelper;
+import com.example.fitlife.utils.ThumbnailStore;
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * One-time background migration that re-encodes stored exercise images with the current
+ * ImageHelper encoder (WebP) and repoints exercises.image_path in a single transaction.
+ * The old files become unreferenced and are removed by ImageGarbageCollector.
+ * Logs bytes on disk and list-card decode time before and after. Images that still cannot be
+ * re-encoded after MAX_RUNS launches are left as they are so the migration can finish.
+ */
+public class ImageFormatMigration {
+    private static final String TAG = "ImageFormatMigration";
+    private static final String PREF_NAME = "FitLifeMigrations";
+    private static final String KEY_WEBP_DONE = "image_webp_v1_done";
+    private static final String KEY_WEBP_RUNS = "image_webp_v1_runs";
+    private static final int MAX_RUNS = 3;
+
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(
+            runnable -> new Thread(runnable, "FitLife-image-migration"));
+
+    public static void runOnceAsync(Context context) {
+        Context appContext = context.getApplicationContext();
+        SharedPreferences prefs = appContext.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
+        if (prefs.getBoolean(KEY_WEBP_DONE, false)) return;
+        EXECUTOR.execute(() -> {
+            int runs = prefs.getInt(KEY_WEBP_RUNS, 0) + 1;
+            boolean complete = run(appContext);
+            if (!complete && runs < MAX_RUNS) {
+                prefs.edit().putInt(KEY_WEBP_RUNS, runs).apply();
+                return;
+            }
+            if (!complete) {
+                Log.w(TAG, "Giving up on images that could not be re-encoded after " + runs + " runs");
+            }
+            prefs.edit().putBoolean(KEY_WEBP_DONE, true).remove(KEY_WEBP_RUNS).apply();
+            ImageGarbageCollector.runAsync(appContext);
+        });
+    }
+
+    /** Re-encodes every referenced image not yet in the target format. Returns false if it should be retried. */
+    static boolean run(Context context) {
+        DatabaseHelper dbHelper = DatabaseHelper.getInstance(context);
+        int[] cardSize = ThumbnailStore.getInstance(context).variantSize(ThumbnailStore.VARIANT_LIST_CARD);
+        String extension = ImageHelper.getEncoder().getExtension();
+        Map<String, String> replacements = new HashMap<>();
+        long bytesBefore = 0;
+        long bytesAfter = 0;
+        long decodeMsBefore = 0;
+        long decodeMsAfter = 0;
+        boolean complete = true;
+
+        for (String oldPath : dbHelper.getReferencedImagePaths()) {
+            if (oldPath.endsWith(extension) || !new File(oldPath).exists()) continue;
+            String newPath = ImageHelper.reencodeImage(context, oldPath);
+            if (newPath == null) {
+                Log.w(TAG, "Could not re-encode " + oldPath);
+                complete = false;
+                continue;
+            }
+            replacements.put(oldPath, newPath);
+            bytesBefore += new File(oldPath).length();
+            bytesAfter += new File(newPath).length();
+            decodeMsBefore += timeDecode(oldPath, cardSize);
+            decodeMsAfter += timeDecode(newPath, cardSize);
+        }
+
+        if (!replacements.isEmpty()) {
+            dbHelper.replaceImagePaths(replacements);
+        }
+        Log.d(TAG, "Re-encoded " + replacements.size() + " images: " + bytesBefore + " -> " + bytesAfter + " bytes, "
+                + "list-card decode " + decodeMsBefore + " -> " + decodeMsAfter + " ms");
+        return complete;
+    }
+
+    /** Decode time at list-card size, the way the app reads the image; never a full-size decode. */
+    private static long timeDecode(String path, int[] size) {
+        long start = SystemClock.elapsedRealtime();
+        Bitmap bitmap = ImageHelper.loadImage(path, size[0], size[1]);
+        long elapsed = SystemClock.elapsedRealtime() - start;
+        if (bitmap != null) {
+            bitmap.recycle();
+        }
+        return elapsed;
+    }
+}
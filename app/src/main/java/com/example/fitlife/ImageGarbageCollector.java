@@ -0,0 +1,79 @@
+package com.example.fitlife;
+
+import android.content.Context;
+import android.util.Log;
+import com.example.fitlife.utils.BitmapCache;
+import com.example.fitlife.utils.ImageHelper;
+import com.example.fitlife.utils.ThumbnailStore;
+import java.io.File;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Reconciles the exercise image directory against the database and deletes files
+ * (with their thumbnails) that no exercise references any more.
+ * Files newer than GRACE_PERIOD_MS are kept, since they may belong to a save that
+ * has not been committed yet.
+ */
+public class ImageGarbageCollector {
+    private static final String TAG = "ImageGarbageCollector";
+    private static final long GRACE_PERIOD_MS = 10 * 60 * 1000;
+
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(
+            runnable -> new Thread(runnable, "FitLife-image-gc"));
+    private static final AtomicBoolean queued = new AtomicBoolean();
+
+    /** Outcome of one collection run. */
+    public static class Report {
+        public int filesScanned;
+        public int filesDeleted;
+        public long bytesReclaimed;
+
+        @Override
+        public String toString() {
+            return "scanned " + filesScanned + " files, deleted " + filesDeleted + ", reclaimed " + bytesReclaimed + " bytes";
+        }
+    }
+
+    /** Queues a run on the GC thread; requests made while one is already queued are coalesced. */
+    public static void runAsync(Context context) {
+        if (!queued.compareAndSet(false, true)) return;
+        Context appContext = context.getApplicationContext();
+        EXECUTOR.execute(() -> {
+            queued.set(false);
+            run(appContext);
+        });
+    }
+
+    /** Runs a collection on the calling thread. */
+    public static Report run(Context context) {
+        Report report = new Report();
+        File[] files = ImageHelper.getImageDir(context).listFiles();
+        if (files == null) return report;
+
+        DatabaseHelper dbHelper = DatabaseHelper.getInstance(context);
+        Set<String> referenced = dbHelper.getReferencedImagePaths();
+        ThumbnailStore thumbnails = ThumbnailStore.getInstance(context);
+        BitmapCache cache = BitmapCache.getInstance(context);
+        long cutoff = System.currentTimeMillis() - GRACE_PERIOD_MS;
+
+        for (File file : files) {
+            if (!file.isFile()) continue;
+            report.filesScanned++;
+            String path = file.getAbsolutePath();
+            if (referenced.contains(path) || file.lastModified() > cutoff) continue;
+            long length = file.length();
+            if (file.delete()) {
+                report.filesDeleted++;
+                report.bytesReclaimed += length;
+                thumbnails.remove(path);
+                cache.evictPath(path);
+            }
+        }
+        dbHelper.pruneImageRefs();
+        Log.d(TAG, report.toString());
+        return report;
+    }
+}
@@ -23,7 +23,7 @@ public class LoginActivity extends AppCompatActivity {
     private TextInputEditText editTextPassword;
     private MaterialButton buttonLogin;
     private TextView textSignUp;
-    private DatabaseHelper dbHelper;
+    private DbExecutor dbExecutor;
     private SessionManager sessionManager;
 
     @Override
@@ -31,7 +31,7 @@ public class LoginActivity extends AppCompatActivity {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_login);
 
-        dbHelper = new DatabaseHelper(this);
+        dbExecutor = DbExecutor.getInstance(this);
         sessionManager = new SessionManager(this);
 
         // If already logged in, go to home
@@ -83,28 +83,35 @@ public class LoginActivity extends AppCompatActivity {
         String hashedPassword = PasswordHasher.hashPassword(password);
 
         // Check credentials
-        if (dbHelper.checkUser(usernameEmail, hashedPassword)) {
-            // Get user ID
-            int userId = dbHelper.getUserId(usernameEmail);
-            // Create session
-            sessionManager.createSession(userId, usernameEmail);
-            // Navigate to home or add details
-            navigateToHome();
-        } else {
-            Toast.makeText(this, R.string.invalid_credentials, Toast.LENGTH_SHORT).show();
-        }
+        buttonLogin.setEnabled(false);
+        dbExecutor.read(this,
+                db -> db.checkUser(usernameEmail, hashedPassword) ? db.getUserId(usernameEmail) : -1,
+                userId -> {
+                    if (userId != -1) {
+                        // Create session
+                        sessionManager.createSession(userId, usernameEmail);
+                        // Navigate to home or add details
+                        navigateToHome();
+                    } else {
+                        buttonLogin.setEnabled(true);
+                        Toast.makeText(this, R.string.invalid_credentials, Toast.LENGTH_SHORT).show();
+                    }
+                }, error -> {
+                    buttonLogin.setEnabled(true);
+                    Toast.makeText(this, R.string.error, Toast.LENGTH_SHORT).show();
+                });
     }
 
     private void navigateToHome() {
-        DatabaseHelper dbHelper = new DatabaseHelper(this);
-        SessionManager sessionManager = new SessionManager(this);
-        
-        if (dbHelper.userDetailsExist(sessionManager.getUserId())) {
-            startActivity(new Intent(LoginActivity.this, HomeActivity.class));
-        } else {
-            startActivity(new Intent(LoginActivity.this, AddDetailsActivity.class));
-        }
-        overridePendingTransition(0, 0);
-        finish();
+        int userId = sessionManager.getUserId();
+        dbExecutor.read(this, db -> db.userDetailsExist(userId), detailsExist -> {
+            if (detailsExist) {
+                startActivity(new Intent(LoginActivity.this, HomeActivity.class));
+            } else {
+                startActivity(new Intent(LoginActivity.this, AddDetailsActivity.class));
+            }
+            overridePendingTransition(0, 0);
+            finish();
+        });
     }
 }
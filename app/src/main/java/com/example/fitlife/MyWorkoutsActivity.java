@@ -21,6 +21,7 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.google.android.material.appbar.MaterialToolbar;
 import com.google.android.material.bottomnavigation.BottomNavigationView;
 import com.example.fitlife.adapters.CurrentWorkoutExerciseAdapter;
+import com.example.fitlife.models.SessionEvent;
 import com.example.fitlife.utils.SessionManager;
 import java.util.ArrayList;
 import java.util.List;
@@ -31,10 +32,12 @@ import java.util.List;
  */
 public class MyWorkoutsActivity extends AppCompatActivity implements SensorEventListener {
     private RecyclerView recyclerViewCurrentWorkouts;
+    private CurrentWorkoutExerciseAdapter adapter;
     private TextView textEmpty;
     private TextView textCurrentWorkouts;
     private BottomNavigationView bottomNavigation;
-    private DatabaseHelper dbHelper;
+    private DbExecutor dbExecutor;
+    private SessionEventWriter eventWriter;
     private SessionManager sessionManager;
     private SensorManager sensorManager;
     private Sensor accelerometer;
@@ -46,6 +49,7 @@ public class MyWorkoutsActivity extends AppCompatActivity implements SensorEvent
     private static final long SHAKE_DEBOUNCE_MS = 2500;
     private long lastShakeHandledAt = 0;
     private long currentWorkoutId = -1;
+    private long currentSessionId = -1;
     private int userId;
 
     @Override
@@ -53,7 +57,7 @@ public class MyWorkoutsActivity extends AppCompatActivity implements SensorEvent
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_my_workouts);
 
-        dbHelper = new DatabaseHelper(this);
+        dbExecutor = DbExecutor.getInstance(this);
         sessionManager = new SessionManager(this);
 
         if (!sessionManager.isLoggedIn()) {
@@ -64,6 +68,7 @@ public class MyWorkoutsActivity extends AppCompatActivity implements SensorEvent
         }
 
         userId = sessionManager.getUserId();
+        eventWriter = new SessionEventWriter(this, dbExecutor);
         initializeViews();
         setupBottomNavigation();
         setupGestureControls();
@@ -82,6 +87,14 @@ public class MyWorkoutsActivity extends AppCompatActivity implements SensorEvent
         textCurrentWorkouts = findViewById(R.id.textCurrentWorkouts);
         bottomNavigation = findViewById(R.id.bottomNavigation);
         vibrator = (Vibrator) getSystemService(VIBRATOR_SERVICE);
+
+        adapter = new CurrentWorkoutExerciseAdapter(exerciseId -> {
+            Intent intent = new Intent(MyWorkoutsActivity.this, ExerciseDetailActivity.class);
+            intent.putExtra("exercise_id", exerciseId);
+            startActivity(intent);
+        });
+        recyclerViewCurrentWorkouts.setLayoutManager(new LinearLayoutManager(this));
+        recyclerViewCurrentWorkouts.setAdapter(adapter);
     }
 
     @Override
@@ -112,13 +125,21 @@ public class MyWorkoutsActivity extends AppCompatActivity implements SensorEvent
     }
 
     private void deleteCurrentWorkout() {
-        if (currentWorkoutId != -1 && dbHelper.deleteCurrentWorkout(currentWorkoutId, userId)) {
-            Toast.makeText(this, R.string.workout_deleted, Toast.LENGTH_SHORT).show();
-            currentWorkoutId = -1;
-            loadCurrentWorkout();
-        } else {
+        if (currentWorkoutId == -1) {
             Toast.makeText(this, R.string.error, Toast.LENGTH_SHORT).show();
+            return;
         }
+        long workoutId = currentWorkoutId;
+        eventWriter.flush();
+        dbExecutor.write(this, db -> db.deleteCurrentWorkout(workoutId, userId), deleted -> {
+            if (deleted) {
+                Toast.makeText(this, R.string.workout_deleted, Toast.LENGTH_SHORT).show();
+                currentWorkoutId = -1;
+                loadCurrentWorkout();
+            } else {
+                Toast.makeText(this, R.string.error, Toast.LENGTH_SHORT).show();
+            }
+        }, this::onWriteFailed);
     }
 
     private void setupBottomNavigation() {
@@ -158,9 +179,8 @@ public class MyWorkoutsActivity extends AppCompatActivity implements SensorEvent
 
             @Override
             public void onSwiped(RecyclerView.ViewHolder viewHolder, int direction) {
-                int position = viewHolder.getAdapterPosition();
-                CurrentWorkoutExerciseAdapter adapter = (CurrentWorkoutExerciseAdapter) recyclerViewCurrentWorkouts.getAdapter();
-                if (adapter != null) {
+                int position = viewHolder.getBindingAdapterPosition();
+                if (position != RecyclerView.NO_POSITION) {
                     long exerciseId = adapter.getExerciseIdAt(position);
                     
                     if (direction == ItemTouchHelper.RIGHT) {
@@ -168,6 +188,7 @@ public class MyWorkoutsActivity extends AppCompatActivity implements SensorEvent
                         markExerciseComplete(exerciseId, position);
                     } else if (direction == ItemTouchHelper.LEFT) {
                         // Delete exercise from current workout
+                        logSessionEvent(exerciseId, 0, 0, SessionEvent.TYPE_EXERCISE_SKIPPED);
                         deleteExerciseFromWorkout(exerciseId, position);
                     }
                 }
@@ -243,51 +264,27 @@ public class MyWorkoutsActivity extends AppCompatActivity implements SensorEvent
     }
 
     private void loadCurrentWorkout() {
-        Cursor cursor = dbHelper.getCurrentWorkouts(userId);
+        dbExecutor.read(this, db -> readCurrentSession(db, userId), this::showCurrentSession);
+    }
+
+    /** Reads the user's current workout and its remaining exercises with their status. */
+    private static CurrentSession readCurrentSession(DatabaseHelper db, int userId) {
+        CurrentSession session = new CurrentSession();
+        Cursor cursor = db.getCurrentWorkouts(userId);
         if (cursor != null) {
             try {
                 if (cursor.moveToFirst()) {
-                    currentWorkoutId = cursor.getLong(cursor.getColumnIndexOrThrow("workout_id"));
-                    String workoutName = cursor.getString(cursor.getColumnIndexOrThrow("name"));
-                    if (textCurrentWorkouts != null) {
-                        textCurrentWorkouts.setVisibility(View.VISIBLE);
-                        textCurrentWorkouts.setText(workoutName);
-                    }
-                    // Load exercises for this workout
-                    loadWorkoutExercises();
-                } else {
-                    if (textCurrentWorkouts != null) {
-                        textCurrentWorkouts.setVisibility(View.GONE);
-                    }
-                    if (textEmpty != null) {
-                        textEmpty.setVisibility(View.VISIBLE);
-                    }
-                    if (recyclerViewCurrentWorkouts != null) {
-                        recyclerViewCurrentWorkouts.setVisibility(View.GONE);
-                    }
+                    session.workoutId = cursor.getLong(cursor.getColumnIndexOrThrow("workout_id"));
+                    session.workoutName = cursor.getString(cursor.getColumnIndexOrThrow("name"));
                 }
             } finally {
                 cursor.close();
             }
-        } else {
-            if (textCurrentWorkouts != null) {
-                textCurrentWorkouts.setVisibility(View.GONE);
-            }
-            if (textEmpty != null) {
-                textEmpty.setVisibility(View.VISIBLE);
-            }
-            if (recyclerViewCurrentWorkouts != null) {
-                recyclerViewCurrentWorkouts.setVisibility(View.GONE);
-            }
         }
-    }
-
-    private void loadWorkoutExercises() {
-        if (currentWorkoutId == -1) return;
-
-        Cursor cursor = dbHelper.getCurrentWorkoutExercises(currentWorkoutId, userId);
-        List<WorkoutExerciseItem> exercises = new ArrayList<>();
+        if (session.workoutId == -1) return session;
+        session.sessionId = db.getActiveSessionId(userId, session.workoutId);
 
+        cursor = db.getCurrentWorkoutExercises(session.workoutId, userId);
         if (cursor != null) {
             try {
                 if (cursor.moveToFirst()) {
@@ -296,6 +293,7 @@ public class MyWorkoutsActivity extends AppCompatActivity implements SensorEvent
                         String exerciseName = cursor.getString(cursor.getColumnIndexOrThrow("name"));
                         int sets = cursor.getInt(cursor.getColumnIndexOrThrow("sets"));
                         String reps = cursor.getString(cursor.getColumnIndexOrThrow("reps"));
+                        int repsMin = cursor.getInt(cursor.getColumnIndexOrThrow("reps_min"));
                         String status = "Pending";
                         int statusIdx = cursor.getColumnIndex("exercise_status");
                         if (statusIdx >= 0) {
@@ -307,15 +305,39 @@ public class MyWorkoutsActivity extends AppCompatActivity implements SensorEvent
                         item.exerciseName = exerciseName;
                         item.sets = sets;
                         item.reps = reps;
+                        item.repsMin = repsMin;
                         item.status = status;
-                        exercises.add(item);
+                        session.exercises.add(item);
                     } while (cursor.moveToNext());
                 }
             } finally {
                 cursor.close();
             }
         }
+        return session;
+    }
 
+    private void showCurrentSession(CurrentSession session) {
+        currentWorkoutId = session.workoutId;
+        currentSessionId = session.sessionId;
+        if (currentWorkoutId == -1) {
+            if (textCurrentWorkouts != null) {
+                textCurrentWorkouts.setVisibility(View.GONE);
+            }
+            if (textEmpty != null) {
+                textEmpty.setVisibility(View.VISIBLE);
+            }
+            if (recyclerViewCurrentWorkouts != null) {
+                recyclerViewCurrentWorkouts.setVisibility(View.GONE);
+            }
+            return;
+        }
+        if (textCurrentWorkouts != null) {
+            textCurrentWorkouts.setVisibility(View.VISIBLE);
+            textCurrentWorkouts.setText(session.workoutName);
+        }
+
+        List<WorkoutExerciseItem> exercises = session.exercises;
         if (exercises.isEmpty()) {
             if (textEmpty != null) {
                 textEmpty.setVisibility(View.VISIBLE);
@@ -329,31 +351,33 @@ public class MyWorkoutsActivity extends AppCompatActivity implements SensorEvent
             }
             if (recyclerViewCurrentWorkouts != null) {
                 recyclerViewCurrentWorkouts.setVisibility(View.VISIBLE);
-                
-                CurrentWorkoutExerciseAdapter adapter = new CurrentWorkoutExerciseAdapter(exercises, exerciseId -> {
-                    Intent intent = new Intent(MyWorkoutsActivity.this, ExerciseDetailActivity.class);
-                    intent.putExtra("exercise_id", exerciseId);
-                    startActivity(intent);
-                });
-                recyclerViewCurrentWorkouts.setLayoutManager(new LinearLayoutManager(this));
-                recyclerViewCurrentWorkouts.setAdapter(adapter);
+                adapter.submitList(exercises);
             }
         }
     }
 
     private void markExerciseComplete(long exerciseId, int position) {
-        // Persist completion to database so it stays when user returns to the page
-        if (currentWorkoutId != -1) {
-            dbHelper.setCurrentWorkoutExerciseStatus(currentWorkoutId, userId, exerciseId, "Completed");
+        // Log one event per set to the session history; a second swipe on a completed exercise logs nothing
+        WorkoutExerciseItem item = adapter.getCurrentList().get(position);
+        if (!"Completed".equalsIgnoreCase(item.status)) {
+            for (int set = 1; set <= item.sets; set++) {
+                logSessionEvent(exerciseId, set, item.repsMin, SessionEvent.TYPE_SET_COMPLETED);
+            }
         }
-        // Mark exercise as completed (update status in UI)
-        CurrentWorkoutExerciseAdapter adapter = (CurrentWorkoutExerciseAdapter) recyclerViewCurrentWorkouts.getAdapter();
-        if (adapter != null) {
-            adapter.markComplete(position);
+        // Persist completion to database so it stays when user returns to the page
+        long workoutId = currentWorkoutId;
+        if (workoutId != -1) {
+            dbExecutor.write(this, db -> {
+                db.setCurrentWorkoutExerciseStatus(workoutId, userId, exerciseId, "Completed");
+                return null;
+            }, null, this::onWriteFailed);
         }
-        // Check if all exercises are completed
-        if (adapter != null && adapter.areAllCompleted()) {
-            dbHelper.updateCurrentWorkoutStatus(currentWorkoutId, userId, "completed");
+        // Mark exercise as completed (update status in UI) and check if all exercises are completed
+        if (adapter.markComplete(position)) {
+            // The session is closed by this write, so the logged sets have to reach the writer first
+            eventWriter.flush();
+            dbExecutor.write(this, db -> db.updateCurrentWorkoutStatus(workoutId, userId, "completed"), null,
+                    this::onWriteFailed);
             new AlertDialog.Builder(this)
                     .setTitle("Workout Completed!")
                     .setMessage("Congratulations! You've completed the workout.")
@@ -362,11 +386,27 @@ public class MyWorkoutsActivity extends AppCompatActivity implements SensorEvent
         }
     }
 
+    /** A write failed: say so and reload, so the list no longer shows the change that was not saved. */
+    private void onWriteFailed(Exception error) {
+        Toast.makeText(this, R.string.error, Toast.LENGTH_SHORT).show();
+        loadCurrentWorkout();
+    }
+
+    private void logSessionEvent(long exerciseId, int setIndex, int reps, String eventType) {
+        if (currentSessionId == -1) return;
+        // Load is not entered anywhere in the app yet, so it is logged as 0
+        eventWriter.append(new SessionEvent(currentSessionId, exerciseId, setIndex, reps, 0,
+                System.currentTimeMillis(), eventType));
+    }
+
     private void deleteExerciseFromWorkout(long exerciseId, int position) {
         // Remove from current tab/session only; do NOT delete from actual workout routine
-        if (currentWorkoutId != -1) {
-            dbHelper.addCurrentWorkoutRemovedExercise(currentWorkoutId, userId, exerciseId);
-            loadWorkoutExercises();
+        long workoutId = currentWorkoutId;
+        if (workoutId != -1) {
+            dbExecutor.write(this, db -> {
+                db.addCurrentWorkoutRemovedExercise(workoutId, userId, exerciseId);
+                return null;
+            }, ignored -> loadCurrentWorkout(), this::onWriteFailed);
         }
     }
 
@@ -378,8 +418,11 @@ public class MyWorkoutsActivity extends AppCompatActivity implements SensorEvent
                 .setTitle("Reset Workout")
                 .setMessage("Are you sure you want to reset the entire workout session?")
                 .setPositiveButton("Yes", (dialog, which) -> {
-                    dbHelper.deleteAllCurrentWorkouts(userId);
-                    loadCurrentWorkout();
+                    eventWriter.flush();
+                    dbExecutor.write(this, db -> {
+                        db.deleteAllCurrentWorkouts(userId);
+                        return null;
+                    }, ignored -> loadCurrentWorkout(), this::onWriteFailed);
                 })
                 .setNegativeButton("No", null)
                 .show();
@@ -390,6 +433,15 @@ public class MyWorkoutsActivity extends AppCompatActivity implements SensorEvent
         public String exerciseName;
         public int sets;
         public String reps;
+        /** Lower end of the parsed rep range, 0 when the reps text has no number. */
+        public int repsMin;
         public String status;
     }
+
+    private static class CurrentSession {
+        long workoutId = -1;
+        long sessionId = -1;
+        String workoutName;
+        final List<WorkoutExerciseItem> exercises = new ArrayList<>();
+    }
 }
@@ -9,13 +9,25 @@ import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 import com.google.android.material.bottomnavigation.BottomNavigationView;
 import com.google.android.material.button.MaterialButton;
+import com.example.fitlife.models.ExerciseRecord;
+import com.example.fitlife.models.PeriodTotals;
+import com.example.fitlife.models.User;
+import com.example.fitlife.models.UserDetails;
+import com.example.fitlife.models.UserStats;
+import com.example.fitlife.utils.ActivityBitmap;
+import com.example.fitlife.utils.ProgressMath;
 import com.example.fitlife.utils.SessionManager;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Profile activity - displays user information and statistics
- * Uses hybrid calculation for stats (increment on actions, verify with queries)
+ * Stats come from one user_stats row that database triggers keep up to date
  */
 public class ProfileActivity extends AppCompatActivity {
+    private static final int WEEKS_SHOWN = 8;
+    private static final int RECORDS_SHOWN = 3;
+
     private TextView textUserName;
     private TextView textUserEmail;
     private TextView textAge;
@@ -26,10 +38,18 @@ public class ProfileActivity extends AppCompatActivity {
     private TextView textTotalRoutines;
     private TextView textTotalExercises;
     private TextView textActiveDays;
+    private TextView textCurrentStreak;
+    private TextView textLongestStreak;
+    private TextView textWeekSessions;
+    private TextView textWeekSets;
+    private TextView textWeekReps;
+    private TextView textMonthReps;
+    private TextView textWeeklySets;
+    private TextView textPersonalRecords;
     private MaterialButton buttonEdit;
     private MaterialButton buttonLogout;
     private BottomNavigationView bottomNavigation;
-    private DatabaseHelper dbHelper;
+    private DbExecutor dbExecutor;
     private SessionManager sessionManager;
 
     @Override
@@ -37,7 +57,7 @@ public class ProfileActivity extends AppCompatActivity {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_profile);
 
-        dbHelper = new DatabaseHelper(this);
+        dbExecutor = DbExecutor.getInstance(this);
         sessionManager = new SessionManager(this);
 
         if (!sessionManager.isLoggedIn()) {
@@ -64,6 +84,14 @@ public class ProfileActivity extends AppCompatActivity {
         textTotalRoutines = findViewById(R.id.textTotalRoutines);
         textTotalExercises = findViewById(R.id.textTotalExercises);
         textActiveDays = findViewById(R.id.textActiveDays);
+        textCurrentStreak = findViewById(R.id.textCurrentStreak);
+        textLongestStreak = findViewById(R.id.textLongestStreak);
+        textWeekSessions = findViewById(R.id.textWeekSessions);
+        textWeekSets = findViewById(R.id.textWeekSets);
+        textWeekReps = findViewById(R.id.textWeekReps);
+        textMonthReps = findViewById(R.id.textMonthReps);
+        textWeeklySets = findViewById(R.id.textWeeklySets);
+        textPersonalRecords = findViewById(R.id.textPersonalRecords);
         buttonEdit = findViewById(R.id.buttonEdit);
         buttonLogout = findViewById(R.id.buttonLogout);
         bottomNavigation = findViewById(R.id.bottomNavigation);
@@ -125,69 +153,139 @@ public class ProfileActivity extends AppCompatActivity {
 
     private void loadUserData() {
         int userId = sessionManager.getUserId();
-        Cursor accountCursor = dbHelper.getAccountInfo(userId);
-        if (accountCursor != null && accountCursor.moveToFirst()) {
-            String email = accountCursor.getString(accountCursor.getColumnIndexOrThrow("username_email"));
-            int usernameIdx = accountCursor.getColumnIndex("username");
-            String username = (usernameIdx >= 0) ? accountCursor.getString(usernameIdx) : null;
-            textUserEmail.setText(email != null ? email : "");
-            textUserName.setText((username != null && !username.isEmpty()) ? username : "User");
-        } else {
-            String usernameEmail = sessionManager.getUsernameEmail();
-            textUserEmail.setText(usernameEmail != null ? usernameEmail : "");
-            textUserName.setText("User");
-        }
-        if (accountCursor != null) {
-            accountCursor.close();
-        }
+        dbExecutor.read(this, db -> {
+            Cursor accountCursor = db.getAccountInfo(userId);
+            User account = null;
+            if (accountCursor != null && accountCursor.moveToFirst()) {
+                account = new User();
+                account.setUsernameEmail(accountCursor.getString(accountCursor.getColumnIndexOrThrow("username_email")));
+                int usernameIdx = accountCursor.getColumnIndex("username");
+                account.setUsername((usernameIdx >= 0) ? accountCursor.getString(usernameIdx) : null);
+            }
+            if (accountCursor != null) {
+                accountCursor.close();
+            }
+            return account;
+        }, account -> {
+            if (account != null) {
+                String email = account.getUsernameEmail();
+                String username = account.getUsername();
+                textUserEmail.setText(email != null ? email : "");
+                textUserName.setText((username != null && !username.isEmpty()) ? username : "User");
+            } else {
+                String usernameEmail = sessionManager.getUsernameEmail();
+                textUserEmail.setText(usernameEmail != null ? usernameEmail : "");
+                textUserName.setText("User");
+            }
+        });
 
-        Cursor cursor = dbHelper.getUserDetails(userId);
-        if (cursor.moveToFirst()) {
-            int age = cursor.getInt(cursor.getColumnIndexOrThrow("age"));
-            String gender = cursor.getString(cursor.getColumnIndexOrThrow("gender"));
-            double height = cursor.getDouble(cursor.getColumnIndexOrThrow("height"));
-            double weight = cursor.getDouble(cursor.getColumnIndexOrThrow("weight"));
-
-            textAge.setText(String.valueOf(age));
-            textGender.setText(gender);
-            textHeight.setText(String.format("%.0f cm", height));
-            textWeight.setText(String.format("%.0f kg", weight));
-        }
-        cursor.close();
+        dbExecutor.read(this, db -> {
+            Cursor cursor = db.getUserDetails(userId);
+            UserDetails details = null;
+            if (cursor.moveToFirst()) {
+                details = new UserDetails(userId,
+                        cursor.getInt(cursor.getColumnIndexOrThrow("age")),
+                        cursor.getString(cursor.getColumnIndexOrThrow("gender")),
+                        cursor.getDouble(cursor.getColumnIndexOrThrow("height")),
+                        cursor.getDouble(cursor.getColumnIndexOrThrow("weight")));
+            }
+            cursor.close();
+            return details;
+        }, details -> {
+            if (details != null) {
+                textAge.setText(String.valueOf(details.getAge()));
+                textGender.setText(details.getGender());
+                textHeight.setText(String.format("%.0f cm", details.getHeight()));
+                textWeight.setText(String.format("%.0f kg", details.getWeight()));
+            }
+        });
     }
 
     private void loadStats() {
         int userId = sessionManager.getUserId();
-        
-        // Hybrid approach: Get from stats table, but verify with actual queries
-        Cursor statsCursor = dbHelper.getUserStats(userId);
+        dbExecutor.read(this, db -> readStats(db, userId), stats -> {
+            textTotalSessions.setText(String.valueOf(stats.getTotalSessions()));
+            textTotalRoutines.setText(String.valueOf(stats.getTotalRoutines()));
+            textTotalExercises.setText(String.valueOf(stats.getTotalExercises()));
+            textActiveDays.setText(String.valueOf(stats.getActiveDays()));
+            textCurrentStreak.setText(String.valueOf(stats.getCurrentStreak()));
+            textLongestStreak.setText(String.valueOf(stats.getLongestStreak()));
+        });
+        dbExecutor.read(this, db -> readProgress(db, userId), this::showProgress);
+    }
+
+    private static UserStats readStats(DatabaseHelper db, int userId) {
+        // user_stats is kept exact by triggers, so this is a single primary-key lookup
+        Cursor statsCursor = db.getUserStats(userId);
         int totalSessions = 0;
         int totalRoutines = 0;
         int totalExercises = 0;
-        int activeDays = 0;
 
         if (statsCursor.moveToFirst()) {
             totalSessions = statsCursor.getInt(statsCursor.getColumnIndexOrThrow("total_sessions"));
             totalRoutines = statsCursor.getInt(statsCursor.getColumnIndexOrThrow("total_routines"));
             totalExercises = statsCursor.getInt(statsCursor.getColumnIndexOrThrow("total_exercises"));
-            activeDays = statsCursor.getInt(statsCursor.getColumnIndexOrThrow("active_days"));
         }
         statsCursor.close();
 
-        // Verify with actual database queries
-        int actualSessions = dbHelper.getActualTotalSessions(userId);
-        int actualRoutines = dbHelper.getActualTotalRoutines(userId);
-        int actualExercises = dbHelper.getActualTotalExercises(userId);
+        // Active days and streaks come from the activity bitmap, a few hundred bytes at most
+        ActivityBitmap activity = db.getUserActivity(userId);
+        UserStats stats = new UserStats(userId, totalSessions, totalRoutines, totalExercises, activity.countDays());
+        stats.setCurrentStreak(activity.currentStreak(ActivityBitmap.epochDay(System.currentTimeMillis())));
+        stats.setLongestStreak(activity.longestStreak());
+        return stats;
+    }
+
+    /** The progress panel reads only rollup rows: a bounded number of them however long the history is. */
+    private static ProgressPanel readProgress(DatabaseHelper db, int userId) {
+        ProgressPanel panel = new ProgressPanel();
+        long today = ActivityBitmap.epochDay(System.currentTimeMillis());
+        long thisWeek = ProgressMath.weekStart(today);
+        long firstWeek = thisWeek - 7L * (WEEKS_SHOWN - 1);
+
+        // Weeks without a session have no row, so they are filled with zeros here
+        panel.weeks = new int[WEEKS_SHOWN];
+        for (PeriodTotals week : db.getPeriodTotals(userId, PeriodTotals.PERIOD_WEEK, firstWeek, thisWeek)) {
+            int index = (int) ((week.getPeriodStart() - firstWeek) / 7);
+            panel.weeks[index] = week.getSets();
+            if (week.getPeriodStart() == thisWeek) {
+                panel.thisWeek = week;
+            }
+        }
+        long thisMonth = ProgressMath.monthStart(today);
+        List<PeriodTotals> month = db.getPeriodTotals(userId, PeriodTotals.PERIOD_MONTH, thisMonth, thisMonth);
+        if (!month.isEmpty()) {
+            panel.thisMonth = month.get(0);
+        }
+        panel.records = db.getExerciseRecords(userId, RECORDS_SHOWN);
+        return panel;
+    }
 
-        // Use the higher value (in case of discrepancies)
-        totalSessions = Math.max(totalSessions, actualSessions);
-        totalRoutines = Math.max(totalRoutines, actualRoutines);
-        totalExercises = Math.max(totalExercises, actualExercises);
+    private void showProgress(ProgressPanel panel) {
+        textWeekSessions.setText(String.valueOf(panel.thisWeek.getSessions()));
+        textWeekSets.setText(String.valueOf(panel.thisWeek.getSets()));
+        textWeekReps.setText(String.valueOf(panel.thisWeek.getReps()));
+        textMonthReps.setText(String.valueOf(panel.thisMonth.getReps()));
 
-        textTotalSessions.setText(String.valueOf(totalSessions));
-        textTotalRoutines.setText(String.valueOf(totalRoutines));
-        textTotalExercises.setText(String.valueOf(totalExercises));
-        textActiveDays.setText(String.valueOf(activeDays));
+        StringBuilder weeks = new StringBuilder();
+        for (int sets : panel.weeks) {
+            if (weeks.length() > 0) weeks.append(" \u00b7 ");
+            weeks.append(sets);
+        }
+        textWeeklySets.setText(weeks);
+
+        if (panel.records.isEmpty()) {
+            textPersonalRecords.setText(R.string.no_personal_records);
+            return;
+        }
+        // Sets are logged without a load until the app has a way to enter one, so volume and
+        // estimated 1RM would always read 0; only the rep records are shown
+        StringBuilder records = new StringBuilder();
+        for (ExerciseRecord record : panel.records) {
+            if (records.length() > 0) records.append('\n');
+            records.append(getString(R.string.record_max_reps, record.getExerciseName(), record.getMaxReps()));
+        }
+        textPersonalRecords.setText(records);
     }
 
     @Override
@@ -196,4 +294,11 @@ public class ProfileActivity extends AppCompatActivity {
         loadUserData();
         loadStats();
     }
+
+    private static class ProgressPanel {
+        PeriodTotals thisWeek = new PeriodTotals();
+        PeriodTotals thisMonth = new PeriodTotals();
+        int[] weeks;
+        List<ExerciseRecord> records = new ArrayList<>();
+    }
 }
@@ -17,6 +17,10 @@ import com.example.fitlife.utils.SessionManager;
  * Validates input and creates user account
  */
 public class RegisterActivity extends AppCompatActivity {
+    /** Results of the registration write besides a new user id (> 0) or a failed insert (-1). */
+    private static final long EMAIL_TAKEN = -2;
+    private static final long USERNAME_TAKEN = -3;
+
     private TextInputLayout inputLayoutUsername;
     private TextInputLayout inputLayoutEmail;
     private TextInputLayout inputLayoutPassword;
@@ -27,14 +31,14 @@ public class RegisterActivity extends AppCompatActivity {
     private TextInputEditText editTextConfirmPassword;
     private MaterialButton buttonSignUp;
     private TextView textLogIn;
-    private DatabaseHelper dbHelper;
+    private DbExecutor dbExecutor;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_register);
 
-        dbHelper = new DatabaseHelper(this);
+        dbExecutor = DbExecutor.getInstance(this);
 
         inputLayoutUsername = findViewById(R.id.inputLayoutUsername);
         inputLayoutEmail = findViewById(R.id.inputLayoutEmail);
@@ -111,28 +115,39 @@ public class RegisterActivity extends AppCompatActivity {
             return;
         }
 
-        // Check if email or display username is already taken
-        if (dbHelper.userExists(email)) {
+        // Hash password
+        String hashedPassword = PasswordHasher.hashPassword(password);
+
+        // Checked and inserted in one write, so two quick taps cannot both pass the checks
+        buttonSignUp.setEnabled(false);
+        dbExecutor.write(this, db -> {
+            // Check if email or display username is already taken
+            if (db.userExists(email)) {
+                return EMAIL_TAKEN;
+            }
+            if (db.usernameTaken(username)) {
+                return USERNAME_TAKEN;
+            }
+            // Register using username, email, password from the form (email = login identifier, username = display name)
+            long userId = db.insertUser(email, username, hashedPassword);
+            if (userId > 0) {
+                // Initialize user stats
+                db.initializeUserStats((int) userId);
+            }
+            return userId;
+        }, userId -> onRegistered(userId, email), error -> onRegistered(-1, email));
+    }
+
+    private void onRegistered(long userId, String email) {
+        if (userId == EMAIL_TAKEN) {
+            buttonSignUp.setEnabled(true);
             inputLayoutEmail.setError("This email is already registered");
             Toast.makeText(this, R.string.user_exists, Toast.LENGTH_SHORT).show();
-            return;
-        }
-        if (dbHelper.usernameTaken(username)) {
+        } else if (userId == USERNAME_TAKEN) {
+            buttonSignUp.setEnabled(true);
             inputLayoutUsername.setError("This username is already taken");
             Toast.makeText(this, R.string.user_exists, Toast.LENGTH_SHORT).show();
-            return;
-        }
-
-        // Hash password
-        String hashedPassword = PasswordHasher.hashPassword(password);
-
-        // Register using username, email, password from the form (email = login identifier, username = display name)
-        long userId = dbHelper.insertUser(email, username, hashedPassword);
-        
-        if (userId > 0) {
-            // Initialize user stats
-            dbHelper.initializeUserStats((int) userId);
-            
+        } else if (userId > 0) {
             // Create session
             SessionManager sessionManager = new SessionManager(this);
             sessionManager.createSession((int) userId, email);
@@ -144,6 +159,7 @@ public class RegisterActivity extends AppCompatActivity {
             overridePendingTransition(0, 0);
             finish();
         } else {
+            buttonSignUp.setEnabled(true);
             Toast.makeText(this, R.string.error, Toast.LENGTH_SHORT).show();
         }
     }
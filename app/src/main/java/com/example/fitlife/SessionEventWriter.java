@@ -0,0 +1,62 @@
+package com.example.fitlife;
+
+import android.os.Handler;
+import android.os.Looper;
+import androidx.annotation.NonNull;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleEventObserver;
+import androidx.lifecycle.LifecycleOwner;
+import com.example.fitlife.models.SessionEvent;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Buffers session events on the main thread and appends them in batches on the DbExecutor writer,
+ * so logging a set never waits on the database and a burst of swipes is one transaction.
+ * Pending events are flushed after a short delay and whenever the owner pauses or is destroyed.
+ * Call flush() before any write that depends on the log, e.g. completing or ending the session;
+ * the single writer thread then runs the two in order.
+ */
+public class SessionEventWriter implements LifecycleEventObserver {
+    private static final long FLUSH_INTERVAL_MS = 1000;
+
+    private final LifecycleOwner owner;
+    private final DbExecutor dbExecutor;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable flush = this::flush;
+    private List<SessionEvent> pending = new ArrayList<>();
+
+    public SessionEventWriter(LifecycleOwner owner, DbExecutor dbExecutor) {
+        this.owner = owner;
+        this.dbExecutor = dbExecutor;
+        owner.getLifecycle().addObserver(this);
+    }
+
+    public void append(SessionEvent event) {
+        pending.add(event);
+        handler.removeCallbacks(flush);
+        handler.postDelayed(flush, FLUSH_INTERVAL_MS);
+    }
+
+    /** Hands every pending event to the writer thread now. */
+    public void flush() {
+        handler.removeCallbacks(flush);
+        if (pending.isEmpty()) return;
+        List<SessionEvent> batch = pending;
+        pending = new ArrayList<>();
+        dbExecutor.write(owner, db -> {
+            db.appendSessionEvents(batch);
+            return null;
+        }, null);
+    }
+
+    @Override
+    public void onStateChanged(@NonNull LifecycleOwner source, @NonNull Lifecycle.Event event) {
+        if (event == Lifecycle.Event.ON_PAUSE) {
+            flush();
+        } else if (event == Lifecycle.Event.ON_DESTROY) {
+            flush();
+            source.getLifecycle().removeObserver(this);
+        }
+    }
+}
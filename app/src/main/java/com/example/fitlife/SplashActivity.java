@@ -18,27 +18,37 @@ public class SplashActivity extends AppCompatActivity {
         setContentView(R.layout.activity_splash);
 
         SessionManager sessionManager = new SessionManager(this);
+        ImageGarbageCollector.runAsync(this);
+        ImageFormatMigration.runOnceAsync(this);
 
         new Handler().postDelayed(new Runnable() {
             @Override
             public void run() {
                 if (sessionManager.isLoggedIn()) {
                     // User is logged in, check if details exist
-                    DatabaseHelper dbHelper = new DatabaseHelper(SplashActivity.this);
-                    if (dbHelper.userDetailsExist(sessionManager.getUserId())) {
-                        // Go to home
-                        startActivity(new Intent(SplashActivity.this, HomeActivity.class));
-                    } else {
-                        // Go to add details
-                        startActivity(new Intent(SplashActivity.this, AddDetailsActivity.class));
-                    }
+                    int userId = sessionManager.getUserId();
+                    DbExecutor.getInstance(SplashActivity.this).read(SplashActivity.this,
+                            db -> db.userDetailsExist(userId),
+                            detailsExist -> {
+                                if (detailsExist) {
+                                    // Go to home
+                                    navigateTo(HomeActivity.class);
+                                } else {
+                                    // Go to add details
+                                    navigateTo(AddDetailsActivity.class);
+                                }
+                            });
                 } else {
                     // User not logged in, go to login
-                    startActivity(new Intent(SplashActivity.this, LoginActivity.class));
+                    navigateTo(LoginActivity.class);
                 }
-                overridePendingTransition(0, 0);
-                finish();
             }
         }, SPLASH_DELAY);
     }
+
+    private void navigateTo(Class<?> target) {
+        startActivity(new Intent(SplashActivity.this, target));
+        overridePendingTransition(0, 0);
+        finish();
+    }
 }
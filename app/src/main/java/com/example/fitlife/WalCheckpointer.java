@@ -0,0 +1,147 @@
+package com.example.fitlife;
+
+import android.content.ComponentCallbacks2;
+import android.content.res.Configuration;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+import androidx.annotation.NonNull;
+import java.io.File;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Checkpoint policy for the write-ahead log of FitLife.db.
+ * Runs a PASSIVE checkpoint when the UI goes idle and the WAL has grown, and a TRUNCATE
+ * checkpoint when the app moves to the background. Records WAL size and checkpoint duration.
+ * The idle check is one-shot and re-armed once the minimum interval has passed, so an idle
+ * main thread is not woken more often than that.
+ */
+public class WalCheckpointer implements ComponentCallbacks2 {
+    private static final String TAG = "WalCheckpointer";
+    public static final String MODE_PASSIVE = "PASSIVE";
+    public static final String MODE_TRUNCATE = "TRUNCATE";
+
+    private final SQLiteOpenHelper helper;
+    private final File walFile;
+    private final Handler handler;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    // Policy (configurable at runtime)
+    private volatile boolean passiveOnIdle = true;
+    private volatile boolean truncateOnBackground = true;
+    private volatile long idleWalThresholdBytes = 1024 * 1024;
+    private volatile long idleMinIntervalMs = 30_000;
+
+    // Metrics
+    private volatile long lastWalSizeBytes;
+    private volatile long lastCheckpointDurationMs;
+    private final AtomicLong checkpointCount = new AtomicLong();
+
+    public WalCheckpointer(SQLiteOpenHelper helper, File databaseFile) {
+        this.helper = helper;
+        this.walFile = new File(databaseFile.getPath() + "-wal");
+        HandlerThread thread = new HandlerThread("FitLifeDb-checkpoint");
+        thread.start();
+        this.handler = new Handler(thread.getLooper());
+        armIdleCheck();
+    }
+
+    public void setPassiveOnIdle(boolean enabled) {
+        passiveOnIdle = enabled;
+    }
+
+    public void setTruncateOnBackground(boolean enabled) {
+        truncateOnBackground = enabled;
+    }
+
+    /** WAL size below which an idle PASSIVE checkpoint is skipped. */
+    public void setIdleWalThresholdBytes(long bytes) {
+        idleWalThresholdBytes = bytes;
+    }
+
+    /** Minimum time between two idle WAL size checks; takes effect from the next check. */
+    public void setIdleMinIntervalMs(long intervalMs) {
+        idleMinIntervalMs = intervalMs;
+    }
+
+    /** Current size of the WAL file on disk. Performs a file stat, so call off the main thread. */
+    public long getWalSizeBytes() {
+        return walFile.length();
+    }
+
+    /** WAL size observed right before the most recent checkpoint. */
+    public long getLastWalSizeBytes() {
+        return lastWalSizeBytes;
+    }
+
+    public long getLastCheckpointDurationMs() {
+        return lastCheckpointDurationMs;
+    }
+
+    public long getCheckpointCount() {
+        return checkpointCount.get();
+    }
+
+    /** Queues a checkpoint with the given mode on the checkpoint thread. */
+    public void requestCheckpoint(String mode) {
+        handler.post(() -> checkpoint(mode));
+    }
+
+    /** Runs a checkpoint synchronously on the calling thread. */
+    public void checkpoint(String mode) {
+        try {
+            SQLiteDatabase db = helper.getWritableDatabase();
+            long walSize = walFile.length();
+            long start = SystemClock.elapsedRealtime();
+            Cursor cursor = db.rawQuery("PRAGMA wal_checkpoint(" + mode + ")", null);
+            try {
+                cursor.moveToFirst();
+            } finally {
+                cursor.close();
+            }
+            lastCheckpointDurationMs = SystemClock.elapsedRealtime() - start;
+            lastWalSizeBytes = walSize;
+            checkpointCount.incrementAndGet();
+            Log.d(TAG, mode + " checkpoint of " + walSize + " bytes took " + lastCheckpointDurationMs + " ms");
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    /** Waits for the next time the main thread goes idle, then checks the WAL once. */
+    private void armIdleCheck() {
+        // Idle handlers must be registered from the thread that owns the queue
+        mainHandler.post(() -> Looper.myQueue().addIdleHandler(() -> {
+            handler.post(this::onIdle);
+            return false;
+        }));
+    }
+
+    /** On the checkpoint thread: checkpoints if the WAL has grown, and re-arms after the interval. */
+    private void onIdle() {
+        if (passiveOnIdle && walFile.length() >= idleWalThresholdBytes) {
+            checkpoint(MODE_PASSIVE);
+        }
+        handler.postDelayed(this::armIdleCheck, idleMinIntervalMs);
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        if (level >= TRIM_MEMORY_UI_HIDDEN && truncateOnBackground) {
+            requestCheckpoint(MODE_TRUNCATE);
+        }
+    }
+
+    @Override
+    public void onConfigurationChanged(@NonNull Configuration newConfig) {
+    }
+
+    @Override
+    public void onLowMemory() {
+    }
+}
@@ -13,8 +13,9 @@ import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 import com.google.android.material.appbar.MaterialToolbar;
 import com.google.android.material.button.MaterialButton;
-import com.google.android.material.textview.MaterialTextView;
-import android.widget.ImageButton;
+import android.widget.TextView;
+import androidx.recyclerview.widget.ConcatAdapter;
+import com.example.fitlife.adapters.SectionAdapter;
 import com.example.fitlife.adapters.WorkoutExerciseAdapter;
 import com.example.fitlife.utils.SessionManager;
 import java.util.ArrayList;
@@ -25,14 +26,14 @@ import java.util.List;
  * Includes "Start Workout" button to make workout current
  */
 public class WorkoutDetailActivity extends AppCompatActivity {
-    private MaterialTextView textWorkoutName;
     private RecyclerView recyclerViewExercises;
+    private SectionAdapter headerAdapter;
+    private String workoutName = "";
     private MaterialButton buttonAddExistingExercise;
     private MaterialButton buttonSave;
-    private DatabaseHelper dbHelper;
+    private DbExecutor dbExecutor;
     private SessionManager sessionManager;
     private long workoutId;
-    private List<CreateWorkoutActivity.WorkoutExerciseItem> exercises = new ArrayList<>();
     private WorkoutExerciseAdapter adapter;
 
     @Override
@@ -40,7 +41,7 @@ public class WorkoutDetailActivity extends AppCompatActivity {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_workout_detail);
 
-        dbHelper = new DatabaseHelper(this);
+        dbExecutor = DbExecutor.getInstance(this);
         sessionManager = new SessionManager(this);
 
         if (!sessionManager.isLoggedIn()) {
@@ -70,13 +71,10 @@ public class WorkoutDetailActivity extends AppCompatActivity {
             getSupportActionBar().setTitle(R.string.workouts_title);
         }
 
-        textWorkoutName = findViewById(R.id.textWorkoutName);
         recyclerViewExercises = findViewById(R.id.recyclerViewExercises);
         buttonAddExistingExercise = findViewById(R.id.buttonAddExistingExercise);
         buttonSave = findViewById(R.id.buttonSave);
 
-        recyclerViewExercises.setNestedScrollingEnabled(false);
-
         buttonAddExistingExercise.setOnClickListener(v -> {
             Intent intent = new Intent(WorkoutDetailActivity.this, AddExerciseActivity.class);
             intent.putExtra(AddExerciseActivity.EXTRA_WORKOUT_ID, workoutId);
@@ -87,13 +85,10 @@ public class WorkoutDetailActivity extends AppCompatActivity {
             overridePendingTransition(0, 0);
             finish();
         });
-
-        ImageButton buttonEditWorkout = findViewById(R.id.buttonEditWorkout);
-        buttonEditWorkout.setOnClickListener(v -> showEditWorkoutNameDialog());
     }
 
     private void showEditWorkoutNameDialog() {
-        String currentName = textWorkoutName.getText() != null ? textWorkoutName.getText().toString() : "";
+        String currentName = workoutName;
         EditText editName = new EditText(this);
         editName.setHint(R.string.workout_name_label);
         editName.setText(currentName);
@@ -110,12 +105,15 @@ public class WorkoutDetailActivity extends AppCompatActivity {
                         Toast.makeText(this, R.string.invalid_input, Toast.LENGTH_SHORT).show();
                         return;
                     }
-                    if (dbHelper.updateWorkoutRoutine(workoutId, newName)) {
-                        textWorkoutName.setText(newName);
-                        Toast.makeText(this, R.string.workout_updated, Toast.LENGTH_SHORT).show();
-                    } else {
-                        Toast.makeText(this, R.string.error, Toast.LENGTH_SHORT).show();
-                    }
+                    dbExecutor.write(this, db -> db.updateWorkoutRoutine(workoutId, newName), updated -> {
+                        if (updated) {
+                            workoutName = newName;
+                            headerAdapter.refresh();
+                            Toast.makeText(this, R.string.workout_updated, Toast.LENGTH_SHORT).show();
+                        } else {
+                            Toast.makeText(this, R.string.error, Toast.LENGTH_SHORT).show();
+                        }
+                    });
                 })
                 .setNegativeButton(R.string.cancel, null)
                 .show();
@@ -153,16 +151,23 @@ public class WorkoutDetailActivity extends AppCompatActivity {
     }
 
     private void deleteWorkout() {
-        if (dbHelper.deleteWorkoutRoutine(workoutId)) {
-            Toast.makeText(this, R.string.workout_deleted, Toast.LENGTH_SHORT).show();
-            finish();
-        } else {
-            Toast.makeText(this, R.string.error, Toast.LENGTH_SHORT).show();
-        }
+        dbExecutor.write(this, db -> db.deleteWorkoutRoutine(workoutId), deleted -> {
+            if (deleted) {
+                Toast.makeText(this, R.string.workout_deleted, Toast.LENGTH_SHORT).show();
+                finish();
+            } else {
+                Toast.makeText(this, R.string.error, Toast.LENGTH_SHORT).show();
+            }
+        });
     }
 
     private void setupRecyclerView() {
-        adapter = new WorkoutExerciseAdapter(exercises,
+        headerAdapter = new SectionAdapter(R.layout.section_workout_detail_header, view -> {
+            TextView textWorkoutName = view.findViewById(R.id.textWorkoutName);
+            textWorkoutName.setText(workoutName);
+            view.findViewById(R.id.buttonEditWorkout).setOnClickListener(v -> showEditWorkoutNameDialog());
+        });
+        adapter = new WorkoutExerciseAdapter(
                 exercise -> {
                     // Edit: open Exercise Details (CreateExerciseActivity in edit mode)
                     Intent intent = new Intent(WorkoutDetailActivity.this, CreateExerciseActivity.class);
@@ -173,29 +178,45 @@ public class WorkoutDetailActivity extends AppCompatActivity {
                     // Confirm then remove exercise from workout
                     new AlertDialog.Builder(WorkoutDetailActivity.this)
                             .setMessage(R.string.remove_exercise_from_workout_confirm)
-                            .setPositiveButton(R.string.yes, (dialog, which) -> {
-                                dbHelper.deleteWorkoutExercise(workoutId, exerciseId);
-                                loadWorkoutData();
-                                Toast.makeText(WorkoutDetailActivity.this, R.string.exercise_deleted, Toast.LENGTH_SHORT).show();
-                            })
+                            .setPositiveButton(R.string.yes, (dialog, which) ->
+                                    dbExecutor.write(this, db -> db.deleteWorkoutExercise(workoutId, exerciseId), deleted -> {
+                                        loadWorkoutData();
+                                        Toast.makeText(WorkoutDetailActivity.this, R.string.exercise_deleted, Toast.LENGTH_SHORT).show();
+                                    }))
                             .setNegativeButton(R.string.no, null)
                             .show();
                 });
+        ConcatAdapter.Config config = new ConcatAdapter.Config.Builder()
+                .setStableIdMode(ConcatAdapter.Config.StableIdMode.ISOLATED_STABLE_IDS)
+                .build();
         recyclerViewExercises.setLayoutManager(new LinearLayoutManager(this));
-        recyclerViewExercises.setAdapter(adapter);
+        recyclerViewExercises.setAdapter(new ConcatAdapter(config, headerAdapter, adapter));
     }
 
     private void loadWorkoutData() {
-        Cursor cursor = dbHelper.getWorkout(workoutId);
+        dbExecutor.read(this, db -> readWorkoutName(db, workoutId), name -> {
+            if (name != null) {
+                workoutName = name;
+                headerAdapter.refresh();
+            }
+        });
+        dbExecutor.read(this, db -> readWorkoutExercises(db, workoutId), adapter::submitList);
+    }
+
+    private static String readWorkoutName(DatabaseHelper db, long workoutId) {
+        Cursor cursor = db.getWorkout(workoutId);
+        String name = null;
         if (cursor.moveToFirst()) {
-            String name = cursor.getString(cursor.getColumnIndexOrThrow("name"));
-            textWorkoutName.setText(name);
+            name = cursor.getString(cursor.getColumnIndexOrThrow("name"));
         }
         cursor.close();
+        return name;
+    }
 
-        // Load exercises
-        exercises.clear();
-        Cursor exCursor = dbHelper.getWorkoutExercises(workoutId);
+    /** Reads the exercises into a fresh list; the adapter diffs it against the one it is showing. */
+    private static List<CreateWorkoutActivity.WorkoutExerciseItem> readWorkoutExercises(DatabaseHelper db, long workoutId) {
+        List<CreateWorkoutActivity.WorkoutExerciseItem> exercises = new ArrayList<>();
+        Cursor exCursor = db.getWorkoutExercises(workoutId);
         if (exCursor.moveToFirst()) {
             do {
                 long exerciseId = exCursor.getLong(exCursor.getColumnIndexOrThrow("exercise_id"));
@@ -212,7 +233,7 @@ public class WorkoutDetailActivity extends AppCompatActivity {
             } while (exCursor.moveToNext());
         }
         exCursor.close();
-        adapter.notifyDataSetChanged();
+        return exercises;
     }
 
     @Override
@@ -221,16 +242,7 @@ public class WorkoutDetailActivity extends AppCompatActivity {
         if (requestCode == 1 && resultCode == RESULT_OK && data != null) {
             long[] exerciseIds = data.getLongArrayExtra("selected_exercises");
             if (exerciseIds != null) {
-                for (long exerciseId : exerciseIds) {
-                    Cursor cursor = dbHelper.getExercise(exerciseId);
-                    if (cursor.moveToFirst()) {
-                        int sets = cursor.getInt(cursor.getColumnIndexOrThrow("sets"));
-                        String reps = cursor.getString(cursor.getColumnIndexOrThrow("reps"));
-                        dbHelper.insertWorkoutExercise(workoutId, exerciseId, sets, reps);
-                    }
-                    cursor.close();
-                }
-                loadWorkoutData();
+                dbExecutor.write(this, db -> db.addExercisesToWorkout(workoutId, exerciseIds), added -> loadWorkoutData());
             }
         }
         if (requestCode == 2 && resultCode == RESULT_OK) {
@@ -5,22 +5,56 @@ import android.view.View;
 import android.view.ViewGroup;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 import com.example.fitlife.R;
 import com.example.fitlife.models.CurrentWorkout;
 import java.util.List;
+import java.util.Objects;
+
+public class CurrentWorkoutAdapter extends ListAdapter<CurrentWorkout, CurrentWorkoutAdapter.ViewHolder> {
+    /** Payload for a row where only the status changed. */
+    private static final Object PAYLOAD_STATUS = new Object();
+
+    private static final DiffUtil.ItemCallback<CurrentWorkout> DIFF = new DiffUtil.ItemCallback<CurrentWorkout>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull CurrentWorkout oldItem, @NonNull CurrentWorkout newItem) {
+            return oldItem.getId() == newItem.getId();
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull CurrentWorkout oldItem, @NonNull CurrentWorkout newItem) {
+            return sameDetails(oldItem, newItem) && Objects.equals(oldItem.getStatus(), newItem.getStatus());
+        }
+
+        @Nullable
+        @Override
+        public Object getChangePayload(@NonNull CurrentWorkout oldItem, @NonNull CurrentWorkout newItem) {
+            return sameDetails(oldItem, newItem) ? PAYLOAD_STATUS : null;
+        }
+
+        private boolean sameDetails(CurrentWorkout a, CurrentWorkout b) {
+            return Objects.equals(a.getWorkoutName(), b.getWorkoutName()) && a.getExerciseCount() == b.getExerciseCount();
+        }
+    };
 
-public class CurrentWorkoutAdapter extends RecyclerView.Adapter<CurrentWorkoutAdapter.ViewHolder> {
-    private List<CurrentWorkout> workouts;
     private OnWorkoutClickListener listener;
 
     public interface OnWorkoutClickListener {
         void onWorkoutClick(CurrentWorkout workout);
     }
 
-    public CurrentWorkoutAdapter(List<CurrentWorkout> workouts, OnWorkoutClickListener listener) {
-        this.workouts = workouts;
+    public CurrentWorkoutAdapter(OnWorkoutClickListener listener) {
+        super(DIFF);
         this.listener = listener;
+        setHasStableIds(true);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return getItem(position).getId();
     }
 
     @NonNull
@@ -28,26 +62,32 @@ public class CurrentWorkoutAdapter extends RecyclerView.Adapter<CurrentWorkoutAd
     public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         View view = LayoutInflater.from(parent.getContext())
                 .inflate(R.layout.item_current_workout, parent, false);
-        return new ViewHolder(view);
+        ViewHolder holder = new ViewHolder(view);
+        holder.itemView.setOnClickListener(v -> {
+            int position = holder.getBindingAdapterPosition();
+            if (listener != null && position != RecyclerView.NO_POSITION) {
+                listener.onWorkoutClick(getItem(position));
+            }
+        });
+        return holder;
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position, @NonNull List<Object> payloads) {
+        // Any change without a payload empties the list, so a non-empty list is status-only changes
+        if (payloads.isEmpty()) {
+            onBindViewHolder(holder, position);
+        } else {
+            holder.textStatus.setText(getItem(position).getStatus());
+        }
     }
 
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
-        CurrentWorkout workout = workouts.get(position);
+        CurrentWorkout workout = getItem(position);
         holder.textWorkoutName.setText(workout.getWorkoutName());
         holder.textExerciseCount.setText(workout.getExerciseCount() + " Exercises");
         holder.textStatus.setText(workout.getStatus());
-
-        holder.itemView.setOnClickListener(v -> {
-            if (listener != null) {
-                listener.onWorkoutClick(workout);
-            }
-        });
-    }
-
-    @Override
-    public int getItemCount() {
-        return workouts.size();
     }
 
     static class ViewHolder extends RecyclerView.ViewHolder {
@@ -5,27 +5,69 @@ import android.view.View;
 import android.view.ViewGroup;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.cardview.widget.CardView;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 import com.example.fitlife.MyWorkoutsActivity;
 import com.example.fitlife.R;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
+
+public class CurrentWorkoutExerciseAdapter extends ListAdapter<MyWorkoutsActivity.WorkoutExerciseItem, CurrentWorkoutExerciseAdapter.ViewHolder> {
+    /** Payload for a row where only the status changed, e.g. after a swipe to complete. */
+    private static final Object PAYLOAD_STATUS = new Object();
+
+    private static final DiffUtil.ItemCallback<MyWorkoutsActivity.WorkoutExerciseItem> DIFF =
+            new DiffUtil.ItemCallback<MyWorkoutsActivity.WorkoutExerciseItem>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull MyWorkoutsActivity.WorkoutExerciseItem oldItem,
+                                       @NonNull MyWorkoutsActivity.WorkoutExerciseItem newItem) {
+            return oldItem.exerciseId == newItem.exerciseId;
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull MyWorkoutsActivity.WorkoutExerciseItem oldItem,
+                                          @NonNull MyWorkoutsActivity.WorkoutExerciseItem newItem) {
+            return sameDetails(oldItem, newItem) && Objects.equals(oldItem.status, newItem.status);
+        }
+
+        @Nullable
+        @Override
+        public Object getChangePayload(@NonNull MyWorkoutsActivity.WorkoutExerciseItem oldItem,
+                                       @NonNull MyWorkoutsActivity.WorkoutExerciseItem newItem) {
+            return sameDetails(oldItem, newItem) ? PAYLOAD_STATUS : null;
+        }
+
+        private boolean sameDetails(MyWorkoutsActivity.WorkoutExerciseItem a, MyWorkoutsActivity.WorkoutExerciseItem b) {
+            return Objects.equals(a.exerciseName, b.exerciseName) && a.sets == b.sets && Objects.equals(a.reps, b.reps);
+        }
+    };
 
-public class CurrentWorkoutExerciseAdapter extends RecyclerView.Adapter<CurrentWorkoutExerciseAdapter.ViewHolder> {
-    private List<MyWorkoutsActivity.WorkoutExerciseItem> exercises;
     private OnExerciseClickListener listener;
+    /** Last submitted list; getCurrentList() lags behind it until the background diff is applied. */
+    private List<MyWorkoutsActivity.WorkoutExerciseItem> latest = Collections.emptyList();
 
     public interface OnExerciseClickListener {
         void onExerciseClick(long exerciseId);
     }
 
-    public CurrentWorkoutExerciseAdapter(List<MyWorkoutsActivity.WorkoutExerciseItem> exercises) {
-        this(exercises, null);
+    public CurrentWorkoutExerciseAdapter() {
+        this(null);
     }
 
-    public CurrentWorkoutExerciseAdapter(List<MyWorkoutsActivity.WorkoutExerciseItem> exercises, OnExerciseClickListener listener) {
-        this.exercises = exercises;
+    public CurrentWorkoutExerciseAdapter(OnExerciseClickListener listener) {
+        super(DIFF);
         this.listener = listener;
+        setHasStableIds(true);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return getItem(position).exerciseId;
     }
 
     @NonNull
@@ -33,14 +75,35 @@ public class CurrentWorkoutExerciseAdapter extends RecyclerView.Adapter<CurrentW
     public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         View view = LayoutInflater.from(parent.getContext())
                 .inflate(R.layout.item_current_workout_exercise, parent, false);
-        return new ViewHolder(view);
+        ViewHolder holder = new ViewHolder(view);
+        holder.itemView.setOnClickListener(v -> {
+            int position = holder.getBindingAdapterPosition();
+            if (listener != null && position != RecyclerView.NO_POSITION) {
+                listener.onExerciseClick(getItem(position).exerciseId);
+            }
+        });
+        return holder;
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position, @NonNull List<Object> payloads) {
+        // Any change without a payload empties the list, so a non-empty list is status-only changes
+        if (payloads.isEmpty()) {
+            onBindViewHolder(holder, position);
+        } else {
+            bindStatus(holder, getItem(position));
+        }
     }
 
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
-        MyWorkoutsActivity.WorkoutExerciseItem exercise = exercises.get(position);
+        MyWorkoutsActivity.WorkoutExerciseItem exercise = getItem(position);
         holder.textExerciseName.setText(exercise.exerciseName);
         holder.textSetsReps.setText("Set : " + exercise.sets + ", Reps: " + exercise.reps);
+        bindStatus(holder, exercise);
+    }
+
+    private void bindStatus(ViewHolder holder, MyWorkoutsActivity.WorkoutExerciseItem exercise) {
         holder.textStatus.setText(exercise.status);
 
         int white = holder.itemView.getContext().getResources().getColor(R.color.white);
@@ -59,32 +122,43 @@ public class CurrentWorkoutExerciseAdapter extends RecyclerView.Adapter<CurrentW
             holder.textExerciseName.setTextColor(textPrimary);
             holder.textStatus.setTextColor(textPrimary);
         }
+    }
 
-        holder.itemView.setOnClickListener(v -> {
-            if (listener != null) {
-                listener.onExerciseClick(exercise.exerciseId);
-            }
-        });
+    public long getExerciseIdAt(int position) {
+        return getItem(position).exerciseId;
     }
 
     @Override
-    public int getItemCount() {
-        return exercises.size();
+    public void submitList(@Nullable List<MyWorkoutsActivity.WorkoutExerciseItem> list, @Nullable Runnable commitCallback) {
+        latest = list == null ? Collections.emptyList() : list;
+        super.submitList(list, commitCallback);
     }
 
-    public long getExerciseIdAt(int position) {
-        return exercises.get(position).exerciseId;
+    @Override
+    public void submitList(@Nullable List<MyWorkoutsActivity.WorkoutExerciseItem> list) {
+        submitList(list, null);
     }
 
-    public void markComplete(int position) {
-        if (position >= 0 && position < exercises.size()) {
-            exercises.get(position).status = "Completed";
-            notifyItemChanged(position);
+    /**
+     * Marks the swiped exercise completed by submitting a copy of the list with that item replaced;
+     * items are never changed in place, or the differ could not see the change.
+     * Returns whether every exercise is now completed.
+     */
+    public boolean markComplete(int position) {
+        List<MyWorkoutsActivity.WorkoutExerciseItem> updated = new ArrayList<>(latest);
+        if (position >= 0 && position < updated.size()) {
+            MyWorkoutsActivity.WorkoutExerciseItem old = updated.get(position);
+            MyWorkoutsActivity.WorkoutExerciseItem completed = new MyWorkoutsActivity.WorkoutExerciseItem();
+            completed.exerciseId = old.exerciseId;
+            completed.exerciseName = old.exerciseName;
+            completed.sets = old.sets;
+            completed.reps = old.reps;
+            completed.status = "Completed";
+            updated.set(position, completed);
+            // A full rebind (no payload) swaps in a fresh holder, which clears the swipe translation
+            submitList(updated, () -> notifyItemChanged(position));
         }
-    }
-
-    public boolean areAllCompleted() {
-        for (MyWorkoutsActivity.WorkoutExerciseItem item : exercises) {
+        for (MyWorkoutsActivity.WorkoutExerciseItem item : updated) {
             if (!"Completed".equals(item.status)) {
                 return false;
             }
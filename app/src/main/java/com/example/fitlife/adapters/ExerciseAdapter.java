@@ -1,37 +1,79 @@
 package com.example.fitlife.adapters;
 
-import android.graphics.Bitmap;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.ImageView;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
+import com.example.fitlife.ExercisePager;
 import com.example.fitlife.R;
 import com.example.fitlife.models.Exercise;
 import com.example.fitlife.utils.ImageHelper;
+import com.example.fitlife.utils.ThumbnailStore;
 import com.google.android.material.button.MaterialButton;
 import java.util.List;
+import java.util.Objects;
+
+public class ExerciseAdapter extends ListAdapter<Exercise, ExerciseAdapter.ViewHolder> {
+    /** Payload for a row whose text changed but whose image did not; the image is not reloaded. */
+    private static final Object PAYLOAD_TEXT = new Object();
+
+    private static final DiffUtil.ItemCallback<Exercise> DIFF = new DiffUtil.ItemCallback<Exercise>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Exercise oldItem, @NonNull Exercise newItem) {
+            return oldItem.getExerciseId() == newItem.getExerciseId();
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Exercise oldItem, @NonNull Exercise newItem) {
+            return sameText(oldItem, newItem) && Objects.equals(oldItem.getImagePath(), newItem.getImagePath());
+        }
+
+        @Nullable
+        @Override
+        public Object getChangePayload(@NonNull Exercise oldItem, @NonNull Exercise newItem) {
+            return Objects.equals(oldItem.getImagePath(), newItem.getImagePath()) ? PAYLOAD_TEXT : null;
+        }
+
+        private boolean sameText(Exercise a, Exercise b) {
+            return Objects.equals(a.getName(), b.getName()) && a.getSets() == b.getSets()
+                    && Objects.equals(a.getReps(), b.getReps());
+        }
+    };
 
-public class ExerciseAdapter extends RecyclerView.Adapter<ExerciseAdapter.ViewHolder> {
-    private List<Exercise> exercises;
     private OnExerciseClickListener listener;
     private final int layoutResId;
+    private ExercisePager pager;
 
     public interface OnExerciseClickListener {
         void onExerciseClick(Exercise exercise);
     }
 
-    public ExerciseAdapter(List<Exercise> exercises, OnExerciseClickListener listener) {
-        this(exercises, listener, R.layout.item_exercise);
+    public ExerciseAdapter(OnExerciseClickListener listener) {
+        this(listener, R.layout.item_exercise);
     }
 
     /** Use for home recommendations: pass R.layout.item_exercise_recommendation for fixed-size cards. */
-    public ExerciseAdapter(List<Exercise> exercises, OnExerciseClickListener listener, int layoutResId) {
-        this.exercises = exercises;
+    public ExerciseAdapter(OnExerciseClickListener listener, int layoutResId) {
+        super(DIFF);
         this.listener = listener;
         this.layoutResId = layoutResId;
+        setHasStableIds(true);
+    }
+
+    /** Lets the pager load neighbouring pages as rows near the edge of its window are bound. */
+    public void setPager(ExercisePager pager) {
+        this.pager = pager;
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return getItem(position).getExerciseId();
     }
 
     @NonNull
@@ -39,46 +81,56 @@ public class ExerciseAdapter extends RecyclerView.Adapter<ExerciseAdapter.ViewHo
     public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         View view = LayoutInflater.from(parent.getContext())
                 .inflate(layoutResId, parent, false);
-        return new ViewHolder(view);
+        ViewHolder holder = new ViewHolder(view);
+
+        View.OnClickListener click = v -> {
+            int position = holder.getBindingAdapterPosition();
+            if (listener != null && position != RecyclerView.NO_POSITION) {
+                listener.onExerciseClick(getItem(position));
+            }
+        };
+        // Only "View Details" button opens detail; card click does nothing
+        if (holder.buttonViewDetails != null) {
+            holder.buttonViewDetails.setOnClickListener(click);
+            holder.itemView.setClickable(false);
+        } else {
+            holder.itemView.setOnClickListener(click);
+        }
+        return holder;
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (pager != null) {
+            pager.onItemBound(position);
+        }
+        // Any change without a payload empties the list, so a non-empty list is text-only changes
+        if (payloads.isEmpty()) {
+            onBindViewHolder(holder, position);
+        } else {
+            bindText(holder, getItem(position));
+        }
     }
 
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
-        Exercise exercise = exercises.get(position);
-        holder.textExerciseName.setText(exercise.getName());
-        holder.textSetsReps.setText("Set: " + exercise.getSets() + ", Reps: " + exercise.getReps());
+        Exercise exercise = getItem(position);
+        bindText(holder, exercise);
 
         boolean useFixedCard = (layoutResId == R.layout.item_exercise_recommendation);
         if (exercise.getImagePath() != null && !exercise.getImagePath().isEmpty()) {
-            Bitmap bitmap = ImageHelper.loadImage(exercise.getImagePath());
-            holder.imageExercise.setImageBitmap(bitmap);
             holder.imageExercise.setVisibility(View.VISIBLE);
+            ImageHelper.loadImageAsync(holder.imageExercise, exercise.getImagePath(), useFixedCard
+                    ? ThumbnailStore.VARIANT_RECOMMENDATION : ThumbnailStore.VARIANT_LIST_CARD);
         } else {
-            holder.imageExercise.setImageBitmap(null);
+            ImageHelper.loadImageAsync(holder.imageExercise, null);
             holder.imageExercise.setVisibility(useFixedCard ? View.VISIBLE : View.GONE);
         }
-
-        // Only "View Details" button opens detail; card click does nothing
-        if (holder.buttonViewDetails != null) {
-            holder.buttonViewDetails.setOnClickListener(v -> {
-                if (listener != null) {
-                    listener.onExerciseClick(exercise);
-                }
-            });
-            holder.itemView.setOnClickListener(null);
-            holder.itemView.setClickable(false);
-        } else {
-            holder.itemView.setOnClickListener(v -> {
-                if (listener != null) {
-                    listener.onExerciseClick(exercise);
-                }
-            });
-        }
     }
 
-    @Override
-    public int getItemCount() {
-        return exercises.size();
+    private void bindText(ViewHolder holder, Exercise exercise) {
+        holder.textExerciseName.setText(exercise.getName());
+        holder.textSetsReps.setText("Set: " + exercise.getSets() + ", Reps: " + exercise.getReps());
     }
 
     static class ViewHolder extends RecyclerView.ViewHolder {
@@ -6,22 +6,57 @@ import android.view.ViewGroup;
 import android.widget.CheckBox;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
+import com.example.fitlife.ExercisePager;
 import com.example.fitlife.R;
 import com.example.fitlife.models.Exercise;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+public class ExerciseSelectAdapter extends ListAdapter<Exercise, ExerciseSelectAdapter.ViewHolder> {
+    /** Payload for a row whose checkbox state changed. */
+    private static final Object PAYLOAD_SELECTION = new Object();
+
+    private static final DiffUtil.ItemCallback<Exercise> DIFF = new DiffUtil.ItemCallback<Exercise>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Exercise oldItem, @NonNull Exercise newItem) {
+            return oldItem.getExerciseId() == newItem.getExerciseId();
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Exercise oldItem, @NonNull Exercise newItem) {
+            return Objects.equals(oldItem.getName(), newItem.getName()) && oldItem.getSets() == newItem.getSets()
+                    && Objects.equals(oldItem.getReps(), newItem.getReps());
+        }
+    };
 
-public class ExerciseSelectAdapter extends RecyclerView.Adapter<ExerciseSelectAdapter.ViewHolder> {
-    private List<Exercise> exercises;
     private OnExerciseSelectListener listener;
+    private ExercisePager pager;
+    /** Checked exercise ids; kept here so checkboxes survive recycling and list refreshes. */
+    private final Set<Long> selectedIds = new HashSet<>();
 
     public interface OnExerciseSelectListener {
         void onExerciseSelect(long exerciseId);
     }
 
-    public ExerciseSelectAdapter(List<Exercise> exercises, OnExerciseSelectListener listener) {
-        this.exercises = exercises;
+    public ExerciseSelectAdapter(OnExerciseSelectListener listener) {
+        super(DIFF);
         this.listener = listener;
+        setHasStableIds(true);
+    }
+
+    /** Lets the pager load neighbouring pages as rows near the edge of its window are bound. */
+    public void setPager(ExercisePager pager) {
+        this.pager = pager;
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return getItem(position).getExerciseId();
     }
 
     @NonNull
@@ -29,27 +64,45 @@ public class ExerciseSelectAdapter extends RecyclerView.Adapter<ExerciseSelectAd
     public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         View view = LayoutInflater.from(parent.getContext())
                 .inflate(R.layout.item_exercise_select, parent, false);
-        return new ViewHolder(view);
+        ViewHolder holder = new ViewHolder(view);
+        holder.checkboxSelect.setOnClickListener(v -> {
+            int position = holder.getBindingAdapterPosition();
+            if (position == RecyclerView.NO_POSITION) return;
+            long exerciseId = getItem(position).getExerciseId();
+            if (!selectedIds.remove(exerciseId)) {
+                selectedIds.add(exerciseId);
+            }
+            notifyItemChanged(position, PAYLOAD_SELECTION);
+            if (listener != null) {
+                listener.onExerciseSelect(exerciseId);
+            }
+        });
+        return holder;
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (pager != null) {
+            pager.onItemBound(position);
+        }
+        // Any change without a payload empties the list, so a non-empty list is selection-only changes
+        if (payloads.isEmpty()) {
+            onBindViewHolder(holder, position);
+        } else {
+            bindSelection(holder, getItem(position));
+        }
     }
 
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
-        Exercise exercise = exercises.get(position);
+        Exercise exercise = getItem(position);
         holder.textExerciseName.setText(exercise.getName());
         holder.textSetsReps.setText("Set : " + exercise.getSets() + ", Reps: " + exercise.getReps());
-
-        holder.checkboxSelect.setOnCheckedChangeListener(null);
-        holder.checkboxSelect.setChecked(false);
-        holder.checkboxSelect.setOnCheckedChangeListener((buttonView, isChecked) -> {
-            if (listener != null) {
-                listener.onExerciseSelect(exercise.getExerciseId());
-            }
-        });
+        bindSelection(holder, exercise);
     }
 
-    @Override
-    public int getItemCount() {
-        return exercises.size();
+    private void bindSelection(ViewHolder holder, Exercise exercise) {
+        holder.checkboxSelect.setChecked(selectedIds.contains(exercise.getExerciseId()));
     }
 
     static class ViewHolder extends RecyclerView.ViewHolder {
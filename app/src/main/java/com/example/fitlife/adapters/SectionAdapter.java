@@ -0,0 +1,80 @@
+package com.example.fitlife.adapters;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Shows one fixed layout (a header, a row of buttons, an empty state) as a section of a ConcatAdapter,
+ * so a whole screen can scroll in a single RecyclerView and the list sections below it keep recycling.
+ * The view may be recycled like any other row: keep screen state in the activity and apply it in the binder.
+ */
+public class SectionAdapter extends RecyclerView.Adapter<SectionAdapter.ViewHolder> {
+    private final int layoutResId;
+    private final Binder binder;
+    private boolean visible = true;
+
+    public interface Binder {
+        void bind(View view);
+    }
+
+    public SectionAdapter(int layoutResId, Binder binder) {
+        this.layoutResId = layoutResId;
+        this.binder = binder;
+        setHasStableIds(true);
+    }
+
+    /** Shows or hides the section without touching the sections around it. */
+    public void setVisible(boolean visible) {
+        if (this.visible == visible) return;
+        this.visible = visible;
+        if (visible) {
+            notifyItemInserted(0);
+        } else {
+            notifyItemRemoved(0);
+        }
+    }
+
+    /** Re-runs the binder, e.g. after the state it shows has changed. */
+    public void refresh() {
+        if (visible) {
+            notifyItemChanged(0);
+        }
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return 0;
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        return layoutResId;
+    }
+
+    @NonNull
+    @Override
+    public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext())
+                .inflate(layoutResId, parent, false);
+        return new ViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
+        binder.bind(holder.itemView);
+    }
+
+    @Override
+    public int getItemCount() {
+        return visible ? 1 : 0;
+    }
+
+    static class ViewHolder extends RecyclerView.ViewHolder {
+        ViewHolder(View itemView) {
+            super(itemView);
+        }
+    }
+}
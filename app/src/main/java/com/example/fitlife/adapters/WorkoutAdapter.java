@@ -6,14 +6,39 @@ import android.view.ViewGroup;
 import android.widget.ImageButton;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import com.google.android.material.button.MaterialButton;
 import androidx.recyclerview.widget.RecyclerView;
 import com.example.fitlife.R;
 import com.example.fitlife.models.Workout;
 import java.util.List;
+import java.util.Objects;
+
+public class WorkoutAdapter extends ListAdapter<Workout, WorkoutAdapter.ViewHolder> {
+    /** Payload for a row where only the exercise count changed. */
+    private static final Object PAYLOAD_EXERCISE_COUNT = new Object();
+
+    private static final DiffUtil.ItemCallback<Workout> DIFF = new DiffUtil.ItemCallback<Workout>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Workout oldItem, @NonNull Workout newItem) {
+            return oldItem.getWorkoutId() == newItem.getWorkoutId();
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Workout oldItem, @NonNull Workout newItem) {
+            return Objects.equals(oldItem.getName(), newItem.getName())
+                    && oldItem.getExerciseCount() == newItem.getExerciseCount();
+        }
+
+        @Nullable
+        @Override
+        public Object getChangePayload(@NonNull Workout oldItem, @NonNull Workout newItem) {
+            return Objects.equals(oldItem.getName(), newItem.getName()) ? PAYLOAD_EXERCISE_COUNT : null;
+        }
+    };
 
-public class WorkoutAdapter extends RecyclerView.Adapter<WorkoutAdapter.ViewHolder> {
-    private List<Workout> workouts;
     private OnWorkoutClickListener listener;
     private OnEditClickListener editListener;
     private OnPlayClickListener playListener;
@@ -35,14 +60,20 @@ public class WorkoutAdapter extends RecyclerView.Adapter<WorkoutAdapter.ViewHold
         void onShareClick(Workout workout);
     }
 
-    public WorkoutAdapter(List<Workout> workouts, OnWorkoutClickListener listener,
+    public WorkoutAdapter(OnWorkoutClickListener listener,
                           OnEditClickListener editListener,
                           OnPlayClickListener playListener, OnShareClickListener shareListener) {
-        this.workouts = workouts;
+        super(DIFF);
         this.listener = listener;
         this.editListener = editListener;
         this.playListener = playListener;
         this.shareListener = shareListener;
+        setHasStableIds(true);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return getItem(position).getWorkoutId();
     }
 
     @NonNull
@@ -50,43 +81,63 @@ public class WorkoutAdapter extends RecyclerView.Adapter<WorkoutAdapter.ViewHold
     public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         View view = LayoutInflater.from(parent.getContext())
                 .inflate(R.layout.item_workout, parent, false);
-        return new ViewHolder(view);
-    }
-
-    @Override
-    public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
-        Workout workout = workouts.get(position);
-        holder.textWorkoutName.setText(workout.getName());
-        holder.textExerciseCount.setText(workout.getExerciseCount() + " Exercises");
+        ViewHolder holder = new ViewHolder(view);
 
         holder.itemView.setOnClickListener(v -> {
-            if (listener != null) {
+            Workout workout = workoutAt(holder);
+            if (listener != null && workout != null) {
                 listener.onWorkoutClick(workout);
             }
         });
 
         holder.buttonEdit.setOnClickListener(v -> {
-            if (editListener != null) {
+            Workout workout = workoutAt(holder);
+            if (editListener != null && workout != null) {
                 editListener.onEditClick(workout);
             }
         });
 
         holder.buttonShare.setOnClickListener(v -> {
-            if (shareListener != null) {
+            Workout workout = workoutAt(holder);
+            if (shareListener != null && workout != null) {
                 shareListener.onShareClick(workout);
             }
         });
 
         holder.buttonStartWorkout.setOnClickListener(v -> {
-            if (playListener != null) {
+            Workout workout = workoutAt(holder);
+            if (playListener != null && workout != null) {
                 playListener.onPlayClick(workout);
             }
         });
+        return holder;
+    }
+
+    @Nullable
+    private Workout workoutAt(ViewHolder holder) {
+        int position = holder.getBindingAdapterPosition();
+        return position == RecyclerView.NO_POSITION ? null : getItem(position);
     }
 
     @Override
-    public int getItemCount() {
-        return workouts.size();
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position, @NonNull List<Object> payloads) {
+        // Any change without a payload empties the list, so a non-empty list is count-only changes
+        if (payloads.isEmpty()) {
+            onBindViewHolder(holder, position);
+        } else {
+            bindExerciseCount(holder, getItem(position));
+        }
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
+        Workout workout = getItem(position);
+        holder.textWorkoutName.setText(workout.getName());
+        bindExerciseCount(holder, workout);
+    }
+
+    private void bindExerciseCount(ViewHolder holder, Workout workout) {
+        holder.textExerciseCount.setText(workout.getExerciseCount() + " Exercises");
     }
 
     static class ViewHolder extends RecyclerView.ViewHolder {
@@ -6,13 +6,30 @@ import android.view.ViewGroup;
 import android.widget.ImageView;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 import com.example.fitlife.CreateWorkoutActivity;
 import com.example.fitlife.R;
-import java.util.List;
+import java.util.Objects;
+
+public class WorkoutExerciseAdapter extends ListAdapter<CreateWorkoutActivity.WorkoutExerciseItem, WorkoutExerciseAdapter.ViewHolder> {
+    private static final DiffUtil.ItemCallback<CreateWorkoutActivity.WorkoutExerciseItem> DIFF =
+            new DiffUtil.ItemCallback<CreateWorkoutActivity.WorkoutExerciseItem>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull CreateWorkoutActivity.WorkoutExerciseItem oldItem,
+                                       @NonNull CreateWorkoutActivity.WorkoutExerciseItem newItem) {
+            return oldItem.exerciseId == newItem.exerciseId;
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull CreateWorkoutActivity.WorkoutExerciseItem oldItem,
+                                          @NonNull CreateWorkoutActivity.WorkoutExerciseItem newItem) {
+            return Objects.equals(oldItem.exerciseName, newItem.exerciseName) && oldItem.sets == newItem.sets
+                    && Objects.equals(oldItem.reps, newItem.reps);
+        }
+    };
 
-public class WorkoutExerciseAdapter extends RecyclerView.Adapter<WorkoutExerciseAdapter.ViewHolder> {
-    private List<CreateWorkoutActivity.WorkoutExerciseItem> exercises;
     private OnEditClickListener editListener;
     private OnDeleteClickListener deleteListener;
 
@@ -24,12 +41,17 @@ public class WorkoutExerciseAdapter extends RecyclerView.Adapter<WorkoutExercise
         void onDeleteClick(long exerciseId);
     }
 
-    public WorkoutExerciseAdapter(List<CreateWorkoutActivity.WorkoutExerciseItem> exercises,
-                                  OnEditClickListener editListener,
+    public WorkoutExerciseAdapter(OnEditClickListener editListener,
                                   OnDeleteClickListener deleteListener) {
-        this.exercises = exercises;
+        super(DIFF);
         this.editListener = editListener;
         this.deleteListener = deleteListener;
+        setHasStableIds(true);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return getItem(position).exerciseId;
     }
 
     @NonNull
@@ -37,31 +59,29 @@ public class WorkoutExerciseAdapter extends RecyclerView.Adapter<WorkoutExercise
     public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         View view = LayoutInflater.from(parent.getContext())
                 .inflate(R.layout.item_workout_exercise, parent, false);
-        return new ViewHolder(view);
-    }
-
-    @Override
-    public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
-        CreateWorkoutActivity.WorkoutExerciseItem exercise = exercises.get(position);
-        holder.textExerciseName.setText(exercise.exerciseName);
-        holder.textSetsReps.setText("Set : " + exercise.sets + ", Reps: " + exercise.reps);
+        ViewHolder holder = new ViewHolder(view);
 
         holder.imageEdit.setOnClickListener(v -> {
-            if (editListener != null) {
-                editListener.onEditClick(exercise);
+            int position = holder.getBindingAdapterPosition();
+            if (editListener != null && position != RecyclerView.NO_POSITION) {
+                editListener.onEditClick(getItem(position));
             }
         });
 
         holder.imageDelete.setOnClickListener(v -> {
-            if (deleteListener != null) {
-                deleteListener.onDeleteClick(exercise.exerciseId);
+            int position = holder.getBindingAdapterPosition();
+            if (deleteListener != null && position != RecyclerView.NO_POSITION) {
+                deleteListener.onDeleteClick(getItem(position).exerciseId);
             }
         });
+        return holder;
     }
 
     @Override
-    public int getItemCount() {
-        return exercises.size();
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
+        CreateWorkoutActivity.WorkoutExerciseItem exercise = getItem(position);
+        holder.textExerciseName.setText(exercise.exerciseName);
+        holder.textSetsReps.setText("Set : " + exercise.sets + ", Reps: " + exercise.reps);
     }
 
     static class ViewHolder extends RecyclerView.ViewHolder {
@@ -7,6 +7,9 @@ public class CurrentWorkout {
     private String status;
     private String startedDate;
     private int exerciseCount;
+    /** Total sets in the routine and the rest they call for (sets x rest seconds), summed in SQL. */
+    private int totalSets;
+    private int totalRestSeconds;
 
     public CurrentWorkout() {
     }
@@ -66,4 +69,20 @@ public class CurrentWorkout {
     public void setExerciseCount(int exerciseCount) {
         this.exerciseCount = exerciseCount;
     }
+
+    public int getTotalSets() {
+        return totalSets;
+    }
+
+    public void setTotalSets(int totalSets) {
+        this.totalSets = totalSets;
+    }
+
+    public int getTotalRestSeconds() {
+        return totalRestSeconds;
+    }
+
+    public void setTotalRestSeconds(int totalRestSeconds) {
+        this.totalRestSeconds = totalRestSeconds;
+    }
 }
@@ -8,6 +8,10 @@ public class Exercise {
     private int sets;
     private String reps;
     private String restTime;
+    /** Numeric forms of reps and restTime, 0 when the text has no number. */
+    private int repsMin;
+    private int repsMax;
+    private int restSeconds;
     private String imagePath;
     private List<String> equipment;
     private List<String> instructions;
@@ -64,6 +68,30 @@ public class Exercise {
         this.restTime = restTime;
     }
 
+    public int getRepsMin() {
+        return repsMin;
+    }
+
+    public void setRepsMin(int repsMin) {
+        this.repsMin = repsMin;
+    }
+
+    public int getRepsMax() {
+        return repsMax;
+    }
+
+    public void setRepsMax(int repsMax) {
+        this.repsMax = repsMax;
+    }
+
+    public int getRestSeconds() {
+        return restSeconds;
+    }
+
+    public void setRestSeconds(int restSeconds) {
+        this.restSeconds = restSeconds;
+    }
+
     public String getImagePath() {
         return imagePath;
     }
@@ -0,0 +1,124 @@
+package com.example.fitlife.models;
+
+/**
+ * A user's lifetime totals and personal records for one exercise, read from the exercise_records table.
+ * Loads and estimated one-rep maxes are 0 until a set is logged with a load.
+ */
+public class ExerciseRecord {
+    private long exerciseId;
+    private String exerciseName;
+    private int sessions;
+    private int totalSets;
+    private int totalReps;
+    private double totalVolume;
+    private int maxReps;
+    private long maxRepsAt;
+    private double maxLoad;
+    private double bestOneRepMax;
+    private long bestOneRepMaxAt;
+    private long lastPerformedAt;
+
+    public ExerciseRecord() {
+    }
+
+    public ExerciseRecord(long exerciseId, String exerciseName) {
+        this.exerciseId = exerciseId;
+        this.exerciseName = exerciseName;
+    }
+
+    public long getExerciseId() {
+        return exerciseId;
+    }
+
+    public void setExerciseId(long exerciseId) {
+        this.exerciseId = exerciseId;
+    }
+
+    public String getExerciseName() {
+        return exerciseName;
+    }
+
+    public void setExerciseName(String exerciseName) {
+        this.exerciseName = exerciseName;
+    }
+
+    public int getSessions() {
+        return sessions;
+    }
+
+    public void setSessions(int sessions) {
+        this.sessions = sessions;
+    }
+
+    public int getTotalSets() {
+        return totalSets;
+    }
+
+    public void setTotalSets(int totalSets) {
+        this.totalSets = totalSets;
+    }
+
+    public int getTotalReps() {
+        return totalReps;
+    }
+
+    public void setTotalReps(int totalReps) {
+        this.totalReps = totalReps;
+    }
+
+    public double getTotalVolume() {
+        return totalVolume;
+    }
+
+    public void setTotalVolume(double totalVolume) {
+        this.totalVolume = totalVolume;
+    }
+
+    public int getMaxReps() {
+        return maxReps;
+    }
+
+    public void setMaxReps(int maxReps) {
+        this.maxReps = maxReps;
+    }
+
+    public long getMaxRepsAt() {
+        return maxRepsAt;
+    }
+
+    public void setMaxRepsAt(long maxRepsAt) {
+        this.maxRepsAt = maxRepsAt;
+    }
+
+    public double getMaxLoad() {
+        return maxLoad;
+    }
+
+    public void setMaxLoad(double maxLoad) {
+        this.maxLoad = maxLoad;
+    }
+
+    public double getBestOneRepMax() {
+        return bestOneRepMax;
+    }
+
+    public void setBestOneRepMax(double bestOneRepMax) {
+        this.bestOneRepMax = bestOneRepMax;
+    }
+
+    public long getBestOneRepMaxAt() {
+        return bestOneRepMaxAt;
+    }
+
+    public void setBestOneRepMaxAt(long bestOneRepMaxAt) {
+        this.bestOneRepMaxAt = bestOneRepMaxAt;
+    }
+
+    public long getLastPerformedAt() {
+        return lastPerformedAt;
+    }
+
+    public void setLastPerformedAt(long lastPerformedAt) {
+        this.lastPerformedAt = lastPerformedAt;
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.fitlife.models;
+
+/**
+ * Totals of a user's completed sessions over one day, week or month, read from the user_rollups table.
+ * periodStart is the first day of the period in days since 1970-01-01 (weeks start on Monday).
+ */
+public class PeriodTotals {
+    public static final String PERIOD_DAY = "day";
+    public static final String PERIOD_WEEK = "week";
+    public static final String PERIOD_MONTH = "month";
+
+    private String periodType;
+    private long periodStart;
+    private int sessions;
+    private int sets;
+    private int reps;
+    private double volume;
+
+    public PeriodTotals() {
+    }
+
+    public PeriodTotals(String periodType, long periodStart, int sessions, int sets, int reps, double volume) {
+        this.periodType = periodType;
+        this.periodStart = periodStart;
+        this.sessions = sessions;
+        this.sets = sets;
+        this.reps = reps;
+        this.volume = volume;
+    }
+
+    public String getPeriodType() {
+        return periodType;
+    }
+
+    public void setPeriodType(String periodType) {
+        this.periodType = periodType;
+    }
+
+    public long getPeriodStart() {
+        return periodStart;
+    }
+
+    public void setPeriodStart(long periodStart) {
+        this.periodStart = periodStart;
+    }
+
+    public int getSessions() {
+        return sessions;
+    }
+
+    public void setSessions(int sessions) {
+        this.sessions = sessions;
+    }
+
+    public int getSets() {
+        return sets;
+    }
+
+    public void setSets(int sets) {
+        this.sets = sets;
+    }
+
+    public int getReps() {
+        return reps;
+    }
+
+    public void setReps(int reps) {
+        this.reps = reps;
+    }
+
+    public double getVolume() {
+        return volume;
+    }
+
+    public void setVolume(double volume) {
+        this.volume = volume;
+    }
+}
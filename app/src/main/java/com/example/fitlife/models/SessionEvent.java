@@ -0,0 +1,98 @@
+package com.example.fitlife.models;
+
+/**
+ * One row of the append-only session_events log: something that happened during a workout session,
+ * such as a completed set. Rows are never updated or deleted, so history outlives the current-workout tables.
+ */
+public class SessionEvent {
+    public static final String TYPE_SET_COMPLETED = "set_completed";
+    public static final String TYPE_EXERCISE_SKIPPED = "exercise_skipped";
+
+    private long id;
+    private long sessionId;
+    private long exerciseId;
+    private int setIndex;
+    private int reps;
+    private double load;
+    private long createdAt;
+    private String eventType;
+
+    public SessionEvent() {
+    }
+
+    public SessionEvent(long sessionId, long exerciseId, int setIndex, int reps, double load,
+                        long createdAt, String eventType) {
+        this.sessionId = sessionId;
+        this.exerciseId = exerciseId;
+        this.setIndex = setIndex;
+        this.reps = reps;
+        this.load = load;
+        this.createdAt = createdAt;
+        this.eventType = eventType;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public long getSessionId() {
+        return sessionId;
+    }
+
+    public void setSessionId(long sessionId) {
+        this.sessionId = sessionId;
+    }
+
+    public long getExerciseId() {
+        return exerciseId;
+    }
+
+    public void setExerciseId(long exerciseId) {
+        this.exerciseId = exerciseId;
+    }
+
+    public int getSetIndex() {
+        return setIndex;
+    }
+
+    public void setSetIndex(int setIndex) {
+        this.setIndex = setIndex;
+    }
+
+    public int getReps() {
+        return reps;
+    }
+
+    public void setReps(int reps) {
+        this.reps = reps;
+    }
+
+    /** Weight moved per rep; 0 when none was recorded (bodyweight or not entered). */
+    public double getLoad() {
+        return load;
+    }
+
+    public void setLoad(double load) {
+        this.load = load;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(long createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public String getEventType() {
+        return eventType;
+    }
+
+    public void setEventType(String eventType) {
+        this.eventType = eventType;
+    }
+}
@@ -4,6 +4,7 @@ public class User {
     private int userId;
     private String usernameEmail;
     private String password;
+    private String username;
 
     public User() {
     }
@@ -37,4 +38,12 @@ public class User {
     public void setPassword(String password) {
         this.password = password;
     }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
 }
@@ -6,6 +6,8 @@ public class UserStats {
     private int totalRoutines;
     private int totalExercises;
     private int activeDays;
+    private int currentStreak;
+    private int longestStreak;
 
     public UserStats() {
     }
@@ -57,4 +59,20 @@ public class UserStats {
     public void setActiveDays(int activeDays) {
         this.activeDays = activeDays;
     }
+
+    public int getCurrentStreak() {
+        return currentStreak;
+    }
+
+    public void setCurrentStreak(int currentStreak) {
+        this.currentStreak = currentStreak;
+    }
+
+    public int getLongestStreak() {
+        return longestStreak;
+    }
+
+    public void setLongestStreak(int longestStreak) {
+        this.longestStreak = longestStreak;
+    }
 }
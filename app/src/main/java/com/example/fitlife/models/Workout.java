@@ -6,6 +6,9 @@ public class Workout {
     private int userId;
     private String createdDate;
     private int exerciseCount;
+    /** Total sets in the routine and the rest they call for (sets x rest seconds), summed in SQL. */
+    private int totalSets;
+    private int totalRestSeconds;
 
     public Workout() {
     }
@@ -56,4 +59,20 @@ public class Workout {
     public void setExerciseCount(int exerciseCount) {
         this.exerciseCount = exerciseCount;
     }
+
+    public int getTotalSets() {
+        return totalSets;
+    }
+
+    public void setTotalSets(int totalSets) {
+        this.totalSets = totalSets;
+    }
+
+    public int getTotalRestSeconds() {
+        return totalRestSeconds;
+    }
+
+    public void setTotalRestSeconds(int totalRestSeconds) {
+        this.totalRestSeconds = totalRestSeconds;
+    }
 }
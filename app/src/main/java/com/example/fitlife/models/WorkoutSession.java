@@ -0,0 +1,115 @@
+package com.example.fitlife.models;
+
+/**
+ * Summary row for one performed workout session, compacted from its session_events.
+ * Keeps the workout name as it was, so history survives the routine being renamed or deleted.
+ */
+public class WorkoutSession {
+    public static final String STATUS_ACTIVE = "active";
+    public static final String STATUS_COMPLETED = "completed";
+    public static final String STATUS_ABANDONED = "abandoned";
+
+    private long sessionId;
+    private long workoutId;
+    private String workoutName;
+    private String status;
+    private long startedAt;
+    private long endedAt;
+    private int exercisesCompleted;
+    private int setsCompleted;
+    private int totalReps;
+    private double totalVolume;
+
+    public WorkoutSession() {
+    }
+
+    public WorkoutSession(long sessionId, long workoutId, String workoutName, String status, long startedAt, long endedAt) {
+        this.sessionId = sessionId;
+        this.workoutId = workoutId;
+        this.workoutName = workoutName;
+        this.status = status;
+        this.startedAt = startedAt;
+        this.endedAt = endedAt;
+    }
+
+    public long getSessionId() {
+        return sessionId;
+    }
+
+    public void setSessionId(long sessionId) {
+        this.sessionId = sessionId;
+    }
+
+    public long getWorkoutId() {
+        return workoutId;
+    }
+
+    public void setWorkoutId(long workoutId) {
+        this.workoutId = workoutId;
+    }
+
+    public String getWorkoutName() {
+        return workoutName;
+    }
+
+    public void setWorkoutName(String workoutName) {
+        this.workoutName = workoutName;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public long getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(long startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    /** 0 while the session is still active. */
+    public long getEndedAt() {
+        return endedAt;
+    }
+
+    public void setEndedAt(long endedAt) {
+        this.endedAt = endedAt;
+    }
+
+    public int getExercisesCompleted() {
+        return exercisesCompleted;
+    }
+
+    public void setExercisesCompleted(int exercisesCompleted) {
+        this.exercisesCompleted = exercisesCompleted;
+    }
+
+    public int getSetsCompleted() {
+        return setsCompleted;
+    }
+
+    public void setSetsCompleted(int setsCompleted) {
+        this.setsCompleted = setsCompleted;
+    }
+
+    public int getTotalReps() {
+        return totalReps;
+    }
+
+    public void setTotalReps(int totalReps) {
+        this.totalReps = totalReps;
+    }
+
+    public double getTotalVolume() {
+        return totalVolume;
+    }
+
+    public void setTotalVolume(double totalVolume) {
+        this.totalVolume = totalVolume;
+    }
+}
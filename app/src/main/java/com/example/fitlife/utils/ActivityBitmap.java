@@ -0,0 +1,141 @@
+package com.example.fitlife.utils;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.TimeZone;
+
+/**
+ * The days a user was active, one bit per local calendar day packed into longs.
+ * Bit i of word k is day firstDay + 64k + i, counted in days since 1970-01-01; firstDay is a multiple of 64
+ * so the bitmap grows by whole words in either direction. Marking a day is O(1) (amortized when it grows);
+ * counts and streaks go a word at a time with bit operations.
+ * Stored as an 8-byte first day followed by the words, so three years of history take about 150 bytes.
+ */
+public class ActivityBitmap {
+    private static final long DAY_MS = 24L * 60 * 60 * 1000;
+
+    private long firstDay;
+    private long[] words = new long[0];
+
+    /** The local calendar day containing the given time, in days since 1970-01-01. */
+    public static long epochDay(long timeMillis) {
+        return Math.floorDiv(timeMillis + TimeZone.getDefault().getOffset(timeMillis), DAY_MS);
+    }
+
+    /** Reads a bitmap written by toBytes(); null or empty means no activity yet. */
+    public static ActivityBitmap fromBytes(byte[] bytes) {
+        ActivityBitmap bitmap = new ActivityBitmap();
+        if (bytes == null || bytes.length < 8) {
+            return bitmap;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        bitmap.firstDay = buffer.getLong();
+        bitmap.words = new long[buffer.remaining() / 8];
+        for (int i = 0; i < bitmap.words.length; i++) {
+            bitmap.words[i] = buffer.getLong();
+        }
+        return bitmap;
+    }
+
+    public byte[] toBytes() {
+        int used = words.length;
+        while (used > 0 && words[used - 1] == 0) {
+            used--;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(8 + used * 8);
+        buffer.putLong(firstDay);
+        for (int i = 0; i < used; i++) {
+            buffer.putLong(words[i]);
+        }
+        return buffer.array();
+    }
+
+    /** Marks the day as active; returns false if it already was. */
+    public boolean mark(long day) {
+        long wordStart = Math.floorDiv(day, 64) * 64;
+        if (words.length == 0) {
+            firstDay = wordStart;
+            words = new long[1];
+        } else if (wordStart < firstDay) {
+            int shift = (int) ((firstDay - wordStart) / 64);
+            long[] grown = new long[words.length + shift];
+            System.arraycopy(words, 0, grown, shift, words.length);
+            words = grown;
+            firstDay = wordStart;
+        }
+        int index = (int) ((wordStart - firstDay) / 64);
+        if (index >= words.length) {
+            words = Arrays.copyOf(words, Math.max(index + 1, words.length * 2));
+        }
+        long bit = 1L << (day - wordStart);
+        if ((words[index] & bit) != 0) {
+            return false;
+        }
+        words[index] |= bit;
+        return true;
+    }
+
+    public boolean isActive(long day) {
+        if (day < firstDay) return false;
+        long offset = day - firstDay;
+        int index = (int) (offset / 64);
+        return index < words.length && (words[index] & (1L << (offset % 64))) != 0;
+    }
+
+    /** Number of active days. */
+    public int countDays() {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Consecutive active days ending today, or ending yesterday if today has no activity yet
+     * (the streak is only broken once a whole day is missed).
+     */
+    public int currentStreak(long today) {
+        long day = isActive(today) ? today : today - 1;
+        int streak = 0;
+        while (day >= firstDay) {
+            long offset = day - firstDay;
+            int index = (int) (offset / 64);
+            if (index >= words.length) break;
+            int bit = (int) (offset % 64);
+            // Move this day to the top bit; the run of ones from there goes back in time
+            int run = Long.numberOfLeadingZeros(~(words[index] << (63 - bit)));
+            streak += run;
+            if (run <= bit) break;
+            day -= run;
+        }
+        return streak;
+    }
+
+    /** The longest run of consecutive active days. */
+    public int longestStreak() {
+        int longest = 0;
+        int run = 0;
+        for (long word : words) {
+            if (word == -1L) {
+                run += 64;
+                continue;
+            }
+            // The low bits continue the run carried over from the previous word
+            longest = Math.max(longest, run + Long.numberOfTrailingZeros(~word));
+            longest = Math.max(longest, longestRun(word));
+            run = Long.numberOfLeadingZeros(~word);
+        }
+        return Math.max(longest, run);
+    }
+
+    /** Longest run of set bits within one word: each step shortens every run by one. */
+    private static int longestRun(long word) {
+        int length = 0;
+        while (word != 0) {
+            word &= word << 1;
+            length++;
+        }
+        return length;
+    }
+}
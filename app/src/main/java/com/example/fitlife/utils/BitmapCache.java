@@ -0,0 +1,101 @@
+package com.example.fitlife.utils;
+
+import android.app.ActivityManager;
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.graphics.Bitmap;
+import android.util.LruCache;
+import androidx.annotation.NonNull;
+
+/**
+ * In-memory cache of decoded exercise images, keyed by image path plus decoded size.
+ * Bounded to a fraction of the app's memory class and trimmed when the system asks for memory.
+ */
+public class BitmapCache implements ComponentCallbacks2 {
+    /** Share of the per-app heap limit the cache may use. */
+    private static final int MEMORY_CLASS_FRACTION = 8;
+
+    private static BitmapCache instance;
+
+    private final LruCache<String, Bitmap> cache;
+
+    public static synchronized BitmapCache getInstance(Context context) {
+        if (instance == null) {
+            Context appContext = context.getApplicationContext();
+            ActivityManager am = (ActivityManager) appContext.getSystemService(Context.ACTIVITY_SERVICE);
+            int maxBytes = am.getMemoryClass() * 1024 * 1024 / MEMORY_CLASS_FRACTION;
+            instance = new BitmapCache(maxBytes);
+            appContext.registerComponentCallbacks(instance);
+        }
+        return instance;
+    }
+
+    private BitmapCache(int maxBytes) {
+        cache = new LruCache<String, Bitmap>(maxBytes) {
+            @Override
+            protected int sizeOf(String key, Bitmap value) {
+                return value.getAllocationByteCount();
+            }
+        };
+    }
+
+    public static String key(String imagePath, int width, int height) {
+        return imagePath + "@" + width + "x" + height;
+    }
+
+    public Bitmap get(String key) {
+        return cache.get(key);
+    }
+
+    public void put(String key, Bitmap bitmap) {
+        if (bitmap != null) {
+            cache.put(key, bitmap);
+        }
+    }
+
+    /** Drops every cached size of the given image, e.g. after the file is deleted or replaced. */
+    public void evictPath(String imagePath) {
+        String prefix = imagePath + "@";
+        for (String key : cache.snapshot().keySet()) {
+            if (key.startsWith(prefix)) {
+                cache.remove(key);
+            }
+        }
+    }
+
+    public int getHitCount() {
+        return cache.hitCount();
+    }
+
+    public int getMissCount() {
+        return cache.missCount();
+    }
+
+    public int getSizeBytes() {
+        return cache.size();
+    }
+
+    public int getMaxSizeBytes() {
+        return cache.maxSize();
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        if (level >= TRIM_MEMORY_BACKGROUND || level == TRIM_MEMORY_RUNNING_CRITICAL) {
+            cache.evictAll();
+        } else if (level >= TRIM_MEMORY_RUNNING_LOW) {
+            // Includes TRIM_MEMORY_UI_HIDDEN: keep what is likely to be shown again when the user returns
+            cache.trimToSize(cache.maxSize() / 2);
+        }
+    }
+
+    @Override
+    public void onConfigurationChanged(@NonNull Configuration newConfig) {
+    }
+
+    @Override
+    public void onLowMemory() {
+        cache.evictAll();
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.fitlife.utils;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Parses the free-text reps and rest time fields into the numbers stored alongside them
+ * (reps_min, reps_max, rest_seconds). The text itself is kept for display.
+ * Anything that does not parse gives "unknown" rather than a guess.
+ */
+public class DoseParser {
+    /** "10", "8-12", "8 - 12", "8 to 12", "12 reps", "10 each side"; en and em dashes work too. */
+    private static final Pattern REP_RANGE = Pattern.compile(
+            "^\\s*(\\d{1,4})(?:\\s*(?:-|\\u2013|\\u2014|to)\\s*(\\d{1,4}))?\\b", Pattern.CASE_INSENSITIVE);
+    /** The sets part of "3x10" or "3 x 8-12", skipped so the reps after it are read. */
+    private static final Pattern SETS_PREFIX = Pattern.compile(
+            "^\\s*\\d{1,3}\\s*[x\\u00d7]\\s*(?=\\d)", Pattern.CASE_INSENSITIVE);
+    /** "1:30" as minutes and seconds. */
+    private static final Pattern CLOCK = Pattern.compile("^\\s*(\\d{1,3}):(\\d{2})\\s*$");
+    private static final String UNIT = "(seconds?|secs?|s|minutes?|mins?|m)";
+    /** A number with an optional unit, e.g. "60", "60s", "90 sec", "1.5 min", "2 minutes"; repeated in "1m 30s". */
+    private static final Pattern AMOUNT = Pattern.compile(
+            "(\\d+(?:\\.\\d+)?)\\s*" + UNIT + "?\\b", Pattern.CASE_INSENSITIVE);
+    /** The upper end of a range such as "1-2 min", whose unit also applies to the lower end. */
+    private static final Pattern RANGE_END = Pattern.compile(
+            "^\\s*(?:-|\\u2013|\\u2014|to)\\s*\\d+(?:\\.\\d+)?\\s*" + UNIT + "\\b", Pattern.CASE_INSENSITIVE);
+
+    /**
+     * Minimum and maximum reps, equal for a single number, or null when the text has no leading number.
+     * In the sets x reps form ("3x10") only the reps are read.
+     */
+    public static int[] repRange(String text) {
+        if (text == null) return null;
+        Matcher sets = SETS_PREFIX.matcher(text);
+        if (sets.find()) {
+            text = text.substring(sets.end());
+        }
+        Matcher matcher = REP_RANGE.matcher(text);
+        if (!matcher.find()) return null;
+        int min = Integer.parseInt(matcher.group(1));
+        int max = matcher.group(2) != null ? Integer.parseInt(matcher.group(2)) : min;
+        return new int[]{Math.min(min, max), Math.max(min, max)};
+    }
+
+    /**
+     * Rest time in seconds; a bare number counts as seconds and a range such as "60-90s" or "1-2 min"
+     * gives its lower end in the range's unit. Returns -1 when the text has no number.
+     */
+    public static int restSeconds(String text) {
+        if (text == null) return -1;
+        Matcher clock = CLOCK.matcher(text);
+        if (clock.find()) {
+            return Integer.parseInt(clock.group(1)) * 60 + Integer.parseInt(clock.group(2));
+        }
+        Matcher matcher = AMOUNT.matcher(text);
+        if (!matcher.find()) return -1;
+        String unit = matcher.group(2);
+        if (unit == null) {
+            Matcher rangeEnd = RANGE_END.matcher(text.substring(matcher.end()));
+            if (rangeEnd.find()) {
+                unit = rangeEnd.group(1);
+            }
+        }
+        double seconds = toSeconds(matcher.group(1), unit);
+        // "1m 30s" adds up; anything else after the first amount, e.g. the top of "60-90s", is ignored
+        if (isMinutes(unit) && matcher.find() && !isMinutes(matcher.group(2))) {
+            seconds += toSeconds(matcher.group(1), matcher.group(2));
+        }
+        return (int) Math.round(seconds);
+    }
+
+    private static boolean isMinutes(String unit) {
+        return unit != null && unit.toLowerCase().startsWith("m");
+    }
+
+    private static double toSeconds(String amount, String unit) {
+        return Double.parseDouble(amount) * (isMinutes(unit) ? 60 : 1);
+    }
+}
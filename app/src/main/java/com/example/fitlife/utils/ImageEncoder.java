@@ -0,0 +1,68 @@
+package com.example.fitlife.utils;
+
+import android.graphics.Bitmap;
+import android.os.Build;
+import java.io.OutputStream;
+
+/**
+ * Output format, quality and size cap used when exercise images and thumbnails are written.
+ * Pick one of the tiers below, or construct a custom encoder and pass it to
+ * {@link ImageHelper#setEncoder(ImageEncoder)}.
+ */
+public class ImageEncoder {
+    /** Stored exercise photos: lossy WebP, long edge capped at 2048 px. */
+    public static final ImageEncoder WEBP_PHOTO = webp(false, 80, 2048);
+    /** List and card thumbnails: smaller lossy WebP. */
+    public static final ImageEncoder WEBP_THUMBNAIL = webp(false, 70, 0);
+    /** Pixel-exact WebP, e.g. for diagrams or screenshots. */
+    public static final ImageEncoder WEBP_LOSSLESS = webp(true, 100, 2048);
+    /** The format used before WebP support; kept for comparison and rollback. */
+    public static final ImageEncoder JPEG = new ImageEncoder(Bitmap.CompressFormat.JPEG, 90, 2048, "image/jpeg", ".jpg");
+
+    private final Bitmap.CompressFormat format;
+    private final int quality;
+    private final int maxEdge;
+    private final String mimeType;
+    private final String extension;
+
+    public ImageEncoder(Bitmap.CompressFormat format, int quality, int maxEdge, String mimeType, String extension) {
+        this.format = format;
+        this.quality = quality;
+        this.maxEdge = maxEdge;
+        this.mimeType = mimeType;
+        this.extension = extension;
+    }
+
+    /**
+     * WEBP_LOSSY / WEBP_LOSSLESS exist from API 30; before that the single WEBP format
+     * is lossless at quality 100 and lossy below it.
+     */
+    @SuppressWarnings("deprecation")
+    private static ImageEncoder webp(boolean lossless, int quality, int maxEdge) {
+        Bitmap.CompressFormat format;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.R) {
+            format = lossless ? Bitmap.CompressFormat.WEBP_LOSSLESS : Bitmap.CompressFormat.WEBP_LOSSY;
+        } else {
+            format = Bitmap.CompressFormat.WEBP;
+            quality = lossless ? 100 : Math.min(quality, 99);
+        }
+        return new ImageEncoder(format, quality, maxEdge, "image/webp", ".webp");
+    }
+
+    public boolean encode(Bitmap bitmap, OutputStream out) {
+        return bitmap.compress(format, quality, out);
+    }
+
+    /** Longest edge in pixels an image is scaled down to before encoding; 0 means no cap. */
+    public int getMaxEdge() {
+        return maxEdge;
+    }
+
+    public String getMimeType() {
+        return mimeType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+}
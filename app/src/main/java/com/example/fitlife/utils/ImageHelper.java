@@ -1,12 +1,31 @@
 package com.example.fitlife.utils;
 
+import android.content.ContentResolver;
 import android.content.Context;
 import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
-import android.os.Environment;
+import android.graphics.Matrix;
+import android.media.ExifInterface;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.util.DisplayMetrics;
+import android.view.ViewGroup;
+import android.widget.ImageView;
+import com.example.fitlife.R;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Helper class for managing exercise images
@@ -14,43 +33,251 @@ import java.io.IOException;
  */
 public class ImageHelper {
     private static final String IMAGE_DIR = "exercise_images";
+    private static final int DECODE_THREADS = 2;
+    private static final int COPY_BUFFER_SIZE = 16 * 1024;
+    private static final String TMP_SUFFIX = ".tmp";
+    private static final int WEBP_HEADER_SIZE = 25;
+
+    private static volatile ImageEncoder encoder = ImageEncoder.WEBP_PHOTO;
+
+    private static final Handler MAIN_HANDLER = new Handler(Looper.getMainLooper());
+    private static final ExecutorService DECODE_EXECUTOR = Executors.newFixedThreadPool(DECODE_THREADS,
+            runnable -> new Thread(() -> {
+                Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                runnable.run();
+            }, "FitLife-image-decode"));
+
+    /** Receives the stored image path (or null on failure) on the main thread. */
+    public interface OnImageSavedListener {
+        void onImageSaved(String imagePath);
+    }
+
+    /** Runs {@link #saveImage(Context, Uri)} on the image pool and reports back on the main thread. */
+    public static void saveImageAsync(Context context, Uri imageUri, OnImageSavedListener listener) {
+        Context appContext = context.getApplicationContext();
+        DECODE_EXECUTOR.execute(() -> {
+            String imagePath = saveImage(appContext, imageUri);
+            MAIN_HANDLER.post(() -> listener.onImageSaved(imagePath));
+        });
+    }
+
+    /** Directory holding the stored exercise images. */
+    public static File getImageDir(Context context) {
+        return new File(context.getFilesDir(), IMAGE_DIR);
+    }
+
+    /** Encoder used for stored exercise images; thumbnails use ThumbnailStore's own tier. */
+    public static void setEncoder(ImageEncoder imageEncoder) {
+        encoder = imageEncoder;
+    }
+
+    public static ImageEncoder getEncoder() {
+        return encoder;
+    }
+
+    /**
+     * Stores a picked image in internal storage and returns the file path.
+     * An upright image already in the encoder's format and within its size cap is stream-copied
+     * as-is; anything else is decoded downsampled to the cap, rotated per its EXIF orientation and
+     * re-encoded, so the full-resolution bitmap is never held in memory.
+     * Files are content-addressed (SHA-256 of the stored bytes), so saving the same image twice
+     * returns the existing file. Runs on the calling thread.
+     */
+    public static String saveImage(Context context, Uri imageUri) {
+        ImageEncoder imageEncoder = encoder;
+        File tmpFile = newTmpFile(context);
+        ContentResolver resolver = context.getContentResolver();
+
+        try {
+            BitmapFactory.Options options = readBounds(resolver, imageUri);
+            if (options.outWidth <= 0 || options.outHeight <= 0) {
+                return null;
+            }
+            int orientation = readOrientation(resolver, imageUri);
+            int longEdge = Math.max(options.outWidth, options.outHeight);
+            int maxEdge = imageEncoder.getMaxEdge();
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+
+            if (imageEncoder.getMimeType().equals(options.outMimeType)
+                    && (maxEdge <= 0 || longEdge <= maxEdge) && !needsTransform(orientation)) {
+                try (InputStream in = resolver.openInputStream(imageUri);
+                     OutputStream out = new DigestOutputStream(new FileOutputStream(tmpFile), digest)) {
+                    if (in == null) return null;
+                    byte[] buffer = new byte[COPY_BUFFER_SIZE];
+                    int n;
+                    while ((n = in.read(buffer)) != -1) {
+                        out.write(buffer, 0, n);
+                    }
+                }
+                return commit(context, tmpFile, digest, imageEncoder, null);
+            }
+
+            options.inJustDecodeBounds = false;
+            options.inSampleSize = sampleSizeToFit(longEdge, maxEdge);
+            Bitmap bitmap;
+            try (InputStream in = resolver.openInputStream(imageUri)) {
+                bitmap = BitmapFactory.decodeStream(in, null, options);
+            }
+            if (bitmap == null) {
+                return null;
+            }
+            bitmap = applyOrientation(bitmap, orientation);
+            try (OutputStream out = new DigestOutputStream(new FileOutputStream(tmpFile), digest)) {
+                imageEncoder.encode(bitmap, out);
+            }
+            return commit(context, tmpFile, digest, imageEncoder, bitmap);
+        } catch (IOException | SecurityException | NoSuchAlgorithmException e) {
+            e.printStackTrace();
+            return null;
+        } finally {
+            // Left over unless it was renamed into place
+            if (tmpFile.exists()) {
+                tmpFile.delete();
+            }
+        }
+    }
 
     /**
-     * Saves bitmap image to internal storage and returns the file path
+     * Re-encodes an already stored image with the current encoder and returns the new path,
+     * or null if it could not be read. The original file is left for ImageGarbageCollector.
+     * Runs on the calling thread.
      */
-    public static String saveImage(Context context, Bitmap bitmap, String exerciseName) {
-        File imageDir = new File(context.getFilesDir(), IMAGE_DIR);
+    public static String reencodeImage(Context context, String imagePath) {
+        ImageEncoder imageEncoder = encoder;
+        File source = new File(imagePath);
+        if (!source.exists()) {
+            return null;
+        }
+        File tmpFile = newTmpFile(context);
+        try {
+            BitmapFactory.Options options = new BitmapFactory.Options();
+            options.inJustDecodeBounds = true;
+            BitmapFactory.decodeFile(imagePath, options);
+            if (options.outWidth <= 0 || options.outHeight <= 0) {
+                return null;
+            }
+            options.inJustDecodeBounds = false;
+            options.inSampleSize = sampleSizeToFit(Math.max(options.outWidth, options.outHeight), imageEncoder.getMaxEdge());
+            Bitmap bitmap = BitmapFactory.decodeFile(imagePath, options);
+            if (bitmap == null) {
+                return null;
+            }
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            try (OutputStream out = new DigestOutputStream(new FileOutputStream(tmpFile), digest)) {
+                imageEncoder.encode(bitmap, out);
+            }
+            return commit(context, tmpFile, digest, imageEncoder, bitmap);
+        } catch (IOException | NoSuchAlgorithmException e) {
+            e.printStackTrace();
+            return null;
+        } finally {
+            if (tmpFile.exists()) {
+                tmpFile.delete();
+            }
+        }
+    }
+
+    private static File newTmpFile(Context context) {
+        File imageDir = getImageDir(context);
         if (!imageDir.exists()) {
             imageDir.mkdirs();
         }
+        return new File(imageDir, "ingest_" + System.nanoTime() + TMP_SUFFIX);
+    }
+
+    /**
+     * Moves the written temp file to its content-addressed name and writes its thumbnails,
+     * or reuses the file already stored under that name.
+     */
+    private static String commit(Context context, File tmpFile, MessageDigest digest, ImageEncoder imageEncoder, Bitmap bitmap) {
+        File imageFile = new File(tmpFile.getParentFile(), toHex(digest.digest()) + imageEncoder.getExtension());
+        String imagePath = imageFile.getAbsolutePath();
+        if (imageFile.exists()) {
+            // Already stored: reuse it, and restart its GC grace period for the new reference
+            imageFile.setLastModified(System.currentTimeMillis());
+            return imagePath;
+        }
+        if (!tmpFile.renameTo(imageFile)) {
+            return null;
+        }
+        if (bitmap != null) {
+            ThumbnailStore.getInstance(context).generateAll(imagePath, bitmap);
+        } else {
+            ThumbnailStore.getInstance(context).generateAll(imagePath);
+        }
+        return imagePath;
+    }
 
-        String fileName = "exercise_" + exerciseName.replaceAll("[^a-zA-Z0-9]", "_") + "_" + System.currentTimeMillis() + ".jpg";
-        File imageFile = new File(imageDir, fileName);
+    /** Smallest power-of-two sample size that brings the long edge within maxEdge (0 = no cap). */
+    private static int sampleSizeToFit(int longEdge, int maxEdge) {
+        int inSampleSize = 1;
+        if (maxEdge <= 0) {
+            return inSampleSize;
+        }
+        while (longEdge / inSampleSize > maxEdge) {
+            inSampleSize *= 2;
+        }
+        return inSampleSize;
+    }
 
+    /**
+     * Decodes a content Uri downsampled to cover reqWidth x reqHeight, upright per EXIF.
+     * JPEGs and WebPs without alpha are decoded as RGB_565. Decodes on the calling thread.
+     */
+    public static Bitmap loadImage(ContentResolver resolver, Uri imageUri, int reqWidth, int reqHeight) {
         try {
-            FileOutputStream fos = new FileOutputStream(imageFile);
-            bitmap.compress(Bitmap.CompressFormat.JPEG, 90, fos);
-            fos.flush();
-            fos.close();
-            return imageFile.getAbsolutePath();
-        } catch (IOException e) {
+            BitmapFactory.Options options = readBounds(resolver, imageUri);
+            if (options.outWidth <= 0 || options.outHeight <= 0) {
+                return null;
+            }
+            int orientation = readOrientation(resolver, imageUri);
+            if (isQuarterTurn(orientation)) {
+                int swap = reqWidth;
+                reqWidth = reqHeight;
+                reqHeight = swap;
+            }
+            options.inSampleSize = calculateInSampleSize(options.outWidth, options.outHeight, reqWidth, reqHeight);
+            if (isOpaque(options.outMimeType, () -> resolver.openInputStream(imageUri))) {
+                options.inPreferredConfig = Bitmap.Config.RGB_565;
+            }
+            options.inJustDecodeBounds = false;
+            Bitmap bitmap;
+            try (InputStream in = resolver.openInputStream(imageUri)) {
+                bitmap = BitmapFactory.decodeStream(in, null, options);
+            }
+            return bitmap != null ? applyOrientation(bitmap, orientation) : null;
+        } catch (IOException | SecurityException e) {
             e.printStackTrace();
-            return null;
         }
+        return null;
     }
 
     /**
-     * Loads bitmap from file path
+     * Loads bitmap from file path, downsampled so it still covers reqWidth x reqHeight.
+     * JPEGs and WebPs without alpha are decoded as RGB_565. Decodes on the calling thread.
      */
-    public static Bitmap loadImage(String imagePath) {
+    public static Bitmap loadImage(String imagePath, int reqWidth, int reqHeight) {
         if (imagePath == null || imagePath.isEmpty()) {
             return null;
         }
         try {
             File imageFile = new File(imagePath);
-            if (imageFile.exists()) {
-                return BitmapFactory.decodeFile(imageFile.getAbsolutePath());
+            if (!imageFile.exists()) {
+                return null;
+            }
+            BitmapFactory.Options options = new BitmapFactory.Options();
+            options.inJustDecodeBounds = true;
+            BitmapFactory.decodeFile(imageFile.getAbsolutePath(), options);
+            if (options.outWidth <= 0 || options.outHeight <= 0) {
+                return null;
+            }
+            options.inSampleSize = calculateInSampleSize(options.outWidth, options.outHeight, reqWidth, reqHeight);
+            if (isOpaque(options.outMimeType, () -> new FileInputStream(imageFile))) {
+                // No alpha channel, so 2 bytes per pixel loses nothing visible on a card
+                options.inPreferredConfig = Bitmap.Config.RGB_565;
             }
+            options.inJustDecodeBounds = false;
+            return BitmapFactory.decodeFile(imageFile.getAbsolutePath(), options);
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -58,18 +285,222 @@ public class ImageHelper {
     }
 
     /**
-     * Deletes image file from storage
+     * Binds the image at the ImageView's size, from the BitmapCache when possible. On a miss the
+     * image is decoded on a background thread and bound on the main thread, but only if the view
+     * has not been rebound to another image in the meantime.
+     */
+    public static void loadImageAsync(ImageView imageView, String imagePath) {
+        loadImageAsync(imageView, imagePath, null);
+    }
+
+    /**
+     * Same as {@link #loadImageAsync(ImageView, String)}, but reads a pre-scaled thumbnail variant
+     * from the ThumbnailStore so the full-size original is only touched if the thumbnail is missing.
      */
-    public static boolean deleteImage(String imagePath) {
+    public static void loadImageAsync(ImageView imageView, String imagePath, String thumbnailVariant) {
+        imageView.setTag(R.id.tag_image_path, imagePath);
         if (imagePath == null || imagePath.isEmpty()) {
+            imageView.setImageDrawable(null);
+            return;
+        }
+        ThumbnailStore thumbnails = ThumbnailStore.getInstance(imageView.getContext());
+        int[] size = thumbnailVariant != null ? thumbnails.variantSize(thumbnailVariant) : targetSize(imageView);
+        BitmapCache cache = BitmapCache.getInstance(imageView.getContext());
+        String cacheKey = BitmapCache.key(imagePath, size[0], size[1]);
+        Bitmap cached = cache.get(cacheKey);
+        if (cached != null) {
+            imageView.setImageBitmap(cached);
+            return;
+        }
+        imageView.setImageDrawable(null);
+        DECODE_EXECUTOR.execute(() -> {
+            Bitmap bitmap = thumbnailVariant != null
+                    ? thumbnails.load(imagePath, thumbnailVariant)
+                    : loadImage(imagePath, size[0], size[1]);
+            cache.put(cacheKey, bitmap);
+            MAIN_HANDLER.post(() -> {
+                if (imagePath.equals(imageView.getTag(R.id.tag_image_path))) {
+                    imageView.setImageBitmap(bitmap);
+                }
+            });
+        });
+    }
+
+    /** Background, downsampled preview of a picked image that is not stored yet. */
+    public static void loadImageAsync(ImageView imageView, Uri imageUri) {
+        String tag = imageUri.toString();
+        imageView.setTag(R.id.tag_image_path, tag);
+        imageView.setImageDrawable(null);
+        int[] size = targetSize(imageView);
+        ContentResolver resolver = imageView.getContext().getApplicationContext().getContentResolver();
+        DECODE_EXECUTOR.execute(() -> {
+            Bitmap bitmap = loadImage(resolver, imageUri, size[0], size[1]);
+            MAIN_HANDLER.post(() -> {
+                if (tag.equals(imageView.getTag(R.id.tag_image_path))) {
+                    imageView.setImageBitmap(bitmap);
+                }
+            });
+        });
+    }
+
+    /** Largest power of two that keeps the decoded image at least reqWidth x reqHeight. */
+    static int calculateInSampleSize(int width, int height, int reqWidth, int reqHeight) {
+        int inSampleSize = 1;
+        if (reqWidth <= 0 || reqHeight <= 0) {
+            return inSampleSize;
+        }
+        int halfWidth = width / 2;
+        int halfHeight = height / 2;
+        while (halfWidth / inSampleSize >= reqWidth && halfHeight / inSampleSize >= reqHeight) {
+            inSampleSize *= 2;
+        }
+        return inSampleSize;
+    }
+
+    /** Opens the image again from the start; a stream can only be read once. */
+    private interface StreamSource {
+        InputStream open() throws IOException;
+    }
+
+    /**
+     * True for images with no alpha channel: every JPEG, and WebPs whose header says so. The header is
+     * read rather than trusting the tier that wrote the file, since stream-copied pictures keep their
+     * own encoding and a lossy WebP can still carry alpha.
+     */
+    private static boolean isOpaque(String mimeType, StreamSource source) {
+        if ("image/jpeg".equals(mimeType)) {
+            return true;
+        }
+        if (!"image/webp".equals(mimeType)) {
             return false;
         }
-        try {
-            File imageFile = new File(imagePath);
-            return imageFile.delete();
-        } catch (Exception e) {
-            e.printStackTrace();
+        byte[] header = new byte[WEBP_HEADER_SIZE];
+        try (InputStream in = source.open()) {
+            if (in == null) return false;
+            int read = 0;
+            int n;
+            while (read < header.length && (n = in.read(header, read, header.length - read)) != -1) {
+                read += n;
+            }
+            if (read < header.length) {
+                return false;
+            }
+        } catch (IOException | SecurityException e) {
+            return false;
+        }
+        return isOpaqueWebp(header);
+    }
+
+    /**
+     * Reads the alpha flag from the first chunk of a WebP file (RIFF header, then the chunk's
+     * FourCC at byte 12 and its payload at byte 20): simple lossy "VP8 " has no alpha, lossless
+     * "VP8L" has an alpha_is_used bit, and extended "VP8X" has an alpha flag.
+     */
+    static boolean isOpaqueWebp(byte[] header) {
+        if (header.length < WEBP_HEADER_SIZE || !fourCc(header, 0).equals("RIFF") || !fourCc(header, 8).equals("WEBP")) {
             return false;
         }
+        switch (fourCc(header, 12)) {
+            case "VP8 ":
+                return true;
+            case "VP8L":
+                // 14-bit width and height follow the 0x2f signature byte; bit 28 of that word is alpha_is_used
+                return (header[24] & 0x10) == 0;
+            case "VP8X":
+                return (header[20] & 0x10) == 0;
+            default:
+                return false;
+        }
+    }
+
+    private static String fourCc(byte[] bytes, int offset) {
+        return new String(bytes, offset, 4, StandardCharsets.US_ASCII);
+    }
+
+    private static BitmapFactory.Options readBounds(ContentResolver resolver, Uri imageUri) throws IOException {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        try (InputStream in = resolver.openInputStream(imageUri)) {
+            BitmapFactory.decodeStream(in, null, options);
+        }
+        return options;
+    }
+
+    private static int readOrientation(ContentResolver resolver, Uri imageUri) {
+        try (InputStream in = resolver.openInputStream(imageUri)) {
+            if (in == null) return ExifInterface.ORIENTATION_NORMAL;
+            return new ExifInterface(in).getAttributeInt(ExifInterface.TAG_ORIENTATION, ExifInterface.ORIENTATION_NORMAL);
+        } catch (IOException e) {
+            return ExifInterface.ORIENTATION_NORMAL;
+        }
+    }
+
+    private static boolean needsTransform(int orientation) {
+        return orientation != ExifInterface.ORIENTATION_NORMAL && orientation != ExifInterface.ORIENTATION_UNDEFINED;
+    }
+
+    private static boolean isQuarterTurn(int orientation) {
+        return orientation == ExifInterface.ORIENTATION_ROTATE_90 || orientation == ExifInterface.ORIENTATION_ROTATE_270
+                || orientation == ExifInterface.ORIENTATION_TRANSPOSE || orientation == ExifInterface.ORIENTATION_TRANSVERSE;
+    }
+
+    /** Returns the bitmap turned upright for the given EXIF orientation, recycling the input if a copy was made. */
+    private static Bitmap applyOrientation(Bitmap bitmap, int orientation) {
+        Matrix matrix = new Matrix();
+        switch (orientation) {
+            case ExifInterface.ORIENTATION_ROTATE_90:
+                matrix.postRotate(90);
+                break;
+            case ExifInterface.ORIENTATION_ROTATE_180:
+                matrix.postRotate(180);
+                break;
+            case ExifInterface.ORIENTATION_ROTATE_270:
+                matrix.postRotate(270);
+                break;
+            case ExifInterface.ORIENTATION_FLIP_HORIZONTAL:
+                matrix.postScale(-1, 1);
+                break;
+            case ExifInterface.ORIENTATION_FLIP_VERTICAL:
+                matrix.postScale(1, -1);
+                break;
+            case ExifInterface.ORIENTATION_TRANSPOSE:
+                matrix.postRotate(90);
+                matrix.postScale(-1, 1);
+                break;
+            case ExifInterface.ORIENTATION_TRANSVERSE:
+                matrix.postRotate(270);
+                matrix.postScale(-1, 1);
+                break;
+            default:
+                return bitmap;
+        }
+        Bitmap rotated = Bitmap.createBitmap(bitmap, 0, 0, bitmap.getWidth(), bitmap.getHeight(), matrix, true);
+        if (rotated != bitmap) {
+            bitmap.recycle();
+        }
+        return rotated;
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    /** Measured size, else fixed layout size, else the screen size as an upper bound. */
+    private static int[] targetSize(ImageView imageView) {
+        DisplayMetrics metrics = imageView.getResources().getDisplayMetrics();
+        ViewGroup.LayoutParams params = imageView.getLayoutParams();
+        int width = imageView.getWidth();
+        int height = imageView.getHeight();
+        if (width <= 0) {
+            width = (params != null && params.width > 0) ? params.width : metrics.widthPixels;
+        }
+        if (height <= 0) {
+            height = (params != null && params.height > 0) ? params.height : metrics.heightPixels;
+        }
+        return new int[]{width, height};
     }
 }
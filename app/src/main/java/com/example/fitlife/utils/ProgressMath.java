@@ -0,0 +1,36 @@
+package com.example.fitlife.utils;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+/**
+ * Formulas and calendar arithmetic for the progress rollups.
+ * Days are local calendar days counted from 1970-01-01, as returned by ActivityBitmap.epochDay().
+ */
+public class ProgressMath {
+    private static final long DAY_MS = 24L * 60 * 60 * 1000;
+
+    /** Weight moved in a set: reps x load. */
+    public static double volume(int reps, double load) {
+        return reps * load;
+    }
+
+    /** Epley estimate of the one-rep max for a set, or 0 when the set has no load. */
+    public static double estimatedOneRepMax(int reps, double load) {
+        if (reps <= 0 || load <= 0) return 0;
+        if (reps == 1) return load;
+        return load * (1 + reps / 30.0);
+    }
+
+    /** The Monday on or before the given day. 1970-01-01 was a Thursday. */
+    public static long weekStart(long day) {
+        return day - Math.floorMod(day + 3, 7);
+    }
+
+    /** The first day of the month containing the given day. */
+    public static long monthStart(long day) {
+        Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        calendar.setTimeInMillis(day * DAY_MS);
+        return day - (calendar.get(Calendar.DAY_OF_MONTH) - 1);
+    }
+}
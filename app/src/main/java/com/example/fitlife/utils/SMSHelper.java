@@ -4,6 +4,7 @@ import android.content.Context;
 import android.content.Intent;
 import android.net.Uri;
 import android.widget.Toast;
+import com.example.fitlife.models.Exercise;
 import java.util.List;
 
 /**
@@ -43,6 +44,45 @@ public class SMSHelper {
         return message.toString();
     }
 
+    /**
+     * Formats a full workout for SMS sharing: each exercise with sets/reps/rest,
+     * its equipment and its numbered instructions.
+     * Expects exercises loaded with DatabaseHelper.loadWorkoutAggregate.
+     */
+    public static String formatWorkoutDetailsForSMS(String workoutName, List<Exercise> exercises) {
+        StringBuilder message = new StringBuilder();
+        message.append("FitLife Workout: ").append(workoutName).append("\n\n");
+
+        int index = 0;
+        for (Exercise exercise : exercises) {
+            index++;
+            message.append("── ").append(index).append(". ").append(exercise.getName()).append(" ──\n");
+            message.append("  Sets: ").append(exercise.getSets()).append(", Reps: ").append(exercise.getReps());
+            String restTime = exercise.getRestTime();
+            if (restTime != null && !restTime.isEmpty()) {
+                message.append(", Rest: ").append(restTime);
+            }
+            message.append("\n");
+
+            List<String> equipment = exercise.getEquipment();
+            if (equipment != null && !equipment.isEmpty()) {
+                message.append("  Equipment: ").append(String.join(", ", equipment)).append("\n");
+            }
+
+            List<String> instructions = exercise.getInstructions();
+            if (instructions != null && !instructions.isEmpty()) {
+                message.append("  Instructions:\n");
+                for (int i = 0; i < instructions.size(); i++) {
+                    message.append("    ").append(i + 1).append(". ").append(instructions.get(i)).append("\n");
+                }
+            }
+            message.append("\n");
+        }
+
+        message.append("Shared from FitLife App");
+        return message.toString();
+    }
+
     /**
      * Opens SMS intent with formatted workout information
      */
@@ -0,0 +1,261 @@
+package com.example.fitlife.utils;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import org.json.JSONException;
+import org.json.JSONObject;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Pre-scaled thumbnails of exercise images, stored in files/thumbnails.
+ * manifest.json maps each original image path to its thumbnail file per variant.
+ * The directory is kept under a disk budget by evicting least recently used thumbnails;
+ * a missing thumbnail is regenerated from the original the next time it is requested.
+ * Disk work happens on the calling thread, so call off the main thread.
+ */
+public class ThumbnailStore {
+    /** Card in the exercise grid (item_exercise). */
+    public static final String VARIANT_LIST_CARD = "list_card";
+    /** Home recommendation card (item_exercise_recommendation). */
+    public static final String VARIANT_RECOMMENDATION = "recommendation";
+
+    private static final String THUMBNAIL_DIR = "thumbnails";
+    private static final String MANIFEST_FILE = "manifest.json";
+    private static final long DISK_BUDGET_BYTES = 8L * 1024 * 1024;
+    private static final ImageEncoder ENCODER = ImageEncoder.WEBP_THUMBNAIL;
+
+    private static ThumbnailStore instance;
+
+    private final File dir;
+    private final File manifestFile;
+    private final float density;
+    private JSONObject manifest;
+
+    public static synchronized ThumbnailStore getInstance(Context context) {
+        if (instance == null) {
+            instance = new ThumbnailStore(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private ThumbnailStore(Context context) {
+        dir = new File(context.getFilesDir(), THUMBNAIL_DIR);
+        manifestFile = new File(dir, MANIFEST_FILE);
+        density = context.getResources().getDisplayMetrics().density;
+    }
+
+    /** Pixel size (width, height) a variant is scaled to cover. */
+    public int[] variantSize(String variant) {
+        if (VARIANT_RECOMMENDATION.equals(variant)) {
+            return new int[]{dp(160), dp(120)};
+        }
+        return new int[]{dp(200), dp(100)};
+    }
+
+    /** Writes every variant for a freshly saved image from the bitmap already in memory. */
+    public void generateAll(String originalPath, Bitmap source) {
+        writeVariant(originalPath, VARIANT_LIST_CARD, source);
+        writeVariant(originalPath, VARIANT_RECOMMENDATION, source);
+    }
+
+    /** Writes every variant for an image stored without an in-memory copy, from one downsampled decode. */
+    public void generateAll(String originalPath) {
+        int[] list = variantSize(VARIANT_LIST_CARD);
+        int[] recommendation = variantSize(VARIANT_RECOMMENDATION);
+        Bitmap source = ImageHelper.loadImage(originalPath,
+                Math.max(list[0], recommendation[0]), Math.max(list[1], recommendation[1]));
+        if (source != null) {
+            generateAll(originalPath, source);
+        }
+    }
+
+    /** Decodes the thumbnail for the variant, regenerating it from the original if it is missing. */
+    public Bitmap load(String originalPath, String variant) {
+        File thumbnail = lookup(originalPath, variant);
+        if (thumbnail != null) {
+            // lastModified doubles as the access time for LRU eviction
+            thumbnail.setLastModified(System.currentTimeMillis());
+            BitmapFactory.Options options = new BitmapFactory.Options();
+            options.inPreferredConfig = Bitmap.Config.RGB_565;
+            Bitmap bitmap = BitmapFactory.decodeFile(thumbnail.getAbsolutePath(), options);
+            if (bitmap != null) {
+                return bitmap;
+            }
+        }
+        int[] size = variantSize(variant);
+        Bitmap source = ImageHelper.loadImage(originalPath, size[0], size[1]);
+        if (source == null) {
+            return null;
+        }
+        return writeVariant(originalPath, variant, source);
+    }
+
+    /** Deletes all thumbnails of an image, e.g. when the original is deleted. */
+    public synchronized void remove(String originalPath) {
+        JSONObject variants = manifest().optJSONObject(originalPath);
+        if (variants == null) return;
+        Iterator<String> keys = variants.keys();
+        while (keys.hasNext()) {
+            new File(dir, variants.optString(keys.next())).delete();
+        }
+        manifest.remove(originalPath);
+        saveManifest();
+    }
+
+    private synchronized File lookup(String originalPath, String variant) {
+        JSONObject variants = manifest().optJSONObject(originalPath);
+        if (variants == null) return null;
+        String fileName = variants.optString(variant, null);
+        if (fileName == null) return null;
+        File file = new File(dir, fileName);
+        return file.exists() ? file : null;
+    }
+
+    /** Scales the source to cover the variant size, writes it and records it in the manifest. */
+    private Bitmap writeVariant(String originalPath, String variant, Bitmap source) {
+        int[] size = variantSize(variant);
+        float scale = Math.max((float) size[0] / source.getWidth(), (float) size[1] / source.getHeight());
+        Bitmap scaled = source;
+        if (scale < 1f) {
+            scaled = Bitmap.createScaledBitmap(source,
+                    Math.max(1, Math.round(source.getWidth() * scale)),
+                    Math.max(1, Math.round(source.getHeight() * scale)), true);
+        }
+
+        String fileName = hash(originalPath) + "_" + variant + ENCODER.getExtension();
+        synchronized (this) {
+            if (!dir.exists()) {
+                dir.mkdirs();
+            }
+            try (FileOutputStream fos = new FileOutputStream(new File(dir, fileName))) {
+                ENCODER.encode(scaled, fos);
+            } catch (IOException e) {
+                e.printStackTrace();
+                return scaled;
+            }
+            try {
+                JSONObject variants = manifest().optJSONObject(originalPath);
+                if (variants == null) {
+                    variants = new JSONObject();
+                    manifest.put(originalPath, variants);
+                }
+                variants.put(variant, fileName);
+            } catch (JSONException e) {
+                e.printStackTrace();
+            }
+            enforceBudget();
+            saveManifest();
+        }
+        return scaled;
+    }
+
+    /** Deletes least recently used thumbnails until the directory fits the disk budget. */
+    private void enforceBudget() {
+        // .jpg: thumbnails written before the switch to WebP
+        File[] files = dir.listFiles((d, name) -> name.endsWith(".webp") || name.endsWith(".jpg"));
+        if (files == null) return;
+        long total = 0;
+        for (File file : files) {
+            total += file.length();
+        }
+        if (total <= DISK_BUDGET_BYTES) return;
+
+        Arrays.sort(files, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+        List<String> evicted = new ArrayList<>();
+        for (File file : files) {
+            if (total <= DISK_BUDGET_BYTES) break;
+            long length = file.length();
+            if (file.delete()) {
+                total -= length;
+                evicted.add(file.getName());
+            }
+        }
+
+        List<String> emptied = new ArrayList<>();
+        Iterator<String> paths = manifest.keys();
+        while (paths.hasNext()) {
+            String path = paths.next();
+            JSONObject variants = manifest.optJSONObject(path);
+            if (variants == null) continue;
+            List<String> stale = new ArrayList<>();
+            Iterator<String> keys = variants.keys();
+            while (keys.hasNext()) {
+                String variant = keys.next();
+                if (evicted.contains(variants.optString(variant))) {
+                    stale.add(variant);
+                }
+            }
+            for (String variant : stale) {
+                variants.remove(variant);
+            }
+            if (variants.length() == 0) {
+                emptied.add(path);
+            }
+        }
+        for (String path : emptied) {
+            manifest.remove(path);
+        }
+    }
+
+    private JSONObject manifest() {
+        if (manifest == null) {
+            manifest = new JSONObject();
+            if (manifestFile.exists()) {
+                try (FileInputStream fis = new FileInputStream(manifestFile)) {
+                    byte[] bytes = new byte[(int) manifestFile.length()];
+                    int read = 0;
+                    while (read < bytes.length) {
+                        int n = fis.read(bytes, read, bytes.length - read);
+                        if (n < 0) break;
+                        read += n;
+                    }
+                    manifest = new JSONObject(new String(bytes, 0, read, StandardCharsets.UTF_8));
+                } catch (IOException | JSONException e) {
+                    // A lost manifest only costs regeneration
+                    e.printStackTrace();
+                }
+            }
+        }
+        return manifest;
+    }
+
+    private void saveManifest() {
+        File tmp = new File(dir, MANIFEST_FILE + ".tmp");
+        try (FileOutputStream fos = new FileOutputStream(tmp)) {
+            fos.write(manifest().toString().getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;
+        }
+        tmp.renameTo(manifestFile);
+    }
+
+    private int dp(int value) {
+        return Math.round(value * density);
+    }
+
+    private static String hash(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            byte[] bytes = digest.digest(value.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder();
+            for (byte b : bytes) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            return Integer.toHexString(value.hashCode());
+        }
+    }
+}
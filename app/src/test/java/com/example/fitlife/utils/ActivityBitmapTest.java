@@ -0,0 +1,119 @@
+package com.example.fitlife.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ActivityBitmapTest {
+    // Days are raw epoch days so the tests do not depend on the default time zone
+    private static final long DAY = 20000;
+
+    @Test
+    public void emptyBitmap() {
+        ActivityBitmap bitmap = new ActivityBitmap();
+        assertEquals(0, bitmap.countDays());
+        assertEquals(0, bitmap.currentStreak(DAY));
+        assertEquals(0, bitmap.longestStreak());
+        assertFalse(bitmap.isActive(DAY));
+    }
+
+    @Test
+    public void emptyBytes() {
+        assertEquals(0, ActivityBitmap.fromBytes(null).countDays());
+        assertEquals(0, ActivityBitmap.fromBytes(new byte[0]).countDays());
+        assertEquals(0, ActivityBitmap.fromBytes(new ActivityBitmap().toBytes()).countDays());
+    }
+
+    @Test
+    public void markTwiceCountsOnce() {
+        ActivityBitmap bitmap = new ActivityBitmap();
+        assertTrue(bitmap.mark(DAY));
+        assertFalse(bitmap.mark(DAY));
+        assertEquals(1, bitmap.countDays());
+    }
+
+    @Test
+    public void streakAcrossWordBoundary() {
+        // 19968 is a multiple of 64, so days 19960-19975 straddle two words
+        ActivityBitmap bitmap = new ActivityBitmap();
+        for (long day = 19960; day <= 19975; day++) {
+            bitmap.mark(day);
+        }
+        assertEquals(16, bitmap.currentStreak(19975));
+        assertEquals(16, bitmap.longestStreak());
+        assertEquals(16, bitmap.countDays());
+    }
+
+    @Test
+    public void streakAcrossByteBoundaryAfterRoundTrip() {
+        ActivityBitmap bitmap = new ActivityBitmap();
+        for (long day = 19962; day <= 19972; day++) {
+            bitmap.mark(day);
+        }
+        ActivityBitmap read = ActivityBitmap.fromBytes(bitmap.toBytes());
+        assertEquals(11, read.currentStreak(19972));
+        assertEquals(11, read.longestStreak());
+        assertTrue(read.isActive(19967));
+        assertTrue(read.isActive(19968));
+        assertFalse(read.isActive(19973));
+    }
+
+    @Test
+    public void currentStreakWhenOnlyYesterdayIsActive() {
+        ActivityBitmap bitmap = new ActivityBitmap();
+        bitmap.mark(DAY - 3);
+        bitmap.mark(DAY - 2);
+        bitmap.mark(DAY - 1);
+        assertEquals(3, bitmap.currentStreak(DAY));
+    }
+
+    @Test
+    public void currentStreakBrokenByMissedDay() {
+        ActivityBitmap bitmap = new ActivityBitmap();
+        bitmap.mark(DAY - 5);
+        bitmap.mark(DAY - 4);
+        bitmap.mark(DAY - 2);
+        assertEquals(0, bitmap.currentStreak(DAY));
+        assertEquals(1, bitmap.currentStreak(DAY - 1));
+        assertEquals(2, bitmap.longestStreak());
+    }
+
+    @Test
+    public void growsForwardPastFirstAllocation() {
+        ActivityBitmap bitmap = new ActivityBitmap();
+        bitmap.mark(DAY);
+        bitmap.mark(DAY + 500);
+        assertTrue(bitmap.isActive(DAY));
+        assertTrue(bitmap.isActive(DAY + 500));
+        assertFalse(bitmap.isActive(DAY + 499));
+        assertEquals(2, bitmap.countDays());
+        assertEquals(1, bitmap.currentStreak(DAY + 500));
+    }
+
+    @Test
+    public void growsBackwardPastFirstAllocation() {
+        ActivityBitmap bitmap = new ActivityBitmap();
+        bitmap.mark(DAY);
+        bitmap.mark(DAY - 300);
+        assertTrue(bitmap.isActive(DAY));
+        assertTrue(bitmap.isActive(DAY - 300));
+        assertFalse(bitmap.isActive(DAY - 301));
+        assertEquals(2, bitmap.countDays());
+
+        ActivityBitmap read = ActivityBitmap.fromBytes(bitmap.toBytes());
+        assertTrue(read.isActive(DAY));
+        assertTrue(read.isActive(DAY - 300));
+        assertEquals(2, read.countDays());
+    }
+
+    @Test
+    public void longestStreakOfFullWord() {
+        ActivityBitmap bitmap = new ActivityBitmap();
+        // One whole word plus a day on each side
+        for (long day = 19967; day <= 20032; day++) {
+            bitmap.mark(day);
+        }
+        assertEquals(66, bitmap.longestStreak());
+        assertEquals(66, bitmap.currentStreak(20033));
+    }
+}
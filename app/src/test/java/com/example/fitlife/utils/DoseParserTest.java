@@ -0,0 +1,71 @@
+package com.example.fitlife.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class DoseParserTest {
+    @Test
+    public void repRange_singleNumber() {
+        assertArrayEquals(new int[]{10, 10}, DoseParser.repRange("10"));
+        assertArrayEquals(new int[]{12, 12}, DoseParser.repRange("12 reps"));
+        assertArrayEquals(new int[]{10, 10}, DoseParser.repRange("10 each side"));
+    }
+
+    @Test
+    public void repRange_range() {
+        assertArrayEquals(new int[]{8, 12}, DoseParser.repRange("8-12"));
+        assertArrayEquals(new int[]{8, 12}, DoseParser.repRange("8 - 12"));
+        assertArrayEquals(new int[]{8, 12}, DoseParser.repRange("8–12"));
+        assertArrayEquals(new int[]{8, 12}, DoseParser.repRange("8 to 12"));
+        assertArrayEquals(new int[]{8, 12}, DoseParser.repRange("12-8"));
+    }
+
+    @Test
+    public void repRange_setsTimesReps() {
+        assertArrayEquals(new int[]{10, 10}, DoseParser.repRange("3x10"));
+        assertArrayEquals(new int[]{8, 12}, DoseParser.repRange("3 x 8-12"));
+        assertArrayEquals(new int[]{10, 10}, DoseParser.repRange("4×10"));
+    }
+
+    @Test
+    public void repRange_unparseable() {
+        assertNull(DoseParser.repRange(null));
+        assertNull(DoseParser.repRange(""));
+        assertNull(DoseParser.repRange("AMRAP"));
+        assertNull(DoseParser.repRange("30s"));
+    }
+
+    @Test
+    public void restSeconds_seconds() {
+        assertEquals(60, DoseParser.restSeconds("60"));
+        assertEquals(60, DoseParser.restSeconds("60s"));
+        assertEquals(90, DoseParser.restSeconds("90 sec"));
+        assertEquals(45, DoseParser.restSeconds("45 seconds"));
+    }
+
+    @Test
+    public void restSeconds_minutes() {
+        assertEquals(120, DoseParser.restSeconds("2m"));
+        assertEquals(120, DoseParser.restSeconds("2 minutes"));
+        assertEquals(90, DoseParser.restSeconds("1.5 min"));
+        assertEquals(90, DoseParser.restSeconds("1m 30s"));
+        assertEquals(90, DoseParser.restSeconds("1:30"));
+    }
+
+    @Test
+    public void restSeconds_rangeTakesLowerEndInRangeUnit() {
+        assertEquals(60, DoseParser.restSeconds("60-90s"));
+        assertEquals(60, DoseParser.restSeconds("1-2 min"));
+        assertEquals(120, DoseParser.restSeconds("2-3 minutes"));
+        assertEquals(60, DoseParser.restSeconds("1 to 2 min"));
+        assertEquals(60, DoseParser.restSeconds("1 min - 2 min"));
+    }
+
+    @Test
+    public void restSeconds_unparseable() {
+        assertEquals(-1, DoseParser.restSeconds(null));
+        assertEquals(-1, DoseParser.restSeconds(""));
+        assertEquals(-1, DoseParser.restSeconds("rest"));
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.fitlife.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ProgressMathTest {
+    private static final double DELTA = 1e-9;
+
+    @Test
+    public void volume() {
+        assertEquals(500.0, ProgressMath.volume(10, 50), DELTA);
+        assertEquals(0.0, ProgressMath.volume(12, 0), DELTA);
+        assertEquals(0.0, ProgressMath.volume(0, 80), DELTA);
+        assertEquals(187.5, ProgressMath.volume(5, 37.5), DELTA);
+    }
+
+    @Test
+    public void estimatedOneRepMax_epley() {
+        // load * (1 + reps / 30)
+        assertEquals(133.33333333333334, ProgressMath.estimatedOneRepMax(10, 100), DELTA);
+        assertEquals(76.0, ProgressMath.estimatedOneRepMax(8, 60), DELTA);
+        assertEquals(120.0, ProgressMath.estimatedOneRepMax(30, 60), DELTA);
+    }
+
+    @Test
+    public void estimatedOneRepMax_singleIsTheLoad() {
+        assertEquals(140.0, ProgressMath.estimatedOneRepMax(1, 140), DELTA);
+    }
+
+    @Test
+    public void estimatedOneRepMax_noLoadOrReps() {
+        assertEquals(0.0, ProgressMath.estimatedOneRepMax(10, 0), DELTA);
+        assertEquals(0.0, ProgressMath.estimatedOneRepMax(0, 100), DELTA);
+        assertEquals(0.0, ProgressMath.estimatedOneRepMax(-1, 100), DELTA);
+    }
+
+    @Test
+    public void weekStart_isMonday() {
+        // 1970-01-01 (day 0) was a Thursday; Monday 1969-12-29 is day -3
+        assertEquals(-3, ProgressMath.weekStart(0));
+        assertEquals(-3, ProgressMath.weekStart(3));
+        assertEquals(4, ProgressMath.weekStart(4));
+        assertEquals(4, ProgressMath.weekStart(10));
+        // 2024-01-01 (day 19723) was a Monday
+        assertEquals(19723, ProgressMath.weekStart(19723));
+        assertEquals(19723, ProgressMath.weekStart(19729));
+        assertEquals(19730, ProgressMath.weekStart(19730));
+    }
+
+    @Test
+    public void monthStart() {
+        assertEquals(0, ProgressMath.monthStart(0));
+        assertEquals(0, ProgressMath.monthStart(30));
+        assertEquals(31, ProgressMath.monthStart(31));
+        // 2024-02-29 (day 19782) is in the month starting 2024-02-01 (day 19754)
+        assertEquals(19754, ProgressMath.monthStart(19782));
+        assertEquals(19783, ProgressMath.monthStart(19783));
+        // Before 1970: 1969-12-31 is day -1, 1969-12-01 is day -31
+        assertEquals(-31, ProgressMath.monthStart(-1));
+    }
+}